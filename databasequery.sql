@@ -18,3 +18,33 @@ CREATE TABLE blacklisted_token (
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP 
 );
 
+Schema changes:
+1)optimistic locking version columns
+ALTER TABLE reward_points ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE customer_transaction ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+2)idempotency_record
+CREATE TABLE idempotency_record (id SERIAL PRIMARY KEY,idempotency_key VARCHAR(255) NOT NULL UNIQUE,customer_id BIGINT NOT NULL,transaction_id BIGINT,request_fingerprint VARCHAR(64) NOT NULL,created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP);
+3)recompute_checkpoint
+CREATE TABLE recompute_checkpoint (id SERIAL PRIMARY KEY,job_id VARCHAR(255) NOT NULL,partition_index INT NOT NULL,range_start BIGINT NOT NULL,range_end BIGINT NOT NULL,last_customer_id BIGINT,status VARCHAR(20) NOT NULL,customers_processed BIGINT NOT NULL DEFAULT 0,transactions_processed BIGINT NOT NULL DEFAULT 0,months_written BIGINT NOT NULL DEFAULT 0,updated_at TIMESTAMP);
+CREATE INDEX idx_customer_transaction_customer_id ON customer_transaction (customer_id);
+4)reward points reconciliation
+CREATE INDEX idx_reward_points_customer_month ON reward_points (customer_id, year, month);
+5)points_expiry_bucket
+ALTER TABLE reward_points ADD COLUMN expired_points INT NOT NULL DEFAULT 0;
+CREATE TABLE points_expiry_bucket (id SERIAL PRIMARY KEY,due_date DATE NOT NULL UNIQUE,earned_year INT NOT NULL,earned_month INT NOT NULL,status VARCHAR(20) NOT NULL,last_reward_points_id BIGINT NOT NULL DEFAULT 0,rows_expired BIGINT NOT NULL DEFAULT 0,points_expired BIGINT NOT NULL DEFAULT 0,updated_at TIMESTAMP);
+CREATE INDEX idx_reward_points_year_month ON reward_points (year, month, id);
+6)reward_category
+CREATE TABLE reward_category (id SERIAL PRIMARY KEY,name VARCHAR(255) NOT NULL UNIQUE,multiplier NUMERIC(5,2) NOT NULL,keywords TEXT NOT NULL,updated_at TIMESTAMP);
+ALTER TABLE customer_transaction ADD COLUMN multiplier_percent INT NOT NULL DEFAULT 100;
+7)points redemption
+ALTER TABLE reward_points ADD COLUMN redeemed_points INT NOT NULL DEFAULT 0;
+CREATE TABLE points_account (customer_id BIGINT PRIMARY KEY,reserved_points BIGINT NOT NULL DEFAULT 0,redeemed_points BIGINT NOT NULL DEFAULT 0,updated_at TIMESTAMP);
+CREATE TABLE points_redemption (id SERIAL PRIMARY KEY,customer_id BIGINT NOT NULL,points INT NOT NULL,status VARCHAR(20) NOT NULL,reference VARCHAR(255),created_at TIMESTAMP NOT NULL,updated_at TIMESTAMP);
+CREATE INDEX idx_points_redemption_customer ON points_redemption (customer_id, id);
+CREATE INDEX idx_points_redemption_status ON points_redemption (status, created_at);
+8)customer_points_balance
+CREATE TABLE customer_points_balance (customer_id BIGINT PRIMARY KEY,points BIGINT NOT NULL DEFAULT 0,expired_points BIGINT NOT NULL DEFAULT 0,version BIGINT NOT NULL DEFAULT 0,updated_at TIMESTAMP);
+INSERT INTO customer_points_balance (customer_id,points,expired_points,version,updated_at) SELECT customer_id,SUM(points),SUM(expired_points),1,CURRENT_TIMESTAMP FROM reward_points GROUP BY customer_id;
+9)import_checkpoint
+CREATE TABLE import_checkpoint (id SERIAL PRIMARY KEY,job_id VARCHAR(255) NOT NULL,file_name VARCHAR(1024) NOT NULL,file_size BIGINT NOT NULL,file_modified BIGINT NOT NULL,chunk_index INT NOT NULL,range_start BIGINT NOT NULL,range_end BIGINT NOT NULL,status VARCHAR(20) NOT NULL,rows_imported BIGINT NOT NULL DEFAULT 0,rows_rejected BIGINT NOT NULL DEFAULT 0,months_updated BIGINT NOT NULL DEFAULT 0,updated_at TIMESTAMP);
+CREATE INDEX idx_import_checkpoint_job ON import_checkpoint (job_id, chunk_index);
@@ -0,0 +1,125 @@
+package com.infy.RewardPointCalculator.Util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Thread-safe Bloom filter for strings.
+ *
+ * A Bloom filter answers "definitely not seen" or "possibly seen" using a
+ * fixed-size bit array, independent of the length of the strings added. It is
+ * used in front of database lookups to skip the lookup for keys that were
+ * certainly never stored. False positives are possible, false negatives are
+ * not.
+ *
+ * @author rifat.bano
+ */
+public class BloomFilter {
+
+	private final AtomicLongArray bits;
+	private final long bitCount;
+	private final int hashCount;
+	private final long expectedInsertions;
+	private final AtomicLong insertions = new AtomicLong();
+
+	/**
+	 * Creates a Bloom filter sized for the expected number of entries and the
+	 * accepted false positive probability.
+	 *
+	 * @param expectedInsertions        Number of entries the filter is sized for.
+	 * @param falsePositiveProbability Accepted false positive rate at that size,
+	 *                                  for example 0.01.
+	 */
+	public BloomFilter(long expectedInsertions, double falsePositiveProbability) {
+		if (expectedInsertions <= 0) {
+			throw new IllegalArgumentException("Expected insertions must be positive");
+		}
+		if (falsePositiveProbability <= 0 || falsePositiveProbability >= 1) {
+			throw new IllegalArgumentException("False positive probability must be between 0 and 1");
+		}
+		long bitsNeeded = (long) Math.ceil(
+				-expectedInsertions * Math.log(falsePositiveProbability) / (Math.log(2) * Math.log(2)));
+		int words = (int) Math.max(1, (bitsNeeded + 63) / 64);
+		this.bits = new AtomicLongArray(words);
+		this.bitCount = words * 64L;
+		this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedInsertions * Math.log(2)));
+		this.expectedInsertions = expectedInsertions;
+	}
+
+	/**
+	 * Adds a value to the filter.
+	 *
+	 * @param value The value to add.
+	 */
+	public void put(String value) {
+		long hash = hash64(value);
+		int h1 = (int) hash;
+		int h2 = (int) (hash >>> 32);
+		for (int i = 1; i <= hashCount; i++) {
+			long bit = index(h1 + i * h2);
+			int word = (int) (bit >>> 6);
+			long mask = 1L << bit;
+			long current;
+			do {
+				current = bits.get(word);
+				if ((current & mask) != 0) {
+					break;
+				}
+			} while (!bits.compareAndSet(word, current, current | mask));
+		}
+		insertions.incrementAndGet();
+	}
+
+	/**
+	 * Checks whether a value may have been added to the filter.
+	 *
+	 * @param value The value to check.
+	 * @return False if the value was certainly never added, true if it possibly
+	 *         was.
+	 */
+	public boolean mightContain(String value) {
+		long hash = hash64(value);
+		int h1 = (int) hash;
+		int h2 = (int) (hash >>> 32);
+		for (int i = 1; i <= hashCount; i++) {
+			long bit = index(h1 + i * h2);
+			if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Tells whether more entries were added than the filter was sized for, which
+	 * makes the false positive rate grow beyond the configured one.
+	 *
+	 * @return True if the filter is saturated.
+	 */
+	public boolean isSaturated() {
+		return insertions.get() > expectedInsertions;
+	}
+
+	private long index(int combinedHash) {
+		// Flip negative hashes, like the double hashing scheme of Kirsch and
+		// Mitzenmacher
+		return (combinedHash < 0 ? ~combinedHash : combinedHash) % bitCount;
+	}
+
+	/**
+	 * 64 bit FNV-1a hash of the characters followed by a finalizer mix, so both
+	 * halves of the result are usable as independent hashes.
+	 */
+	private static long hash64(String value) {
+		long hash = 0xcbf29ce484222325L;
+		for (int i = 0; i < value.length(); i++) {
+			hash ^= value.charAt(i);
+			hash *= 0x100000001b3L;
+		}
+		hash ^= hash >>> 33;
+		hash *= 0xff51afd7ed558ccdL;
+		hash ^= hash >>> 33;
+		hash *= 0xc4ceb9fe1a85ec53L;
+		return hash ^ (hash >>> 33);
+	}
+}
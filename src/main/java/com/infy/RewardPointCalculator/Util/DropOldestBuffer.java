@@ -0,0 +1,83 @@
+package com.infy.RewardPointCalculator.Util;
+
+import java.util.List;
+
+/**
+ * Thread-safe bounded FIFO buffer that makes room for a new item by dropping
+ * the oldest one, so a slow consumer always gets the latest items and the
+ * memory held per consumer stays fixed.
+ *
+ * @param <T> The type of the items.
+ *
+ * @author rifat.bano
+ */
+public class DropOldestBuffer<T> {
+
+	private final Object[] items;
+	private int head;
+	private int size;
+	private long dropped;
+
+	/**
+	 * Creates an empty buffer.
+	 *
+	 * @param capacity The maximum number of items held.
+	 */
+	public DropOldestBuffer(int capacity) {
+		if (capacity <= 0) {
+			throw new IllegalArgumentException("Capacity must be positive");
+		}
+		items = new Object[capacity];
+	}
+
+	/**
+	 * Adds an item, dropping the oldest item if the buffer is full.
+	 *
+	 * @param item The item to add.
+	 * @return True if the oldest item was dropped to make room.
+	 */
+	public synchronized boolean offer(T item) {
+		boolean full = size == items.length;
+		if (full) {
+			head = (head + 1) % items.length;
+			size--;
+			dropped++;
+		}
+		items[(head + size) % items.length] = item;
+		size++;
+		return full;
+	}
+
+	/**
+	 * Moves all items to the target list, oldest first.
+	 *
+	 * @param target The list receiving the items.
+	 * @return The number of items moved.
+	 */
+	@SuppressWarnings("unchecked")
+	public synchronized int drainTo(List<? super T> target) {
+		int count = size;
+		for (int i = 0; i < count; i++) {
+			int index = (head + i) % items.length;
+			target.add((T) items[index]);
+			items[index] = null;
+		}
+		head = 0;
+		size = 0;
+		return count;
+	}
+
+	/**
+	 * @return The number of items held.
+	 */
+	public synchronized int size() {
+		return size;
+	}
+
+	/**
+	 * @return The number of items dropped since the buffer was created.
+	 */
+	public synchronized long dropped() {
+		return dropped;
+	}
+}
@@ -0,0 +1,185 @@
+package com.infy.RewardPointCalculator.Util;
+
+import java.util.Arrays;
+
+/**
+ * Hierarchical timing wheel holding entries (identified by a long) until their
+ * deadline, in whole ticks such as days.
+ *
+ * Every level has 64 slots. A slot of the lowest level covers one tick, a slot
+ * of the next level 64 ticks, the one above 4096 ticks and so on. An entry is
+ * placed on the lowest level whose range still covers its deadline. When the
+ * wheel reaches the start of a slot on a higher level, the entries of that slot
+ * are placed again, now on a lower level, until they reach the lowest level and
+ * expire. Advancing the wheel therefore only looks at the slots that are due,
+ * never at all entries. Deadlines beyond the highest level wait in an overflow
+ * list. Not thread-safe.
+ *
+ * @author rifat.bano
+ */
+public class HierarchicalTimingWheel {
+
+	/**
+	 * Receives the entries whose deadline was reached.
+	 */
+	@FunctionalInterface
+	public interface ExpiryVisitor {
+		void expired(long id, long deadline);
+	}
+
+	private static final int SLOT_BITS = 6;
+	private static final int SLOTS = 1 << SLOT_BITS;
+	private static final int SLOT_MASK = SLOTS - 1;
+
+	private final Slot[][] levels;
+	private final Slot overflow = new Slot();
+	private final Slot due = new Slot();
+	private long currentTime;
+	private int size;
+
+	/**
+	 * Creates an empty wheel.
+	 *
+	 * @param startTime  The current tick, for example today's epoch day.
+	 * @param levelCount Number of levels, covering 64^levelCount ticks ahead.
+	 */
+	public HierarchicalTimingWheel(long startTime, int levelCount) {
+		if (levelCount < 1 || levelCount > 10) {
+			throw new IllegalArgumentException("Level count must be between 1 and 10");
+		}
+		levels = new Slot[levelCount][SLOTS];
+		for (Slot[] level : levels) {
+			for (int slot = 0; slot < SLOTS; slot++) {
+				level[slot] = new Slot();
+			}
+		}
+		currentTime = startTime;
+	}
+
+	/**
+	 * Schedules an entry. An entry whose deadline has already been reached
+	 * expires on the next advance.
+	 *
+	 * @param id       The ID of the entry.
+	 * @param deadline The tick at which the entry expires.
+	 */
+	public void add(long id, long deadline) {
+		place(id, deadline);
+		size++;
+	}
+
+	/**
+	 * Advances the wheel tick by tick up to the given time and hands every
+	 * expired entry to the visitor, in the tick it expires in.
+	 *
+	 * @param time    The new current tick. Earlier ticks are ignored.
+	 * @param visitor Receives the expired entries.
+	 * @return The number of expired entries.
+	 */
+	public int advance(long time, ExpiryVisitor visitor) {
+		int expired = drain(due, visitor);
+		while (currentTime < time) {
+			currentTime++;
+			cascade();
+			expired += drain(levels[0][(int) (currentTime & SLOT_MASK)], visitor);
+			expired += drain(due, visitor);
+		}
+		return expired;
+	}
+
+	/**
+	 * @return The current tick.
+	 */
+	public long currentTime() {
+		return currentTime;
+	}
+
+	/**
+	 * @return The number of entries that have not expired yet.
+	 */
+	public int size() {
+		return size;
+	}
+
+	private void place(long id, long deadline) {
+		long delta = deadline - currentTime;
+		if (delta <= 0) {
+			due.add(id, deadline);
+			return;
+		}
+		for (int level = 0; level < levels.length; level++) {
+			int shift = SLOT_BITS * (level + 1);
+			if (shift >= Long.SIZE - 1 || delta < 1L << shift) {
+				levels[level][(int) ((deadline >>> (SLOT_BITS * level)) & SLOT_MASK)].add(id, deadline);
+				return;
+			}
+		}
+		overflow.add(id, deadline);
+	}
+
+	/**
+	 * Moves the entries of the higher-level slots starting at the current tick
+	 * down, highest level first, so they can cascade further in the same tick.
+	 */
+	private void cascade() {
+		int highest = 0;
+		while (highest < levels.length && (currentTime & ((1L << (SLOT_BITS * highest)) - 1)) == 0) {
+			highest++;
+		}
+		// The overflow is rechecked whenever the highest level wraps around
+		if (highest == levels.length && (currentTime & ((1L << (SLOT_BITS * levels.length)) - 1)) == 0) {
+			replace(overflow);
+		}
+		for (int level = Math.min(highest, levels.length) - 1; level >= 1; level--) {
+			replace(levels[level][(int) ((currentTime >>> (SLOT_BITS * level)) & SLOT_MASK)]);
+		}
+	}
+
+	private void replace(Slot slot) {
+		int count = slot.size;
+		if (count == 0) {
+			return;
+		}
+		long[] ids = Arrays.copyOf(slot.ids, count);
+		long[] deadlines = Arrays.copyOf(slot.deadlines, count);
+		slot.size = 0;
+		for (int i = 0; i < count; i++) {
+			place(ids[i], deadlines[i]);
+		}
+	}
+
+	private int drain(Slot slot, ExpiryVisitor visitor) {
+		int count = slot.size;
+		if (count == 0) {
+			return 0;
+		}
+		long[] ids = Arrays.copyOf(slot.ids, count);
+		long[] deadlines = Arrays.copyOf(slot.deadlines, count);
+		slot.size = 0;
+		size -= count;
+		for (int i = 0; i < count; i++) {
+			visitor.expired(ids[i], deadlines[i]);
+		}
+		return count;
+	}
+
+	/**
+	 * Entries of one slot, in two growable primitive arrays.
+	 */
+	private static class Slot {
+
+		private long[] ids = new long[4];
+		private long[] deadlines = new long[4];
+		private int size;
+
+		void add(long id, long deadline) {
+			if (size == ids.length) {
+				ids = Arrays.copyOf(ids, size * 2);
+				deadlines = Arrays.copyOf(deadlines, size * 2);
+			}
+			ids[size] = id;
+			deadlines[size] = deadline;
+			size++;
+		}
+	}
+}
@@ -0,0 +1,181 @@
+package com.infy.RewardPointCalculator.Util;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+
+/**
+ * Finds which of many keywords occur in a text in a single pass, using an
+ * Aho-Corasick automaton compiled into a transition table.
+ *
+ * Every keyword carries a value. Matching returns the highest value among the
+ * keywords found anywhere in the text, also inside longer words, ignoring
+ * case. The automaton is immutable once built, so one instance can be shared
+ * by any number of threads, and a changed keyword set is handled by building a
+ * new instance.
+ *
+ * The table has one row per trie node and one column per distinct keyword
+ * character, plus a column for all other characters. Failure links are folded
+ * into the table while building, so matching does one array lookup per
+ * character of the text and never backtracks.
+ *
+ * @author rifat.bano
+ */
+public class KeywordMatcher {
+
+	public static final int NO_MATCH = -1;
+
+	private final int[] asciiSymbols = new int[128];
+	private final Map<Character, Integer> otherSymbols = new HashMap<>();
+	private final int symbolCount;
+	private final int[] transitions;
+	private final int[] outputs;
+	private final int stateCount;
+	private final int maxValue;
+
+	/**
+	 * Compiles the automaton.
+	 *
+	 * @param keywords Keywords with their values. Values must not be negative.
+	 *                 Blank keywords are ignored.
+	 */
+	public KeywordMatcher(Map<String, Integer> keywords) {
+		// Symbol 0 stands for every character that occurs in no keyword
+		int symbols = 1;
+		int maxLength = 0;
+		int best = NO_MATCH;
+		for (Map.Entry<String, Integer> keyword : keywords.entrySet()) {
+			if (keyword.getValue() < 0) {
+				throw new IllegalArgumentException("Keyword values must not be negative: " + keyword.getKey());
+			}
+			String text = normalize(keyword.getKey());
+			for (int i = 0; i < text.length(); i++) {
+				char character = text.charAt(i);
+				if (symbolOf(character) == 0) {
+					if (character < 128) {
+						asciiSymbols[character] = symbols++;
+					} else {
+						otherSymbols.put(character, symbols++);
+					}
+				}
+			}
+			maxLength += text.length();
+			best = Math.max(best, keyword.getValue());
+		}
+		symbolCount = symbols;
+		maxValue = best;
+
+		// Trie of all keywords, -1 marking missing children
+		int[] table = new int[(maxLength + 1) * symbolCount];
+		Arrays.fill(table, -1);
+		int[] values = new int[maxLength + 1];
+		Arrays.fill(values, NO_MATCH);
+		int states = 1;
+		for (Map.Entry<String, Integer> keyword : keywords.entrySet()) {
+			String text = normalize(keyword.getKey());
+			if (text.isEmpty()) {
+				continue;
+			}
+			int state = 0;
+			for (int i = 0; i < text.length(); i++) {
+				int index = state * symbolCount + symbolOf(text.charAt(i));
+				if (table[index] < 0) {
+					table[index] = states++;
+				}
+				state = table[index];
+			}
+			values[state] = Math.max(values[state], keyword.getValue());
+		}
+
+		// Breadth-first, so the failure state of a node is complete before the node
+		int[] failures = new int[states];
+		Queue<Integer> queue = new ArrayDeque<>();
+		for (int symbol = 0; symbol < symbolCount; symbol++) {
+			int child = table[symbol];
+			if (child < 0) {
+				table[symbol] = 0;
+			} else {
+				failures[child] = 0;
+				queue.add(child);
+			}
+		}
+		while (!queue.isEmpty()) {
+			int state = queue.poll();
+			values[state] = Math.max(values[state], values[failures[state]]);
+			for (int symbol = 0; symbol < symbolCount; symbol++) {
+				int index = state * symbolCount + symbol;
+				int fallback = table[failures[state] * symbolCount + symbol];
+				if (table[index] < 0) {
+					table[index] = fallback;
+				} else {
+					failures[table[index]] = fallback;
+					queue.add(table[index]);
+				}
+			}
+		}
+
+		stateCount = states;
+		transitions = Arrays.copyOf(table, states * symbolCount);
+		outputs = Arrays.copyOf(values, states);
+	}
+
+	/**
+	 * Scans the text once.
+	 *
+	 * @param text The text to classify, may be null.
+	 * @return The highest value of the keywords found in the text, or
+	 *         {@link #NO_MATCH} if none occurs.
+	 */
+	public int match(CharSequence text) {
+		if (text == null || maxValue == NO_MATCH) {
+			return NO_MATCH;
+		}
+		int state = 0;
+		int best = NO_MATCH;
+		for (int i = 0; i < text.length(); i++) {
+			state = transitions[state * symbolCount + symbolOf(Character.toLowerCase(text.charAt(i)))];
+			int value = outputs[state];
+			if (value > best) {
+				best = value;
+				if (best == maxValue) {
+					break;
+				}
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * @return The number of states of the automaton, one per distinct keyword
+	 *         prefix.
+	 */
+	public int stateCount() {
+		return stateCount;
+	}
+
+	private int symbolOf(char character) {
+		if (character < 128) {
+			return asciiSymbols[character];
+		}
+		Integer symbol = otherSymbols.get(character);
+		return symbol != null ? symbol : 0;
+	}
+
+	/**
+	 * Lower-cases the keyword character by character, exactly like the text is
+	 * lower-cased while matching.
+	 */
+	private static String normalize(String keyword) {
+		if (keyword == null) {
+			return "";
+		}
+		String trimmed = keyword.trim();
+		StringBuilder normalized = new StringBuilder(trimmed.length());
+		for (int i = 0; i < trimmed.length(); i++) {
+			normalized.append(Character.toLowerCase(trimmed.charAt(i)));
+		}
+		return normalized.toString();
+	}
+}
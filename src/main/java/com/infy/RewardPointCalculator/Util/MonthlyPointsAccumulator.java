@@ -0,0 +1,98 @@
+package com.infy.RewardPointCalculator.Util;
+
+import java.util.Arrays;
+
+/**
+ * Collects the monthly point totals of one customer while their transactions
+ * are streamed, kept sorted by year and month in two small primitive arrays.
+ * The accumulator is cleared and reused for the next customer, so a scan over
+ * millions of transactions allocates nothing per row.
+ *
+ * @author rifat.bano
+ */
+public class MonthlyPointsAccumulator {
+
+	/**
+	 * Receives the monthly totals in year and month order.
+	 */
+	@FunctionalInterface
+	public interface MonthVisitor {
+		void visit(int year, int month, int points);
+	}
+
+	private int[] months = new int[16];
+	private int[] points = new int[16];
+	private int size;
+
+	/**
+	 * Adds points to the total of a month.
+	 *
+	 * @param year   The year of the transaction.
+	 * @param month  The month of the transaction (1-12).
+	 * @param amount The points to add.
+	 */
+	public void add(int year, int month, int amount) {
+		int key = year * 12 + month - 1;
+		int index = Arrays.binarySearch(months, 0, size, key);
+		if (index >= 0) {
+			points[index] += amount;
+			return;
+		}
+		index = -index - 1;
+		if (size == months.length) {
+			months = Arrays.copyOf(months, size * 2);
+			points = Arrays.copyOf(points, size * 2);
+		}
+		System.arraycopy(months, index, months, index + 1, size - index);
+		System.arraycopy(points, index, points, index + 1, size - index);
+		months[index] = key;
+		points[index] = amount;
+		size++;
+	}
+
+	/**
+	 * Calls the visitor for every month, oldest first.
+	 */
+	public void forEach(MonthVisitor visitor) {
+		for (int i = 0; i < size; i++) {
+			visitor.visit(months[i] / 12, months[i] % 12 + 1, points[i]);
+		}
+	}
+
+	/**
+	 * @return The year of the month at the given position in year and month
+	 *         order.
+	 */
+	public int yearAt(int index) {
+		return months[index] / 12;
+	}
+
+	/**
+	 * @return The month (1-12) at the given position in year and month order.
+	 */
+	public int monthAt(int index) {
+		return months[index] % 12 + 1;
+	}
+
+	/**
+	 * @return The points of the month at the given position in year and month
+	 *         order.
+	 */
+	public int pointsAt(int index) {
+		return points[index];
+	}
+
+	/**
+	 * @return The number of months with transactions.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Empties the accumulator for the next customer.
+	 */
+	public void clear() {
+		size = 0;
+	}
+}
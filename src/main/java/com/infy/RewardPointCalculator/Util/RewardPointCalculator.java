@@ -32,4 +32,17 @@ public class RewardPointCalculator {
 
 		return points;
 	}
+
+	/**
+	 * Calculates the reward points of a transaction with a category bonus.
+	 * 
+	 * @param amount            spent by the user for particular transaction
+	 * @param multiplierPercent bonus multiplier of the category in percent, 100
+	 *                          for none
+	 * @return point based on the calculation given by the formula, multiplied and
+	 *         rounded down
+	 */
+	public static int calculatePoints(double amount, int multiplierPercent) {
+		return (int) ((long) calculatePoints(amount) * multiplierPercent / 100);
+	}
 }
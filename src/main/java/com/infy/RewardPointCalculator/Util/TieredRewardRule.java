@@ -0,0 +1,90 @@
+package com.infy.RewardPointCalculator.Util;
+
+import java.util.Arrays;
+
+/**
+ * A reward rule made of tiers: every tier earns its points per dollar for the
+ * part of the amount above its threshold, up to the threshold of the next
+ * tier. The points of every tier are rounded down separately, like
+ * {@link RewardPointCalculator} does, so the tiers 50 at 1 point and 100 at 2
+ * points give exactly the current points.
+ *
+ * Immutable and thread-safe.
+ *
+ * @author rifat.bano
+ */
+public class TieredRewardRule {
+
+	private final double[] thresholds;
+	private final double[] pointsPerDollar;
+
+	/**
+	 * @param thresholds      The amount above which every tier starts, in
+	 *                        ascending order, without duplicates.
+	 * @param pointsPerDollar The points per dollar of every tier.
+	 */
+	public TieredRewardRule(double[] thresholds, double[] pointsPerDollar) {
+		if (thresholds.length != pointsPerDollar.length) {
+			throw new IllegalArgumentException("Every tier needs a threshold and points per dollar");
+		}
+		for (int i = 1; i < thresholds.length; i++) {
+			if (thresholds[i] <= thresholds[i - 1]) {
+				throw new IllegalArgumentException("Tier thresholds must be ascending and distinct");
+			}
+		}
+		this.thresholds = Arrays.copyOf(thresholds, thresholds.length);
+		this.pointsPerDollar = Arrays.copyOf(pointsPerDollar, pointsPerDollar.length);
+	}
+
+	/**
+	 * @param amount spent by the user for particular transaction
+	 * @return point based on the tiers of this rule
+	 */
+	public int calculatePoints(double amount) {
+		int points = 0;
+		for (int tier = thresholds.length - 1; tier >= 0; tier--) {
+			if (amount > thresholds[tier]) {
+				points += (int) ((amount - thresholds[tier]) * pointsPerDollar[tier]);
+				amount = thresholds[tier];
+			}
+		}
+		return points;
+	}
+
+	/**
+	 * @param amount spent by the user for particular transaction
+	 * @return The highest tier whose threshold the amount is above, or -1 if it
+	 *         earns nothing.
+	 */
+	public int tierOf(double amount) {
+		int tier = thresholds.length - 1;
+		while (tier >= 0 && amount <= thresholds[tier]) {
+			tier--;
+		}
+		return tier;
+	}
+
+	/**
+	 * @return The number of tiers.
+	 */
+	public int tierCount() {
+		return thresholds.length;
+	}
+
+	/**
+	 * @return The amount above which the given tier starts.
+	 */
+	public double thresholdOf(int tier) {
+		return thresholds[tier];
+	}
+
+	/**
+	 * @param amount            spent by the user for particular transaction
+	 * @param multiplierPercent bonus multiplier of the category in percent, 100
+	 *                          for none
+	 * @return point based on the tiers of this rule, multiplied and rounded down
+	 */
+	public int calculatePoints(double amount, int multiplierPercent) {
+		return (int) ((long) calculatePoints(amount) * multiplierPercent / 100);
+	}
+}
@@ -0,0 +1,51 @@
+package com.infy.RewardPointCalculator.config;
+
+import java.io.IOException;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import com.infy.RewardPointCalculator.service.EndpointLatencyService;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Measures every request, including authentication, and records its latency
+ * under the route pattern it matched, its method and its status. Streams are
+ * not recorded, their request ends when the stream is opened.
+ *
+ * @author rifat.bano
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class EndpointLatencyFilter extends OncePerRequestFilter {
+
+	private final EndpointLatencyService endpointLatencyService;
+
+	@Autowired
+	public EndpointLatencyFilter(EndpointLatencyService endpointLatencyService) {
+		this.endpointLatencyService = endpointLatencyService;
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+			throws ServletException, IOException {
+		long start = System.nanoTime();
+		try {
+			filterChain.doFilter(request, response);
+		} finally {
+			if (!request.isAsyncStarted()) {
+				endpointLatencyService.record(request.getMethod(),
+						(String) request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE),
+						response.getStatus(), System.nanoTime() - start);
+			}
+		}
+	}
+}
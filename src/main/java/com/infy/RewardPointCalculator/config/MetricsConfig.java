@@ -0,0 +1,52 @@
+package com.infy.RewardPointCalculator.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.config.MeterFilter;
+
+/**
+ * Micrometer setup. Enables the @Timed annotation on the services and bounds
+ * the number of distinct tag values of the high-traffic meters, so an
+ * unexpected tag value, such as a URI that matched no route, cannot grow the
+ * registry without limit. Meters over the limit are dropped instead.
+ *
+ * @author rifat.bano
+ */
+@Configuration
+public class MetricsConfig {
+
+	public static final String SERVICE_TIMER = "rewards.service";
+
+	@Bean
+	public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+		return new TimedAspect(meterRegistry);
+	}
+
+	@Bean
+	public MeterFilter httpUriTagLimit(@Value("${rewards.metrics.max-uri-tags:200}") int maxUriTags) {
+		return MeterFilter.maximumAllowableTags("http.server.requests", "uri", maxUriTags, MeterFilter.deny());
+	}
+
+	@Bean
+	public MeterFilter serviceMethodTagLimit(@Value("${rewards.metrics.max-method-tags:200}") int maxMethodTags) {
+		return MeterFilter.maximumAllowableTags(SERVICE_TIMER, "method", maxMethodTags, MeterFilter.deny());
+	}
+
+	@Bean
+	public MeterFilter repositoryMethodTagLimit(@Value("${rewards.metrics.max-method-tags:200}") int maxMethodTags) {
+		return MeterFilter.maximumAllowableTags("spring.data.repository.invocations", "method", maxMethodTags,
+				MeterFilter.deny());
+	}
+
+	/**
+	 * Identifiers of customers, transactions and tokens never become tags.
+	 */
+	@Bean
+	public MeterFilter identifierTagFilter() {
+		return MeterFilter.ignoreTags("customerId", "transactionId", "email", "token");
+	}
+}
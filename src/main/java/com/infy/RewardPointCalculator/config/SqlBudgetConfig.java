@@ -0,0 +1,31 @@
+package com.infy.RewardPointCalculator.config;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.infy.RewardPointCalculator.sql.StatementCountingDataSource;
+
+/**
+ * Wraps the application's DataSource so that the SQL statements of each
+ * request can be counted against its budget.
+ *
+ * @author rifat.bano
+ */
+@Configuration
+@ConditionalOnProperty(name = "rewards.sql.tracking.enabled", havingValue = "true", matchIfMissing = true)
+public class SqlBudgetConfig {
+
+	@Bean
+	public static BeanPostProcessor statementCountingDataSourcePostProcessor() {
+		return new BeanPostProcessor() {
+			@Override
+			public Object postProcessAfterInitialization(Object bean, String beanName) {
+				return bean instanceof DataSource dataSource ? StatementCountingDataSource.wrap(dataSource) : bean;
+			}
+		};
+	}
+}
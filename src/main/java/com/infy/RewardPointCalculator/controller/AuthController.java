@@ -3,6 +3,7 @@ package com.infy.RewardPointCalculator.controller;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -17,6 +18,7 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
 import com.infy.RewardPointCalculator.dto.LoginResponseDTO;
 import com.infy.RewardPointCalculator.model.Customer;
 import com.infy.RewardPointCalculator.service.CustomerService;
@@ -58,7 +60,7 @@ public class AuthController {
 	@PostMapping("/login")
 	public ResponseEntity<?> authenticateUser(@RequestBody Customer authenticationRequest) {
 		try {
-			log.info("Authenticating user: " + authenticationRequest.getEmail());
+			log.info("Authenticating user: {}", authenticationRequest.getEmail());
 
 			Authentication authentication = authenticationManager.authenticate(new UsernamePasswordAuthenticationToken(
 					authenticationRequest.getEmail(), authenticationRequest.getPassword()));
@@ -66,18 +68,37 @@ public class AuthController {
 			SecurityContextHolder.getContext().setAuthentication(authentication);
 
 			String jwt = jwtTokenProvider.createToken(authentication);
-			log.info("JWT Token created: " + jwt);
+			log.debug("JWT Token created for user: {}", authentication.getName());
 
 			return ResponseEntity.ok(new LoginResponseDTO(jwt));
 		} catch (BadCredentialsException e) {
 			log.error("Invalid credentials provided.");
 			return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Invalid credentials");
 		} catch (Exception e) {
-			log.error("Authentication error: " + e.getMessage());
+			ResponseStatusException rejected = findResponseStatus(e);
+			if (rejected != null) {
+				// The password hashing pool is saturated, the client should retry shortly
+				return ResponseEntity.status(rejected.getStatusCode()).header(HttpHeaders.RETRY_AFTER, "1")
+						.body(rejected.getReason());
+			}
+			log.error("Authentication error: {}", e.getMessage());
 			return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Authentication error");
 		}
 	}
 
+	/**
+	 * Spring Security wraps some exceptions of the authentication, so the cause
+	 * chain is searched.
+	 */
+	private static ResponseStatusException findResponseStatus(Throwable e) {
+		for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+			if (cause instanceof ResponseStatusException responseStatus) {
+				return responseStatus;
+			}
+		}
+		return null;
+	}
+
 	@GetMapping("/test")
 	public ResponseEntity<?> test() {
 		return ResponseEntity.ok(" you have access now  ");
@@ -99,10 +120,9 @@ public class AuthController {
 	@PostMapping("/logout")
 	public ResponseEntity<String> logout(@RequestHeader("Authorization") String token) {
 		try {
-			log.info("Logout request received. Token length: {}", token);
+			log.info("Logout request received.");
 			// Remove "Bearer " prefix from the Authorization header
 			String jwtToken = token.substring(7);
-			log.debug("JWT token extracted: {}", jwtToken);
 			// Call the logout method from CustomerService to blacklist the token
 			customerService.logout(jwtToken);
 			log.info("Successfully logged out.");
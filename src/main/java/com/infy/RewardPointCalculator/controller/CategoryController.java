@@ -0,0 +1,73 @@
+package com.infy.RewardPointCalculator.controller;
+
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.infy.RewardPointCalculator.dto.RewardCategoryDTO;
+import com.infy.RewardPointCalculator.model.RewardCategory;
+import com.infy.RewardPointCalculator.service.CategoryMultiplierService;
+
+/**
+ * CategoryController manages the spending categories and their reward point
+ * multipliers.
+ * 
+ * @author rifat.bano
+ */
+@RestController
+@RequestMapping("/api/admin/categories")
+@PreAuthorize("hasRole('ADMIN')")
+public class CategoryController {
+
+	private static final Logger log = LoggerFactory.getLogger(CategoryController.class);
+
+	@Autowired
+	private CategoryMultiplierService categoryMultiplierService;
+
+	/**
+	 * Get all categories.
+	 * 
+	 * @return ResponseEntity with the categories, ordered by name.
+	 */
+	@GetMapping
+	public ResponseEntity<List<RewardCategory>> getCategories() {
+		try {
+			return ResponseEntity.ok(categoryMultiplierService.getCategories());
+		} catch (Exception e) {
+			log.error("Error occurred while fetching the reward categories", e);
+			return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(null);
+		}
+	}
+
+	/**
+	 * Replaces all categories. Transactions are classified with the new
+	 * categories right after the call returns.
+	 * 
+	 * @param categories The new categories.
+	 * @return ResponseEntity with the stored categories, or 400 if a category is
+	 *         invalid.
+	 */
+	@PutMapping
+	public ResponseEntity<List<RewardCategory>> replaceCategories(@RequestBody List<RewardCategoryDTO> categories) {
+		try {
+			return ResponseEntity.ok(categoryMultiplierService.replaceCategories(categories));
+		} catch (ResponseStatusException e) {
+			log.warn("Reward categories not replaced: {}", e.getReason());
+			return ResponseEntity.status(e.getStatusCode()).body(null);
+		} catch (Exception e) {
+			log.error("Error occurred while replacing the reward categories", e);
+			return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(null);
+		}
+	}
+}
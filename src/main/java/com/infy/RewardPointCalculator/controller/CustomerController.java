@@ -53,6 +53,10 @@ public class CustomerController {
 			log.error("Email conflict while registering user with email: {}", customerDTO.getEmail(), e);
 			// Handling case where email already exists (unique constraint violation)
 			throw new ResponseStatusException(HttpStatus.CONFLICT, "Email is already in use", e);
+		} catch (ResponseStatusException e) {
+			// Keeps the status chosen by the service, for example 503 while the password
+			// hashing pool is saturated
+			throw e;
 		} catch (Exception e) {
 			log.error("An error occurred while registering customer with email: {}", customerDTO.getEmail(), e);
 			// Handling unexpected exceptions
@@ -12,14 +12,21 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
 import com.infy.RewardPointCalculator.Util.UserUtil;
 import com.infy.RewardPointCalculator.dto.CustomerTransactionDTO;
+import com.infy.RewardPointCalculator.dto.TransactionSubmissionResult;
 import com.infy.RewardPointCalculator.model.Customer;
 import com.infy.RewardPointCalculator.model.CustomerTransaction;
 import com.infy.RewardPointCalculator.repository.CustomerRepository;
 import com.infy.RewardPointCalculator.service.CustomerTransactionService;
+import com.infy.RewardPointCalculator.service.DataVersionService;
+import com.infy.RewardPointCalculator.service.IdempotencyService;
+import com.infy.RewardPointCalculator.sql.SqlBudget;
 import jakarta.validation.Valid;
 
 /**
@@ -40,18 +47,28 @@ public class CustomerTransactionController {
 	@Autowired
 	private CustomerRepository customerRepository; // To fetch customer details by email
 
+	@Autowired
+	private IdempotencyService idempotencyService;
+
+	@Autowired
+	private DataVersionService dataVersionService;
+
 	/**
 	 * Get all transactions for the logged-in user.
 	 * 
 	 * This endpoint fetches all transactions for the currently authenticated user
 	 * by retrieving their transactions from the transaction service and returns
-	 * them in the response body.
+	 * them in the response body. The response carries an ETag, and a request
+	 * with the current ETag in If-None-Match is answered with 304 Not Modified
+	 * without reading the transactions.
 	 * 
+	 * @param webRequest The request, used to check the If-None-Match header.
 	 * @return ResponseEntity with a list of customer transactions or an error
 	 *         message if an issue occurs
 	 */
 	@GetMapping
-	public ResponseEntity<List<CustomerTransaction>> getTransactions() {
+	@SqlBudget(6)
+	public ResponseEntity<List<CustomerTransaction>> getTransactions(WebRequest webRequest) {
 		String loggedInUsername = UserUtil.getLoggedInUsername(); // Get logged-in username
 
 		if (loggedInUsername == null) {
@@ -66,7 +83,13 @@ public class CustomerTransactionController {
 				return new RuntimeException("Customer not found");
 			});
 
-			List<CustomerTransaction> transactions = transactionService.getTransactions(customer.getId());
+			// The ETag and the body come from the same data version
+			long version = dataVersionService.version(customer.getId());
+			if (dataVersionService.checkNotModified(webRequest, customer.getId(), "transactions", version)) {
+				return null; // 304 Not Modified, set by the check
+			}
+
+			List<CustomerTransaction> transactions = transactionService.getTransactions(customer.getId(), version);
 			log.info("Fetched {} transactions for customer with email: {}", transactions.size(), loggedInUsername);
 			return ResponseEntity.ok(transactions);
 
@@ -83,13 +106,20 @@ public class CustomerTransactionController {
 	 * submitting transaction details in the request body. The transaction is added
 	 * via the transaction service.
 	 * 
+	 * When the client sends an Idempotency-Key header, a retry with the same key
+	 * returns the transaction created by the first request, marked with the
+	 * Idempotent-Replayed header, instead of creating a duplicate. A key reused
+	 * with a different request is answered with 422.
+	 * 
 	 * @param transactionDTO Data transfer object containing the transaction details
+	 * @param idempotencyKey Optional key identifying the submission across retries
 	 * @return ResponseEntity with the newly created transaction or an error message
 	 *         if the operation fails
 	 */
 	@PostMapping
-	public ResponseEntity<CustomerTransaction> addTransaction(
-			@RequestBody @Valid CustomerTransactionDTO transactionDTO) {
+	@SqlBudget(16)
+	public ResponseEntity<CustomerTransaction> addTransaction(@RequestBody @Valid CustomerTransactionDTO transactionDTO,
+			@RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
 		String loggedInUsername = UserUtil.getLoggedInUsername(); // Get logged-in username
 
 		if (loggedInUsername == null) {
@@ -104,10 +134,29 @@ public class CustomerTransactionController {
 				return new RuntimeException("Customer not found");
 			});
 
+			if (idempotencyKey != null) {
+				if (idempotencyKey.isBlank() || idempotencyKey.length() > 200) {
+					log.warn("Invalid idempotency key sent by user with email: {}", loggedInUsername);
+					return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(null);
+				}
+				String fingerprint = IdempotencyService.fingerprint(transactionDTO.getAmount(),
+						transactionDTO.getSpentDetails(), transactionDTO.getTransactionDate());
+				TransactionSubmissionResult result = idempotencyService.submit(customer.getId(), idempotencyKey,
+						fingerprint, () -> transactionService.addTransaction(customer.getId(), transactionDTO));
+				log.info("Transaction {} for customer with email: {}", result.isReplayed() ? "replayed" : "added",
+						loggedInUsername);
+				return ResponseEntity.status(HttpStatus.CREATED)
+						.header("Idempotent-Replayed", String.valueOf(result.isReplayed()))
+						.body(result.getTransaction());
+			}
+
 			CustomerTransaction transaction = transactionService.addTransaction(customer.getId(), transactionDTO);
 			log.info("Transaction added for customer with email: {}", loggedInUsername);
 			return ResponseEntity.status(HttpStatus.CREATED).body(transaction);
 
+		} catch (ResponseStatusException e) {
+			log.error("Error occurred while adding transaction for user with email: {}", loggedInUsername, e);
+			return ResponseEntity.status(e.getStatusCode()).body(null);
 		} catch (Exception e) {
 			log.error("Error occurred while adding transaction for user with email: {}", loggedInUsername, e);
 			return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(null);
@@ -127,6 +176,7 @@ public class CustomerTransactionController {
 	 *         the operation fails
 	 */
 	@PutMapping("/{transactionId}")
+	@SqlBudget(16)
 	public ResponseEntity<CustomerTransaction> editTransaction(@PathVariable Long transactionId,
 			@RequestBody @Valid CustomerTransactionDTO transactionDTO) {
 		String loggedInUsername = UserUtil.getLoggedInUsername(); // Get logged-in username
@@ -167,6 +217,7 @@ public class CustomerTransactionController {
 	 */
 
 	@DeleteMapping("/{transactionId}")
+	@SqlBudget(14)
 	public ResponseEntity<Void> deleteTransaction(@PathVariable Long transactionId) {
 		String loggedInUsername = UserUtil.getLoggedInUsername(); // Get logged-in username
 
@@ -0,0 +1,50 @@
+package com.infy.RewardPointCalculator.controller;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.infy.RewardPointCalculator.dto.ExpiryRunSummary;
+import com.infy.RewardPointCalculator.service.PointsExpiryService;
+
+/**
+ * ExpiryController runs the reward point expirations on demand, for example
+ * after the scheduled run failed or was missed.
+ * 
+ * @author rifat.bano
+ */
+@RestController
+@RequestMapping("/api/admin/expiry")
+@PreAuthorize("hasRole('ADMIN')")
+public class ExpiryController {
+
+	private static final Logger log = LoggerFactory.getLogger(ExpiryController.class);
+
+	@Autowired
+	private PointsExpiryService pointsExpiryService;
+
+	/**
+	 * Processes every expiry bucket due up to today.
+	 * 
+	 * @return ResponseEntity with the run summary, or 409 if expiry is disabled.
+	 */
+	@PostMapping("/run")
+	public ResponseEntity<ExpiryRunSummary> run() {
+		try {
+			return ResponseEntity.ok(pointsExpiryService.run());
+		} catch (ResponseStatusException e) {
+			log.warn("Reward point expiry not run: {}", e.getReason());
+			return ResponseEntity.status(e.getStatusCode()).body(null);
+		} catch (Exception e) {
+			log.error("Error occurred while running the reward point expiry", e);
+			return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(null);
+		}
+	}
+}
@@ -0,0 +1,78 @@
+package com.infy.RewardPointCalculator.controller;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.infy.RewardPointCalculator.dto.ImpactSimulationReport;
+import com.infy.RewardPointCalculator.dto.RewardRuleDTO;
+import com.infy.RewardPointCalculator.service.ImpactSimulationService;
+
+import jakarta.validation.Valid;
+
+/**
+ * ImpactSimulationController starts and reports the simulation of a proposed
+ * reward rule across all customers.
+ * 
+ * @author rifat.bano
+ */
+@RestController
+@RequestMapping("/api/admin/simulation")
+@PreAuthorize("hasRole('ADMIN')")
+public class ImpactSimulationController {
+
+	private static final Logger log = LoggerFactory.getLogger(ImpactSimulationController.class);
+
+	@Autowired
+	private ImpactSimulationService impactSimulationService;
+
+	/**
+	 * Starts a simulation of the proposed rule over all transactions in the
+	 * background. Nothing is written.
+	 * 
+	 * @param rule The proposed rule, as tiers of points per dollar.
+	 * @return ResponseEntity with the report and 202 Accepted, 400 if the rule is
+	 *         invalid or 409 if a simulation is already running.
+	 */
+	@PostMapping
+	public ResponseEntity<ImpactSimulationReport> start(@RequestBody @Valid RewardRuleDTO rule) {
+		try {
+			ImpactSimulationReport report = impactSimulationService.start(rule);
+			log.info("Impact simulation started with {} tiers", rule.getTiers().size());
+			return ResponseEntity.status(HttpStatus.ACCEPTED).body(report);
+		} catch (ResponseStatusException e) {
+			log.warn("Impact simulation not started: {}", e.getReason());
+			return ResponseEntity.status(e.getStatusCode()).body(null);
+		} catch (Exception e) {
+			log.error("Error occurred while starting the impact simulation", e);
+			return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(null);
+		}
+	}
+
+	/**
+	 * Get the report of the running or last impact simulation, with the point
+	 * differences per month and per tier.
+	 * 
+	 * @return ResponseEntity with the report, or 404 if no simulation has run.
+	 */
+	@GetMapping
+	public ResponseEntity<ImpactSimulationReport> getReport() {
+		try {
+			return ResponseEntity.ok(impactSimulationService.getLatestReport());
+		} catch (ResponseStatusException e) {
+			return ResponseEntity.status(e.getStatusCode()).body(null);
+		} catch (Exception e) {
+			log.error("Error occurred while fetching the impact simulation report", e);
+			return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(null);
+		}
+	}
+}
@@ -0,0 +1,97 @@
+package com.infy.RewardPointCalculator.controller;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.infy.RewardPointCalculator.dto.ImportJobStatus;
+import com.infy.RewardPointCalculator.service.TransactionImportService;
+
+/**
+ * ImportController starts, resumes and reports the import of transaction
+ * files sent by merchants.
+ * 
+ * @author rifat.bano
+ */
+@RestController
+@RequestMapping("/api/admin/imports")
+@PreAuthorize("hasRole('ADMIN')")
+public class ImportController {
+
+	private static final Logger log = LoggerFactory.getLogger(ImportController.class);
+
+	@Autowired
+	private TransactionImportService transactionImportService;
+
+	/**
+	 * Starts importing a transaction file. The import runs in the background,
+	 * its progress is available through the GET endpoint.
+	 * 
+	 * @param file The name of the file, relative to the import directory of the
+	 *             server (rewards.import.dir).
+	 * @return ResponseEntity with the import status and 202 Accepted, 400 if the
+	 *         file is outside the import directory or cannot be read, or 409 if
+	 *         an import is already running.
+	 */
+	@PostMapping
+	public ResponseEntity<ImportJobStatus> start(@RequestParam String file) {
+		try {
+			ImportJobStatus status = transactionImportService.start(file);
+			log.info("Transaction import {} started", status.getJobId());
+			return ResponseEntity.status(HttpStatus.ACCEPTED).body(status);
+		} catch (ResponseStatusException e) {
+			log.warn("Transaction import not started: {}", e.getReason());
+			return ResponseEntity.status(e.getStatusCode()).body(null);
+		} catch (Exception e) {
+			log.error("Error occurred while starting the transaction import", e);
+			return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(null);
+		}
+	}
+
+	/**
+	 * Resumes the latest import after a crash or a failed chunk.
+	 * 
+	 * @return ResponseEntity with the import status and 202 Accepted, 404 if
+	 *         there is no import or 409 if it is running, already completed or
+	 *         its file changed.
+	 */
+	@PostMapping("/resume")
+	public ResponseEntity<ImportJobStatus> resume() {
+		try {
+			ImportJobStatus status = transactionImportService.resume();
+			log.info("Transaction import {} resumed", status.getJobId());
+			return ResponseEntity.status(HttpStatus.ACCEPTED).body(status);
+		} catch (ResponseStatusException e) {
+			log.warn("Transaction import not resumed: {}", e.getReason());
+			return ResponseEntity.status(e.getStatusCode()).body(null);
+		} catch (Exception e) {
+			log.error("Error occurred while resuming the transaction import", e);
+			return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(null);
+		}
+	}
+
+	/**
+	 * Get the progress of the transaction import, with throughput, estimated
+	 * time remaining and the report of rejected lines.
+	 * 
+	 * @return ResponseEntity with the import status.
+	 */
+	@GetMapping
+	public ResponseEntity<ImportJobStatus> getStatus() {
+		try {
+			return ResponseEntity.ok(transactionImportService.getStatus());
+		} catch (Exception e) {
+			log.error("Error occurred while fetching the transaction import status", e);
+			return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(null);
+		}
+	}
+}
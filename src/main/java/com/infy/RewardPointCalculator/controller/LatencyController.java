@@ -0,0 +1,70 @@
+package com.infy.RewardPointCalculator.controller;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.infy.RewardPointCalculator.dto.LatencyReport;
+import com.infy.RewardPointCalculator.service.EndpointLatencyService;
+
+/**
+ * LatencyController reports the p50, p99, p99.9 and maximum latency of every
+ * endpoint, method and status.
+ * 
+ * @author rifat.bano
+ */
+@RestController
+@RequestMapping("/internal/latency")
+@PreAuthorize("hasRole('ADMIN')")
+public class LatencyController {
+
+	private static final Logger log = LoggerFactory.getLogger(LatencyController.class);
+
+	@Autowired
+	private EndpointLatencyService endpointLatencyService;
+
+	/**
+	 * Reports the latencies of one window.
+	 * 
+	 * @param window "interval" for the last completed interval, "total" for
+	 *               everything since start-up.
+	 * @param since  Optional snapshot ID, to report only the requests recorded
+	 *               after that snapshot.
+	 * @return ResponseEntity with the report, 404 if the snapshot is no longer
+	 *         retained, or 400 for an unknown window.
+	 */
+	@GetMapping
+	public ResponseEntity<LatencyReport> report(@RequestParam(defaultValue = "interval") String window,
+			@RequestParam(required = false) Long since) {
+		try {
+			return ResponseEntity.ok(endpointLatencyService.report(window, since));
+		} catch (ResponseStatusException e) {
+			log.warn("Latency report not created: {}", e.getReason());
+			return ResponseEntity.status(e.getStatusCode()).body(null);
+		} catch (Exception e) {
+			log.error("Error occurred while creating the latency report", e);
+			return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(null);
+		}
+	}
+
+	/**
+	 * Ends the current interval now and takes a snapshot, so that a later report
+	 * can be diffed against it.
+	 * 
+	 * @return ResponseEntity with the report of the interval that ended.
+	 */
+	@PostMapping("/snapshot")
+	public ResponseEntity<LatencyReport> snapshot() {
+		endpointLatencyService.rotate();
+		return ResponseEntity.ok(endpointLatencyService.report("interval", null));
+	}
+}
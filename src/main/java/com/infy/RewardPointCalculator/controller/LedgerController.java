@@ -0,0 +1,80 @@
+package com.infy.RewardPointCalculator.controller;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.infy.RewardPointCalculator.dto.LedgerReplaySummary;
+import com.infy.RewardPointCalculator.ledger.RewardLedger;
+import com.infy.RewardPointCalculator.service.LedgerReplayService;
+
+/**
+ * LedgerController exposes the maintenance operations of the reward ledger:
+ * writing a snapshot on demand and rebuilding the monthly reward points from
+ * the ledger.
+ * 
+ * @author rifat.bano
+ */
+@RestController
+@RequestMapping("/api/admin/ledger")
+@PreAuthorize("hasRole('ADMIN')")
+public class LedgerController {
+
+	private static final Logger log = LoggerFactory.getLogger(LedgerController.class);
+
+	@Autowired
+	private RewardLedger rewardLedger;
+
+	@Autowired
+	private LedgerReplayService ledgerReplayService;
+
+	/**
+	 * Writes a snapshot of all monthly totals now instead of waiting for the next
+	 * scheduled one.
+	 * 
+	 * @return 204 once the snapshot is written, or 409 if the ledger is disabled.
+	 */
+	@PostMapping("/snapshots")
+	public ResponseEntity<Void> snapshot() {
+		if (!rewardLedger.isEnabled()) {
+			return ResponseEntity.status(HttpStatus.CONFLICT).build();
+		}
+		rewardLedger.snapshot();
+		return ResponseEntity.noContent().build();
+	}
+
+	/**
+	 * Rebuilds the monthly totals from the newest snapshot and the ledger tail.
+	 * 
+	 * @param apply Whether the rebuilt totals are written to reward_points. By
+	 *              default the totals are only summarized.
+	 * @return ResponseEntity with the replay summary, or 409 if the ledger is
+	 *         disabled, or if the totals are to be written while other nodes may
+	 *         write reward points too.
+	 */
+	@PostMapping("/replay")
+	public ResponseEntity<LedgerReplaySummary> replay(@RequestParam(defaultValue = "false") boolean apply) {
+		if (!rewardLedger.isEnabled()) {
+			return ResponseEntity.status(HttpStatus.CONFLICT).body(null);
+		}
+		try {
+			LedgerReplaySummary summary = ledgerReplayService.replay(apply);
+			log.info("Reward ledger replayed {} records, apply: {}", summary.getReplayedRecords(), apply);
+			return ResponseEntity.ok(summary);
+		} catch (ResponseStatusException e) {
+			log.warn("Reward ledger not replayed: {}", e.getReason());
+			return ResponseEntity.status(e.getStatusCode()).body(null);
+		} catch (Exception e) {
+			log.error("Error occurred while replaying the reward ledger", e);
+			return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(null);
+		}
+	}
+}
@@ -0,0 +1,95 @@
+package com.infy.RewardPointCalculator.controller;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.infy.RewardPointCalculator.dto.RecomputeJobStatus;
+import com.infy.RewardPointCalculator.service.RecomputeJobService;
+
+/**
+ * RecomputeController starts, resumes and reports the full reward point
+ * recompute job.
+ * 
+ * @author rifat.bano
+ */
+@RestController
+@RequestMapping("/api/admin/recompute")
+@PreAuthorize("hasRole('ADMIN')")
+public class RecomputeController {
+
+	private static final Logger log = LoggerFactory.getLogger(RecomputeController.class);
+
+	@Autowired
+	private RecomputeJobService recomputeJobService;
+
+	/**
+	 * Starts a recompute of the reward points of all customers. The job runs in
+	 * the background, its progress is available through the GET endpoint.
+	 * 
+	 * @param partitions Optional number of customer ID ranges processed in
+	 *                   parallel.
+	 * @return ResponseEntity with the job status and 202 Accepted, or 409 if a job
+	 *         is already running.
+	 */
+	@PostMapping
+	public ResponseEntity<RecomputeJobStatus> start(@RequestParam(required = false) Integer partitions) {
+		try {
+			RecomputeJobStatus status = recomputeJobService.start(partitions);
+			log.info("Recompute job {} started", status.getJobId());
+			return ResponseEntity.status(HttpStatus.ACCEPTED).body(status);
+		} catch (ResponseStatusException e) {
+			log.warn("Recompute job not started: {}", e.getReason());
+			return ResponseEntity.status(e.getStatusCode()).body(null);
+		} catch (Exception e) {
+			log.error("Error occurred while starting the recompute job", e);
+			return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(null);
+		}
+	}
+
+	/**
+	 * Resumes the latest recompute job after a crash or a failed partition.
+	 * 
+	 * @return ResponseEntity with the job status and 202 Accepted, 404 if there is
+	 *         no job or 409 if it is running or already completed.
+	 */
+	@PostMapping("/resume")
+	public ResponseEntity<RecomputeJobStatus> resume() {
+		try {
+			RecomputeJobStatus status = recomputeJobService.resume();
+			log.info("Recompute job {} resumed", status.getJobId());
+			return ResponseEntity.status(HttpStatus.ACCEPTED).body(status);
+		} catch (ResponseStatusException e) {
+			log.warn("Recompute job not resumed: {}", e.getReason());
+			return ResponseEntity.status(e.getStatusCode()).body(null);
+		} catch (Exception e) {
+			log.error("Error occurred while resuming the recompute job", e);
+			return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(null);
+		}
+	}
+
+	/**
+	 * Get the progress of the recompute job, with throughput and estimated time
+	 * remaining.
+	 * 
+	 * @return ResponseEntity with the job status.
+	 */
+	@GetMapping
+	public ResponseEntity<RecomputeJobStatus> getStatus() {
+		try {
+			return ResponseEntity.ok(recomputeJobService.getStatus());
+		} catch (Exception e) {
+			log.error("Error occurred while fetching the recompute job status", e);
+			return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(null);
+		}
+	}
+}
@@ -0,0 +1,74 @@
+package com.infy.RewardPointCalculator.controller;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.infy.RewardPointCalculator.dto.ReconciliationReport;
+import com.infy.RewardPointCalculator.service.ReconciliationService;
+
+/**
+ * ReconciliationController starts the reconciliation of reward_points against
+ * the transactions and returns its summary.
+ * 
+ * @author rifat.bano
+ */
+@RestController
+@RequestMapping("/api/admin/reconciliation")
+@PreAuthorize("hasRole('ADMIN')")
+public class ReconciliationController {
+
+	private static final Logger log = LoggerFactory.getLogger(ReconciliationController.class);
+
+	@Autowired
+	private ReconciliationService reconciliationService;
+
+	/**
+	 * Starts a reconciliation in the background.
+	 * 
+	 * @param repair Whether wrong months are repaired. By default they are only
+	 *               reported.
+	 * @return ResponseEntity with the report and 202 Accepted, or 409 if a
+	 *         reconciliation is already running.
+	 */
+	@PostMapping
+	public ResponseEntity<ReconciliationReport> start(@RequestParam(defaultValue = "false") boolean repair) {
+		try {
+			ReconciliationReport report = reconciliationService.start(repair);
+			log.info("Reconciliation started, repair: {}", repair);
+			return ResponseEntity.status(HttpStatus.ACCEPTED).body(report);
+		} catch (ResponseStatusException e) {
+			log.warn("Reconciliation not started: {}", e.getReason());
+			return ResponseEntity.status(e.getStatusCode()).body(null);
+		} catch (Exception e) {
+			log.error("Error occurred while starting the reconciliation", e);
+			return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(null);
+		}
+	}
+
+	/**
+	 * Get the summary of the running or last reconciliation.
+	 * 
+	 * @return ResponseEntity with the report, or 404 if no reconciliation has run.
+	 */
+	@GetMapping("/summary")
+	public ResponseEntity<ReconciliationReport> getSummary() {
+		try {
+			return ResponseEntity.ok(reconciliationService.getLatestReport());
+		} catch (ResponseStatusException e) {
+			return ResponseEntity.status(e.getStatusCode()).body(null);
+		} catch (Exception e) {
+			log.error("Error occurred while fetching the reconciliation summary", e);
+			return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(null);
+		}
+	}
+}
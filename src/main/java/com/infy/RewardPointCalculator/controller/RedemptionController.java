@@ -0,0 +1,189 @@
+package com.infy.RewardPointCalculator.controller;
+
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.infy.RewardPointCalculator.Util.UserUtil;
+import com.infy.RewardPointCalculator.dto.PointsBalance;
+import com.infy.RewardPointCalculator.dto.RedemptionRequestDTO;
+import com.infy.RewardPointCalculator.model.Customer;
+import com.infy.RewardPointCalculator.model.PointsRedemption;
+import com.infy.RewardPointCalculator.repository.CustomerRepository;
+import com.infy.RewardPointCalculator.service.RedemptionService;
+
+import jakarta.validation.Valid;
+
+/**
+ * RedemptionController lets the authenticated user spend reward points: get
+ * the balance, reserve points, and commit or cancel a reservation.
+ * 
+ * @author rifat.bano
+ */
+@RestController
+@RequestMapping("/api/customers/redemptions")
+public class RedemptionController {
+
+	private static final Logger log = LoggerFactory.getLogger(RedemptionController.class);
+
+	@Autowired
+	private RedemptionService redemptionService;
+
+	@Autowired
+	private CustomerRepository customerRepository; // To fetch customer details
+
+	/**
+	 * Get the points balance of the logged-in customer.
+	 * 
+	 * @return ResponseEntity with the earned, reserved, redeemed and available
+	 *         points or an error response if any issues occur
+	 */
+	@GetMapping("/balance")
+	public ResponseEntity<PointsBalance> getBalance() {
+		String loggedInUsername = UserUtil.getLoggedInUsername(); // Get logged-in username
+
+		if (loggedInUsername == null) {
+			log.warn("Attempted to fetch the points balance without being logged in.");
+			return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(null); // If no user is logged in
+		}
+
+		try {
+			Customer customer = findCustomer(loggedInUsername);
+			return ResponseEntity.ok(redemptionService.getBalance(customer.getId()));
+		} catch (Exception e) {
+			log.error("Error occurred while fetching the points balance for user with email: {}", loggedInUsername, e);
+			return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(null);
+		}
+	}
+
+	/**
+	 * Get the latest redemptions of the logged-in customer, newest first.
+	 * 
+	 * @return ResponseEntity with the redemptions or an error response if any
+	 *         issues occur
+	 */
+	@GetMapping
+	public ResponseEntity<List<PointsRedemption>> getRedemptions() {
+		String loggedInUsername = UserUtil.getLoggedInUsername(); // Get logged-in username
+
+		if (loggedInUsername == null) {
+			log.warn("Attempted to fetch redemptions without being logged in.");
+			return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(null); // If no user is logged in
+		}
+
+		try {
+			Customer customer = findCustomer(loggedInUsername);
+			return ResponseEntity.ok(redemptionService.getRedemptions(customer.getId()));
+		} catch (Exception e) {
+			log.error("Error occurred while fetching redemptions for user with email: {}", loggedInUsername, e);
+			return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(null);
+		}
+	}
+
+	/**
+	 * Reserve points of the logged-in customer. The points are held until the
+	 * reservation is committed, cancelled or expires.
+	 * 
+	 * @param request The points to reserve and an optional reference.
+	 * @return ResponseEntity with the reservation and 201 Created, or 409 if not
+	 *         enough points are available
+	 */
+	@PostMapping
+	public ResponseEntity<PointsRedemption> reserve(@RequestBody @Valid RedemptionRequestDTO request) {
+		String loggedInUsername = UserUtil.getLoggedInUsername(); // Get logged-in username
+
+		if (loggedInUsername == null) {
+			log.warn("Attempted to reserve points without being logged in.");
+			return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(null); // If no user is logged in
+		}
+
+		try {
+			Customer customer = findCustomer(loggedInUsername);
+			PointsRedemption redemption = redemptionService.reserve(customer.getId(), request);
+			return ResponseEntity.status(HttpStatus.CREATED).body(redemption);
+		} catch (ResponseStatusException e) {
+			log.warn("Points reservation refused for user with email: {}: {}", loggedInUsername, e.getReason());
+			return ResponseEntity.status(e.getStatusCode()).body(null);
+		} catch (Exception e) {
+			log.error("Error occurred while reserving points for user with email: {}", loggedInUsername, e);
+			return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(null);
+		}
+	}
+
+	/**
+	 * Commit a reservation of the logged-in customer, spending its points.
+	 * 
+	 * @param id The ID of the redemption.
+	 * @return ResponseEntity with the committed redemption, 404 if there is no
+	 *         such redemption or 409 if it was cancelled or expired
+	 */
+	@PostMapping("/{id}/commit")
+	public ResponseEntity<PointsRedemption> commit(@PathVariable Long id) {
+		String loggedInUsername = UserUtil.getLoggedInUsername(); // Get logged-in username
+
+		if (loggedInUsername == null) {
+			log.warn("Attempted to commit a redemption without being logged in.");
+			return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(null); // If no user is logged in
+		}
+
+		try {
+			Customer customer = findCustomer(loggedInUsername);
+			return ResponseEntity.ok(redemptionService.commit(customer.getId(), id));
+		} catch (ResponseStatusException e) {
+			log.warn("Redemption {} not committed for user with email: {}: {}", id, loggedInUsername, e.getReason());
+			return ResponseEntity.status(e.getStatusCode()).body(null);
+		} catch (Exception e) {
+			log.error("Error occurred while committing redemption {} for user with email: {}", id, loggedInUsername,
+					e);
+			return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(null);
+		}
+	}
+
+	/**
+	 * Cancel a reservation of the logged-in customer, releasing its points.
+	 * 
+	 * @param id The ID of the redemption.
+	 * @return ResponseEntity with the cancelled redemption, 404 if there is no
+	 *         such redemption or 409 if it was committed or expired
+	 */
+	@PostMapping("/{id}/cancel")
+	public ResponseEntity<PointsRedemption> cancel(@PathVariable Long id) {
+		String loggedInUsername = UserUtil.getLoggedInUsername(); // Get logged-in username
+
+		if (loggedInUsername == null) {
+			log.warn("Attempted to cancel a redemption without being logged in.");
+			return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(null); // If no user is logged in
+		}
+
+		try {
+			Customer customer = findCustomer(loggedInUsername);
+			return ResponseEntity.ok(redemptionService.cancel(customer.getId(), id));
+		} catch (ResponseStatusException e) {
+			log.warn("Redemption {} not cancelled for user with email: {}: {}", id, loggedInUsername, e.getReason());
+			return ResponseEntity.status(e.getStatusCode()).body(null);
+		} catch (Exception e) {
+			log.error("Error occurred while cancelling redemption {} for user with email: {}", id, loggedInUsername,
+					e);
+			return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(null);
+		}
+	}
+
+	private Customer findCustomer(String loggedInUsername) {
+		// Find the customer by email (username)
+		return customerRepository.findByEmail(loggedInUsername).orElseThrow(() -> {
+			log.error("Customer not found for email: {}", loggedInUsername);
+			return new RuntimeException("Customer not found");
+		});
+	}
+}
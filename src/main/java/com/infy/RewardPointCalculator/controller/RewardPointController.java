@@ -4,18 +4,34 @@ import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import com.infy.RewardPointCalculator.Util.UserUtil;
+import com.infy.RewardPointCalculator.dto.RewardRuleDTO;
+import com.infy.RewardPointCalculator.dto.RewardSimulationResult;
 import com.infy.RewardPointCalculator.model.Customer;
+import com.infy.RewardPointCalculator.model.CustomerPointsBalance;
 import com.infy.RewardPointCalculator.model.RewardPoints;
 import com.infy.RewardPointCalculator.repository.CustomerRepository;
+import com.infy.RewardPointCalculator.service.DataVersionService;
+import com.infy.RewardPointCalculator.service.PointsBalanceService;
+import com.infy.RewardPointCalculator.service.PointsStreamService;
 import com.infy.RewardPointCalculator.service.RewardPointsService;
+import com.infy.RewardPointCalculator.service.RewardSimulationService;
+import com.infy.RewardPointCalculator.sql.SqlBudget;
+
+import jakarta.validation.Valid;
 
 /**
  * RewardPointController handles get apis to get rewardpoint details month and
@@ -32,6 +48,18 @@ public class RewardPointController {
 	@Autowired
 	private RewardPointsService rewardPointsService;
 
+	@Autowired
+	private RewardSimulationService rewardSimulationService;
+
+	@Autowired
+	private PointsBalanceService pointsBalanceService;
+
+	@Autowired
+	private PointsStreamService pointsStreamService;
+
+	@Autowired
+	private DataVersionService dataVersionService;
+
 	@Autowired
 	private CustomerRepository customerRepository; // To fetch customer details
 
@@ -48,6 +76,7 @@ public class RewardPointController {
 	 *         any issues occur
 	 */
 	@GetMapping("/{month}/{year}")
+	@SqlBudget(6)
 	public ResponseEntity<RewardPoints> getRewardPoints(@PathVariable Integer month, @PathVariable Integer year) {
 		String loggedInUsername = UserUtil.getLoggedInUsername(); // Get logged-in username
 
@@ -79,13 +108,17 @@ public class RewardPointController {
 	 * Get all reward points for the logged-in customer.
 	 * 
 	 * This endpoint retrieves all reward points accrued by the logged-in customer.
-	 * If the user is not logged in, it returns an Unauthorized response.
+	 * If the user is not logged in, it returns an Unauthorized response. The
+	 * response carries an ETag, and a request with the current ETag in
+	 * If-None-Match is answered with 304 Not Modified without reading the points.
 	 * 
+	 * @param webRequest The request, used to check the If-None-Match header.
 	 * @return ResponseEntity with a list of all reward points or an error response
 	 *         if any issues occur
 	 */
 	@GetMapping("/all")
-	public ResponseEntity<List<RewardPoints>> getAllRewardPoints() {
+	@SqlBudget(6)
+	public ResponseEntity<List<RewardPoints>> getAllRewardPoints(WebRequest webRequest) {
 		String loggedInUsername = UserUtil.getLoggedInUsername(); // Get logged-in username
 
 		if (loggedInUsername == null) {
@@ -100,8 +133,14 @@ public class RewardPointController {
 				return new RuntimeException("Customer not found");
 			});
 
+			// The ETag and the body come from the same data version
+			long version = dataVersionService.version(customer.getId());
+			if (dataVersionService.checkNotModified(webRequest, customer.getId(), "reward-points", version)) {
+				return null; // 304 Not Modified, set by the check
+			}
+
 			// Fetch all reward points for the authenticated user
-			List<RewardPoints> allPoints = rewardPointsService.getAllRewardPoints(customer.getId());
+			List<RewardPoints> allPoints = rewardPointsService.getAllRewardPoints(customer.getId(), version);
 			log.info("Fetched {} reward points for customer with email: {}", allPoints.size(), loggedInUsername);
 			return ResponseEntity.ok(allPoints);
 
@@ -110,4 +149,125 @@ public class RewardPointController {
 			return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(null);
 		}
 	}
+
+	/**
+	 * Get the running points balance of the logged-in customer.
+	 * 
+	 * This endpoint returns the points of all months, the expired, reserved and
+	 * redeemed points and the available points of the logged-in customer, with a
+	 * version that changes whenever the balance changes. The available points are
+	 * the ones the redemption endpoints admit. The balance is maintained as the points
+	 * change, so no months are summed to answer.
+	 * 
+	 * @return ResponseEntity with the points balance or an error response if any
+	 *         issues occur
+	 */
+	@GetMapping("/balance")
+	@SqlBudget(6)
+	public ResponseEntity<CustomerPointsBalance> getBalance() {
+		String loggedInUsername = UserUtil.getLoggedInUsername(); // Get logged-in username
+
+		if (loggedInUsername == null) {
+			log.warn("Attempted to fetch the points balance without being logged in.");
+			return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(null); // If no user is logged in
+		}
+
+		try {
+			// Find the customer by email (username)
+			Customer customer = customerRepository.findByEmail(loggedInUsername).orElseThrow(() -> {
+				log.error("Customer not found for email: {}", loggedInUsername);
+				return new RuntimeException("Customer not found");
+			});
+
+			CustomerPointsBalance balance = pointsBalanceService.getBalance(customer.getId());
+			log.debug("Fetched points balance version {} for customer with email: {}", balance.getVersion(),
+					loggedInUsername);
+			return ResponseEntity.ok(balance);
+
+		} catch (Exception e) {
+			log.error("Error occurred while fetching the points balance for user with email: {}", loggedInUsername, e);
+			return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(null);
+		}
+	}
+
+	/**
+	 * Stream the reward point changes of the logged-in customer.
+	 * 
+	 * This endpoint opens a Server-Sent Events stream that receives a
+	 * "reward-points" event with the new points of a month whenever they change,
+	 * and a heartbeat comment in between, so clients do not have to poll. The
+	 * stream closes after a while and the client reconnects.
+	 * 
+	 * @return ResponseEntity with the event stream or an error response if any
+	 *         issues occur
+	 */
+	@GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+	public ResponseEntity<SseEmitter> streamRewardPoints() {
+		String loggedInUsername = UserUtil.getLoggedInUsername(); // Get logged-in username
+
+		if (loggedInUsername == null) {
+			log.warn("Attempted to stream reward points without being logged in.");
+			return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(null); // If no user is logged in
+		}
+
+		try {
+			// Find the customer by email (username)
+			Customer customer = customerRepository.findByEmail(loggedInUsername).orElseThrow(() -> {
+				log.error("Customer not found for email: {}", loggedInUsername);
+				return new RuntimeException("Customer not found");
+			});
+
+			return ResponseEntity.ok(pointsStreamService.subscribe(customer.getId()));
+
+		} catch (ResponseStatusException e) {
+			log.warn("Reward point stream rejected for user with email: {}: {}", loggedInUsername, e.getReason());
+			return ResponseEntity.status(e.getStatusCode()).body(null);
+		} catch (Exception e) {
+			log.error("Error occurred while opening the reward point stream for user with email: {}",
+					loggedInUsername, e);
+			return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(null);
+		}
+	}
+
+	/**
+	 * Simulate a proposed reward rule over the logged-in customer's history.
+	 * 
+	 * This endpoint evaluates the current rule and the proposed rule over all
+	 * transactions of the logged-in customer and returns the points of every
+	 * month under both. Nothing is stored, so the rule can be previewed before it
+	 * is rolled out.
+	 * 
+	 * @param rule The proposed rule, as tiers of points per dollar.
+	 * @return ResponseEntity with the monthly points under both rules or an error
+	 *         response if any issues occur
+	 */
+	@PostMapping("/simulate")
+	public ResponseEntity<RewardSimulationResult> simulate(@RequestBody @Valid RewardRuleDTO rule) {
+		String loggedInUsername = UserUtil.getLoggedInUsername(); // Get logged-in username
+
+		if (loggedInUsername == null) {
+			log.warn("Attempted to simulate reward points without being logged in.");
+			return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(null); // If no user is logged in
+		}
+
+		try {
+			// Find the customer by email (username)
+			Customer customer = customerRepository.findByEmail(loggedInUsername).orElseThrow(() -> {
+				log.error("Customer not found for email: {}", loggedInUsername);
+				return new RuntimeException("Customer not found");
+			});
+
+			RewardSimulationResult result = rewardSimulationService.simulate(customer.getId(), rule);
+			log.info("Simulated reward rule over {} transactions for customer with email: {}",
+					result.getTransactionCount(), loggedInUsername);
+			return ResponseEntity.ok(result);
+
+		} catch (ResponseStatusException e) {
+			log.warn("Reward rule simulation rejected for user with email: {}: {}", loggedInUsername, e.getReason());
+			return ResponseEntity.status(e.getStatusCode()).body(null);
+		} catch (Exception e) {
+			log.error("Error occurred while simulating reward points for user with email: {}", loggedInUsername, e);
+			return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(null);
+		}
+	}
 }
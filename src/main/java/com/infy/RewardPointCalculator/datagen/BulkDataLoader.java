@@ -0,0 +1,213 @@
+package com.infy.RewardPointCalculator.datagen;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import javax.sql.DataSource;
+
+import org.postgresql.copy.CopyIn;
+import org.postgresql.copy.CopyManager;
+import org.postgresql.core.BaseConnection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Loads generated customers and transactions in bulk: with COPY on
+ * PostgreSQL, with large JDBC batches on other databases such as H2. The
+ * customers get IDs after the highest existing one, and the ID sequence is
+ * moved past them afterwards, so the application can keep inserting.
+ *
+ * All generated customers share one password hash, so benchmarks can log in
+ * as any of them.
+ *
+ * @author rifat.bano
+ */
+public class BulkDataLoader {
+
+	private static final Logger log = LoggerFactory.getLogger(BulkDataLoader.class);
+
+	private static final int COPY_BUFFER_CHARS = 1 << 20;
+
+	private final DataSource dataSource;
+	private final int batchSize;
+
+	/**
+	 * The outcome of a load.
+	 */
+	public record Summary(long firstCustomerId, long customers, long transactions, long durationMillis) {
+
+		/**
+		 * @return The rows loaded per minute.
+		 */
+		public long rowsPerMinute() {
+			return (customers + transactions) * 60000 / Math.max(1, durationMillis);
+		}
+	}
+
+	/**
+	 * @param dataSource The database to load into.
+	 * @param batchSize  The rows per JDBC batch, when COPY is not available.
+	 */
+	public BulkDataLoader(DataSource dataSource, int batchSize) {
+		this.dataSource = dataSource;
+		this.batchSize = batchSize;
+	}
+
+	/**
+	 * Generates and loads the customers, then their transactions.
+	 *
+	 * @param generator    The generator.
+	 * @param passwordHash The encoded password of every customer.
+	 * @return The numbers of rows loaded.
+	 */
+	public Summary load(SyntheticDataGenerator generator, String passwordHash) throws Exception {
+		long start = System.currentTimeMillis();
+		try (Connection connection = dataSource.getConnection()) {
+			long firstId = nextCustomerId(connection);
+			boolean postgres = connection.getMetaData().getDatabaseProductName().equalsIgnoreCase("PostgreSQL");
+			long[] counts = postgres ? copy(connection, generator, firstId, passwordHash)
+					: batch(connection, generator, firstId, passwordHash);
+			restartCustomerIds(connection, postgres, firstId + counts[0]);
+			Summary summary = new Summary(firstId, counts[0], counts[1], System.currentTimeMillis() - start);
+			log.info("Loaded {} customers from ID {} and {} transactions in {} ms ({} rows per minute)",
+					summary.customers(), firstId, summary.transactions(), summary.durationMillis(),
+					summary.rowsPerMinute());
+			return summary;
+		}
+	}
+
+	private long[] copy(Connection connection, SyntheticDataGenerator generator, long firstId, String passwordHash)
+			throws Exception {
+		CopyManager copyManager = new CopyManager(connection.unwrap(BaseConnection.class));
+		long[] counts = new long[2];
+
+		CopyWriter customers = new CopyWriter(copyManager
+				.copyIn("COPY customer (id, first_name, last_name, email, password) FROM STDIN WITH (FORMAT csv)"));
+		generator.customers(firstId, (id, firstName, lastName, email) -> {
+			customers.row().append(id).append(',').append(firstName).append(',').append(lastName).append(',')
+					.append(email).append(',').append(passwordHash);
+			counts[0]++;
+		});
+		customers.end();
+
+		CopyWriter transactions = new CopyWriter(copyManager.copyIn("COPY customer_transaction "
+				+ "(customer_id, amount, spent_details, date, version) FROM STDIN WITH (FORMAT csv)"));
+		generator.transactions(firstId, (customerId, amount, spentDetails, date) -> {
+			transactions.row().append(customerId).append(',').append(amount).append(',').append(spentDetails)
+					.append(',').append(date).append(",0");
+			counts[1]++;
+		});
+		transactions.end();
+		return counts;
+	}
+
+	private long[] batch(Connection connection, SyntheticDataGenerator generator, long firstId, String passwordHash)
+			throws Exception {
+		boolean autoCommit = connection.getAutoCommit();
+		connection.setAutoCommit(false);
+		long[] counts = new long[2];
+		try (PreparedStatement customers = connection.prepareStatement(
+				"INSERT INTO customer (id, first_name, last_name, email, password) VALUES (?, ?, ?, ?, ?)");
+				PreparedStatement transactions = connection.prepareStatement(
+						"INSERT INTO customer_transaction (customer_id, amount, spent_details, date, version) "
+								+ "VALUES (?, ?, ?, ?, 0)")) {
+			generator.customers(firstId, (id, firstName, lastName, email) -> {
+				customers.setLong(1, id);
+				customers.setString(2, firstName);
+				customers.setString(3, lastName);
+				customers.setString(4, email);
+				customers.setString(5, passwordHash);
+				addToBatch(connection, customers, ++counts[0]);
+			});
+			flush(connection, customers);
+
+			generator.transactions(firstId, (customerId, amount, spentDetails, date) -> {
+				transactions.setLong(1, customerId);
+				transactions.setDouble(2, amount);
+				transactions.setString(3, spentDetails);
+				transactions.setDate(4, Date.valueOf(date));
+				addToBatch(connection, transactions, ++counts[1]);
+			});
+			flush(connection, transactions);
+		} finally {
+			connection.setAutoCommit(autoCommit);
+		}
+		return counts;
+	}
+
+	private void addToBatch(Connection connection, PreparedStatement statement, long rows) throws SQLException {
+		statement.addBatch();
+		if (rows % batchSize == 0) {
+			flush(connection, statement);
+		}
+	}
+
+	private static void flush(Connection connection, PreparedStatement statement) throws SQLException {
+		statement.executeBatch();
+		connection.commit();
+	}
+
+	private static long nextCustomerId(Connection connection) throws SQLException {
+		try (Statement statement = connection.createStatement();
+				ResultSet resultSet = statement.executeQuery("SELECT COALESCE(MAX(id), 0) + 1 FROM customer")) {
+			resultSet.next();
+			return resultSet.getLong(1);
+		}
+	}
+
+	private static void restartCustomerIds(Connection connection, boolean postgres, long nextId)
+			throws SQLException {
+		try (Statement statement = connection.createStatement()) {
+			if (postgres) {
+				statement.execute("SELECT setval(pg_get_serial_sequence('customer', 'id'), " + (nextId - 1) + ")");
+			} else {
+				statement.execute("ALTER TABLE customer ALTER COLUMN id RESTART WITH " + nextId);
+			}
+		}
+	}
+
+	/**
+	 * Buffers CSV rows and hands them to a COPY in large chunks.
+	 */
+	private static class CopyWriter {
+
+		private final CopyIn copyIn;
+		private final StringBuilder buffer = new StringBuilder(COPY_BUFFER_CHARS + 1024);
+
+		private CopyWriter(CopyIn copyIn) {
+			this.copyIn = copyIn;
+		}
+
+		/**
+		 * Ends the previous row and returns the buffer to append the next one to.
+		 */
+		private StringBuilder row() throws SQLException {
+			if (buffer.length() > 0) {
+				buffer.append('\n');
+			}
+			if (buffer.length() >= COPY_BUFFER_CHARS) {
+				write();
+			}
+			return buffer;
+		}
+
+		private void write() throws SQLException {
+			byte[] bytes = buffer.toString().getBytes(StandardCharsets.UTF_8);
+			copyIn.writeToCopy(bytes, 0, bytes.length);
+			buffer.setLength(0);
+		}
+
+		private void end() throws SQLException {
+			if (buffer.length() > 0) {
+				buffer.append('\n');
+				write();
+			}
+			copyIn.endCopy();
+		}
+	}
+}
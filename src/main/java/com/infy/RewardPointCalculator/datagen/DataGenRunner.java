@@ -0,0 +1,90 @@
+package com.infy.RewardPointCalculator.datagen;
+
+import java.time.LocalDate;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Generates and loads a benchmark dataset on start-up, when the application
+ * runs with the datagen profile, for example:
+ *
+ * <pre>
+ * java -jar app.jar --spring.profiles.active=datagen,h2 --rewards.datagen.customers=100000
+ * </pre>
+ *
+ * The reward points of the loaded transactions are not generated; run the
+ * recompute job afterwards to derive them. Every generated customer can log
+ * in with rewards.datagen.password.
+ *
+ * @author rifat.bano
+ */
+@Component
+@Profile("datagen")
+public class DataGenRunner implements ApplicationRunner {
+
+	private static final Logger log = LoggerFactory.getLogger(DataGenRunner.class);
+
+	@Autowired
+	private DataSource dataSource;
+
+	@Autowired
+	private PasswordEncoder passwordEncoder;
+
+	@Autowired
+	private ApplicationContext applicationContext;
+
+	@Value("${rewards.datagen.seed:42}")
+	private long seed;
+
+	@Value("${rewards.datagen.customers:10000}")
+	private int customers;
+
+	@Value("${rewards.datagen.mean-transactions:20}")
+	private double meanTransactions;
+
+	@Value("${rewards.datagen.heavy-customer-share:0.02}")
+	private double heavyCustomerShare;
+
+	@Value("${rewards.datagen.heavy-customer-factor:25}")
+	private double heavyCustomerFactor;
+
+	@Value("${rewards.datagen.from:2023-01-01}")
+	private String from;
+
+	@Value("${rewards.datagen.to:2024-12-31}")
+	private String to;
+
+	@Value("${rewards.datagen.password:password}")
+	private String password;
+
+	@Value("${rewards.datagen.batch-size:5000}")
+	private int batchSize;
+
+	@Value("${rewards.datagen.exit:true}")
+	private boolean exit;
+
+	@Override
+	public void run(ApplicationArguments args) throws Exception {
+		DataGenSpec spec = new DataGenSpec(seed, customers, meanTransactions, heavyCustomerShare,
+				heavyCustomerFactor, LocalDate.parse(from), LocalDate.parse(to));
+		log.info("Generating benchmark data: {}", spec);
+		new BulkDataLoader(dataSource, batchSize).load(new SyntheticDataGenerator(spec),
+				passwordEncoder.encode(password));
+
+		if (exit) {
+			System.exit(SpringApplication.exit(applicationContext, () -> 0));
+		}
+	}
+}
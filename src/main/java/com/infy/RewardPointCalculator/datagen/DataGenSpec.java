@@ -0,0 +1,33 @@
+package com.infy.RewardPointCalculator.datagen;
+
+import java.time.LocalDate;
+
+/**
+ * What the {@link SyntheticDataGenerator} produces. The same spec always
+ * produces the same customers and transactions.
+ *
+ * @param seed                 The seed all random choices derive from.
+ * @param customers            The number of customers.
+ * @param meanTransactions     The average number of transactions of a regular
+ *                             customer.
+ * @param heavyCustomerShare   The share of customers, between 0 and 1, that
+ *                             transact much more than the others.
+ * @param heavyCustomerFactor  How many times more a heavy customer transacts.
+ * @param from                 The first transaction date.
+ * @param to                   The last transaction date.
+ *
+ * @author rifat.bano
+ */
+public record DataGenSpec(long seed, int customers, double meanTransactions, double heavyCustomerShare,
+		double heavyCustomerFactor, LocalDate from, LocalDate to) {
+
+	public DataGenSpec {
+		if (customers < 0 || meanTransactions < 0 || heavyCustomerShare < 0 || heavyCustomerShare > 1
+				|| heavyCustomerFactor < 1) {
+			throw new IllegalArgumentException("Invalid data generation spec");
+		}
+		if (to.isBefore(from)) {
+			throw new IllegalArgumentException("The last transaction date is before the first");
+		}
+	}
+}
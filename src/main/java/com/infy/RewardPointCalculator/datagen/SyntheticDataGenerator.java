@@ -0,0 +1,143 @@
+package com.infy.RewardPointCalculator.datagen;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.SplittableRandom;
+
+/**
+ * Generates customers and their transactions for benchmarks.
+ *
+ * Transaction amounts cluster around the 50 and 100 reward tiers: a quarter
+ * lie below 50, a third between the tiers, a tenth just around 100, and the
+ * rest above 100 with a long tail. Dates are spread over the spec's range,
+ * with more shopping in November and December and less in January. A small
+ * share of heavy customers accounts for a large part of the transactions.
+ *
+ * Every customer has a random source of its own, derived from the seed and
+ * the customer's position, so the output does not depend on the order the
+ * rows are consumed in, and the customers and the transactions can be
+ * produced in separate passes.
+ *
+ * @author rifat.bano
+ */
+public class SyntheticDataGenerator {
+
+	private static final String[] FIRST_NAMES = { "Asha", "Ben", "Chen", "Dana", "Elif", "Farid", "Grace", "Hugo",
+			"Ines", "Jonas", "Kavya", "Liam", "Mei", "Nora", "Omar", "Priya", "Quinn", "Rosa", "Sven", "Tara" };
+	private static final String[] LAST_NAMES = { "Ahmed", "Brown", "Costa", "Dubois", "Evans", "Fischer", "Garcia",
+			"Hansen", "Ito", "Jansen", "Khan", "Lopez", "Meyer", "Nair", "Okafor", "Patel", "Rossi", "Singh" };
+	private static final String[] SPENT_DETAILS = { "groceries", "electronics", "travel", "dining", "fuel",
+			"clothing", "pharmacy", "books", "home improvement", "entertainment" };
+	private static final double[] MONTH_WEIGHTS = { 0.8, 0.9, 1.0, 1.0, 1.0, 1.0, 1.1, 1.0, 1.0, 1.0, 1.4, 1.8 };
+	private static final double MAX_MONTH_WEIGHT = 1.8;
+
+	private final DataGenSpec spec;
+	private final long days;
+
+	/**
+	 * Receives generated customers.
+	 */
+	@FunctionalInterface
+	public interface CustomerSink {
+
+		void accept(long id, String firstName, String lastName, String email) throws Exception;
+	}
+
+	/**
+	 * Receives generated transactions.
+	 */
+	@FunctionalInterface
+	public interface TransactionSink {
+
+		void accept(long customerId, double amount, String spentDetails, LocalDate date) throws Exception;
+	}
+
+	public SyntheticDataGenerator(DataGenSpec spec) {
+		this.spec = spec;
+		this.days = ChronoUnit.DAYS.between(spec.from(), spec.to()) + 1;
+	}
+
+	/**
+	 * Generates the customers, with consecutive IDs.
+	 *
+	 * @param firstId The ID of the first customer.
+	 * @param sink    The receiver of the customers.
+	 */
+	public void customers(long firstId, CustomerSink sink) throws Exception {
+		for (int index = 0; index < spec.customers(); index++) {
+			SplittableRandom random = randomFor(index);
+			long id = firstId + index;
+			sink.accept(id, FIRST_NAMES[random.nextInt(FIRST_NAMES.length)],
+					LAST_NAMES[random.nextInt(LAST_NAMES.length)], "customer" + id + "@datagen.example");
+		}
+	}
+
+	/**
+	 * Generates the transactions of all customers, customer by customer.
+	 *
+	 * @param firstId The ID of the first customer, as passed to
+	 *                {@link #customers(long, CustomerSink)}.
+	 * @param sink    The receiver of the transactions.
+	 */
+	public void transactions(long firstId, TransactionSink sink) throws Exception {
+		for (int index = 0; index < spec.customers(); index++) {
+			SplittableRandom random = randomFor(index);
+			// Skip the name choices, so the customer's stream continues where customers() stopped
+			random.nextInt(FIRST_NAMES.length);
+			random.nextInt(LAST_NAMES.length);
+
+			boolean heavy = random.nextDouble() < spec.heavyCustomerShare();
+			double mean = heavy ? spec.meanTransactions() * spec.heavyCustomerFactor() : spec.meanTransactions();
+			int count = poisson(random, mean);
+			for (int i = 0; i < count; i++) {
+				sink.accept(firstId + index, amount(random), SPENT_DETAILS[random.nextInt(SPENT_DETAILS.length)],
+						date(random));
+			}
+		}
+	}
+
+	private SplittableRandom randomFor(int index) {
+		return new SplittableRandom(spec.seed() * 0x9E3779B97F4A7C15L + index);
+	}
+
+	private static double amount(SplittableRandom random) {
+		double band = random.nextDouble();
+		double amount;
+		if (band < 0.25) {
+			amount = 1 + random.nextDouble() * 49;
+		} else if (band < 0.58) {
+			amount = 50 + random.nextDouble() * 50;
+		} else if (band < 0.68) {
+			amount = 95 + random.nextDouble() * 10;
+		} else {
+			amount = 100 + Math.exp(4 + random.nextGaussian() * 0.9);
+		}
+		return Math.round(amount * 100) / 100.0;
+	}
+
+	private LocalDate date(SplittableRandom random) {
+		while (true) {
+			LocalDate date = spec.from().plusDays(random.nextLong(days));
+			if (random.nextDouble() * MAX_MONTH_WEIGHT < MONTH_WEIGHTS[date.getMonthValue() - 1]) {
+				return date;
+			}
+		}
+	}
+
+	private static int poisson(SplittableRandom random, double mean) {
+		if (mean <= 0) {
+			return 0;
+		}
+		if (mean > 30) {
+			return (int) Math.max(0, Math.round(mean + Math.sqrt(mean) * random.nextGaussian()));
+		}
+		double limit = Math.exp(-mean);
+		double product = random.nextDouble();
+		int count = 0;
+		while (product > limit) {
+			product *= random.nextDouble();
+			count++;
+		}
+		return count;
+	}
+}
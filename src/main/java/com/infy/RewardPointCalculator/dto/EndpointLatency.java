@@ -0,0 +1,100 @@
+package com.infy.RewardPointCalculator.dto;
+
+/**
+ * Latency percentiles of one endpoint, HTTP method and response status, in
+ * microseconds.
+ *
+ * @author rifat.bano
+ */
+public class EndpointLatency {
+
+	private String method;
+	private String endpoint;
+	private int status;
+	private long count;
+	private long p50Micros;
+	private long p99Micros;
+	private long p999Micros;
+	private long maxMicros;
+
+	public EndpointLatency() {
+		super();
+	}
+
+	public EndpointLatency(String method, String endpoint, int status, long count, long p50Micros, long p99Micros,
+			long p999Micros, long maxMicros) {
+		super();
+		this.method = method;
+		this.endpoint = endpoint;
+		this.status = status;
+		this.count = count;
+		this.p50Micros = p50Micros;
+		this.p99Micros = p99Micros;
+		this.p999Micros = p999Micros;
+		this.maxMicros = maxMicros;
+	}
+
+	public String getMethod() {
+		return method;
+	}
+
+	public void setMethod(String method) {
+		this.method = method;
+	}
+
+	public String getEndpoint() {
+		return endpoint;
+	}
+
+	public void setEndpoint(String endpoint) {
+		this.endpoint = endpoint;
+	}
+
+	public int getStatus() {
+		return status;
+	}
+
+	public void setStatus(int status) {
+		this.status = status;
+	}
+
+	public long getCount() {
+		return count;
+	}
+
+	public void setCount(long count) {
+		this.count = count;
+	}
+
+	public long getP50Micros() {
+		return p50Micros;
+	}
+
+	public void setP50Micros(long p50Micros) {
+		this.p50Micros = p50Micros;
+	}
+
+	public long getP99Micros() {
+		return p99Micros;
+	}
+
+	public void setP99Micros(long p99Micros) {
+		this.p99Micros = p99Micros;
+	}
+
+	public long getP999Micros() {
+		return p999Micros;
+	}
+
+	public void setP999Micros(long p999Micros) {
+		this.p999Micros = p999Micros;
+	}
+
+	public long getMaxMicros() {
+		return maxMicros;
+	}
+
+	public void setMaxMicros(long maxMicros) {
+		this.maxMicros = maxMicros;
+	}
+}
@@ -0,0 +1,95 @@
+package com.infy.RewardPointCalculator.dto;
+
+import java.time.LocalDate;
+
+/**
+ * Outcome of processing the reward point expirations due up to a day.
+ *
+ * @author rifat.bano
+ */
+public class ExpiryRunSummary {
+
+	private LocalDate runDate;
+	private int bucketsDue;
+	private int bucketsCompleted;
+	private long rowsExpired;
+	private long pointsExpired;
+	private int pendingBuckets;
+	private long durationMillis;
+
+	public ExpiryRunSummary() {
+		super();
+	}
+
+	public ExpiryRunSummary(LocalDate runDate, int bucketsDue, int bucketsCompleted, long rowsExpired,
+			long pointsExpired, int pendingBuckets, long durationMillis) {
+		super();
+		this.runDate = runDate;
+		this.bucketsDue = bucketsDue;
+		this.bucketsCompleted = bucketsCompleted;
+		this.rowsExpired = rowsExpired;
+		this.pointsExpired = pointsExpired;
+		this.pendingBuckets = pendingBuckets;
+		this.durationMillis = durationMillis;
+	}
+
+	public LocalDate getRunDate() {
+		return runDate;
+	}
+
+	public void setRunDate(LocalDate runDate) {
+		this.runDate = runDate;
+	}
+
+	public int getBucketsDue() {
+		return bucketsDue;
+	}
+
+	public void setBucketsDue(int bucketsDue) {
+		this.bucketsDue = bucketsDue;
+	}
+
+	public int getBucketsCompleted() {
+		return bucketsCompleted;
+	}
+
+	public void setBucketsCompleted(int bucketsCompleted) {
+		this.bucketsCompleted = bucketsCompleted;
+	}
+
+	public long getRowsExpired() {
+		return rowsExpired;
+	}
+
+	public void setRowsExpired(long rowsExpired) {
+		this.rowsExpired = rowsExpired;
+	}
+
+	public long getPointsExpired() {
+		return pointsExpired;
+	}
+
+	public void setPointsExpired(long pointsExpired) {
+		this.pointsExpired = pointsExpired;
+	}
+
+	/**
+	 * @return The number of buckets scheduled on this node that are not due yet
+	 *         or have to be retried.
+	 */
+	public int getPendingBuckets() {
+		return pendingBuckets;
+	}
+
+	public void setPendingBuckets(int pendingBuckets) {
+		this.pendingBuckets = pendingBuckets;
+	}
+
+	public long getDurationMillis() {
+		return durationMillis;
+	}
+
+	public void setDurationMillis(long durationMillis) {
+		this.durationMillis = durationMillis;
+	}
+}
@@ -0,0 +1,215 @@
+package com.infy.RewardPointCalculator.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Liability impact of a proposed reward rule across all customers: the points
+ * all transactions earn under the current rule and under the proposed rule,
+ * in total, per month and per tier of the proposed rule. The counters are
+ * updated while the job runs, the breakdowns are filled in when it completes.
+ *
+ * @author rifat.bano
+ */
+public class ImpactSimulationReport {
+
+	/**
+	 * The points of all transactions of one month under both rules.
+	 */
+	public static class MonthImpact {
+
+		private int year;
+		private int month;
+		private long transactions;
+		private long currentPoints;
+		private long simulatedPoints;
+
+		public MonthImpact() {
+			super();
+		}
+
+		public MonthImpact(int year, int month, long transactions, long currentPoints, long simulatedPoints) {
+			this.year = year;
+			this.month = month;
+			this.transactions = transactions;
+			this.currentPoints = currentPoints;
+			this.simulatedPoints = simulatedPoints;
+		}
+
+		public int getYear() {
+			return year;
+		}
+
+		public int getMonth() {
+			return month;
+		}
+
+		public long getTransactions() {
+			return transactions;
+		}
+
+		public long getCurrentPoints() {
+			return currentPoints;
+		}
+
+		public long getSimulatedPoints() {
+			return simulatedPoints;
+		}
+
+		public long getDifference() {
+			return simulatedPoints - currentPoints;
+		}
+	}
+
+	/**
+	 * The points of the transactions whose highest tier under the proposed rule
+	 * is this one, under both rules.
+	 */
+	public static class TierImpact {
+
+		private Double above;
+		private long transactions;
+		private long currentPoints;
+		private long simulatedPoints;
+
+		public TierImpact() {
+			super();
+		}
+
+		public TierImpact(Double above, long transactions, long currentPoints, long simulatedPoints) {
+			this.above = above;
+			this.transactions = transactions;
+			this.currentPoints = currentPoints;
+			this.simulatedPoints = simulatedPoints;
+		}
+
+		/**
+		 * @return The threshold of the tier, or null for the transactions below
+		 *         every tier.
+		 */
+		public Double getAbove() {
+			return above;
+		}
+
+		public long getTransactions() {
+			return transactions;
+		}
+
+		public long getCurrentPoints() {
+			return currentPoints;
+		}
+
+		public long getSimulatedPoints() {
+			return simulatedPoints;
+		}
+
+		public long getDifference() {
+			return simulatedPoints - currentPoints;
+		}
+	}
+
+	private String state;
+	private LocalDateTime startedAt;
+	private long durationMillis;
+	private long transactionsScanned;
+	private long chunksEvaluated;
+	private long currentTotal;
+	private long simulatedTotal;
+	private String error;
+	private List<MonthImpact> months = List.of();
+	private List<TierImpact> tiers = List.of();
+
+	/**
+	 * @return RUNNING, COMPLETED or FAILED.
+	 */
+	public String getState() {
+		return state;
+	}
+
+	public void setState(String state) {
+		this.state = state;
+	}
+
+	public LocalDateTime getStartedAt() {
+		return startedAt;
+	}
+
+	public void setStartedAt(LocalDateTime startedAt) {
+		this.startedAt = startedAt;
+	}
+
+	public long getDurationMillis() {
+		return durationMillis;
+	}
+
+	public void setDurationMillis(long durationMillis) {
+		this.durationMillis = durationMillis;
+	}
+
+	public long getTransactionsScanned() {
+		return transactionsScanned;
+	}
+
+	public void setTransactionsScanned(long transactionsScanned) {
+		this.transactionsScanned = transactionsScanned;
+	}
+
+	public long getChunksEvaluated() {
+		return chunksEvaluated;
+	}
+
+	public void setChunksEvaluated(long chunksEvaluated) {
+		this.chunksEvaluated = chunksEvaluated;
+	}
+
+	public long getCurrentTotal() {
+		return currentTotal;
+	}
+
+	public void setCurrentTotal(long currentTotal) {
+		this.currentTotal = currentTotal;
+	}
+
+	public long getSimulatedTotal() {
+		return simulatedTotal;
+	}
+
+	public void setSimulatedTotal(long simulatedTotal) {
+		this.simulatedTotal = simulatedTotal;
+	}
+
+	public long getDifference() {
+		return simulatedTotal - currentTotal;
+	}
+
+	public String getError() {
+		return error;
+	}
+
+	public void setError(String error) {
+		this.error = error;
+	}
+
+	/**
+	 * @return The months with transactions, oldest first.
+	 */
+	public List<MonthImpact> getMonths() {
+		return months;
+	}
+
+	public void setMonths(List<MonthImpact> months) {
+		this.months = months;
+	}
+
+	/**
+	 * @return The transactions below every tier first, then the tiers in
+	 *         threshold order.
+	 */
+	public List<TierImpact> getTiers() {
+		return tiers;
+	}
+
+	public void setTiers(List<TierImpact> tiers) {
+		this.tiers = tiers;
+	}
+}
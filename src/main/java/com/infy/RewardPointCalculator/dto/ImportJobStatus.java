@@ -0,0 +1,162 @@
+package com.infy.RewardPointCalculator.dto;
+
+/**
+ * Progress of a transaction file import, with throughput and an estimate of
+ * the remaining time.
+ *
+ * @author rifat.bano
+ */
+public class ImportJobStatus {
+
+	private String jobId;
+	private String fileName;
+	private String state;
+	private int chunks;
+	private int chunksDone;
+	private int chunksFailed;
+	private long bytesTotal;
+	private long bytesProcessed;
+	private long rowsImported;
+	private long rowsRejected;
+	private long monthsUpdated;
+	private double progressPercent;
+	private double rowsPerSecond;
+	private long elapsedSeconds;
+	private Long etaSeconds;
+	private String rejectReport;
+
+	public String getJobId() {
+		return jobId;
+	}
+
+	public void setJobId(String jobId) {
+		this.jobId = jobId;
+	}
+
+	public String getFileName() {
+		return fileName;
+	}
+
+	public void setFileName(String fileName) {
+		this.fileName = fileName;
+	}
+
+	/**
+	 * @return IDLE, RUNNING, COMPLETED or FAILED.
+	 */
+	public String getState() {
+		return state;
+	}
+
+	public void setState(String state) {
+		this.state = state;
+	}
+
+	public int getChunks() {
+		return chunks;
+	}
+
+	public void setChunks(int chunks) {
+		this.chunks = chunks;
+	}
+
+	public int getChunksDone() {
+		return chunksDone;
+	}
+
+	public void setChunksDone(int chunksDone) {
+		this.chunksDone = chunksDone;
+	}
+
+	public int getChunksFailed() {
+		return chunksFailed;
+	}
+
+	public void setChunksFailed(int chunksFailed) {
+		this.chunksFailed = chunksFailed;
+	}
+
+	public long getBytesTotal() {
+		return bytesTotal;
+	}
+
+	public void setBytesTotal(long bytesTotal) {
+		this.bytesTotal = bytesTotal;
+	}
+
+	public long getBytesProcessed() {
+		return bytesProcessed;
+	}
+
+	public void setBytesProcessed(long bytesProcessed) {
+		this.bytesProcessed = bytesProcessed;
+	}
+
+	public long getRowsImported() {
+		return rowsImported;
+	}
+
+	public void setRowsImported(long rowsImported) {
+		this.rowsImported = rowsImported;
+	}
+
+	public long getRowsRejected() {
+		return rowsRejected;
+	}
+
+	public void setRowsRejected(long rowsRejected) {
+		this.rowsRejected = rowsRejected;
+	}
+
+	public long getMonthsUpdated() {
+		return monthsUpdated;
+	}
+
+	public void setMonthsUpdated(long monthsUpdated) {
+		this.monthsUpdated = monthsUpdated;
+	}
+
+	public double getProgressPercent() {
+		return progressPercent;
+	}
+
+	public void setProgressPercent(double progressPercent) {
+		this.progressPercent = progressPercent;
+	}
+
+	public double getRowsPerSecond() {
+		return rowsPerSecond;
+	}
+
+	public void setRowsPerSecond(double rowsPerSecond) {
+		this.rowsPerSecond = rowsPerSecond;
+	}
+
+	public long getElapsedSeconds() {
+		return elapsedSeconds;
+	}
+
+	public void setElapsedSeconds(long elapsedSeconds) {
+		this.elapsedSeconds = elapsedSeconds;
+	}
+
+	public Long getEtaSeconds() {
+		return etaSeconds;
+	}
+
+	public void setEtaSeconds(Long etaSeconds) {
+		this.etaSeconds = etaSeconds;
+	}
+
+	/**
+	 * @return The path of the report of the rejected lines, once the import finished
+	 *         with rejected lines.
+	 */
+	public String getRejectReport() {
+		return rejectReport;
+	}
+
+	public void setRejectReport(String rejectReport) {
+		this.rejectReport = rejectReport;
+	}
+}
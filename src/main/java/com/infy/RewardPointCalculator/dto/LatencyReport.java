@@ -0,0 +1,64 @@
+package com.infy.RewardPointCalculator.dto;
+
+import java.util.List;
+
+/**
+ * Latency percentiles of all endpoints over one window: the last completed
+ * interval, everything since start-up, or the requests after a snapshot.
+ *
+ * @author rifat.bano
+ */
+public class LatencyReport {
+
+	private String window;
+	private long snapshotId;
+	private Long since;
+	private List<EndpointLatency> endpoints;
+
+	public LatencyReport() {
+		super();
+	}
+
+	public LatencyReport(String window, long snapshotId, Long since, List<EndpointLatency> endpoints) {
+		super();
+		this.window = window;
+		this.snapshotId = snapshotId;
+		this.since = since;
+		this.endpoints = endpoints;
+	}
+
+	public String getWindow() {
+		return window;
+	}
+
+	public void setWindow(String window) {
+		this.window = window;
+	}
+
+	/**
+	 * @return The newest snapshot, which later reports can be diffed against.
+	 */
+	public long getSnapshotId() {
+		return snapshotId;
+	}
+
+	public void setSnapshotId(long snapshotId) {
+		this.snapshotId = snapshotId;
+	}
+
+	public Long getSince() {
+		return since;
+	}
+
+	public void setSince(Long since) {
+		this.since = since;
+	}
+
+	public List<EndpointLatency> getEndpoints() {
+		return endpoints;
+	}
+
+	public void setEndpoints(List<EndpointLatency> endpoints) {
+		this.endpoints = endpoints;
+	}
+}
@@ -0,0 +1,89 @@
+package com.infy.RewardPointCalculator.dto;
+
+/**
+ * Outcome of rebuilding the monthly reward point totals from the ledger.
+ *
+ * @author rifat.bano
+ */
+public class LedgerReplaySummary {
+
+	private long snapshotPosition;
+	private long position;
+	private long replayedRecords;
+	private int monthlyTotals;
+	private long totalPoints;
+	private int rowsWritten;
+	private long durationMillis;
+
+	public LedgerReplaySummary() {
+		super();
+	}
+
+	public LedgerReplaySummary(long snapshotPosition, long position, long replayedRecords, int monthlyTotals,
+			long totalPoints, int rowsWritten, long durationMillis) {
+		super();
+		this.snapshotPosition = snapshotPosition;
+		this.position = position;
+		this.replayedRecords = replayedRecords;
+		this.monthlyTotals = monthlyTotals;
+		this.totalPoints = totalPoints;
+		this.rowsWritten = rowsWritten;
+		this.durationMillis = durationMillis;
+	}
+
+	public long getSnapshotPosition() {
+		return snapshotPosition;
+	}
+
+	public void setSnapshotPosition(long snapshotPosition) {
+		this.snapshotPosition = snapshotPosition;
+	}
+
+	public long getPosition() {
+		return position;
+	}
+
+	public void setPosition(long position) {
+		this.position = position;
+	}
+
+	public long getReplayedRecords() {
+		return replayedRecords;
+	}
+
+	public void setReplayedRecords(long replayedRecords) {
+		this.replayedRecords = replayedRecords;
+	}
+
+	public int getMonthlyTotals() {
+		return monthlyTotals;
+	}
+
+	public void setMonthlyTotals(int monthlyTotals) {
+		this.monthlyTotals = monthlyTotals;
+	}
+
+	public long getTotalPoints() {
+		return totalPoints;
+	}
+
+	public void setTotalPoints(long totalPoints) {
+		this.totalPoints = totalPoints;
+	}
+
+	public int getRowsWritten() {
+		return rowsWritten;
+	}
+
+	public void setRowsWritten(int rowsWritten) {
+		this.rowsWritten = rowsWritten;
+	}
+
+	public long getDurationMillis() {
+		return durationMillis;
+	}
+
+	public void setDurationMillis(long durationMillis) {
+		this.durationMillis = durationMillis;
+	}
+}
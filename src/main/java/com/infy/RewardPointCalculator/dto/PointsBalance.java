@@ -0,0 +1,54 @@
+package com.infy.RewardPointCalculator.dto;
+
+/**
+ * The points balance of a customer: the points earned and not expired, minus
+ * the points held by open reservations and the points redeemed.
+ *
+ * @author rifat.bano
+ */
+public class PointsBalance {
+
+	private long customerId;
+	private long earnedPoints;
+	private long reservedPoints;
+	private long redeemedPoints;
+
+	public PointsBalance() {
+		super();
+	}
+
+	public PointsBalance(long customerId, long earnedPoints, long reservedPoints, long redeemedPoints) {
+		super();
+		this.customerId = customerId;
+		this.earnedPoints = earnedPoints;
+		this.reservedPoints = reservedPoints;
+		this.redeemedPoints = redeemedPoints;
+	}
+
+	public long getCustomerId() {
+		return customerId;
+	}
+
+	/**
+	 * @return The points of all months that have not expired.
+	 */
+	public long getEarnedPoints() {
+		return earnedPoints;
+	}
+
+	public long getReservedPoints() {
+		return reservedPoints;
+	}
+
+	public long getRedeemedPoints() {
+		return redeemedPoints;
+	}
+
+	/**
+	 * @return The points that can still be reserved. Never negative, even when
+	 *         points were taken back after they were spent.
+	 */
+	public long getAvailablePoints() {
+		return Math.max(0, earnedPoints - reservedPoints - redeemedPoints);
+	}
+}
@@ -0,0 +1,135 @@
+package com.infy.RewardPointCalculator.dto;
+
+/**
+ * Progress of the full reward point recompute job, with throughput and an
+ * estimate of the remaining time.
+ *
+ * @author rifat.bano
+ */
+public class RecomputeJobStatus {
+
+	private String jobId;
+	private String state;
+	private int partitions;
+	private int partitionsDone;
+	private int partitionsFailed;
+	private long customersProcessed;
+	private long transactionsProcessed;
+	private long monthsWritten;
+	private double progressPercent;
+	private double transactionsPerSecond;
+	private double customersPerSecond;
+	private long elapsedSeconds;
+	private Long etaSeconds;
+
+	public String getJobId() {
+		return jobId;
+	}
+
+	public void setJobId(String jobId) {
+		this.jobId = jobId;
+	}
+
+	/**
+	 * @return IDLE, RUNNING, COMPLETED or FAILED.
+	 */
+	public String getState() {
+		return state;
+	}
+
+	public void setState(String state) {
+		this.state = state;
+	}
+
+	public int getPartitions() {
+		return partitions;
+	}
+
+	public void setPartitions(int partitions) {
+		this.partitions = partitions;
+	}
+
+	public int getPartitionsDone() {
+		return partitionsDone;
+	}
+
+	public void setPartitionsDone(int partitionsDone) {
+		this.partitionsDone = partitionsDone;
+	}
+
+	public int getPartitionsFailed() {
+		return partitionsFailed;
+	}
+
+	public void setPartitionsFailed(int partitionsFailed) {
+		this.partitionsFailed = partitionsFailed;
+	}
+
+	public long getCustomersProcessed() {
+		return customersProcessed;
+	}
+
+	public void setCustomersProcessed(long customersProcessed) {
+		this.customersProcessed = customersProcessed;
+	}
+
+	public long getTransactionsProcessed() {
+		return transactionsProcessed;
+	}
+
+	public void setTransactionsProcessed(long transactionsProcessed) {
+		this.transactionsProcessed = transactionsProcessed;
+	}
+
+	public long getMonthsWritten() {
+		return monthsWritten;
+	}
+
+	public void setMonthsWritten(long monthsWritten) {
+		this.monthsWritten = monthsWritten;
+	}
+
+	public double getProgressPercent() {
+		return progressPercent;
+	}
+
+	public void setProgressPercent(double progressPercent) {
+		this.progressPercent = progressPercent;
+	}
+
+	public double getTransactionsPerSecond() {
+		return transactionsPerSecond;
+	}
+
+	public void setTransactionsPerSecond(double transactionsPerSecond) {
+		this.transactionsPerSecond = transactionsPerSecond;
+	}
+
+	public double getCustomersPerSecond() {
+		return customersPerSecond;
+	}
+
+	public void setCustomersPerSecond(double customersPerSecond) {
+		this.customersPerSecond = customersPerSecond;
+	}
+
+	public long getElapsedSeconds() {
+		return elapsedSeconds;
+	}
+
+	public void setElapsedSeconds(long elapsedSeconds) {
+		this.elapsedSeconds = elapsedSeconds;
+	}
+
+	/**
+	 * @return The estimated seconds until the job completes, or null while no
+	 *         progress has been made yet or once the job has finished.
+	 */
+	public Long getEtaSeconds() {
+		return etaSeconds;
+	}
+
+	public void setEtaSeconds(Long etaSeconds) {
+		this.etaSeconds = etaSeconds;
+	}
+}
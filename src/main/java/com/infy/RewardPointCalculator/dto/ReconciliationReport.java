@@ -0,0 +1,222 @@
+package com.infy.RewardPointCalculator.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Result of comparing reward_points with the totals implied by the
+ * transactions. The counters cover every customer-month, the discrepancy
+ * samples are capped so the report stays small.
+ *
+ * @author rifat.bano
+ */
+public class ReconciliationReport {
+
+	/**
+	 * One customer-month whose stored reward points differ from the truth.
+	 */
+	public static class Discrepancy {
+
+		private long customerId;
+		private int year;
+		private int month;
+		private String type;
+		private int expectedPoints;
+		private Integer storedPoints;
+		private int storedRows;
+
+		public Discrepancy() {
+			super();
+		}
+
+		public Discrepancy(long customerId, int year, int month, String type, int expectedPoints, Integer storedPoints,
+				int storedRows) {
+			this.customerId = customerId;
+			this.year = year;
+			this.month = month;
+			this.type = type;
+			this.expectedPoints = expectedPoints;
+			this.storedPoints = storedPoints;
+			this.storedRows = storedRows;
+		}
+
+		public long getCustomerId() {
+			return customerId;
+		}
+
+		public int getYear() {
+			return year;
+		}
+
+		public int getMonth() {
+			return month;
+		}
+
+		/**
+		 * @return MISMATCH, MISSING, EXTRA or DUPLICATE.
+		 */
+		public String getType() {
+			return type;
+		}
+
+		public int getExpectedPoints() {
+			return expectedPoints;
+		}
+
+		/**
+		 * @return The points of the first stored row, or null if the month has no
+		 *         row.
+		 */
+		public Integer getStoredPoints() {
+			return storedPoints;
+		}
+
+		public int getStoredRows() {
+			return storedRows;
+		}
+	}
+
+	private String state;
+	private boolean repair;
+	private LocalDateTime startedAt;
+	private long durationMillis;
+	private long customersScanned;
+	private long transactionsScanned;
+	private long rewardRowsScanned;
+	private long mismatches;
+	private long missing;
+	private long extra;
+	private long duplicates;
+	private long repaired;
+	private String error;
+	// Read by the summary endpoint while the job appends to it
+	private List<Discrepancy> samples = new CopyOnWriteArrayList<>();
+
+	/**
+	 * @return RUNNING, COMPLETED or FAILED.
+	 */
+	public String getState() {
+		return state;
+	}
+
+	public void setState(String state) {
+		this.state = state;
+	}
+
+	public boolean isRepair() {
+		return repair;
+	}
+
+	public void setRepair(boolean repair) {
+		this.repair = repair;
+	}
+
+	public LocalDateTime getStartedAt() {
+		return startedAt;
+	}
+
+	public void setStartedAt(LocalDateTime startedAt) {
+		this.startedAt = startedAt;
+	}
+
+	public long getDurationMillis() {
+		return durationMillis;
+	}
+
+	public void setDurationMillis(long durationMillis) {
+		this.durationMillis = durationMillis;
+	}
+
+	public long getCustomersScanned() {
+		return customersScanned;
+	}
+
+	public void setCustomersScanned(long customersScanned) {
+		this.customersScanned = customersScanned;
+	}
+
+	public long getTransactionsScanned() {
+		return transactionsScanned;
+	}
+
+	public void setTransactionsScanned(long transactionsScanned) {
+		this.transactionsScanned = transactionsScanned;
+	}
+
+	public long getRewardRowsScanned() {
+		return rewardRowsScanned;
+	}
+
+	public void setRewardRowsScanned(long rewardRowsScanned) {
+		this.rewardRowsScanned = rewardRowsScanned;
+	}
+
+	/**
+	 * @return Months whose stored points differ from the transactions.
+	 */
+	public long getMismatches() {
+		return mismatches;
+	}
+
+	public void setMismatches(long mismatches) {
+		this.mismatches = mismatches;
+	}
+
+	/**
+	 * @return Months with transactions but no reward_points row.
+	 */
+	public long getMissing() {
+		return missing;
+	}
+
+	public void setMissing(long missing) {
+		this.missing = missing;
+	}
+
+	/**
+	 * @return Months holding points without any transactions.
+	 */
+	public long getExtra() {
+		return extra;
+	}
+
+	public void setExtra(long extra) {
+		this.extra = extra;
+	}
+
+	/**
+	 * @return Months with more than one reward_points row.
+	 */
+	public long getDuplicates() {
+		return duplicates;
+	}
+
+	public void setDuplicates(long duplicates) {
+		this.duplicates = duplicates;
+	}
+
+	public long getRepaired() {
+		return repaired;
+	}
+
+	public void setRepaired(long repaired) {
+		this.repaired = repaired;
+	}
+
+	public String getError() {
+		return error;
+	}
+
+	public void setError(String error) {
+		this.error = error;
+	}
+
+	public List<Discrepancy> getSamples() {
+		return samples;
+	}
+
+	public void setSamples(List<Discrepancy> samples) {
+		this.samples = samples;
+	}
+}
@@ -0,0 +1,36 @@
+package com.infy.RewardPointCalculator.dto;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+public class RedemptionRequestDTO {
+
+	@NotNull(message = "Points are required")
+	@Min(value = 1, message = "Points must be greater than zero")
+	@Max(value = 1000000, message = "Points cannot exceed 1000000")
+	private Integer points;
+
+	@Size(max = 255, message = "Reference cannot exceed 255 characters")
+	private String reference;
+
+	// Getters and Setters
+
+	public Integer getPoints() {
+		return points;
+	}
+
+	public void setPoints(Integer points) {
+		this.points = points;
+	}
+
+	public String getReference() {
+		return reference;
+	}
+
+	public void setReference(String reference) {
+		this.reference = reference;
+	}
+
+}
@@ -0,0 +1,52 @@
+package com.infy.RewardPointCalculator.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * A spending category as sent by the admin API: its name, its bonus multiplier
+ * and the keywords identifying it in the spent details of a transaction.
+ *
+ * @author rifat.bano
+ */
+public class RewardCategoryDTO {
+
+	private String name;
+	private BigDecimal multiplier;
+	private List<String> keywords;
+
+	public RewardCategoryDTO() {
+		super();
+	}
+
+	public RewardCategoryDTO(String name, BigDecimal multiplier, List<String> keywords) {
+		super();
+		this.name = name;
+		this.multiplier = multiplier;
+		this.keywords = keywords;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public void setName(String name) {
+		this.name = name;
+	}
+
+	public BigDecimal getMultiplier() {
+		return multiplier;
+	}
+
+	public void setMultiplier(BigDecimal multiplier) {
+		this.multiplier = multiplier;
+	}
+
+	public List<String> getKeywords() {
+		return keywords;
+	}
+
+	public void setKeywords(List<String> keywords) {
+		this.keywords = keywords;
+	}
+}
@@ -0,0 +1,58 @@
+package com.infy.RewardPointCalculator.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * A change of the monthly reward points of a customer, pushed to the
+ * customer's open reward point streams.
+ *
+ * @author rifat.bano
+ */
+public class RewardPointsUpdate {
+
+	private int month;
+	private int year;
+	private int points;
+	private int expiredPoints;
+	private LocalDateTime updatedAt;
+
+	public RewardPointsUpdate() {
+		super();
+	}
+
+	public RewardPointsUpdate(int month, int year, int points, int expiredPoints, LocalDateTime updatedAt) {
+		super();
+		this.month = month;
+		this.year = year;
+		this.points = points;
+		this.expiredPoints = expiredPoints;
+		this.updatedAt = updatedAt;
+	}
+
+	public int getMonth() {
+		return month;
+	}
+
+	public int getYear() {
+		return year;
+	}
+
+	/**
+	 * @return The new points of the month.
+	 */
+	public int getPoints() {
+		return points;
+	}
+
+	public int getExpiredPoints() {
+		return expiredPoints;
+	}
+
+	public int getAvailablePoints() {
+		return points - expiredPoints;
+	}
+
+	public LocalDateTime getUpdatedAt() {
+		return updatedAt;
+	}
+}
@@ -0,0 +1,87 @@
+package com.infy.RewardPointCalculator.dto;
+
+import java.util.List;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+/**
+ * A proposed reward rule to simulate. The current rule is the tiers 50 at 1
+ * point per dollar and 100 at 2 points per dollar, with category multipliers.
+ *
+ * @author rifat.bano
+ */
+public class RewardRuleDTO {
+
+	/**
+	 * One tier: the points per dollar earned for the part of the amount above
+	 * the threshold, up to the threshold of the next tier.
+	 */
+	public static class Tier {
+
+		@NotNull(message = "Tier threshold is required")
+		@DecimalMin(value = "0", message = "Tier threshold cannot be negative")
+		private Double above;
+
+		@NotNull(message = "Points per dollar are required")
+		@DecimalMin(value = "0", message = "Points per dollar cannot be negative")
+		@DecimalMax(value = "100", message = "Points per dollar cannot exceed 100")
+		private Double pointsPerDollar;
+
+		public Tier() {
+			super();
+		}
+
+		public Tier(Double above, Double pointsPerDollar) {
+			super();
+			this.above = above;
+			this.pointsPerDollar = pointsPerDollar;
+		}
+
+		public Double getAbove() {
+			return above;
+		}
+
+		public void setAbove(Double above) {
+			this.above = above;
+		}
+
+		public Double getPointsPerDollar() {
+			return pointsPerDollar;
+		}
+
+		public void setPointsPerDollar(Double pointsPerDollar) {
+			this.pointsPerDollar = pointsPerDollar;
+		}
+	}
+
+	@NotEmpty(message = "At least one tier is required")
+	@Size(max = 20, message = "A rule can have at most 20 tiers")
+	private List<@Valid @NotNull Tier> tiers;
+
+	private boolean applyCategoryMultipliers = true;
+
+	public List<Tier> getTiers() {
+		return tiers;
+	}
+
+	public void setTiers(List<Tier> tiers) {
+		this.tiers = tiers;
+	}
+
+	/**
+	 * @return Whether the current category multipliers apply on top of the
+	 *         tiers, true by default.
+	 */
+	public boolean isApplyCategoryMultipliers() {
+		return applyCategoryMultipliers;
+	}
+
+	public void setApplyCategoryMultipliers(boolean applyCategoryMultipliers) {
+		this.applyCategoryMultipliers = applyCategoryMultipliers;
+	}
+}
@@ -0,0 +1,114 @@
+package com.infy.RewardPointCalculator.dto;
+
+import java.util.List;
+
+/**
+ * Reward points of one customer under the current rule and under a proposed
+ * rule, month by month. Nothing of it is stored.
+ *
+ * @author rifat.bano
+ */
+public class RewardSimulationResult {
+
+	/**
+	 * The points of one month under both rules.
+	 */
+	public static class MonthComparison {
+
+		private int year;
+		private int month;
+		private long currentPoints;
+		private long simulatedPoints;
+
+		public MonthComparison() {
+			super();
+		}
+
+		public MonthComparison(int year, int month, long currentPoints, long simulatedPoints) {
+			this.year = year;
+			this.month = month;
+			this.currentPoints = currentPoints;
+			this.simulatedPoints = simulatedPoints;
+		}
+
+		public int getYear() {
+			return year;
+		}
+
+		public int getMonth() {
+			return month;
+		}
+
+		public long getCurrentPoints() {
+			return currentPoints;
+		}
+
+		public long getSimulatedPoints() {
+			return simulatedPoints;
+		}
+
+		public long getDifference() {
+			return simulatedPoints - currentPoints;
+		}
+	}
+
+	private int transactionCount;
+	private long currentTotal;
+	private long simulatedTotal;
+	private long loadMillis;
+	private long evaluationMicros;
+	private List<MonthComparison> months;
+
+	public RewardSimulationResult() {
+		super();
+	}
+
+	public RewardSimulationResult(int transactionCount, long currentTotal, long simulatedTotal, long loadMillis,
+			long evaluationMicros, List<MonthComparison> months) {
+		super();
+		this.transactionCount = transactionCount;
+		this.currentTotal = currentTotal;
+		this.simulatedTotal = simulatedTotal;
+		this.loadMillis = loadMillis;
+		this.evaluationMicros = evaluationMicros;
+		this.months = months;
+	}
+
+	public int getTransactionCount() {
+		return transactionCount;
+	}
+
+	public long getCurrentTotal() {
+		return currentTotal;
+	}
+
+	public long getSimulatedTotal() {
+		return simulatedTotal;
+	}
+
+	public long getDifference() {
+		return simulatedTotal - currentTotal;
+	}
+
+	/**
+	 * @return The time spent reading the transactions.
+	 */
+	public long getLoadMillis() {
+		return loadMillis;
+	}
+
+	/**
+	 * @return The time spent evaluating both rules over the loaded
+	 *         transactions.
+	 */
+	public long getEvaluationMicros() {
+		return evaluationMicros;
+	}
+
+	/**
+	 * @return The months with transactions, oldest first.
+	 */
+	public List<MonthComparison> getMonths() {
+		return months;
+	}
+}
@@ -0,0 +1,28 @@
+package com.infy.RewardPointCalculator.dto;
+
+import com.infy.RewardPointCalculator.model.CustomerTransaction;
+
+/**
+ * Outcome of an idempotent transaction submission: the transaction and whether
+ * it was replayed from an earlier submission with the same Idempotency-Key
+ * instead of being created now.
+ */
+public class TransactionSubmissionResult {
+
+	private final CustomerTransaction transaction;
+	private final boolean replayed;
+
+	public TransactionSubmissionResult(CustomerTransaction transaction, boolean replayed) {
+		this.transaction = transaction;
+		this.replayed = replayed;
+	}
+
+	public CustomerTransaction getTransaction() {
+		return transaction;
+	}
+
+	public boolean isReplayed() {
+		return replayed;
+	}
+
+}
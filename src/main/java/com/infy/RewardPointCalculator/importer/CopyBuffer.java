@@ -0,0 +1,100 @@
+package com.infy.RewardPointCalculator.importer;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * A growable byte array that rows are appended to before they are handed to a
+ * COPY or written to a file, filled straight from the mapped file without
+ * going through Strings.
+ *
+ * @author rifat.bano
+ */
+public class CopyBuffer {
+
+	private byte[] bytes;
+	private int size;
+
+	/**
+	 * @param capacity The initial capacity in bytes.
+	 */
+	public CopyBuffer(int capacity) {
+		this.bytes = new byte[capacity];
+	}
+
+	public CopyBuffer append(byte value) {
+		ensure(1);
+		bytes[size++] = value;
+		return this;
+	}
+
+	/**
+	 * Appends the bytes of the source between the two positions.
+	 */
+	public CopyBuffer append(ByteBuffer source, int from, int to) {
+		ensure(to - from);
+		source.get(from, bytes, size, to - from);
+		size += to - from;
+		return this;
+	}
+
+	/**
+	 * Appends the bytes of the source between the two positions, doubling every
+	 * double quote, so they can be enclosed in quotes as one CSV field.
+	 */
+	public CopyBuffer appendQuotedContent(ByteBuffer source, int from, int to) {
+		for (int i = from; i < to; i++) {
+			byte value = source.get(i);
+			if (value == '"') {
+				append(value);
+			}
+			append(value);
+		}
+		return this;
+	}
+
+	/**
+	 * Appends the decimal digits of a non-negative number.
+	 */
+	public CopyBuffer appendLong(long value) {
+		int digits = 1;
+		for (long rest = value / 10; rest > 0; rest /= 10) {
+			digits++;
+		}
+		ensure(digits);
+		for (int i = size + digits - 1; i >= size; i--) {
+			bytes[i] = (byte) ('0' + value % 10);
+			value /= 10;
+		}
+		size += digits;
+		return this;
+	}
+
+	public CopyBuffer append(String text) {
+		for (int i = 0; i < text.length(); i++) {
+			append((byte) text.charAt(i));
+		}
+		return this;
+	}
+
+	/**
+	 * @return The array holding the content, valid up to {@link #size()}.
+	 */
+	public byte[] array() {
+		return bytes;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public void clear() {
+		size = 0;
+	}
+
+	private void ensure(int extra) {
+		if (size + extra > bytes.length) {
+			bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + extra));
+		}
+	}
+}
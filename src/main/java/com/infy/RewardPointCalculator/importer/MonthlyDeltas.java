@@ -0,0 +1,113 @@
+package com.infy.RewardPointCalculator.importer;
+
+import java.util.Arrays;
+
+/**
+ * Sums the reward points of imported transactions per customer and month in
+ * an open addressing table of primitive keys, so the millions of rows of a
+ * chunk are aggregated without allocating per row.
+ *
+ * @author rifat.bano
+ */
+public class MonthlyDeltas {
+
+	/**
+	 * Receives the sums ordered by customer, year and month.
+	 */
+	@FunctionalInterface
+	public interface DeltaVisitor {
+		void visit(long customerId, int year, int month, int points, int transactions);
+	}
+
+	private static final long EMPTY = -1;
+	private static final int MONTH_BITS = 17;
+
+	private long[] keys;
+	private int[] points;
+	private int[] transactions;
+	private int size;
+
+	public MonthlyDeltas() {
+		allocate(1024);
+	}
+
+	/**
+	 * Adds the points of one transaction to its month.
+	 *
+	 * @param customerId The ID of the customer, below 2^46.
+	 * @param year       The year of the transaction, 0 to 9999.
+	 * @param month      The month of the transaction (1-12).
+	 * @param amount     The points of the transaction.
+	 */
+	public void add(long customerId, int year, int month, int amount) {
+		long key = customerId << MONTH_BITS | (year * 12L + month - 1);
+		int index = indexOf(key);
+		if (keys[index] == EMPTY) {
+			keys[index] = key;
+			if (++size * 2 > keys.length) {
+				grow();
+				index = indexOf(key);
+			}
+		}
+		points[index] += amount;
+		transactions[index]++;
+	}
+
+	/**
+	 * @return The number of customer months.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Calls the visitor for every customer month, ordered by customer ID, year
+	 * and month, the order in which writers lock the monthly rows.
+	 */
+	public void forEach(DeltaVisitor visitor) {
+		long[] sorted = new long[size];
+		int count = 0;
+		for (long key : keys) {
+			if (key != EMPTY) {
+				sorted[count++] = key;
+			}
+		}
+		Arrays.sort(sorted);
+		for (long key : sorted) {
+			int index = indexOf(key);
+			int yearMonth = (int) (key & ((1L << MONTH_BITS) - 1));
+			visitor.visit(key >>> MONTH_BITS, yearMonth / 12, yearMonth % 12 + 1, points[index], transactions[index]);
+		}
+	}
+
+	private int indexOf(long key) {
+		int mask = keys.length - 1;
+		int index = (int) (key * 0x9E3779B97F4A7C15L >>> 32) & mask;
+		while (keys[index] != EMPTY && keys[index] != key) {
+			index = (index + 1) & mask;
+		}
+		return index;
+	}
+
+	private void grow() {
+		long[] oldKeys = keys;
+		int[] oldPoints = points;
+		int[] oldTransactions = transactions;
+		allocate(oldKeys.length * 2);
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldKeys[i] != EMPTY) {
+				int index = indexOf(oldKeys[i]);
+				keys[index] = oldKeys[i];
+				points[index] = oldPoints[i];
+				transactions[index] = oldTransactions[i];
+			}
+		}
+	}
+
+	private void allocate(int capacity) {
+		keys = new long[capacity];
+		Arrays.fill(keys, EMPTY);
+		points = new int[capacity];
+		transactions = new int[capacity];
+	}
+}
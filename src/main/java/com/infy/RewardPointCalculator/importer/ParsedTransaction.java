@@ -0,0 +1,152 @@
+package com.infy.RewardPointCalculator.importer;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * One line of a transaction file, parsed in place. The parser reuses a single
+ * instance for all lines of a chunk and only records where the fields are in
+ * the mapped buffer, so the numbers are parsed straight from the bytes and the
+ * text fields are copied to their destination without becoming Strings.
+ *
+ * An instance is only valid during the callback it is passed to.
+ *
+ * @author rifat.bano
+ */
+public class ParsedTransaction {
+
+	private final CharSequence detailsView = new DetailsView();
+
+	private ByteBuffer buffer;
+	private long bufferOffset;
+	private int lineStart;
+	private int lineEnd;
+
+	long customerId;
+	double amount;
+	int amountStart;
+	int amountEnd;
+	int year;
+	int month;
+	int day;
+	int dateStart;
+	int dateEnd;
+	int detailsStart;
+	int detailsEnd;
+	boolean detailsEscaped;
+
+	void reset(ByteBuffer buffer, long bufferOffset, int lineStart, int lineEnd) {
+		this.buffer = buffer;
+		this.bufferOffset = bufferOffset;
+		this.lineStart = lineStart;
+		this.lineEnd = lineEnd;
+		this.detailsEscaped = false;
+	}
+
+	/**
+	 * @return The position of the line in the file, in bytes.
+	 */
+	public long getOffset() {
+		return bufferOffset + lineStart;
+	}
+
+	public long getCustomerId() {
+		return customerId;
+	}
+
+	public double getAmount() {
+		return amount;
+	}
+
+	public int getYear() {
+		return year;
+	}
+
+	public int getMonth() {
+		return month;
+	}
+
+	public int getDay() {
+		return day;
+	}
+
+	/**
+	 * @return The spent details as a String, for writers that need one.
+	 */
+	public String getSpentDetails() {
+		byte[] bytes = new byte[detailsEnd - detailsStart];
+		buffer.get(detailsStart, bytes);
+		String details = new String(bytes, StandardCharsets.UTF_8);
+		return detailsEscaped ? details.replace("\"\"", "\"") : details;
+	}
+
+	/**
+	 * @return The spent details for matching them against the category keywords:
+	 *         a view of the mapped bytes if they are plain ASCII, otherwise a
+	 *         decoded String.
+	 */
+	public CharSequence getSpentDetailsText() {
+		if (detailsEscaped) {
+			return getSpentDetails();
+		}
+		for (int i = detailsStart; i < detailsEnd; i++) {
+			if (buffer.get(i) < 0) {
+				return getSpentDetails();
+			}
+		}
+		return detailsView;
+	}
+
+	/**
+	 * Appends the transaction as a row of a CSV COPY into customer_transaction
+	 * (customer_id, amount, spent_details, date, version, multiplier_percent),
+	 * with the amount and date as written in the file.
+	 */
+	public void appendCopyRow(CopyBuffer out, int multiplierPercent) {
+		out.appendLong(customerId).append((byte) ',');
+		out.append(buffer, amountStart, amountEnd).append((byte) ',');
+		out.append((byte) '"');
+		if (detailsEscaped) {
+			// Doubled quotes are already escaped the way COPY expects them
+			out.append(buffer, detailsStart, detailsEnd);
+		} else {
+			out.appendQuotedContent(buffer, detailsStart, detailsEnd);
+		}
+		out.append((byte) '"').append((byte) ',');
+		out.append(buffer, dateStart, dateEnd).append((byte) ',').append((byte) '0').append((byte) ',');
+		out.appendLong(multiplierPercent).append((byte) '\n');
+	}
+
+	/**
+	 * Appends the line as it is in the file, as a quoted CSV field.
+	 */
+	public void appendLine(CopyBuffer out) {
+		out.append((byte) '"').appendQuotedContent(buffer, lineStart, lineEnd).append((byte) '"');
+	}
+
+	/**
+	 * The ASCII spent details of the current line, read from the buffer.
+	 */
+	private class DetailsView implements CharSequence {
+
+		@Override
+		public char charAt(int index) {
+			return (char) buffer.get(detailsStart + index);
+		}
+
+		@Override
+		public int length() {
+			return detailsEnd - detailsStart;
+		}
+
+		@Override
+		public CharSequence subSequence(int start, int end) {
+			return toString().subSequence(start, end);
+		}
+
+		@Override
+		public String toString() {
+			return getSpentDetails();
+		}
+	}
+}
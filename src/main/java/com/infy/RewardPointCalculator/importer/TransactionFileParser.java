@@ -0,0 +1,355 @@
+package com.infy.RewardPointCalculator.importer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Parses transaction files sent by merchants, one transaction per line:
+ *
+ * <pre>
+ * customer_id,amount,transaction_date,spent_details
+ * 1042,120.50,2024-03-14,Weekly grocery shopping
+ * 1043,75,2024-03-15,"Dinner at ""The Anchor"""
+ * </pre>
+ *
+ * The header line is optional. The spent details are the rest of the line,
+ * either plain or enclosed in double quotes with inner quotes doubled, so
+ * they may contain commas but no line breaks. Lines may end with LF or CRLF.
+ *
+ * A file is split into chunks of about the same size that end at line
+ * boundaries, so they can be parsed in parallel. Each chunk is memory-mapped
+ * and parsed in place: numbers and dates are read straight from the bytes,
+ * and the fields are handed on as positions in the mapped buffer (see
+ * {@link ParsedTransaction}), so parsing allocates nothing per line. Every
+ * line is validated with the rules of CustomerTransactionDTO, and a line that
+ * breaks one is rejected with the same message.
+ *
+ * @author rifat.bano
+ */
+public class TransactionFileParser {
+
+	public static final String MALFORMED = "Expected customer_id,amount,transaction_date,spent_details";
+	public static final String CUSTOMER_REQUIRED = "Customer ID is required";
+	public static final String CUSTOMER_INVALID = "Customer ID must be a positive number";
+	public static final String AMOUNT_REQUIRED = "Amount is required";
+	public static final String AMOUNT_INVALID = "Amount must be a decimal number";
+	public static final String AMOUNT_NOT_POSITIVE = "Amount must be greater than zero";
+	public static final String DATE_REQUIRED = "Transaction date is required";
+	public static final String DATE_INVALID = "Transaction date must be a valid yyyy-MM-dd date";
+	public static final String DATE_IN_FUTURE = "Transaction date cannot be in the future";
+	public static final String DETAILS_REQUIRED = "Spent details are required";
+	public static final String DETAILS_UNTERMINATED = "Spent details have an unbalanced quote";
+
+	private static final byte[] HEADER = "customer_id".getBytes(StandardCharsets.US_ASCII);
+	private static final int MAX_CUSTOMER_ID_DIGITS = 13;
+	private static final int MAX_AMOUNT_DIGITS = 15;
+	private static final double[] POWERS_OF_TEN = new double[MAX_AMOUNT_DIGITS + 1];
+	private static final int[] DAYS_IN_MONTH = { 31, 29, 31, 30, 31, 30, 31, 31, 30, 31, 30, 31 };
+
+	static {
+		POWERS_OF_TEN[0] = 1;
+		for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+			POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+		}
+	}
+
+	/**
+	 * A part of a file, from its start offset to its end offset (exclusive).
+	 */
+	public record Chunk(int index, long start, long end) {
+	}
+
+	/**
+	 * Receives the lines of a chunk in file order.
+	 */
+	public interface LineHandler {
+
+		/**
+		 * Called for a line that passed validation.
+		 */
+		void accept(ParsedTransaction transaction) throws Exception;
+
+		/**
+		 * Called for a line that did not pass validation.
+		 *
+		 * @param line   The line, whose parsed fields are undefined.
+		 * @param reason The first rule the line broke.
+		 */
+		void reject(ParsedTransaction line, String reason) throws Exception;
+	}
+
+	private final int today;
+
+	/**
+	 * @param today The date after which transaction dates are rejected as being
+	 *              in the future.
+	 */
+	public TransactionFileParser(LocalDate today) {
+		this.today = today.getYear() * 10000 + today.getMonthValue() * 100 + today.getDayOfMonth();
+	}
+
+	/**
+	 * Splits a file into chunks that end at line boundaries. The split only
+	 * depends on the file content and the chunk size.
+	 *
+	 * @param channel    The file.
+	 * @param chunkBytes The size of a chunk, at most 1 GiB. Chunks are longer
+	 *                   by the rest of the line they would end in.
+	 * @return The chunks, in file order.
+	 */
+	public static List<Chunk> split(FileChannel channel, long chunkBytes) throws IOException {
+		if (chunkBytes < 1 || chunkBytes > (1 << 30)) {
+			throw new IllegalArgumentException("The chunk size must be between 1 byte and 1 GiB");
+		}
+		long size = channel.size();
+		List<Chunk> chunks = new ArrayList<>();
+		long start = 0;
+		while (start < size) {
+			long end = start + chunkBytes >= size ? size : nextLineStart(channel, start + chunkBytes, size);
+			chunks.add(new Chunk(chunks.size(), start, end));
+			start = end;
+		}
+		return chunks;
+	}
+
+	/**
+	 * Maps a chunk and passes each of its non-empty lines to the handler.
+	 *
+	 * @param channel The file.
+	 * @param chunk   The chunk to parse.
+	 * @param handler The handler of the accepted and rejected lines.
+	 * @return The number of lines passed to the handler.
+	 */
+	public long parse(FileChannel channel, Chunk chunk, LineHandler handler) throws Exception {
+		MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, chunk.start(),
+				chunk.end() - chunk.start());
+		ParsedTransaction line = new ParsedTransaction();
+		int limit = buffer.limit();
+		int position = 0;
+		long lines = 0;
+		while (position < limit) {
+			int end = position;
+			while (end < limit && buffer.get(end) != '\n') {
+				end++;
+			}
+			int lineEnd = end > position && buffer.get(end - 1) == '\r' ? end - 1 : end;
+			if (lineEnd > position && !(chunk.start() == 0 && position == 0 && isHeader(buffer, lineEnd))) {
+				line.reset(buffer, chunk.start(), position, lineEnd);
+				String reason = parseLine(buffer, position, lineEnd, line);
+				if (reason == null) {
+					handler.accept(line);
+				} else {
+					handler.reject(line, reason);
+				}
+				lines++;
+			}
+			position = end + 1;
+		}
+		return lines;
+	}
+
+	/**
+	 * Parses and validates the fields of one line into the flyweight.
+	 *
+	 * @return Null if the line is valid, otherwise the reason to reject it.
+	 */
+	private String parseLine(ByteBuffer buffer, int start, int end, ParsedTransaction line) {
+		int customerEnd = indexOf(buffer, ',', start, end);
+		int amountEnd = customerEnd < 0 ? -1 : indexOf(buffer, ',', customerEnd + 1, end);
+		int dateEnd = amountEnd < 0 ? -1 : indexOf(buffer, ',', amountEnd + 1, end);
+		if (dateEnd < 0) {
+			return MALFORMED;
+		}
+
+		if (customerEnd == start) {
+			return CUSTOMER_REQUIRED;
+		}
+		if (customerEnd - start > MAX_CUSTOMER_ID_DIGITS) {
+			return CUSTOMER_INVALID;
+		}
+		long customerId = 0;
+		for (int i = start; i < customerEnd; i++) {
+			int digit = buffer.get(i) - '0';
+			if (digit < 0 || digit > 9) {
+				return CUSTOMER_INVALID;
+			}
+			customerId = customerId * 10 + digit;
+		}
+		if (customerId == 0) {
+			return CUSTOMER_INVALID;
+		}
+		line.customerId = customerId;
+
+		String amountError = parseAmount(buffer, customerEnd + 1, amountEnd, line);
+		if (amountError != null) {
+			return amountError;
+		}
+		String dateError = parseDate(buffer, amountEnd + 1, dateEnd, line);
+		if (dateError != null) {
+			return dateError;
+		}
+		return parseDetails(buffer, dateEnd + 1, end, line);
+	}
+
+	/**
+	 * Reads a decimal amount of at most 15 digits. The result equals what
+	 * Double.parseDouble returns, because both the digits and the power of ten
+	 * are exact doubles and their quotient is correctly rounded.
+	 */
+	private static String parseAmount(ByteBuffer buffer, int start, int end, ParsedTransaction line) {
+		if (start == end) {
+			return AMOUNT_REQUIRED;
+		}
+		boolean negative = buffer.get(start) == '-';
+		long digits = 0;
+		int count = 0;
+		int scale = -1;
+		for (int i = negative ? start + 1 : start; i < end; i++) {
+			byte value = buffer.get(i);
+			if (value == '.' && scale < 0) {
+				scale = 0;
+			} else if (value >= '0' && value <= '9' && count < MAX_AMOUNT_DIGITS) {
+				digits = digits * 10 + value - '0';
+				count++;
+				if (scale >= 0) {
+					scale++;
+				}
+			} else {
+				return AMOUNT_INVALID;
+			}
+		}
+		if (count == 0) {
+			return AMOUNT_INVALID;
+		}
+		double amount = scale > 0 ? digits / POWERS_OF_TEN[scale] : digits;
+		if (negative || amount < 0.01) {
+			return AMOUNT_NOT_POSITIVE;
+		}
+		line.amount = amount;
+		line.amountStart = start;
+		line.amountEnd = end;
+		return null;
+	}
+
+	private String parseDate(ByteBuffer buffer, int start, int end, ParsedTransaction line) {
+		if (start == end) {
+			return DATE_REQUIRED;
+		}
+		if (end - start != 10 || buffer.get(start + 4) != '-' || buffer.get(start + 7) != '-') {
+			return DATE_INVALID;
+		}
+		int year = digits(buffer, start, start + 4);
+		int month = digits(buffer, start + 5, start + 7);
+		int day = digits(buffer, start + 8, start + 10);
+		if (year < 1 || month < 1 || month > 12 || day < 1 || day > DAYS_IN_MONTH[month - 1]
+				|| (month == 2 && day == 29 && !isLeapYear(year))) {
+			return DATE_INVALID;
+		}
+		if (year * 10000 + month * 100 + day > today) {
+			return DATE_IN_FUTURE;
+		}
+		line.year = year;
+		line.month = month;
+		line.day = day;
+		line.dateStart = start;
+		line.dateEnd = end;
+		return null;
+	}
+
+	private static String parseDetails(ByteBuffer buffer, int start, int end, ParsedTransaction line) {
+		if (start == end) {
+			return DETAILS_REQUIRED;
+		}
+		if (buffer.get(start) != '"') {
+			line.detailsStart = start;
+			line.detailsEnd = end;
+			return null;
+		}
+		if (end - start < 2 || buffer.get(end - 1) != '"') {
+			return DETAILS_UNTERMINATED;
+		}
+		boolean escaped = false;
+		for (int i = start + 1; i < end - 1; i++) {
+			if (buffer.get(i) == '"') {
+				if (i + 1 == end - 1 || buffer.get(i + 1) != '"') {
+					return DETAILS_UNTERMINATED;
+				}
+				escaped = true;
+				i++;
+			}
+		}
+		line.detailsStart = start + 1;
+		line.detailsEnd = end - 1;
+		line.detailsEscaped = escaped;
+		return line.detailsEnd > line.detailsStart ? null : DETAILS_REQUIRED;
+	}
+
+	/**
+	 * @return The value of the ASCII digits, or -1 if one is not a digit.
+	 */
+	private static int digits(ByteBuffer buffer, int start, int end) {
+		int value = 0;
+		for (int i = start; i < end; i++) {
+			int digit = buffer.get(i) - '0';
+			if (digit < 0 || digit > 9) {
+				return -1;
+			}
+			value = value * 10 + digit;
+		}
+		return value;
+	}
+
+	private static boolean isLeapYear(int year) {
+		return year % 4 == 0 && (year % 100 != 0 || year % 400 == 0);
+	}
+
+	private static int indexOf(ByteBuffer buffer, char value, int start, int end) {
+		for (int i = start; i < end; i++) {
+			if (buffer.get(i) == value) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	private static boolean isHeader(ByteBuffer buffer, int lineEnd) {
+		if (lineEnd < HEADER.length) {
+			return false;
+		}
+		for (int i = 0; i < HEADER.length; i++) {
+			if (Character.toLowerCase(buffer.get(i)) != HEADER[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @return The offset after the first line feed at or after the given
+	 *         offset, or the file size if there is none.
+	 */
+	private static long nextLineStart(FileChannel channel, long from, long size) throws IOException {
+		ByteBuffer window = ByteBuffer.allocate(8192);
+		long position = from - 1;
+		while (position < size) {
+			window.clear();
+			int read = channel.read(window, position);
+			if (read <= 0) {
+				break;
+			}
+			for (int i = 0; i < read; i++) {
+				if (window.get(i) == '\n') {
+					return position + i + 1;
+				}
+			}
+			position += read;
+		}
+		return size;
+	}
+}
@@ -0,0 +1,32 @@
+package com.infy.RewardPointCalculator.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event for the JWT filter's handling of one request, up to
+ * the point it hands the request on.
+ *
+ * @author rifat.bano
+ */
+@Name(AuthFilterEvent.NAME)
+@Label("JWT Filter")
+@Category({ "Rewards", "Security" })
+@Description("Token resolution, verification and user load of one request")
+@StackTrace(false)
+public class AuthFilterEvent extends Event {
+
+	public static final String NAME = "com.infy.rewards.AuthFilter";
+
+	@Label("Outcome")
+	@Description("authenticated, anonymous, blacklisted or invalid")
+	private String outcome;
+
+	public void setOutcome(String outcome) {
+		this.outcome = outcome;
+	}
+}
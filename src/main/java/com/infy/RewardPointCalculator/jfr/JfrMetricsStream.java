@@ -0,0 +1,121 @@
+package com.infy.RewardPointCalculator.jfr;
+
+import java.time.Duration;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingStream;
+
+/**
+ * Turns the reward Flight Recorder events into live metrics by consuming them
+ * from an in-process recording stream.
+ *
+ * The stream enables the events, so they are only recorded while it runs; it
+ * is off by default (rewards.jfr.stream.enabled), and the events then cost a
+ * disabled check each. Events from a recording started with jcmd or
+ * -XX:StartFlightRecording are not affected by this switch.
+ *
+ * @author rifat.bano
+ */
+@Component
+public class JfrMetricsStream {
+
+	private static final Logger log = LoggerFactory.getLogger(JfrMetricsStream.class);
+
+	private final boolean enabled;
+	private final Duration threshold;
+	private final MeterRegistry meterRegistry;
+	private final Timer recomputeTotal;
+	private final Timer recomputeFetch;
+	private final Timer recomputeCalculate;
+	private final Timer recomputeSave;
+	private final DistributionSummary recomputeRows;
+	private RecordingStream stream;
+
+	/**
+	 * Creates the consumer. The recompute meters have fixed tags and are
+	 * registered here, so they all exist before the first event arrives.
+	 *
+	 * @param enabled       Whether the stream is started.
+	 * @param thresholdMs   Events shorter than this are not recorded.
+	 * @param meterRegistry The registry the metrics are published to.
+	 */
+	@Autowired
+	public JfrMetricsStream(@Value("${rewards.jfr.stream.enabled:false}") boolean enabled,
+			@Value("${rewards.jfr.stream.threshold-ms:0}") long thresholdMs, MeterRegistry meterRegistry) {
+		this.enabled = enabled;
+		this.threshold = Duration.ofMillis(thresholdMs);
+		this.meterRegistry = meterRegistry;
+		this.recomputeTotal = recomputeTimer("total");
+		this.recomputeFetch = recomputeTimer("fetch");
+		this.recomputeCalculate = recomputeTimer("calculate");
+		this.recomputeSave = recomputeTimer("save");
+		this.recomputeRows = DistributionSummary.builder("rewards.jfr.recompute.rows")
+				.description("Transactions read per recompute").register(meterRegistry);
+	}
+
+	/**
+	 * Starts the stream on its own thread, if enabled.
+	 */
+	@PostConstruct
+	public synchronized void start() {
+		if (!enabled || stream != null) {
+			return;
+		}
+		stream = new RecordingStream();
+		stream.enable(RewardRecomputeEvent.class).withThreshold(threshold);
+		stream.enable(RewardAccrualEvent.class).withThreshold(threshold);
+		stream.enable(AuthFilterEvent.class).withThreshold(threshold);
+		stream.onEvent(RewardRecomputeEvent.NAME, this::onRecompute);
+		stream.onEvent(RewardAccrualEvent.NAME, this::onAccrual);
+		stream.onEvent(AuthFilterEvent.NAME, this::onAuthFilter);
+		stream.startAsync();
+		log.info("Flight Recorder metrics stream started with threshold {} ms", threshold.toMillis());
+	}
+
+	/**
+	 * Stops the stream.
+	 */
+	@PreDestroy
+	public synchronized void stop() {
+		if (stream != null) {
+			stream.close();
+			stream = null;
+		}
+	}
+
+	private void onRecompute(RecordedEvent event) {
+		recomputeTotal.record(event.getDuration());
+		recomputeFetch.record(event.getDuration("fetchTime"));
+		recomputeCalculate.record(event.getDuration("calculateTime"));
+		recomputeSave.record(event.getDuration("saveTime"));
+		recomputeRows.record(event.getInt("transactionRows"));
+	}
+
+	private void onAccrual(RecordedEvent event) {
+		Timer.builder("rewards.jfr.accrual").tag("operation", event.getString("operation"))
+				.description("Reward point changes by one transaction, from Flight Recorder").register(meterRegistry)
+				.record(event.getDuration());
+	}
+
+	private void onAuthFilter(RecordedEvent event) {
+		Timer.builder("rewards.jfr.auth").tag("outcome", event.getString("outcome"))
+				.description("JWT filter handling, from Flight Recorder").register(meterRegistry)
+				.record(event.getDuration());
+	}
+
+	private Timer recomputeTimer(String phase) {
+		return Timer.builder("rewards.jfr.recompute").tag("phase", phase)
+				.description("Reward point recomputes by phase, from Flight Recorder").register(meterRegistry);
+	}
+}
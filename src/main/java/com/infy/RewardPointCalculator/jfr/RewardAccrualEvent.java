@@ -0,0 +1,53 @@
+package com.infy.RewardPointCalculator.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event for a change of a customer's monthly reward points by
+ * one transaction: its accrual. Edits and deletions recompute the month and
+ * are recorded as {@link RewardRecomputeEvent}s.
+ *
+ * @author rifat.bano
+ */
+@Name(RewardAccrualEvent.NAME)
+@Label("Reward Accrual")
+@Category({ "Rewards" })
+@Description("Reward points added or removed for one transaction")
+@StackTrace(false)
+public class RewardAccrualEvent extends Event {
+
+	public static final String NAME = "com.infy.rewards.RewardAccrual";
+
+	@Label("Operation")
+	@Description("accrual")
+	private String operation;
+
+	@Label("Customer ID")
+	private long customerId;
+
+	@Label("Year")
+	private int year;
+
+	@Label("Month")
+	private int month;
+
+	@Label("Points")
+	private int points;
+
+	@Label("Rows Updated")
+	private int rows;
+
+	public void set(String operation, long customerId, int year, int month, int points, int rows) {
+		this.operation = operation;
+		this.customerId = customerId;
+		this.year = year;
+		this.month = month;
+		this.points = points;
+		this.rows = rows;
+	}
+}
@@ -0,0 +1,76 @@
+package com.infy.RewardPointCalculator.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Flight Recorder event for the recompute of a customer's monthly reward
+ * points, split into the time spent fetching the transactions, calculating the
+ * points and saving the month. A recompute retried after a version conflict
+ * adds up the phases of all attempts.
+ *
+ * @author rifat.bano
+ */
+@Name(RewardRecomputeEvent.NAME)
+@Label("Reward Recompute")
+@Category({ "Rewards" })
+@Description("Recompute of the monthly reward points of a customer")
+@StackTrace(false)
+public class RewardRecomputeEvent extends Event {
+
+	public static final String NAME = "com.infy.rewards.RewardRecompute";
+
+	@Label("Customer ID")
+	private long customerId;
+
+	@Label("Year")
+	private int year;
+
+	@Label("Month")
+	private int month;
+
+	@Label("Transactions")
+	@Description("Transaction rows read by the last attempt")
+	private int transactionRows;
+
+	@Label("Points")
+	private int points;
+
+	@Label("Attempts")
+	private int attempts;
+
+	@Label("Fetch Time")
+	@Timespan(Timespan.NANOSECONDS)
+	private long fetchTime;
+
+	@Label("Calculate Time")
+	@Timespan(Timespan.NANOSECONDS)
+	private long calculateTime;
+
+	@Label("Save Time")
+	@Timespan(Timespan.NANOSECONDS)
+	private long saveTime;
+
+	/**
+	 * Adds the phases of one attempt.
+	 */
+	public void addAttempt(long fetchNanos, long calculateNanos, long saveNanos, int rows) {
+		attempts++;
+		fetchTime += fetchNanos;
+		calculateTime += calculateNanos;
+		saveTime += saveNanos;
+		transactionRows = rows;
+	}
+
+	public void set(long customerId, int year, int month, int points) {
+		this.customerId = customerId;
+		this.year = year;
+		this.month = month;
+		this.points = points;
+	}
+}
@@ -0,0 +1,95 @@
+package com.infy.RewardPointCalculator.ledger;
+
+/**
+ * Rebuilds the monthly balances from the newest snapshot and the ledger
+ * records appended after it.
+ *
+ * @author rifat.bano
+ */
+public class LedgerReplayer {
+
+	private final LedgerSegmentLog segmentLog;
+	private final LedgerSnapshotStore snapshotStore;
+
+	/**
+	 * Result of a replay.
+	 */
+	public static class Replay {
+
+		private final MonthlyBalances balances;
+		private final long snapshotPosition;
+		private final long position;
+		private final long replayedRecords;
+
+		public Replay(MonthlyBalances balances, long snapshotPosition, long position, long replayedRecords) {
+			this.balances = balances;
+			this.snapshotPosition = snapshotPosition;
+			this.position = position;
+			this.replayedRecords = replayedRecords;
+		}
+
+		public MonthlyBalances getBalances() {
+			return balances;
+		}
+
+		/**
+		 * @return The position of the snapshot the replay started from.
+		 */
+		public long getSnapshotPosition() {
+			return snapshotPosition;
+		}
+
+		/**
+		 * @return The ledger position the balances are valid for.
+		 */
+		public long getPosition() {
+			return position;
+		}
+
+		/**
+		 * @return The number of records applied on top of the snapshot.
+		 */
+		public long getReplayedRecords() {
+			return replayedRecords;
+		}
+	}
+
+	public LedgerReplayer(LedgerSegmentLog segmentLog, LedgerSnapshotStore snapshotStore) {
+		this.segmentLog = segmentLog;
+		this.snapshotStore = snapshotStore;
+	}
+
+	/**
+	 * Replays the ledger up to its current position.
+	 *
+	 * @return The rebuilt balances and the positions they cover.
+	 */
+	public Replay replay() {
+		LedgerSnapshotStore.Snapshot snapshot = snapshotStore.loadLatest();
+		MonthlyBalances balances = snapshot.getBalances();
+		long end = segmentLog.position();
+		long replayed = segmentLog.read(snapshot.getPosition(), end,
+				(type, customerId, year, month, points, transactionId, timestamp) -> {
+					if (type.isAbsolute()) {
+						balances.set(customerId, year, month, points);
+					} else {
+						balances.add(customerId, year, month, points);
+					}
+				});
+		return new Replay(balances, snapshot.getPosition(), snapshot.getPosition() + replayed, replayed);
+	}
+
+	/**
+	 * Replays the ledger and stores the result as a new snapshot, so the next
+	 * replay only has to read the records appended after it.
+	 *
+	 * @return The replay the snapshot was written from.
+	 */
+	public Replay snapshot() {
+		Replay replay = replay();
+		if (replay.getReplayedRecords() > 0) {
+			snapshotStore.write(replay.getPosition(), replay.getBalances());
+		}
+		return replay;
+	}
+}
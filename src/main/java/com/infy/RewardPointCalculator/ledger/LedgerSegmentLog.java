@@ -0,0 +1,211 @@
+package com.infy.RewardPointCalculator.ledger;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Append-only log of fixed-size binary reward records, split into
+ * memory-mapped segment files.
+ *
+ * Every segment holds the same number of records and is named after the
+ * position (record number) of its first record, for example
+ * ledger-00000000000002097152.seg. A record is 32 bytes:
+ *
+ * <pre>
+ * offset  size  field
+ *      0     1  type code (written last, 0 = not written)
+ *      1     1  month
+ *      2     2  year
+ *      4     4  points
+ *      8     8  customer ID
+ *     16     8  transaction ID (0 if none)
+ *     24     8  timestamp in epoch milliseconds
+ * </pre>
+ *
+ * The type code is written after the other fields, so a record interrupted by
+ * a crash is seen as the end of the log when the log is reopened.
+ *
+ * @author rifat.bano
+ */
+public class LedgerSegmentLog implements Closeable {
+
+	public static final int RECORD_SIZE = 32;
+
+	private static final String SEGMENT_PREFIX = "ledger-";
+	private static final String SEGMENT_SUFFIX = ".seg";
+
+	private final Path directory;
+	private final int recordsPerSegment;
+
+	private MappedByteBuffer activeSegment;
+	private long activeSegmentBase;
+	private int activeSegmentRecords;
+	private volatile long position;
+
+	/**
+	 * Receives the records read from the log.
+	 */
+	@FunctionalInterface
+	public interface RecordVisitor {
+		void visit(RewardLedgerEventType type, long customerId, int year, int month, int points, long transactionId,
+				long timestamp);
+	}
+
+	/**
+	 * Opens the log in the given directory, creating it if needed, and positions
+	 * it after the last complete record.
+	 *
+	 * @param directory         The directory holding the segment files.
+	 * @param recordsPerSegment Number of records per segment file.
+	 * @throws UncheckedIOException If the segments cannot be opened.
+	 */
+	public LedgerSegmentLog(Path directory, int recordsPerSegment) {
+		if (recordsPerSegment <= 0) {
+			throw new IllegalArgumentException("Records per segment must be positive");
+		}
+		this.directory = directory;
+		this.recordsPerSegment = recordsPerSegment;
+		try {
+			Files.createDirectories(directory);
+			List<Long> bases = segmentBases();
+			long base = bases.isEmpty() ? 0 : bases.get(bases.size() - 1);
+			openActiveSegment(base);
+			int records = 0;
+			while (records < recordsPerSegment && activeSegment.get(records * RECORD_SIZE) != 0) {
+				records++;
+			}
+			activeSegmentRecords = records;
+			position = base + records;
+		} catch (IOException e) {
+			throw new UncheckedIOException("Unable to open reward ledger in " + directory, e);
+		}
+	}
+
+	/**
+	 * Appends a record to the log, starting a new segment when the active one is
+	 * full.
+	 *
+	 * @return The position of the appended record.
+	 */
+	public synchronized long append(RewardLedgerEventType type, long customerId, int year, int month, int points,
+			long transactionId, long timestamp) {
+		if (activeSegmentRecords == recordsPerSegment) {
+			activeSegment.force();
+			openActiveSegment(activeSegmentBase + recordsPerSegment);
+			activeSegmentRecords = 0;
+		}
+		int offset = activeSegmentRecords * RECORD_SIZE;
+		activeSegment.put(offset + 1, (byte) month);
+		activeSegment.putShort(offset + 2, (short) year);
+		activeSegment.putInt(offset + 4, points);
+		activeSegment.putLong(offset + 8, customerId);
+		activeSegment.putLong(offset + 16, transactionId);
+		activeSegment.putLong(offset + 24, timestamp);
+		activeSegment.put(offset, type.getCode());
+		activeSegmentRecords++;
+		long appended = position;
+		position = appended + 1;
+		return appended;
+	}
+
+	/**
+	 * Flushes the active segment to disk.
+	 */
+	public synchronized void force() {
+		activeSegment.force();
+	}
+
+	/**
+	 * @return The number of records appended so far, which is also the position
+	 *         the next record will get.
+	 */
+	public long position() {
+		return position;
+	}
+
+	/**
+	 * Reads the records in the range [from, to) in order. Only records appended
+	 * before the call are guaranteed to be visible.
+	 *
+	 * @param from    The position of the first record to read.
+	 * @param to      The position after the last record to read.
+	 * @param visitor Receives every record.
+	 * @return The number of records read.
+	 */
+	public long read(long from, long to, RecordVisitor visitor) {
+		long end = Math.min(to, position);
+		long read = 0;
+		try {
+			for (long base : segmentBases()) {
+				long segmentEnd = base + recordsPerSegment;
+				if (segmentEnd <= from || base >= end) {
+					continue;
+				}
+				MappedByteBuffer segment;
+				try (FileChannel channel = FileChannel.open(segmentPath(base), StandardOpenOption.READ)) {
+					segment = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+				}
+				int first = (int) (Math.max(from, base) - base);
+				int last = (int) (Math.min(end, segmentEnd) - base);
+				for (int index = first; index < last; index++) {
+					int offset = index * RECORD_SIZE;
+					byte code = segment.get(offset);
+					if (code == 0) {
+						break;
+					}
+					visitor.visit(RewardLedgerEventType.fromCode(code), segment.getLong(offset + 8),
+							segment.getShort(offset + 2), segment.get(offset + 1), segment.getInt(offset + 4),
+							segment.getLong(offset + 16), segment.getLong(offset + 24));
+					read++;
+				}
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException("Unable to read reward ledger in " + directory, e);
+		}
+		return read;
+	}
+
+	/**
+	 * Flushes the active segment. The mapping itself is released by the garbage
+	 * collector.
+	 */
+	@Override
+	public synchronized void close() {
+		activeSegment.force();
+	}
+
+	private void openActiveSegment(long base) {
+		try (FileChannel channel = FileChannel.open(segmentPath(base), StandardOpenOption.CREATE,
+				StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+			activeSegment = channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) recordsPerSegment * RECORD_SIZE);
+			activeSegmentBase = base;
+		} catch (IOException e) {
+			throw new UncheckedIOException("Unable to open reward ledger segment " + base, e);
+		}
+	}
+
+	private List<Long> segmentBases() throws IOException {
+		List<Long> bases = new ArrayList<>();
+		try (Stream<Path> files = Files.list(directory)) {
+			files.map(file -> file.getFileName().toString())
+					.filter(name -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX))
+					.map(name -> Long.parseLong(
+							name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length())))
+					.sorted().forEach(bases::add);
+		}
+		return bases;
+	}
+
+	private Path segmentPath(long base) {
+		return directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, base, SEGMENT_SUFFIX));
+	}
+}
@@ -0,0 +1,207 @@
+package com.infy.RewardPointCalculator.ledger;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Stores snapshots of the monthly balances next to the ledger segments.
+ *
+ * A snapshot file is named after the ledger position it covers, for example
+ * snapshot-00000000000000500000.snap holds the balances after the first 500000
+ * records. It contains a header (magic, format version, position, entry
+ * count), one entry per customer-month and a CRC32 of everything before it.
+ * Snapshots are written to a temporary file and moved into place, so a crash
+ * never leaves a partial snapshot behind. A snapshot failing its checksum is
+ * skipped in favour of the previous one.
+ *
+ * @author rifat.bano
+ */
+public class LedgerSnapshotStore {
+
+	private static final Logger log = LoggerFactory.getLogger(LedgerSnapshotStore.class);
+
+	private static final int MAGIC = 0x52504C53;
+	private static final int FORMAT_VERSION = 1;
+	private static final String SNAPSHOT_PREFIX = "snapshot-";
+	private static final String SNAPSHOT_SUFFIX = ".snap";
+
+	private final Path directory;
+	private final int retained;
+
+	/**
+	 * A snapshot read back from disk.
+	 */
+	public static class Snapshot {
+
+		private final long position;
+		private final MonthlyBalances balances;
+
+		public Snapshot(long position, MonthlyBalances balances) {
+			this.position = position;
+			this.balances = balances;
+		}
+
+		/**
+		 * @return The number of ledger records included in the balances.
+		 */
+		public long getPosition() {
+			return position;
+		}
+
+		public MonthlyBalances getBalances() {
+			return balances;
+		}
+	}
+
+	/**
+	 * @param directory The directory holding the snapshots.
+	 * @param retained  Number of snapshots kept, older ones are deleted.
+	 */
+	public LedgerSnapshotStore(Path directory, int retained) {
+		this.directory = directory;
+		this.retained = Math.max(1, retained);
+	}
+
+	/**
+	 * Writes a snapshot of the balances after the given ledger position and
+	 * deletes snapshots beyond the retained count.
+	 *
+	 * @param position The number of ledger records included in the balances.
+	 * @param balances The balances to store.
+	 * @return The path of the written snapshot.
+	 */
+	public Path write(long position, MonthlyBalances balances) {
+		Path target = snapshotPath(position);
+		Path temporary = directory.resolve(target.getFileName() + ".tmp");
+		try {
+			Files.createDirectories(directory);
+			CRC32 crc = new CRC32();
+			try (OutputStream file = Files.newOutputStream(temporary);
+					DataOutputStream out = new DataOutputStream(
+							new CheckedOutputStream(new BufferedOutputStream(file, 1 << 16), crc))) {
+				out.writeInt(MAGIC);
+				out.writeInt(FORMAT_VERSION);
+				out.writeLong(position);
+				out.writeInt(balances.size());
+				IOException[] failure = new IOException[1];
+				balances.forEach((customerId, year, month, points) -> {
+					if (failure[0] != null) {
+						return;
+					}
+					try {
+						out.writeLong(customerId);
+						out.writeShort(year);
+						out.writeByte(month);
+						out.writeInt(points);
+					} catch (IOException e) {
+						failure[0] = e;
+					}
+				});
+				if (failure[0] != null) {
+					throw failure[0];
+				}
+				out.flush();
+				// The checksum itself is written past the checked stream
+				DataOutputStream trailer = new DataOutputStream(file);
+				trailer.writeLong(crc.getValue());
+				trailer.flush();
+			}
+			Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			deleteOldSnapshots();
+			return target;
+		} catch (IOException e) {
+			throw new UncheckedIOException("Unable to write reward ledger snapshot " + target, e);
+		}
+	}
+
+	/**
+	 * Loads the newest readable snapshot.
+	 *
+	 * @return The snapshot, or an empty snapshot at position 0 if there is none.
+	 */
+	public Snapshot loadLatest() {
+		List<Long> positions;
+		try {
+			positions = snapshotPositions();
+		} catch (IOException e) {
+			throw new UncheckedIOException("Unable to list reward ledger snapshots in " + directory, e);
+		}
+		for (int i = positions.size() - 1; i >= 0; i--) {
+			Path path = snapshotPath(positions.get(i));
+			try {
+				return read(path);
+			} catch (IOException | IllegalStateException e) {
+				log.warn("Skipping unreadable reward ledger snapshot {}: {}", path, e.getMessage());
+			}
+		}
+		return new Snapshot(0, new MonthlyBalances());
+	}
+
+	private Snapshot read(Path path) throws IOException {
+		CRC32 crc = new CRC32();
+		try (InputStream file = new BufferedInputStream(Files.newInputStream(path), 1 << 16);
+				DataInputStream in = new DataInputStream(new CheckedInputStream(file, crc))) {
+			if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+				throw new IllegalStateException("Not a reward ledger snapshot");
+			}
+			long position = in.readLong();
+			int entries = in.readInt();
+			MonthlyBalances balances = new MonthlyBalances(entries);
+			for (int i = 0; i < entries; i++) {
+				long customerId = in.readLong();
+				int year = in.readShort();
+				int month = in.readByte();
+				balances.set(customerId, year, month, in.readInt());
+			}
+			long expected = crc.getValue();
+			if (new DataInputStream(file).readLong() != expected) {
+				throw new IllegalStateException("Checksum mismatch");
+			}
+			return new Snapshot(position, balances);
+		}
+	}
+
+	private void deleteOldSnapshots() throws IOException {
+		List<Long> positions = snapshotPositions();
+		for (int i = 0; i < positions.size() - retained; i++) {
+			Files.deleteIfExists(snapshotPath(positions.get(i)));
+		}
+	}
+
+	private List<Long> snapshotPositions() throws IOException {
+		List<Long> positions = new ArrayList<>();
+		if (!Files.isDirectory(directory)) {
+			return positions;
+		}
+		try (Stream<Path> files = Files.list(directory)) {
+			files.map(file -> file.getFileName().toString())
+					.filter(name -> name.startsWith(SNAPSHOT_PREFIX) && name.endsWith(SNAPSHOT_SUFFIX))
+					.map(name -> Long.parseLong(
+							name.substring(SNAPSHOT_PREFIX.length(), name.length() - SNAPSHOT_SUFFIX.length())))
+					.sorted().forEach(positions::add);
+		}
+		return positions;
+	}
+
+	private Path snapshotPath(long position) {
+		return directory.resolve(String.format("%s%020d%s", SNAPSHOT_PREFIX, position, SNAPSHOT_SUFFIX));
+	}
+}
@@ -0,0 +1,141 @@
+package com.infy.RewardPointCalculator.ledger;
+
+/**
+ * Monthly point totals per customer, kept in a primitive open-addressing hash
+ * table so that replaying millions of ledger records does not box a Long and an
+ * Integer per record.
+ *
+ * The customer ID, year and month are packed into one long key: the customer ID
+ * in the upper 44 bits, the year in the next 16 and the month in the lowest 4.
+ * Key 0 marks an empty slot, which is never a valid key because months start at
+ * 1. Not thread-safe.
+ *
+ * @author rifat.bano
+ */
+public class MonthlyBalances {
+
+	/**
+	 * Receives the monthly totals when iterating.
+	 */
+	@FunctionalInterface
+	public interface BalanceVisitor {
+		void visit(long customerId, int year, int month, int points);
+	}
+
+	private long[] keys;
+	private int[] values;
+	private int size;
+
+	public MonthlyBalances() {
+		this(1024);
+	}
+
+	public MonthlyBalances(int expectedSize) {
+		int capacity = Integer.highestOneBit(Math.max(16, expectedSize * 2) - 1) << 1;
+		keys = new long[capacity];
+		values = new int[capacity];
+	}
+
+	/**
+	 * Adds points to the monthly total, starting from zero for a new month.
+	 */
+	public void add(long customerId, int year, int month, int points) {
+		int slot = slotFor(key(customerId, year, month));
+		values[slot] += points;
+	}
+
+	/**
+	 * Replaces the monthly total.
+	 */
+	public void set(long customerId, int year, int month, int points) {
+		int slot = slotFor(key(customerId, year, month));
+		values[slot] = points;
+	}
+
+	/**
+	 * @return The monthly total, or 0 if the month is unknown.
+	 */
+	public int get(long customerId, int year, int month) {
+		long key = key(customerId, year, month);
+		int mask = keys.length - 1;
+		for (int slot = mix(key) & mask;; slot = (slot + 1) & mask) {
+			if (keys[slot] == key) {
+				return values[slot];
+			}
+			if (keys[slot] == 0) {
+				return 0;
+			}
+		}
+	}
+
+	/**
+	 * @return The number of customer-months held.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Calls the visitor for every customer-month.
+	 */
+	public void forEach(BalanceVisitor visitor) {
+		for (int slot = 0; slot < keys.length; slot++) {
+			long key = keys[slot];
+			if (key != 0) {
+				visitor.visit(key >>> 20, (int) ((key >>> 4) & 0xFFFF), (int) (key & 0xF), values[slot]);
+			}
+		}
+	}
+
+	/**
+	 * Finds the slot of a key, inserting it with value 0 if it is missing.
+	 */
+	private int slotFor(long key) {
+		if ((size + 1) * 2 > keys.length) {
+			grow();
+		}
+		int mask = keys.length - 1;
+		for (int slot = mix(key) & mask;; slot = (slot + 1) & mask) {
+			if (keys[slot] == key) {
+				return slot;
+			}
+			if (keys[slot] == 0) {
+				keys[slot] = key;
+				size++;
+				return slot;
+			}
+		}
+	}
+
+	private void grow() {
+		long[] oldKeys = keys;
+		int[] oldValues = values;
+		keys = new long[oldKeys.length * 2];
+		values = new int[oldKeys.length * 2];
+		int mask = keys.length - 1;
+		for (int i = 0; i < oldKeys.length; i++) {
+			long key = oldKeys[i];
+			if (key != 0) {
+				int slot = mix(key) & mask;
+				while (keys[slot] != 0) {
+					slot = (slot + 1) & mask;
+				}
+				keys[slot] = key;
+				values[slot] = oldValues[i];
+			}
+		}
+	}
+
+	static long key(long customerId, int year, int month) {
+		if (month < 1 || month > 12 || year < 0 || year > 0xFFFF || customerId < 0 || customerId >= (1L << 44)) {
+			throw new IllegalArgumentException(
+					"Unsupported customer-month: customerId=" + customerId + ", year=" + year + ", month=" + month);
+		}
+		return (customerId << 20) | ((long) year << 4) | month;
+	}
+
+	private static int mix(long key) {
+		long hash = key * 0x9E3779B97F4A7C15L;
+		return (int) (hash ^ (hash >>> 32));
+	}
+}
@@ -0,0 +1,175 @@
+package com.infy.RewardPointCalculator.ledger;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Append-only audit trail of every change made to the monthly reward points.
+ *
+ * Each accrual, edit, deletion and recompute applied to reward_points is
+ * appended as a 32 byte record to a memory-mapped, segmented log (see
+ * {@link LedgerSegmentLog}). Snapshots of all monthly totals are written
+ * periodically next to it, so {@link #replay()} only has to read the records
+ * appended after the newest snapshot to rebuild every monthly total.
+ *
+ * Records are appended after the reward points change has been committed, so
+ * the ledger never contains changes that were rolled back: a change recorded
+ * inside a transaction, for example an idempotent submission, is appended
+ * once that transaction commits, and dropped if it rolls back. A failed
+ * append is logged and counted but does not fail the request, the database
+ * stays the source of truth and the next recompute of the month repairs the
+ * total in the ledger.
+ *
+ * @author rifat.bano
+ */
+@Component
+public class RewardLedger {
+
+	private static final Logger log = LoggerFactory.getLogger(RewardLedger.class);
+
+	private final boolean enabled;
+	private final LedgerSegmentLog segmentLog;
+	private final LedgerReplayer replayer;
+
+	private final Counter appendFailureCounter;
+	private final Timer replayTimer;
+
+	/**
+	 * Opens the ledger in the configured directory.
+	 *
+	 * @param enabled           Whether changes are recorded.
+	 * @param directory         The directory holding segments and snapshots.
+	 * @param recordsPerSegment Number of records per segment file.
+	 * @param snapshotsRetained Number of snapshots kept on disk.
+	 * @param meterRegistry     The registry the ledger metrics are published to.
+	 */
+	@Autowired
+	public RewardLedger(@Value("${rewards.ledger.enabled:true}") boolean enabled,
+			@Value("${rewards.ledger.dir:data/ledger}") String directory,
+			@Value("${rewards.ledger.records-per-segment:2097152}") int recordsPerSegment,
+			@Value("${rewards.ledger.snapshots-retained:2}") int snapshotsRetained, MeterRegistry meterRegistry) {
+		this.enabled = enabled;
+		if (enabled) {
+			Path path = Paths.get(directory);
+			this.segmentLog = new LedgerSegmentLog(path, recordsPerSegment);
+			this.replayer = new LedgerReplayer(segmentLog, new LedgerSnapshotStore(path, snapshotsRetained));
+			Gauge.builder("rewards.ledger.position", segmentLog, LedgerSegmentLog::position)
+					.description("Number of records in the reward ledger").register(meterRegistry);
+			log.info("Reward ledger opened in {} at position {}", path.toAbsolutePath(), segmentLog.position());
+		} else {
+			this.segmentLog = null;
+			this.replayer = null;
+		}
+		this.appendFailureCounter = Counter.builder("rewards.ledger.append.failures")
+				.description("Reward point changes that could not be recorded in the ledger").register(meterRegistry);
+		this.replayTimer = Timer.builder("rewards.ledger.replay").description("Time to rebuild the monthly totals")
+				.register(meterRegistry);
+	}
+
+	/**
+	 * Records a change of a monthly total, right away or, inside a transaction,
+	 * once it commits.
+	 *
+	 * @param type          The kind of change.
+	 * @param customerId    The ID of the customer.
+	 * @param year          The year of the monthly total.
+	 * @param month         The month of the monthly total.
+	 * @param points        The points added (negative if removed), or the new
+	 *                      total for a recompute.
+	 * @param transactionId The ID of the transaction causing the change, or null.
+	 */
+	public void record(RewardLedgerEventType type, Long customerId, int year, int month, int points,
+			Long transactionId) {
+		if (!enabled) {
+			return;
+		}
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					append(type, customerId, year, month, points, transactionId);
+				}
+			});
+			return;
+		}
+		append(type, customerId, year, month, points, transactionId);
+	}
+
+	private void append(RewardLedgerEventType type, Long customerId, int year, int month, int points,
+			Long transactionId) {
+		try {
+			segmentLog.append(type, customerId, year, month, points, transactionId == null ? 0 : transactionId,
+					System.currentTimeMillis());
+		} catch (RuntimeException e) {
+			appendFailureCounter.increment();
+			log.error("Error occurred while recording {} of {} points in the reward ledger for customerId: {}", type,
+					points, customerId, e);
+		}
+	}
+
+	/**
+	 * Rebuilds all monthly totals from the newest snapshot and the records
+	 * appended after it.
+	 *
+	 * @return The rebuilt totals.
+	 * @throws IllegalStateException If the ledger is disabled.
+	 */
+	public LedgerReplayer.Replay replay() {
+		if (!enabled) {
+			throw new IllegalStateException("The reward ledger is disabled");
+		}
+		long start = System.nanoTime();
+		LedgerReplayer.Replay replay = replayer.replay();
+		replayTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+		log.info("Replayed {} reward ledger records on top of snapshot {} in {} ms", replay.getReplayedRecords(),
+				replay.getSnapshotPosition(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+		return replay;
+	}
+
+	/**
+	 * Writes a snapshot of all monthly totals, so that later replays start from
+	 * it. Runs periodically and can be triggered through the admin API.
+	 */
+	@Scheduled(initialDelayString = "${rewards.ledger.snapshot-interval-ms:600000}",
+			fixedDelayString = "${rewards.ledger.snapshot-interval-ms:600000}")
+	public void snapshot() {
+		if (!enabled) {
+			return;
+		}
+		try {
+			segmentLog.force();
+			LedgerReplayer.Replay replay = replayer.snapshot();
+			log.info("Reward ledger snapshot written at position {} with {} monthly totals", replay.getPosition(),
+					replay.getBalances().size());
+		} catch (RuntimeException e) {
+			log.error("Error occurred while writing the reward ledger snapshot", e);
+		}
+	}
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	@PreDestroy
+	public void close() {
+		if (enabled) {
+			segmentLog.close();
+		}
+	}
+}
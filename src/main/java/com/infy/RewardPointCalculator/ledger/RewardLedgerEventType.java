@@ -0,0 +1,66 @@
+package com.infy.RewardPointCalculator.ledger;
+
+/**
+ * Kinds of changes recorded in the reward ledger.
+ *
+ * Accrual, edit and deletion events are deltas: they carry the change of the
+ * monthly total, positive or negative, and replay adds them up. For an edit or
+ * a deletion that is the difference between the month recomputed after the
+ * change and its total before, not the points of the transaction; an edit
+ * moving a transaction to another month records one delta for each month. A
+ * recompute event is absolute: it carries the new monthly total, and replay
+ * replaces the total with it.
+ *
+ * @author rifat.bano
+ */
+public enum RewardLedgerEventType {
+
+	ACCRUAL((byte) 1, false), EDIT((byte) 2, false), DELETION((byte) 3, false), RECOMPUTE((byte) 4, true);
+
+	private final byte code;
+	private final boolean absolute;
+
+	RewardLedgerEventType(byte code, boolean absolute) {
+		this.code = code;
+		this.absolute = absolute;
+	}
+
+	/**
+	 * @return The code stored in the binary record. Zero is never used, it marks
+	 *         the unwritten end of a segment.
+	 */
+	public byte getCode() {
+		return code;
+	}
+
+	/**
+	 * @return True if the points of the event replace the monthly total instead
+	 *         of being added to it.
+	 */
+	public boolean isAbsolute() {
+		return absolute;
+	}
+
+	/**
+	 * Looks up an event type by its record code.
+	 *
+	 * @param code The code read from a record.
+	 * @return The event type.
+	 * @throws IllegalStateException If the code is unknown, which means the
+	 *                               ledger is corrupt.
+	 */
+	public static RewardLedgerEventType fromCode(byte code) {
+		switch (code) {
+		case 1:
+			return ACCRUAL;
+		case 2:
+			return EDIT;
+		case 3:
+			return DELETION;
+		case 4:
+			return RECOMPUTE;
+		default:
+			throw new IllegalStateException("Unknown reward ledger record type: " + code);
+		}
+	}
+}
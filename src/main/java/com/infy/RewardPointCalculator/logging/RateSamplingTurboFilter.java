@@ -0,0 +1,124 @@
+package com.infy.RewardPointCalculator.logging;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Marker;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+
+/**
+ * Logback turbo filter limiting how many INFO and lower events a category of
+ * loggers may write per period. A category is a logger name prefix with its
+ * limit, configured as "prefix=limit" pairs separated by commas, for example
+ * "com.infy.RewardPointCalculator.tokenConfig=20". A logger belongs to the
+ * category with the longest matching prefix; loggers outside all categories
+ * are not limited.
+ *
+ * WARN and ERROR events always pass. Events over the limit are denied before
+ * the message is formatted, and counted, so the number of suppressed events
+ * can be read from {@link #getSuppressed()}.
+ *
+ * Levels are compared against the logger's effective level directly, because
+ * asking the logger whether a level is enabled would run the turbo filters
+ * again.
+ *
+ * @author rifat.bano
+ */
+public class RateSamplingTurboFilter extends TurboFilter {
+
+	private final List<Category> categories = new ArrayList<>();
+	private final AtomicLong suppressed = new AtomicLong();
+	private String rates = "";
+	private long periodMillis = 1000;
+
+	/**
+	 * The event count of one category within the current period.
+	 */
+	private static class Category {
+
+		private final String prefix;
+		private final long limit;
+		private final AtomicLong window = new AtomicLong();
+		private final AtomicLong count = new AtomicLong();
+
+		private Category(String prefix, long limit) {
+			this.prefix = prefix;
+			this.limit = limit;
+		}
+
+		private boolean tryAcquire(long now, long periodMillis) {
+			long period = now / periodMillis;
+			long current = window.get();
+			if (current != period && window.compareAndSet(current, period)) {
+				count.set(0);
+			}
+			return count.incrementAndGet() <= limit;
+		}
+	}
+
+	/**
+	 * @param rates The categories as comma separated "prefix=limit" pairs.
+	 */
+	public void setRates(String rates) {
+		this.rates = rates;
+	}
+
+	/**
+	 * @param periodMillis The length of the period the limits apply to.
+	 */
+	public void setPeriodMillis(long periodMillis) {
+		this.periodMillis = periodMillis;
+	}
+
+	/**
+	 * @return The number of events denied since the filter started.
+	 */
+	public long getSuppressed() {
+		return suppressed.get();
+	}
+
+	@Override
+	public void start() {
+		categories.clear();
+		for (String rate : rates.split(",")) {
+			String[] parts = rate.trim().split("=");
+			if (parts.length != 2) {
+				continue;
+			}
+			try {
+				categories.add(new Category(parts[0].trim(), Long.parseLong(parts[1].trim())));
+			} catch (NumberFormatException e) {
+				addWarn("Ignoring log sampling rate " + rate);
+			}
+		}
+		// Longest prefix first, so the first match is the most specific category
+		categories.sort(Comparator.comparingInt((Category category) -> category.prefix.length()).reversed());
+		super.start();
+	}
+
+	@Override
+	public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params,
+			Throwable t) {
+		if (!isStarted() || level == null || level.isGreaterOrEqual(Level.WARN)
+				|| !level.isGreaterOrEqual(logger.getEffectiveLevel())) {
+			return FilterReply.NEUTRAL;
+		}
+		String name = logger.getName();
+		for (Category category : categories) {
+			if (name.startsWith(category.prefix)) {
+				if (category.tryAcquire(System.currentTimeMillis(), periodMillis)) {
+					return FilterReply.NEUTRAL;
+				}
+				suppressed.incrementAndGet();
+				return FilterReply.DENY;
+			}
+		}
+		return FilterReply.NEUTRAL;
+	}
+}
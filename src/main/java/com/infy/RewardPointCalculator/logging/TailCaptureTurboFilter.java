@@ -0,0 +1,45 @@
+package com.infy.RewardPointCalculator.logging;
+
+import org.slf4j.Marker;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+
+/**
+ * Logback turbo filter handing the DEBUG events a logger's level would discard
+ * to the {@link TailLogBuffer} of the current request. It never changes
+ * whether an event is logged, and does nothing on threads without an open
+ * buffer.
+ *
+ * Only loggers under the configured prefix (com.infy. by default) are
+ * captured, so the DEBUG calls of Spring, Hibernate and other libraries cost
+ * no allocation on the request path.
+ *
+ * @author rifat.bano
+ */
+public class TailCaptureTurboFilter extends TurboFilter {
+
+	private String loggerPrefix = "com.infy.";
+
+	/**
+	 * @param loggerPrefix The prefix of the logger names whose discarded DEBUG
+	 *                     events are captured.
+	 */
+	public void setLoggerPrefix(String loggerPrefix) {
+		this.loggerPrefix = loggerPrefix;
+	}
+
+	@Override
+	public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params,
+			Throwable t) {
+		// A null format is a level check such as isDebugEnabled(), not an event
+		if (format != null && level != null && level.isGreaterOrEqual(Level.DEBUG)
+				&& !level.isGreaterOrEqual(logger.getEffectiveLevel()) && TailLogBuffer.isOpen()
+				&& logger.getName().startsWith(loggerPrefix)) {
+			TailLogBuffer.capture(logger.getName(), level.toString(), format, params, t);
+		}
+		return FilterReply.NEUTRAL;
+	}
+}
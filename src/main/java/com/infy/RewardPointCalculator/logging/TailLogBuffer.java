@@ -0,0 +1,85 @@
+package com.infy.RewardPointCalculator.logging;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.slf4j.helpers.MessageFormatter;
+
+import com.infy.RewardPointCalculator.Util.DropOldestBuffer;
+
+/**
+ * The debug context of the request running on the current thread. While a
+ * buffer is open, log events below the logger's level are kept in it instead
+ * of being discarded, the newest ones if there are more than fit. When the
+ * request fails the buffered events are written out, otherwise they are
+ * dropped with the buffer.
+ *
+ * Messages are formatted only when the buffer is flushed, so capturing costs
+ * one small allocation per event.
+ *
+ * @author rifat.bano
+ */
+public final class TailLogBuffer {
+
+	private static final ThreadLocal<DropOldestBuffer<Entry>> CURRENT = new ThreadLocal<>();
+
+	/**
+	 * A captured log event.
+	 */
+	public record Entry(long timestamp, String thread, String loggerName, String level, String format,
+			Object[] params, Throwable throwable) {
+
+		/**
+		 * @return The message with its parameters filled in.
+		 */
+		public String message() {
+			return MessageFormatter.arrayFormat(format, params).getMessage();
+		}
+	}
+
+	private TailLogBuffer() {
+	}
+
+	/**
+	 * Opens a buffer for the current thread, replacing any buffer left open.
+	 *
+	 * @param capacity The maximum number of events kept.
+	 */
+	public static void open(int capacity) {
+		CURRENT.set(new DropOldestBuffer<>(capacity));
+	}
+
+	/**
+	 * Closes the buffer of the current thread.
+	 *
+	 * @return The buffered events, oldest first, or an empty list if no buffer
+	 *         was open.
+	 */
+	public static List<Entry> close() {
+		DropOldestBuffer<Entry> buffer = CURRENT.get();
+		CURRENT.remove();
+		List<Entry> entries = new ArrayList<>();
+		if (buffer != null) {
+			buffer.drainTo(entries);
+		}
+		return entries;
+	}
+
+	/**
+	 * @return True if a buffer is open on the current thread.
+	 */
+	public static boolean isOpen() {
+		return CURRENT.get() != null;
+	}
+
+	/**
+	 * Adds an event to the buffer of the current thread, if one is open.
+	 */
+	static void capture(String loggerName, String level, String format, Object[] params, Throwable throwable) {
+		DropOldestBuffer<Entry> buffer = CURRENT.get();
+		if (buffer != null) {
+			buffer.offer(new Entry(System.currentTimeMillis(), Thread.currentThread().getName(), loggerName, level,
+					format, params, throwable));
+		}
+	}
+}
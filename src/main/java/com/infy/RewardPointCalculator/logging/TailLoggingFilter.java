@@ -0,0 +1,82 @@
+package com.infy.RewardPointCalculator.logging;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Tail-based logging of requests. When enabled, every request gets a
+ * {@link TailLogBuffer} that collects the DEBUG context the log levels would
+ * discard. If the request throws or ends with a 5xx status, the buffered
+ * events are written at WARN after a summary line; successful requests write
+ * nothing extra.
+ *
+ * Disabled by default (rewards.logging.tail.enabled), the filter then only
+ * passes the request on.
+ *
+ * @author rifat.bano
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class TailLoggingFilter extends OncePerRequestFilter {
+
+	private static final Logger log = LoggerFactory.getLogger(TailLoggingFilter.class);
+
+	private final boolean enabled;
+	private final int capacity;
+
+	/**
+	 * Creates the filter.
+	 *
+	 * @param enabled  Whether the debug context of failed requests is kept.
+	 * @param capacity The maximum number of events kept per request.
+	 */
+	public TailLoggingFilter(@Value("${rewards.logging.tail.enabled:false}") boolean enabled,
+			@Value("${rewards.logging.tail.capacity:64}") int capacity) {
+		this.enabled = enabled;
+		this.capacity = capacity;
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+			throws ServletException, IOException {
+		if (!enabled) {
+			filterChain.doFilter(request, response);
+			return;
+		}
+
+		TailLogBuffer.open(capacity);
+		boolean failed = true;
+		try {
+			filterChain.doFilter(request, response);
+			failed = response.getStatus() >= HttpServletResponse.SC_INTERNAL_SERVER_ERROR;
+		} finally {
+			List<TailLogBuffer.Entry> entries = TailLogBuffer.close();
+			if (failed && !entries.isEmpty()) {
+				flush(request, response, entries);
+			}
+		}
+	}
+
+	private void flush(HttpServletRequest request, HttpServletResponse response, List<TailLogBuffer.Entry> entries) {
+		log.warn("Request {} {} failed with status {}, {} buffered debug events follow", request.getMethod(),
+				request.getRequestURI(), response.getStatus(), entries.size());
+		for (TailLogBuffer.Entry entry : entries) {
+			log.warn("[tail] {} {} {} - {}", Instant.ofEpochMilli(entry.timestamp()), entry.level(),
+					entry.loggerName(), entry.message(), entry.throwable());
+		}
+	}
+}
@@ -0,0 +1,45 @@
+package com.infy.RewardPointCalculator.logging;
+
+import java.util.regex.Pattern;
+
+import ch.qos.logback.classic.pattern.ClassicConverter;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+
+/**
+ * Logback converter writing the formatted message with JSON Web Tokens and
+ * Bearer credentials masked, so a token logged by mistake cannot be replayed
+ * from the logs. It is registered as %maskedMsg in logback-spring.xml.
+ *
+ * Messages that contain neither a token header nor "Bearer " are returned as
+ * they are, without running the pattern.
+ *
+ * @author rifat.bano
+ */
+public class TokenMaskingConverter extends ClassicConverter {
+
+	private static final Pattern JWT = Pattern.compile("eyJ[A-Za-z0-9_-]*\\.[A-Za-z0-9_-]+\\.[A-Za-z0-9_-]*");
+	private static final Pattern BEARER = Pattern.compile("Bearer\\s+\\S+");
+
+	@Override
+	public String convert(ILoggingEvent event) {
+		return mask(event.getFormattedMessage());
+	}
+
+	/**
+	 * @param message The message, may be null.
+	 * @return The message with every token replaced by a placeholder.
+	 */
+	public static String mask(String message) {
+		if (message == null) {
+			return null;
+		}
+		String masked = message;
+		if (masked.contains("eyJ")) {
+			masked = JWT.matcher(masked).replaceAll("[jwt]");
+		}
+		if (masked.contains("Bearer")) {
+			masked = BEARER.matcher(masked).replaceAll("Bearer [masked]");
+		}
+		return masked;
+	}
+}
@@ -0,0 +1,140 @@
+package com.infy.RewardPointCalculator.model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
+
+/**
+ * The running total of the reward points of a customer over all months. The
+ * row is kept in step with reward_points by the same deltas the writers apply
+ * to the monthly rows, so the total is read with one primary key lookup
+ * instead of summing every month. The version is incremented with every
+ * change.
+ *
+ * The points held by open reservations and the points redeemed are read along
+ * with the row from points_account, so the available points account for them.
+ */
+@Entity
+@Table(name = "customer_points_balance")
+public class CustomerPointsBalance {
+
+	@Id
+	private Long customerId;
+
+	@Column(nullable = false)
+	private long points;
+
+	@Column(nullable = false)
+	private long expiredPoints;
+
+	@Column(nullable = false)
+	private long version;
+
+	private LocalDateTime updatedAt;
+
+	@Transient
+	private long reservedPoints;
+
+	@Transient
+	private long redeemedPoints;
+
+	public CustomerPointsBalance() {
+		super();
+	}
+
+	public CustomerPointsBalance(Long customerId, long points, long expiredPoints, long version,
+			LocalDateTime updatedAt, long reservedPoints, long redeemedPoints) {
+		this.customerId = customerId;
+		this.points = points;
+		this.expiredPoints = expiredPoints;
+		this.version = version;
+		this.updatedAt = updatedAt;
+		this.reservedPoints = reservedPoints;
+		this.redeemedPoints = redeemedPoints;
+	}
+
+	public Long getCustomerId() {
+		return customerId;
+	}
+
+	public void setCustomerId(Long customerId) {
+		this.customerId = customerId;
+	}
+
+	public long getPoints() {
+		return points;
+	}
+
+	public void setPoints(long points) {
+		this.points = points;
+	}
+
+	public long getExpiredPoints() {
+		return expiredPoints;
+	}
+
+	public void setExpiredPoints(long expiredPoints) {
+		this.expiredPoints = expiredPoints;
+	}
+
+	/**
+	 * @return The points held by open reservations.
+	 */
+	public long getReservedPoints() {
+		return reservedPoints;
+	}
+
+	public void setReservedPoints(long reservedPoints) {
+		this.reservedPoints = reservedPoints;
+	}
+
+	/**
+	 * @return The points spent by committed redemptions.
+	 */
+	public long getRedeemedPoints() {
+		return redeemedPoints;
+	}
+
+	public void setRedeemedPoints(long redeemedPoints) {
+		this.redeemedPoints = redeemedPoints;
+	}
+
+	/**
+	 * @return The points of all months that have not expired, before any
+	 *         redemption.
+	 */
+	public long getEarnedPoints() {
+		return points - expiredPoints;
+	}
+
+	/**
+	 * @return The points that can still be reserved. Never negative, even when
+	 *         points were taken back after they were spent.
+	 */
+	public long getAvailablePoints() {
+		return Math.max(0, getEarnedPoints() - reservedPoints - redeemedPoints);
+	}
+
+	/**
+	 * @return A stamp incremented with every change of the balance.
+	 */
+	public long getVersion() {
+		return version;
+	}
+
+	public void setVersion(long version) {
+		this.version = version;
+	}
+
+	public LocalDateTime getUpdatedAt() {
+		return updatedAt;
+	}
+
+	public void setUpdatedAt(LocalDateTime updatedAt) {
+		this.updatedAt = updatedAt;
+	}
+}
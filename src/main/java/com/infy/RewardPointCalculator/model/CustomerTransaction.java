@@ -2,12 +2,14 @@ package com.infy.RewardPointCalculator.model;
 
 import java.time.LocalDate;
 
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Version;
 
 import com.fasterxml.jackson.annotation.JsonBackReference;
 
@@ -27,6 +29,12 @@ public class CustomerTransaction {
 	private String spentDetails;
 	private LocalDate date;
 
+	@Column(columnDefinition = "integer not null default 100")
+	private Integer multiplierPercent = 100;
+
+	@Version
+	private Long version;
+
 	public CustomerTransaction() {
 		super();
 	}
@@ -80,4 +88,25 @@ public class CustomerTransaction {
 		this.date = date;
 	}
 
+	/**
+	 * @return The category bonus multiplier in percent the transaction was
+	 *         recorded with. Its points are always calculated at this
+	 *         multiplier, so later category changes do not re-price it.
+	 */
+	public Integer getMultiplierPercent() {
+		return multiplierPercent;
+	}
+
+	public void setMultiplierPercent(Integer multiplierPercent) {
+		this.multiplierPercent = multiplierPercent;
+	}
+
+	public Long getVersion() {
+		return version;
+	}
+
+	public void setVersion(Long version) {
+		this.version = version;
+	}
+
 }
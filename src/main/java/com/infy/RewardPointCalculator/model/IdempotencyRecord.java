@@ -0,0 +1,98 @@
+package com.infy.RewardPointCalculator.model;
+
+import java.time.LocalDateTime;
+
+import org.hibernate.annotations.CreationTimestamp;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+
+/**
+ * Remembers which transaction was created for an Idempotency-Key sent by a
+ * customer. The unique key column guarantees that a key is only ever accepted
+ * once, even across application nodes. The record is written together with
+ * its transaction, and its request fingerprint tells a retry from a different
+ * request reusing the key.
+ */
+@Entity
+public class IdempotencyRecord {
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	private Long id;
+
+	@Column(nullable = false, unique = true)
+	private String idempotencyKey;
+
+	@Column(nullable = false)
+	private Long customerId;
+
+	private Long transactionId;
+
+	@Column(nullable = false, length = 64)
+	private String requestFingerprint;
+
+	@CreationTimestamp // Automatically sets createdAt when the entity is created
+	private LocalDateTime createdAt;
+
+	public IdempotencyRecord() {
+		super();
+	}
+
+	public IdempotencyRecord(String idempotencyKey, Long customerId) {
+		this.idempotencyKey = idempotencyKey;
+		this.customerId = customerId;
+	}
+
+	public Long getId() {
+		return id;
+	}
+
+	public void setId(Long id) {
+		this.id = id;
+	}
+
+	public String getIdempotencyKey() {
+		return idempotencyKey;
+	}
+
+	public void setIdempotencyKey(String idempotencyKey) {
+		this.idempotencyKey = idempotencyKey;
+	}
+
+	public Long getCustomerId() {
+		return customerId;
+	}
+
+	public void setCustomerId(Long customerId) {
+		this.customerId = customerId;
+	}
+
+	public Long getTransactionId() {
+		return transactionId;
+	}
+
+	public void setTransactionId(Long transactionId) {
+		this.transactionId = transactionId;
+	}
+
+	public String getRequestFingerprint() {
+		return requestFingerprint;
+	}
+
+	public void setRequestFingerprint(String requestFingerprint) {
+		this.requestFingerprint = requestFingerprint;
+	}
+
+	public LocalDateTime getCreatedAt() {
+		return createdAt;
+	}
+
+	public void setCreatedAt(LocalDateTime createdAt) {
+		this.createdAt = createdAt;
+	}
+
+}
@@ -0,0 +1,179 @@
+package com.infy.RewardPointCalculator.model;
+
+import java.time.LocalDateTime;
+
+import org.hibernate.annotations.UpdateTimestamp;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+
+/**
+ * Progress of one chunk of a transaction file import. A chunk covers a byte
+ * range of the file. It is marked done in the same database transaction that
+ * inserts its transactions and adds its reward points, so an import
+ * interrupted by a crash resumes with the chunks not done yet. The size and
+ * modification time of the file are kept to detect a file replaced before the
+ * import was resumed.
+ */
+@Entity
+public class ImportCheckpoint {
+
+	/**
+	 * State of a chunk.
+	 */
+	public enum Status {
+		PENDING, RUNNING, DONE, FAILED
+	}
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	private Long id;
+
+	@Column(nullable = false)
+	private String jobId;
+
+	@Column(nullable = false, length = 1024)
+	private String fileName;
+
+	private long fileSize;
+	private long fileModified;
+	private int chunkIndex;
+	private long rangeStart;
+	private long rangeEnd;
+
+	@Enumerated(EnumType.STRING)
+	@Column(nullable = false)
+	private Status status;
+
+	private long rowsImported;
+	private long rowsRejected;
+	private long monthsUpdated;
+
+	@UpdateTimestamp
+	private LocalDateTime updatedAt;
+
+	public ImportCheckpoint() {
+		super();
+	}
+
+	public ImportCheckpoint(String jobId, String fileName, long fileSize, long fileModified, int chunkIndex,
+			long rangeStart, long rangeEnd) {
+		this.jobId = jobId;
+		this.fileName = fileName;
+		this.fileSize = fileSize;
+		this.fileModified = fileModified;
+		this.chunkIndex = chunkIndex;
+		this.rangeStart = rangeStart;
+		this.rangeEnd = rangeEnd;
+		this.status = Status.PENDING;
+	}
+
+	public Long getId() {
+		return id;
+	}
+
+	public void setId(Long id) {
+		this.id = id;
+	}
+
+	public String getJobId() {
+		return jobId;
+	}
+
+	public void setJobId(String jobId) {
+		this.jobId = jobId;
+	}
+
+	public String getFileName() {
+		return fileName;
+	}
+
+	public void setFileName(String fileName) {
+		this.fileName = fileName;
+	}
+
+	public long getFileSize() {
+		return fileSize;
+	}
+
+	public void setFileSize(long fileSize) {
+		this.fileSize = fileSize;
+	}
+
+	public long getFileModified() {
+		return fileModified;
+	}
+
+	public void setFileModified(long fileModified) {
+		this.fileModified = fileModified;
+	}
+
+	public int getChunkIndex() {
+		return chunkIndex;
+	}
+
+	public void setChunkIndex(int chunkIndex) {
+		this.chunkIndex = chunkIndex;
+	}
+
+	public long getRangeStart() {
+		return rangeStart;
+	}
+
+	public void setRangeStart(long rangeStart) {
+		this.rangeStart = rangeStart;
+	}
+
+	public long getRangeEnd() {
+		return rangeEnd;
+	}
+
+	public void setRangeEnd(long rangeEnd) {
+		this.rangeEnd = rangeEnd;
+	}
+
+	public Status getStatus() {
+		return status;
+	}
+
+	public void setStatus(Status status) {
+		this.status = status;
+	}
+
+	public long getRowsImported() {
+		return rowsImported;
+	}
+
+	public void setRowsImported(long rowsImported) {
+		this.rowsImported = rowsImported;
+	}
+
+	public long getRowsRejected() {
+		return rowsRejected;
+	}
+
+	public void setRowsRejected(long rowsRejected) {
+		this.rowsRejected = rowsRejected;
+	}
+
+	public long getMonthsUpdated() {
+		return monthsUpdated;
+	}
+
+	public void setMonthsUpdated(long monthsUpdated) {
+		this.monthsUpdated = monthsUpdated;
+	}
+
+	public LocalDateTime getUpdatedAt() {
+		return updatedAt;
+	}
+
+	public void setUpdatedAt(LocalDateTime updatedAt) {
+		this.updatedAt = updatedAt;
+	}
+}
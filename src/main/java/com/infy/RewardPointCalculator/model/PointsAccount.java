@@ -0,0 +1,69 @@
+package com.infy.RewardPointCalculator.model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+
+/**
+ * The points a customer has spent or put on hold. The points earned are not
+ * copied here, they are summed from reward_points, so the balance is always
+ * the earned points minus the reserved and redeemed points. The row is only
+ * changed by conditional SQL updates, which refuse a reservation that would
+ * exceed the earned points.
+ */
+@Entity
+public class PointsAccount {
+
+	@Id
+	private Long customerId;
+
+	@Column(nullable = false)
+	private long reservedPoints;
+
+	@Column(nullable = false)
+	private long redeemedPoints;
+
+	private LocalDateTime updatedAt;
+
+	public PointsAccount() {
+		super();
+	}
+
+	public Long getCustomerId() {
+		return customerId;
+	}
+
+	public void setCustomerId(Long customerId) {
+		this.customerId = customerId;
+	}
+
+	/**
+	 * @return The points held by reservations that are neither committed nor
+	 *         cancelled yet.
+	 */
+	public long getReservedPoints() {
+		return reservedPoints;
+	}
+
+	public void setReservedPoints(long reservedPoints) {
+		this.reservedPoints = reservedPoints;
+	}
+
+	public long getRedeemedPoints() {
+		return redeemedPoints;
+	}
+
+	public void setRedeemedPoints(long redeemedPoints) {
+		this.redeemedPoints = redeemedPoints;
+	}
+
+	public LocalDateTime getUpdatedAt() {
+		return updatedAt;
+	}
+
+	public void setUpdatedAt(LocalDateTime updatedAt) {
+		this.updatedAt = updatedAt;
+	}
+}
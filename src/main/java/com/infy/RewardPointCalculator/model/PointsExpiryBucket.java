@@ -0,0 +1,135 @@
+package com.infy.RewardPointCalculator.model;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import org.hibernate.annotations.UpdateTimestamp;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+
+/**
+ * Expirations due on one day. Reward points are kept per month, so a bucket
+ * holds the points earned in one month, which all expire on the same day. The
+ * last reward_points row expired is stored with every batch, so a bucket
+ * interrupted by a crash resumes after it.
+ */
+@Entity
+public class PointsExpiryBucket {
+
+	/**
+	 * State of a bucket.
+	 */
+	public enum Status {
+		PENDING, RUNNING, DONE
+	}
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	private Long id;
+
+	@Column(nullable = false, unique = true)
+	private LocalDate dueDate;
+
+	private int earnedYear;
+	private int earnedMonth;
+
+	@Enumerated(EnumType.STRING)
+	@Column(nullable = false)
+	private Status status;
+
+	private long lastRewardPointsId;
+	private long rowsExpired;
+	private long pointsExpired;
+
+	@UpdateTimestamp
+	private LocalDateTime updatedAt;
+
+	public PointsExpiryBucket() {
+		super();
+	}
+
+	public PointsExpiryBucket(LocalDate dueDate, int earnedYear, int earnedMonth) {
+		this.dueDate = dueDate;
+		this.earnedYear = earnedYear;
+		this.earnedMonth = earnedMonth;
+		this.status = Status.PENDING;
+	}
+
+	public Long getId() {
+		return id;
+	}
+
+	public void setId(Long id) {
+		this.id = id;
+	}
+
+	public LocalDate getDueDate() {
+		return dueDate;
+	}
+
+	public void setDueDate(LocalDate dueDate) {
+		this.dueDate = dueDate;
+	}
+
+	public int getEarnedYear() {
+		return earnedYear;
+	}
+
+	public void setEarnedYear(int earnedYear) {
+		this.earnedYear = earnedYear;
+	}
+
+	public int getEarnedMonth() {
+		return earnedMonth;
+	}
+
+	public void setEarnedMonth(int earnedMonth) {
+		this.earnedMonth = earnedMonth;
+	}
+
+	public Status getStatus() {
+		return status;
+	}
+
+	public void setStatus(Status status) {
+		this.status = status;
+	}
+
+	public long getLastRewardPointsId() {
+		return lastRewardPointsId;
+	}
+
+	public void setLastRewardPointsId(long lastRewardPointsId) {
+		this.lastRewardPointsId = lastRewardPointsId;
+	}
+
+	public long getRowsExpired() {
+		return rowsExpired;
+	}
+
+	public void setRowsExpired(long rowsExpired) {
+		this.rowsExpired = rowsExpired;
+	}
+
+	public long getPointsExpired() {
+		return pointsExpired;
+	}
+
+	public void setPointsExpired(long pointsExpired) {
+		this.pointsExpired = pointsExpired;
+	}
+
+	public LocalDateTime getUpdatedAt() {
+		return updatedAt;
+	}
+
+	public void setUpdatedAt(LocalDateTime updatedAt) {
+		this.updatedAt = updatedAt;
+	}
+}
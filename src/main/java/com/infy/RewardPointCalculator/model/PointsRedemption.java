@@ -0,0 +1,123 @@
+package com.infy.RewardPointCalculator.model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+
+/**
+ * One redemption of reward points. A redemption starts RESERVED, holding its
+ * points, and moves exactly once to COMMITTED, CANCELLED or EXPIRED. Rows are
+ * never deleted, so the table is the ledger of all points spent.
+ */
+@Entity
+public class PointsRedemption {
+
+	/**
+	 * State of a redemption.
+	 */
+	public enum Status {
+		RESERVED, COMMITTED, CANCELLED, EXPIRED
+	}
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	private Long id;
+
+	@Column(nullable = false)
+	private Long customerId;
+
+	@Column(nullable = false)
+	private int points;
+
+	@Enumerated(EnumType.STRING)
+	@Column(nullable = false)
+	private Status status;
+
+	private String reference;
+
+	@Column(nullable = false)
+	private LocalDateTime createdAt;
+
+	private LocalDateTime updatedAt;
+
+	public PointsRedemption() {
+		super();
+	}
+
+	public PointsRedemption(Long id, Long customerId, int points, Status status, String reference,
+			LocalDateTime createdAt, LocalDateTime updatedAt) {
+		this.id = id;
+		this.customerId = customerId;
+		this.points = points;
+		this.status = status;
+		this.reference = reference;
+		this.createdAt = createdAt;
+		this.updatedAt = updatedAt;
+	}
+
+	public Long getId() {
+		return id;
+	}
+
+	public void setId(Long id) {
+		this.id = id;
+	}
+
+	public Long getCustomerId() {
+		return customerId;
+	}
+
+	public void setCustomerId(Long customerId) {
+		this.customerId = customerId;
+	}
+
+	public int getPoints() {
+		return points;
+	}
+
+	public void setPoints(int points) {
+		this.points = points;
+	}
+
+	public Status getStatus() {
+		return status;
+	}
+
+	public void setStatus(Status status) {
+		this.status = status;
+	}
+
+	/**
+	 * @return The client's reference of the redemption, for example an order
+	 *         number, or null.
+	 */
+	public String getReference() {
+		return reference;
+	}
+
+	public void setReference(String reference) {
+		this.reference = reference;
+	}
+
+	public LocalDateTime getCreatedAt() {
+		return createdAt;
+	}
+
+	public void setCreatedAt(LocalDateTime createdAt) {
+		this.createdAt = createdAt;
+	}
+
+	public LocalDateTime getUpdatedAt() {
+		return updatedAt;
+	}
+
+	public void setUpdatedAt(LocalDateTime updatedAt) {
+		this.updatedAt = updatedAt;
+	}
+}
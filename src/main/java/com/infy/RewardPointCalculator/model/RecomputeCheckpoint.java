@@ -0,0 +1,158 @@
+package com.infy.RewardPointCalculator.model;
+
+import java.time.LocalDateTime;
+
+import org.hibernate.annotations.UpdateTimestamp;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+
+/**
+ * Progress of one partition of a full reward point recompute. A partition
+ * covers a range of customer IDs. The last customer whose monthly totals were
+ * written is stored together with the totals, so a job interrupted by a crash
+ * resumes each partition right after it.
+ */
+@Entity
+public class RecomputeCheckpoint {
+
+	/**
+	 * State of a partition.
+	 */
+	public enum Status {
+		PENDING, RUNNING, DONE, FAILED
+	}
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	private Long id;
+
+	@Column(nullable = false)
+	private String jobId;
+
+	private int partitionIndex;
+
+	@Column(nullable = false)
+	private Long rangeStart;
+
+	@Column(nullable = false)
+	private Long rangeEnd;
+
+	private Long lastCustomerId;
+
+	@Enumerated(EnumType.STRING)
+	@Column(nullable = false)
+	private Status status;
+
+	private long customersProcessed;
+	private long transactionsProcessed;
+	private long monthsWritten;
+
+	@UpdateTimestamp
+	private LocalDateTime updatedAt;
+
+	public RecomputeCheckpoint() {
+		super();
+	}
+
+	public RecomputeCheckpoint(String jobId, int partitionIndex, Long rangeStart, Long rangeEnd) {
+		this.jobId = jobId;
+		this.partitionIndex = partitionIndex;
+		this.rangeStart = rangeStart;
+		this.rangeEnd = rangeEnd;
+		this.status = Status.PENDING;
+	}
+
+	public Long getId() {
+		return id;
+	}
+
+	public void setId(Long id) {
+		this.id = id;
+	}
+
+	public String getJobId() {
+		return jobId;
+	}
+
+	public void setJobId(String jobId) {
+		this.jobId = jobId;
+	}
+
+	public int getPartitionIndex() {
+		return partitionIndex;
+	}
+
+	public void setPartitionIndex(int partitionIndex) {
+		this.partitionIndex = partitionIndex;
+	}
+
+	public Long getRangeStart() {
+		return rangeStart;
+	}
+
+	public void setRangeStart(Long rangeStart) {
+		this.rangeStart = rangeStart;
+	}
+
+	public Long getRangeEnd() {
+		return rangeEnd;
+	}
+
+	public void setRangeEnd(Long rangeEnd) {
+		this.rangeEnd = rangeEnd;
+	}
+
+	public Long getLastCustomerId() {
+		return lastCustomerId;
+	}
+
+	public void setLastCustomerId(Long lastCustomerId) {
+		this.lastCustomerId = lastCustomerId;
+	}
+
+	public Status getStatus() {
+		return status;
+	}
+
+	public void setStatus(Status status) {
+		this.status = status;
+	}
+
+	public long getCustomersProcessed() {
+		return customersProcessed;
+	}
+
+	public void setCustomersProcessed(long customersProcessed) {
+		this.customersProcessed = customersProcessed;
+	}
+
+	public long getTransactionsProcessed() {
+		return transactionsProcessed;
+	}
+
+	public void setTransactionsProcessed(long transactionsProcessed) {
+		this.transactionsProcessed = transactionsProcessed;
+	}
+
+	public long getMonthsWritten() {
+		return monthsWritten;
+	}
+
+	public void setMonthsWritten(long monthsWritten) {
+		this.monthsWritten = monthsWritten;
+	}
+
+	public LocalDateTime getUpdatedAt() {
+		return updatedAt;
+	}
+
+	public void setUpdatedAt(LocalDateTime updatedAt) {
+		this.updatedAt = updatedAt;
+	}
+}
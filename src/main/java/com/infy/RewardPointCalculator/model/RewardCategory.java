@@ -0,0 +1,88 @@
+package com.infy.RewardPointCalculator.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import org.hibernate.annotations.UpdateTimestamp;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+
+/**
+ * A spending category with a bonus multiplier. A transaction whose spent
+ * details contain one of the keywords gets its reward points multiplied, for
+ * example 1.5 for "grocery" or 2 for "fuel".
+ */
+@Entity
+public class RewardCategory {
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	private Long id;
+
+	@Column(nullable = false, unique = true)
+	private String name;
+
+	@Column(nullable = false, precision = 5, scale = 2)
+	private BigDecimal multiplier;
+
+	// Comma-separated
+	@Column(nullable = false, columnDefinition = "TEXT")
+	private String keywords;
+
+	@UpdateTimestamp
+	private LocalDateTime updatedAt;
+
+	public RewardCategory() {
+		super();
+	}
+
+	public RewardCategory(String name, BigDecimal multiplier, String keywords) {
+		this.name = name;
+		this.multiplier = multiplier;
+		this.keywords = keywords;
+	}
+
+	public Long getId() {
+		return id;
+	}
+
+	public void setId(Long id) {
+		this.id = id;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public void setName(String name) {
+		this.name = name;
+	}
+
+	public BigDecimal getMultiplier() {
+		return multiplier;
+	}
+
+	public void setMultiplier(BigDecimal multiplier) {
+		this.multiplier = multiplier;
+	}
+
+	public String getKeywords() {
+		return keywords;
+	}
+
+	public void setKeywords(String keywords) {
+		this.keywords = keywords;
+	}
+
+	public LocalDateTime getUpdatedAt() {
+		return updatedAt;
+	}
+
+	public void setUpdatedAt(LocalDateTime updatedAt) {
+		this.updatedAt = updatedAt;
+	}
+}
@@ -1,11 +1,13 @@
 package com.infy.RewardPointCalculator.model;
 
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Version;
 
 @Entity
 public class RewardPoints {
@@ -19,9 +21,17 @@ public class RewardPoints {
 	private Customer customer;
 
 	private Integer points;
+	private Integer expiredPoints = 0;
+
+	// Written by redemptions only, so saving an entity never overwrites them
+	@Column(insertable = false, updatable = false, columnDefinition = "integer not null default 0")
+	private Integer redeemedPoints = 0;
 	private Integer month;
 	private Integer year;
 
+	@Version
+	private Long version;
+
 	public RewardPoints() {
 		super();
 	}
@@ -59,6 +69,33 @@ public class RewardPoints {
 		this.points = points;
 	}
 
+	/**
+	 * @return The points of the month that have expired. Points expire per month,
+	 *         so this is either 0 or all the points that were not redeemed.
+	 */
+	public Integer getExpiredPoints() {
+		return expiredPoints;
+	}
+
+	public void setExpiredPoints(Integer expiredPoints) {
+		this.expiredPoints = expiredPoints;
+	}
+
+	/**
+	 * @return The points of the month spent by committed redemptions, which
+	 *         never expire.
+	 */
+	public Integer getRedeemedPoints() {
+		return redeemedPoints;
+	}
+
+	/**
+	 * @return The points of the month that can still be used.
+	 */
+	public int getAvailablePoints() {
+		return (points != null ? points : 0) - (expiredPoints != null ? expiredPoints : 0);
+	}
+
 	public Integer getMonth() {
 		return month;
 	}
@@ -75,4 +112,12 @@ public class RewardPoints {
 		this.year = year;
 	}
 
+	public Long getVersion() {
+		return version;
+	}
+
+	public void setVersion(Long version) {
+		this.version = version;
+	}
+
 }
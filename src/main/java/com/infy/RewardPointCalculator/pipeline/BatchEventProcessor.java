@@ -0,0 +1,92 @@
+package com.infy.RewardPointCalculator.pipeline;
+
+/**
+ * Runs one consumer stage of a {@link RingBuffer} on its own thread.
+ *
+ * The processor waits for events using the ring buffer's wait strategy, hands
+ * everything available to the handler as one batch and then advances its
+ * sequence, which releases the slots to the next stage or to the producers.
+ *
+ * @param <E> The type of the ring buffer slots.
+ * @author rifat.bano
+ */
+public class BatchEventProcessor<E> implements Runnable {
+
+	/**
+	 * Receives handler failures. The stage continues with the next event.
+	 */
+	@FunctionalInterface
+	public interface ExceptionHandler<E> {
+		void handle(Throwable failure, long sequence, E event);
+	}
+
+	private final RingBuffer<E> ringBuffer;
+	private final Sequence[] dependents;
+	private final EventHandler<E> handler;
+	private final ExceptionHandler<E> exceptionHandler;
+	private final Sequence sequence = new Sequence(-1);
+	private volatile boolean running;
+
+	/**
+	 * @param ringBuffer       The ring buffer to consume.
+	 * @param dependents       The sequences of the stages that must handle an
+	 *                         event first, empty for the first stage.
+	 * @param handler          Handles the events.
+	 * @param exceptionHandler Receives handler failures.
+	 */
+	public BatchEventProcessor(RingBuffer<E> ringBuffer, Sequence[] dependents, EventHandler<E> handler,
+			ExceptionHandler<E> exceptionHandler) {
+		this.ringBuffer = ringBuffer;
+		this.dependents = dependents.clone();
+		this.handler = handler;
+		this.exceptionHandler = exceptionHandler;
+	}
+
+	/**
+	 * @return The sequence of the last event handled by this stage.
+	 */
+	public Sequence getSequence() {
+		return sequence;
+	}
+
+	/**
+	 * Stops the stage after the current batch.
+	 */
+	public void halt() {
+		running = false;
+	}
+
+	@Override
+	public void run() {
+		running = true;
+		WaitStrategy waitStrategy = ringBuffer.getWaitStrategy();
+		long next = sequence.get() + 1;
+		while (running) {
+			long available;
+			try {
+				available = waitStrategy.waitFor(next, ringBuffer.getCursor(), dependents, () -> !running);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			}
+			if (dependents.length == 0) {
+				// The cursor covers claimed slots, some of which may still be filled
+				available = ringBuffer.highestPublished(next, available);
+			}
+			if (available < next) {
+				Thread.onSpinWait();
+				continue;
+			}
+			for (long current = next; current <= available; current++) {
+				E event = ringBuffer.get(current);
+				try {
+					handler.onEvent(event, current, current == available);
+				} catch (Throwable e) {
+					exceptionHandler.handle(e, current, event);
+				}
+			}
+			sequence.set(available);
+			next = available + 1;
+		}
+	}
+}
@@ -0,0 +1,26 @@
+package com.infy.RewardPointCalculator.pipeline;
+
+/**
+ * Handles the events of one consumer stage of a {@link RingBuffer}.
+ *
+ * Events are delivered in sequence order, in batches of everything published
+ * since the previous call. Handlers that can combine work, for example several
+ * point changes of the same customer-month, should collect the events and do
+ * the work when endOfBatch is true.
+ *
+ * @param <E> The type of the ring buffer slots.
+ * @author rifat.bano
+ */
+@FunctionalInterface
+public interface EventHandler<E> {
+
+	/**
+	 * @param event      The event. The slot is reused once every stage has
+	 *                   handled it, so references to it must not be kept.
+	 * @param sequence   The sequence number of the event.
+	 * @param endOfBatch True for the last event currently available.
+	 * @throws Exception If handling fails. The failure is reported to the
+	 *                   processor's exception handler and the stage moves on.
+	 */
+	void onEvent(E event, long sequence, boolean endOfBatch) throws Exception;
+}
@@ -0,0 +1,90 @@
+package com.infy.RewardPointCalculator.pipeline;
+
+import com.infy.RewardPointCalculator.ledger.RewardLedgerEventType;
+
+/**
+ * Ring buffer slot describing a recorded transaction whose reward points still
+ * have to be applied. Slots are allocated once and overwritten for every
+ * event, so the fields are mutable and handlers must not keep references.
+ *
+ * @author rifat.bano
+ */
+public class RewardEvent {
+
+	private RewardLedgerEventType type;
+	private long customerId;
+	private long transactionId;
+	private int year;
+	private int month;
+	private double amount;
+	private int multiplierPercent;
+	private int points;
+	private long publishedNanos;
+
+	/**
+	 * Fills the slot before it is published.
+	 */
+	void set(RewardLedgerEventType type, long customerId, long transactionId, int year, int month, double amount,
+			int multiplierPercent, long publishedNanos) {
+		this.type = type;
+		this.customerId = customerId;
+		this.transactionId = transactionId;
+		this.year = year;
+		this.month = month;
+		this.amount = amount;
+		this.multiplierPercent = multiplierPercent;
+		this.points = 0;
+		this.publishedNanos = publishedNanos;
+	}
+
+	public RewardLedgerEventType getType() {
+		return type;
+	}
+
+	public long getCustomerId() {
+		return customerId;
+	}
+
+	public long getTransactionId() {
+		return transactionId;
+	}
+
+	public int getYear() {
+		return year;
+	}
+
+	public int getMonth() {
+		return month;
+	}
+
+	public double getAmount() {
+		return amount;
+	}
+
+	/**
+	 * @return The category bonus multiplier in percent stored with the
+	 *         transaction.
+	 */
+	public int getMultiplierPercent() {
+		return multiplierPercent;
+	}
+
+	/**
+	 * @return The points of the transaction, set by the aggregation stage for the
+	 *         stages after it.
+	 */
+	public int getPoints() {
+		return points;
+	}
+
+	public void setPoints(int points) {
+		this.points = points;
+	}
+
+	/**
+	 * @return The System.nanoTime() at which the event was published.
+	 */
+	public long getPublishedNanos() {
+		return publishedNanos;
+	}
+}
@@ -0,0 +1,278 @@
+package com.infy.RewardPointCalculator.pipeline;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import com.infy.RewardPointCalculator.ledger.RewardLedgerEventType;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Moves the reward point work of transaction writes off the request thread.
+ *
+ * The request thread inserts the transaction and publishes a
+ * {@link RewardEvent} into a pre-allocated {@link RingBuffer}. Two consumer
+ * stages follow each other, each on its own thread:
+ * <ol>
+ * <li>aggregation: applies the reward point changes, combined per
+ * customer-month within a batch, along with the balances and caches derived
+ * from them</li>
+ * <li>metrics: publishes event and point metrics</li>
+ * </ol>
+ * Services register the handlers of a stage on startup. The time from
+ * publishing to the end of each stage is recorded in the
+ * rewards.pipeline.stage.latency histogram.
+ *
+ * {@link #publish} returns false when the pipeline is disabled, not running or
+ * full, in which case the caller applies the reward points synchronously.
+ *
+ * @author rifat.bano
+ */
+@Component
+public class RewardEventPipeline implements SmartLifecycle {
+
+	private static final Logger log = LoggerFactory.getLogger(RewardEventPipeline.class);
+
+	/**
+	 * The consumer stages, in processing order.
+	 */
+	public enum Stage {
+		AGGREGATION, METRICS
+	}
+
+	private final boolean enabled;
+	private final int bufferSize;
+	private final String waitStrategyName;
+	private final long shutdownTimeoutMillis;
+	private final MeterRegistry meterRegistry;
+
+	private final Map<Stage, List<EventHandler<RewardEvent>>> handlers = new EnumMap<>(Stage.class);
+	private final List<BatchEventProcessor<RewardEvent>> processors = new ArrayList<>();
+	private final List<Thread> threads = new ArrayList<>();
+
+	private RingBuffer<RewardEvent> ringBuffer;
+	private volatile boolean running;
+
+	private final Counter rejectedCounter;
+	private final Counter failureCounter;
+
+	/**
+	 * Creates the pipeline. The ring buffer and the stage threads are created
+	 * when the application context starts.
+	 *
+	 * @param enabled               Whether reward points are applied through the
+	 *                              pipeline.
+	 * @param bufferSize            The number of ring buffer slots, a power of two.
+	 * @param waitStrategyName      How the stages wait for events: busy-spin,
+	 *                              yielding, sleeping or blocking.
+	 * @param shutdownTimeoutMillis How long shutdown waits for the stages to drain
+	 *                              the ring buffer.
+	 * @param meterRegistry         The registry the pipeline metrics are published
+	 *                              to.
+	 */
+	@Autowired
+	public RewardEventPipeline(@Value("${rewards.pipeline.enabled:true}") boolean enabled,
+			@Value("${rewards.pipeline.buffer-size:4096}") int bufferSize,
+			@Value("${rewards.pipeline.wait-strategy:blocking}") String waitStrategyName,
+			@Value("${rewards.pipeline.shutdown-timeout-ms:5000}") long shutdownTimeoutMillis,
+			MeterRegistry meterRegistry) {
+		this.enabled = enabled;
+		this.bufferSize = bufferSize;
+		this.waitStrategyName = waitStrategyName;
+		this.shutdownTimeoutMillis = shutdownTimeoutMillis;
+		this.meterRegistry = meterRegistry;
+		for (Stage stage : Stage.values()) {
+			handlers.put(stage, new ArrayList<>());
+		}
+		this.rejectedCounter = Counter.builder("rewards.pipeline.rejected")
+				.description("Events applied synchronously because the ring buffer was full").register(meterRegistry);
+		this.failureCounter = Counter.builder("rewards.pipeline.failures")
+				.description("Events whose handler failed").register(meterRegistry);
+	}
+
+	/**
+	 * Registers a handler for a stage. Handlers must be registered before the
+	 * application context starts, for example in a @PostConstruct method.
+	 *
+	 * @param stage   The stage the handler runs in.
+	 * @param handler The handler.
+	 * @throws IllegalStateException If the pipeline is already running.
+	 */
+	public synchronized void registerHandler(Stage stage, EventHandler<RewardEvent> handler) {
+		if (running) {
+			throw new IllegalStateException("Handlers must be registered before the reward pipeline starts");
+		}
+		handlers.get(stage).add(handler);
+	}
+
+	/**
+	 * Publishes a recorded transaction to the pipeline.
+	 *
+	 * @param type          The ledger event recorded for the points, ACCRUAL for
+	 *                      a new transaction.
+	 * @param customerId    The ID of the customer.
+	 * @param transactionId The ID of the transaction.
+	 * @param date          The date of the transaction.
+	 * @param amount            The amount of the transaction.
+	 * @param multiplierPercent The category bonus multiplier in percent stored
+	 *                          with the transaction.
+	 * @return True if the event was published, false if the caller has to apply
+	 *         the reward points itself.
+	 */
+	public boolean publish(RewardLedgerEventType type, Long customerId, Long transactionId, LocalDate date,
+			double amount, int multiplierPercent) {
+		if (!running) {
+			return false;
+		}
+		long sequence = ringBuffer.tryNext();
+		if (sequence < 0) {
+			rejectedCounter.increment();
+			return false;
+		}
+		RewardEvent event = ringBuffer.get(sequence);
+		event.set(type, customerId, transactionId == null ? 0 : transactionId, date.getYear(), date.getMonthValue(),
+				amount, multiplierPercent, System.nanoTime());
+		ringBuffer.publish(sequence);
+		return true;
+	}
+
+	@Override
+	public synchronized void start() {
+		if (!enabled || running) {
+			return;
+		}
+		ringBuffer = new RingBuffer<>(RewardEvent::new, bufferSize, WaitStrategy.fromName(waitStrategyName));
+		Sequence[] dependents = new Sequence[0];
+		for (Stage stage : Stage.values()) {
+			BatchEventProcessor<RewardEvent> processor = new BatchEventProcessor<>(ringBuffer, dependents,
+					stageHandler(stage), (failure, sequence, event) -> {
+						failureCounter.increment();
+						log.error("Error occurred in reward pipeline stage {} for customerId: {}", stage,
+								event.getCustomerId(), failure);
+					});
+			processors.add(processor);
+			dependents = new Sequence[] { processor.getSequence() };
+		}
+		ringBuffer.addGatingSequences(dependents);
+
+		for (int i = 0; i < processors.size(); i++) {
+			Thread thread = new Thread(processors.get(i),
+					"reward-pipeline-" + Stage.values()[i].name().toLowerCase());
+			thread.setDaemon(true);
+			threads.add(thread);
+			thread.start();
+		}
+		Gauge.builder("rewards.pipeline.remaining.capacity", ringBuffer, RingBuffer::remainingCapacity)
+				.description("Free slots in the reward event ring buffer").register(meterRegistry);
+		running = true;
+		log.info("Reward pipeline started with {} slots and {} wait strategy", bufferSize, waitStrategyName);
+	}
+
+	/**
+	 * Stops accepting events, lets the stages finish the events already published
+	 * and stops the stage threads.
+	 */
+	@Override
+	public synchronized void stop() {
+		if (!running) {
+			return;
+		}
+		running = false;
+		Sequence last = processors.get(processors.size() - 1).getSequence();
+		long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(shutdownTimeoutMillis);
+		while (last.get() < ringBuffer.getCursor().get() && System.nanoTime() < deadline) {
+			LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+		}
+		if (last.get() < ringBuffer.getCursor().get()) {
+			log.warn("Reward pipeline stopped with {} events not fully processed",
+					ringBuffer.getCursor().get() - last.get());
+		}
+		processors.forEach(BatchEventProcessor::halt);
+		for (Thread thread : threads) {
+			try {
+				thread.join(shutdownTimeoutMillis);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		processors.clear();
+		threads.clear();
+		log.info("Reward pipeline stopped");
+	}
+
+	@Override
+	public boolean isRunning() {
+		return running;
+	}
+
+	/**
+	 * Runs the registered handlers of a stage and records how long after
+	 * publishing each event left the stage. Handlers may defer work to the end of
+	 * the batch, so the latencies are recorded once the batch is done.
+	 */
+	private EventHandler<RewardEvent> stageHandler(Stage stage) {
+		List<EventHandler<RewardEvent>> stageHandlers = new ArrayList<>(handlers.get(stage));
+		if (stage == Stage.METRICS) {
+			stageHandlers.add(metricsHandler());
+		}
+		Timer latency = Timer.builder("rewards.pipeline.stage.latency").tag("stage", stage.name().toLowerCase())
+				.description("Time from publishing an event until it has passed the stage")
+				.publishPercentileHistogram().register(meterRegistry);
+		DistributionSummary batchSize = DistributionSummary.builder("rewards.pipeline.batch.size")
+				.tag("stage", stage.name().toLowerCase()).description("Events handled per batch")
+				.register(meterRegistry);
+		long[][] batchPublishedNanos = { new long[64] };
+		int[] batchLength = { 0 };
+		return (event, sequence, endOfBatch) -> {
+			if (batchLength[0] == batchPublishedNanos[0].length) {
+				batchPublishedNanos[0] = Arrays.copyOf(batchPublishedNanos[0], batchLength[0] * 2);
+			}
+			batchPublishedNanos[0][batchLength[0]++] = event.getPublishedNanos();
+			try {
+				for (EventHandler<RewardEvent> handler : stageHandlers) {
+					handler.onEvent(event, sequence, endOfBatch);
+				}
+			} finally {
+				if (endOfBatch) {
+					long now = System.nanoTime();
+					for (int i = 0; i < batchLength[0]; i++) {
+						latency.record(now - batchPublishedNanos[0][i], TimeUnit.NANOSECONDS);
+					}
+					batchSize.record(batchLength[0]);
+					batchLength[0] = 0;
+				}
+			}
+		};
+	}
+
+	private EventHandler<RewardEvent> metricsHandler() {
+		Map<RewardLedgerEventType, Counter> events = new EnumMap<>(RewardLedgerEventType.class);
+		for (RewardLedgerEventType type : RewardLedgerEventType.values()) {
+			events.put(type, Counter.builder("rewards.pipeline.events").tag("type", type.name().toLowerCase())
+					.description("Events processed by the reward pipeline").register(meterRegistry));
+		}
+		DistributionSummary points = DistributionSummary.builder("rewards.pipeline.points")
+				.description("Reward points per processed transaction").register(meterRegistry);
+		return (event, sequence, endOfBatch) -> {
+			events.get(event.getType()).increment();
+			points.record(event.getPoints());
+		};
+	}
+}
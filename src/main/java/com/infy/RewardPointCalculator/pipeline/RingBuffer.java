@@ -0,0 +1,145 @@
+package com.infy.RewardPointCalculator.pipeline;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+/**
+ * Pre-allocated, lock-free ring of reusable event slots.
+ *
+ * Producers claim a slot by moving the cursor with a compare-and-set, fill the
+ * slot in place and publish it. Consumer stages follow behind, each tracking
+ * its progress in its own {@link Sequence}. A slot is only handed out again
+ * once every gating stage has moved past it, so publishing never allocates and
+ * never overwrites an unprocessed event. When the ring is full,
+ * {@link #tryNext()} fails instead of blocking the producer.
+ *
+ * Several threads may publish at the same time. Each slot records the sequence
+ * last published into it, so consumers only see slots that are completely
+ * filled even if producers finish out of order.
+ *
+ * @param <E> The type of the slots.
+ * @author rifat.bano
+ */
+public class RingBuffer<E> {
+
+	private final Object[] entries;
+	private final int bufferSize;
+	private final int mask;
+	private final AtomicLongArray published;
+	private final WaitStrategy waitStrategy;
+
+	private final Sequence cursor = new Sequence(-1);
+	private final Sequence gatingSequenceCache = new Sequence(-1);
+	private volatile Sequence[] gatingSequences = new Sequence[0];
+
+	/**
+	 * @param factory      Creates the slot objects, once per slot.
+	 * @param bufferSize   The number of slots, a power of two.
+	 * @param waitStrategy The wait strategy of the consumer stages.
+	 */
+	public RingBuffer(Supplier<E> factory, int bufferSize, WaitStrategy waitStrategy) {
+		if (bufferSize < 1 || Integer.bitCount(bufferSize) != 1) {
+			throw new IllegalArgumentException("Buffer size must be a power of two");
+		}
+		this.bufferSize = bufferSize;
+		this.mask = bufferSize - 1;
+		this.entries = new Object[bufferSize];
+		for (int i = 0; i < bufferSize; i++) {
+			entries[i] = factory.get();
+		}
+		this.published = new AtomicLongArray(bufferSize);
+		for (int i = 0; i < bufferSize; i++) {
+			published.set(i, -1);
+		}
+		this.waitStrategy = waitStrategy;
+	}
+
+	/**
+	 * Claims the next slot.
+	 *
+	 * @return The sequence of the claimed slot, or -1 if the ring is full.
+	 */
+	public long tryNext() {
+		long current;
+		long next;
+		do {
+			current = cursor.get();
+			next = current + 1;
+			long wrapPoint = next - bufferSize;
+			if (wrapPoint > gatingSequenceCache.get()) {
+				long minimum = Sequence.minimum(gatingSequences, current);
+				gatingSequenceCache.set(minimum);
+				if (wrapPoint > minimum) {
+					return -1;
+				}
+			}
+		} while (!cursor.compareAndSet(current, next));
+		return next;
+	}
+
+	/**
+	 * @return The slot of the given sequence.
+	 */
+	@SuppressWarnings("unchecked")
+	public E get(long sequence) {
+		return (E) entries[(int) sequence & mask];
+	}
+
+	/**
+	 * Makes a filled slot visible to the consumer stages.
+	 */
+	public void publish(long sequence) {
+		published.set((int) sequence & mask, sequence);
+		waitStrategy.signalAllWhenBlocking();
+	}
+
+	/**
+	 * Returns the highest sequence up to which all slots are published, starting
+	 * from a sequence known to be claimed.
+	 *
+	 * @param lowerBound The first sequence to check.
+	 * @param available  The highest claimed sequence.
+	 * @return The highest contiguous published sequence, lowerBound - 1 if the
+	 *         first one is not published yet.
+	 */
+	public long highestPublished(long lowerBound, long available) {
+		for (long sequence = lowerBound; sequence <= available; sequence++) {
+			if (published.get((int) sequence & mask) != sequence) {
+				return sequence - 1;
+			}
+		}
+		return available;
+	}
+
+	/**
+	 * Registers the sequences of the stages that must have handled a slot before
+	 * it is reused, normally the last stage of each chain.
+	 */
+	public synchronized void addGatingSequences(Sequence... sequences) {
+		Sequence[] updated = Arrays.copyOf(gatingSequences, gatingSequences.length + sequences.length);
+		System.arraycopy(sequences, 0, updated, gatingSequences.length, sequences.length);
+		gatingSequences = updated;
+	}
+
+	/**
+	 * @return The number of slots that can be claimed without waiting for the
+	 *         consumers.
+	 */
+	public long remainingCapacity() {
+		long consumed = Sequence.minimum(gatingSequences, cursor.get());
+		return bufferSize - (cursor.get() - consumed);
+	}
+
+	public int getBufferSize() {
+		return bufferSize;
+	}
+
+	public Sequence getCursor() {
+		return cursor;
+	}
+
+	public WaitStrategy getWaitStrategy() {
+		return waitStrategy;
+	}
+}
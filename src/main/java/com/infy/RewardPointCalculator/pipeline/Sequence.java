@@ -0,0 +1,75 @@
+package com.infy.RewardPointCalculator.pipeline;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * A sequence number shared between the producer and the consumer stages of a
+ * {@link RingBuffer}.
+ *
+ * The value is padded on both sides so that sequences updated by different
+ * threads never share a cache line.
+ *
+ * @author rifat.bano
+ */
+public class Sequence extends SequenceRightPadding {
+
+	private static final VarHandle VALUE;
+
+	static {
+		try {
+			VALUE = MethodHandles.lookup().findVarHandle(SequenceValue.class, "value", long.class);
+		} catch (ReflectiveOperationException e) {
+			throw new ExceptionInInitializerError(e);
+		}
+	}
+
+	public Sequence(long initialValue) {
+		VALUE.setRelease(this, initialValue);
+	}
+
+	public long get() {
+		return value;
+	}
+
+	/**
+	 * Publishes a new value. Writes made before are visible to threads reading
+	 * the new value.
+	 */
+	public void set(long newValue) {
+		VALUE.setRelease(this, newValue);
+	}
+
+	public boolean compareAndSet(long expected, long newValue) {
+		return VALUE.compareAndSet(this, expected, newValue);
+	}
+
+	/**
+	 * @return The smallest value of the given sequences, or the default if there
+	 *         are none.
+	 */
+	static long minimum(Sequence[] sequences, long defaultValue) {
+		long minimum = defaultValue;
+		for (Sequence sequence : sequences) {
+			minimum = Math.min(minimum, sequence.get());
+		}
+		return minimum;
+	}
+
+	@Override
+	public String toString() {
+		return Long.toString(get());
+	}
+}
+
+abstract class SequenceLeftPadding {
+	protected long p1, p2, p3, p4, p5, p6, p7;
+}
+
+abstract class SequenceValue extends SequenceLeftPadding {
+	protected volatile long value;
+}
+
+abstract class SequenceRightPadding extends SequenceValue {
+	protected long p9, p10, p11, p12, p13, p14, p15;
+}
@@ -0,0 +1,204 @@
+package com.infy.RewardPointCalculator.pipeline;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Decides how a consumer stage waits for events, trading CPU usage for latency.
+ *
+ * <ul>
+ * <li>busy-spin: spins on the sequence, lowest latency, burns a core per
+ * stage</li>
+ * <li>yielding: spins briefly, then yields the CPU to other threads</li>
+ * <li>sleeping: spins, yields, then parks for short periods</li>
+ * <li>blocking: sleeps on a condition signalled by the producer, lowest CPU
+ * usage</li>
+ * </ul>
+ *
+ * @author rifat.bano
+ */
+public interface WaitStrategy {
+
+	/**
+	 * Waits until the requested sequence is available.
+	 *
+	 * @param sequence   The sequence the stage wants to process next.
+	 * @param cursor     The producer cursor.
+	 * @param dependents The sequences of the stages this stage must not overtake,
+	 *                   empty for the first stage.
+	 * @param halted     Tells whether the stage is being stopped.
+	 * @return The highest sequence that may be processed, which is smaller than
+	 *         the requested one only if the stage was halted.
+	 * @throws InterruptedException If the stage thread is interrupted.
+	 */
+	long waitFor(long sequence, Sequence cursor, Sequence[] dependents, BooleanSupplier halted)
+			throws InterruptedException;
+
+	/**
+	 * Called by the producer after publishing, to wake up blocked stages.
+	 */
+	default void signalAllWhenBlocking() {
+	}
+
+	/**
+	 * Creates a wait strategy from its configured name.
+	 *
+	 * @param name One of busy-spin, yielding, sleeping or blocking.
+	 * @return The wait strategy.
+	 * @throws IllegalArgumentException If the name is unknown.
+	 */
+	static WaitStrategy fromName(String name) {
+		switch (name.trim().toLowerCase(Locale.ROOT)) {
+		case "busy-spin":
+			return new BusySpin();
+		case "yielding":
+			return new Yielding();
+		case "sleeping":
+			return new Sleeping();
+		case "blocking":
+			return new Blocking();
+		default:
+			throw new IllegalArgumentException("Unknown wait strategy: " + name);
+		}
+	}
+
+	/**
+	 * The sequence available to a stage: the producer cursor for the first stage,
+	 * otherwise the slowest stage it depends on.
+	 */
+	private static long available(Sequence cursor, Sequence[] dependents) {
+		return dependents.length == 0 ? cursor.get() : Sequence.minimum(dependents, Long.MAX_VALUE);
+	}
+
+	/**
+	 * Spins on the sequence.
+	 */
+	class BusySpin implements WaitStrategy {
+
+		@Override
+		public long waitFor(long sequence, Sequence cursor, Sequence[] dependents, BooleanSupplier halted) {
+			long available;
+			while ((available = available(cursor, dependents)) < sequence) {
+				if (halted.getAsBoolean()) {
+					return available;
+				}
+				Thread.onSpinWait();
+			}
+			return available;
+		}
+	}
+
+	/**
+	 * Spins for a while, then yields on every further check.
+	 */
+	class Yielding implements WaitStrategy {
+
+		private static final int SPIN_TRIES = 100;
+
+		@Override
+		public long waitFor(long sequence, Sequence cursor, Sequence[] dependents, BooleanSupplier halted) {
+			int counter = SPIN_TRIES;
+			long available;
+			while ((available = available(cursor, dependents)) < sequence) {
+				if (halted.getAsBoolean()) {
+					return available;
+				}
+				if (counter > 0) {
+					counter--;
+					Thread.onSpinWait();
+				} else {
+					Thread.yield();
+				}
+			}
+			return available;
+		}
+	}
+
+	/**
+	 * Spins, then yields, then parks for short periods.
+	 */
+	class Sleeping implements WaitStrategy {
+
+		private static final int RETRIES = 200;
+		private static final long SLEEP_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+		@Override
+		public long waitFor(long sequence, Sequence cursor, Sequence[] dependents, BooleanSupplier halted) {
+			int counter = RETRIES;
+			long available;
+			while ((available = available(cursor, dependents)) < sequence) {
+				if (halted.getAsBoolean()) {
+					return available;
+				}
+				if (counter > 100) {
+					counter--;
+					Thread.onSpinWait();
+				} else if (counter > 0) {
+					counter--;
+					Thread.yield();
+				} else {
+					LockSupport.parkNanos(SLEEP_NANOS);
+				}
+			}
+			return available;
+		}
+	}
+
+	/**
+	 * Sleeps on a condition until the producer publishes. Stages depending on
+	 * other stages are not signalled when those advance, so they then park for
+	 * short periods until the stage they trail has caught up.
+	 */
+	class Blocking implements WaitStrategy {
+
+		private static final long MAX_WAIT_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+		private static final long DEPENDENT_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+		private final ReentrantLock lock = new ReentrantLock();
+		private final Condition published = lock.newCondition();
+
+		@Override
+		public long waitFor(long sequence, Sequence cursor, Sequence[] dependents, BooleanSupplier halted)
+				throws InterruptedException {
+			if (cursor.get() < sequence) {
+				lock.lock();
+				try {
+					while (cursor.get() < sequence) {
+						if (halted.getAsBoolean()) {
+							return cursor.get();
+						}
+						// Bounded, so a halt is noticed even without a signal
+						published.awaitNanos(MAX_WAIT_NANOS);
+					}
+				} finally {
+					lock.unlock();
+				}
+			}
+			long available;
+			while ((available = available(cursor, dependents)) < sequence) {
+				if (halted.getAsBoolean()) {
+					return available;
+				}
+				LockSupport.parkNanos(DEPENDENT_PARK_NANOS);
+				if (Thread.interrupted()) {
+					throw new InterruptedException();
+				}
+			}
+			return available;
+		}
+
+		@Override
+		public void signalAllWhenBlocking() {
+			lock.lock();
+			try {
+				published.signalAll();
+			} finally {
+				lock.unlock();
+			}
+		}
+	}
+}
@@ -0,0 +1,43 @@
+package com.infy.RewardPointCalculator.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.infy.RewardPointCalculator.model.IdempotencyRecord;
+
+/**
+ * Repository interface for managing `IdempotencyRecord` entities in the
+ * database.
+ * 
+ * The records back the idempotent transaction submission: the unique
+ * idempotency key column rejects a second insert of the same key, and recent
+ * records are reloaded into memory on startup.
+ * 
+ * @author rifat.bano
+ */
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, Long> {
+
+	/**
+	 * Finds the record of an idempotency key.
+	 * 
+	 * @param idempotencyKey The customer scoped idempotency key.
+	 * @return An `Optional<IdempotencyRecord>` containing the record if the key
+	 *         was seen before, otherwise empty.
+	 */
+	Optional<IdempotencyRecord> findByIdempotencyKey(String idempotencyKey);
+
+	/**
+	 * Finds the most recent records created after the given time, newest first.
+	 * 
+	 * @param since    Only records created after this time are returned.
+	 * @param pageable Limits the number of records returned.
+	 * @return A list of recent `IdempotencyRecord` objects.
+	 */
+	List<IdempotencyRecord> findByCreatedAtAfterOrderByCreatedAtDesc(LocalDateTime since, Pageable pageable);
+}
@@ -0,0 +1,35 @@
+package com.infy.RewardPointCalculator.repository;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.infy.RewardPointCalculator.model.ImportCheckpoint;
+
+/**
+ * Repository interface for managing `ImportCheckpoint` entities in the
+ * database.
+ * 
+ * @author rifat.bano
+ */
+@Repository
+public interface ImportCheckpointRepository extends JpaRepository<ImportCheckpoint, Long> {
+
+	/**
+	 * Finds the chunks of a transaction file import.
+	 * 
+	 * @param jobId The ID of the import.
+	 * @return The chunks of the import, ordered by chunk index.
+	 */
+	List<ImportCheckpoint> findByJobIdOrderByChunkIndex(String jobId);
+
+	/**
+	 * Finds the most recently created chunk, which belongs to the latest import.
+	 * 
+	 * @return An `Optional<ImportCheckpoint>` containing the chunk, or empty if
+	 *         no import was ever started.
+	 */
+	Optional<ImportCheckpoint> findTopByOrderByIdDesc();
+}
@@ -0,0 +1,46 @@
+package com.infy.RewardPointCalculator.repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.infy.RewardPointCalculator.model.PointsExpiryBucket;
+
+/**
+ * Repository interface for managing `PointsExpiryBucket` entities in the
+ * database.
+ * 
+ * @author rifat.bano
+ */
+@Repository
+public interface PointsExpiryBucketRepository extends JpaRepository<PointsExpiryBucket, Long> {
+
+	/**
+	 * Finds the bucket of a day.
+	 * 
+	 * @param dueDate The day the bucket is due.
+	 * @return An `Optional<PointsExpiryBucket>` containing the bucket, or empty
+	 *         if the day has no bucket.
+	 */
+	Optional<PointsExpiryBucket> findByDueDate(LocalDate dueDate);
+
+	/**
+	 * Finds the buckets that are not completely processed yet.
+	 * 
+	 * @param status The status to exclude, normally DONE.
+	 * @return The buckets, ordered by due date.
+	 */
+	List<PointsExpiryBucket> findByStatusNotOrderByDueDate(PointsExpiryBucket.Status status);
+
+	/**
+	 * Finds the bucket with the latest due date, which belongs to the latest
+	 * month scheduled for expiry.
+	 * 
+	 * @return An `Optional<PointsExpiryBucket>` containing the bucket, or empty
+	 *         if no bucket was created yet.
+	 */
+	Optional<PointsExpiryBucket> findTopByOrderByDueDateDesc();
+}
@@ -0,0 +1,29 @@
+package com.infy.RewardPointCalculator.repository;
+
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.infy.RewardPointCalculator.model.PointsRedemption;
+
+/**
+ * Repository interface for reading `PointsRedemption` entities.
+ * 
+ * Redemptions are only read through this repository. They are created and
+ * change state through conditional SQL updates in the redemption service, so
+ * that a redemption changes state exactly once under concurrency.
+ * 
+ * @author rifat.bano
+ */
+@Repository
+public interface PointsRedemptionRepository extends JpaRepository<PointsRedemption, Long> {
+
+	/**
+	 * Finds the latest redemptions of a customer, newest first.
+	 * 
+	 * @param customerId The ID of the customer.
+	 * @return Up to 100 `PointsRedemption` objects of the customer.
+	 */
+	List<PointsRedemption> findTop100ByCustomerIdOrderByIdDesc(Long customerId);
+}
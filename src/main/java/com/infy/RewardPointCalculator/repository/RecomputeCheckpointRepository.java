@@ -0,0 +1,35 @@
+package com.infy.RewardPointCalculator.repository;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.infy.RewardPointCalculator.model.RecomputeCheckpoint;
+
+/**
+ * Repository interface for managing `RecomputeCheckpoint` entities in the
+ * database.
+ * 
+ * @author rifat.bano
+ */
+@Repository
+public interface RecomputeCheckpointRepository extends JpaRepository<RecomputeCheckpoint, Long> {
+
+	/**
+	 * Finds the partitions of a recompute job.
+	 * 
+	 * @param jobId The ID of the job.
+	 * @return The partitions of the job, ordered by partition index.
+	 */
+	List<RecomputeCheckpoint> findByJobIdOrderByPartitionIndex(String jobId);
+
+	/**
+	 * Finds the most recently created partition, which belongs to the latest job.
+	 * 
+	 * @return An `Optional<RecomputeCheckpoint>` containing the partition, or
+	 *         empty if no job was ever started.
+	 */
+	Optional<RecomputeCheckpoint> findTopByOrderByIdDesc();
+}
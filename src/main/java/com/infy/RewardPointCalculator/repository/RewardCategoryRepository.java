@@ -0,0 +1,34 @@
+package com.infy.RewardPointCalculator.repository;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.infy.RewardPointCalculator.model.RewardCategory;
+
+/**
+ * Repository interface for managing `RewardCategory` entities in the database.
+ * 
+ * @author rifat.bano
+ */
+@Repository
+public interface RewardCategoryRepository extends JpaRepository<RewardCategory, Long> {
+
+	/**
+	 * Finds all categories.
+	 * 
+	 * @return The categories, ordered by name.
+	 */
+	List<RewardCategory> findAllByOrderByName();
+
+	/**
+	 * Finds the most recently changed category, used to detect changes made on
+	 * other nodes.
+	 * 
+	 * @return An `Optional<RewardCategory>` containing the category, or empty if
+	 *         there are no categories.
+	 */
+	Optional<RewardCategory> findTopByOrderByUpdatedAtDesc();
+}
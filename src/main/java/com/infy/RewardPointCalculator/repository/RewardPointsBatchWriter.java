@@ -0,0 +1,195 @@
+package com.infy.RewardPointCalculator.repository;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Writes monthly reward point totals in JDBC batches, for jobs that rebuild
+ * many months at once and would be slowed down by loading and saving every
+ * RewardPoints entity.
+ *
+ * Each total is written as an upsert: an UPDATE of the existing row, followed
+ * by an INSERT for the months that had no row yet. The version column is
+ * incremented, so entities loaded before the batch fail their optimistic lock
+ * check instead of overwriting the new totals. The expired points written are
+ * capped at the points of the month that were not redeemed.
+ *
+ * @author rifat.bano
+ */
+@Repository
+public class RewardPointsBatchWriter {
+
+	private static final String UPDATE_SQL = "UPDATE reward_points SET points = ?, "
+			+ "expired_points = LEAST(?, GREATEST(? - redeemed_points, 0)), version = COALESCE(version, 0) + 1 "
+			+ "WHERE customer_id = ? AND month = ? AND year = ?";
+	private static final String ADD_SQL = "UPDATE reward_points SET points = points + ?, "
+			+ "expired_points = expired_points + ?, version = COALESCE(version, 0) + 1 "
+			+ "WHERE customer_id = ? AND month = ? AND year = ?";
+	private static final String INSERT_SQL = "INSERT INTO reward_points "
+			+ "(customer_id, points, expired_points, month, year, version) VALUES (?, ?, ?, ?, ?, 0)";
+	private static final String DELETE_SQL = "DELETE FROM reward_points WHERE id = ?";
+	private static final String NON_ZERO_MONTHS_SQL = "SELECT customer_id, year, month FROM reward_points "
+			+ "WHERE customer_id BETWEEN ? AND ? AND points <> 0";
+
+	/**
+	 * A monthly total to write, with the part of it that has expired.
+	 */
+	public static class MonthlyTotal {
+
+		private final long customerId;
+		private final int year;
+		private final int month;
+		private final int points;
+		private final int expiredPoints;
+
+		public MonthlyTotal(long customerId, int year, int month, int points) {
+			this(customerId, year, month, points, 0);
+		}
+
+		public MonthlyTotal(long customerId, int year, int month, int points, int expiredPoints) {
+			this.customerId = customerId;
+			this.year = year;
+			this.month = month;
+			this.points = points;
+			this.expiredPoints = expiredPoints;
+		}
+
+		public long getCustomerId() {
+			return customerId;
+		}
+
+		public int getYear() {
+			return year;
+		}
+
+		public int getMonth() {
+			return month;
+		}
+
+		public int getPoints() {
+			return points;
+		}
+
+		public int getExpiredPoints() {
+			return expiredPoints;
+		}
+	}
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	/**
+	 * Replaces the monthly totals of all customers in an ID range: the given
+	 * totals are written, and every other month of these customers that still
+	 * holds points is set to zero, because it has no transactions left.
+	 *
+	 * @param fromCustomerId The first customer ID of the range.
+	 * @param toCustomerId   The last customer ID of the range.
+	 * @param totals         The totals of the customers in the range.
+	 * @return The totals written, including the months set to zero.
+	 */
+	@Transactional
+	public List<MonthlyTotal> replaceCustomerRange(long fromCustomerId, long toCustomerId, List<MonthlyTotal> totals) {
+		Set<String> computed = new HashSet<>();
+		for (MonthlyTotal total : totals) {
+			computed.add(total.getCustomerId() + ":" + total.getYear() + ":" + total.getMonth());
+		}
+		List<MonthlyTotal> written = new ArrayList<>(totals);
+		jdbcTemplate.query(NON_ZERO_MONTHS_SQL, resultSet -> {
+			long customerId = resultSet.getLong(1);
+			int year = resultSet.getInt(2);
+			int month = resultSet.getInt(3);
+			if (computed.add(customerId + ":" + year + ":" + month)) {
+				written.add(new MonthlyTotal(customerId, year, month, 0));
+			}
+		}, fromCustomerId, toCustomerId);
+		upsert(written);
+		return written;
+	}
+
+	/**
+	 * Deletes reward_points rows, for example duplicates of a month.
+	 *
+	 * @param ids The IDs of the rows to delete.
+	 */
+	@Transactional
+	public void delete(List<Long> ids) {
+		if (ids.isEmpty()) {
+			return;
+		}
+		jdbcTemplate.batchUpdate(DELETE_SQL, ids, ids.size(), (statement, id) -> statement.setLong(1, id));
+	}
+
+	/**
+	 * Writes the given totals in one transaction.
+	 *
+	 * @param totals The totals to write.
+	 * @return The number of rows inserted because the month had no row yet.
+	 */
+	@Transactional
+	public int upsert(List<MonthlyTotal> totals) {
+		if (totals.isEmpty()) {
+			return 0;
+		}
+		int[] updated = jdbcTemplate.batchUpdate(UPDATE_SQL, totals, totals.size(), (statement, total) -> {
+			statement.setInt(1, total.getPoints());
+			statement.setInt(2, total.getExpiredPoints());
+			statement.setInt(3, total.getPoints());
+			statement.setLong(4, total.getCustomerId());
+			statement.setInt(5, total.getMonth());
+			statement.setInt(6, total.getYear());
+		})[0];
+		return insertMissing(totals, updated);
+	}
+
+	/**
+	 * Adds the given points to the monthly totals in one transaction, for
+	 * imports that bring new transactions of many months at once. Months without
+	 * a row get one holding the points.
+	 *
+	 * @param deltas The points and expired points to add, ordered by customer,
+	 *               year and month so concurrent writers lock rows in the same
+	 *               order.
+	 * @return The number of rows inserted because the month had no row yet.
+	 */
+	@Transactional
+	public int addDeltas(List<MonthlyTotal> deltas) {
+		if (deltas.isEmpty()) {
+			return 0;
+		}
+		int[] updated = jdbcTemplate.batchUpdate(ADD_SQL, deltas, deltas.size(), (statement, delta) -> {
+			statement.setInt(1, delta.getPoints());
+			statement.setInt(2, delta.getExpiredPoints());
+			statement.setLong(3, delta.getCustomerId());
+			statement.setInt(4, delta.getMonth());
+			statement.setInt(5, delta.getYear());
+		})[0];
+		return insertMissing(deltas, updated);
+	}
+
+	private int insertMissing(List<MonthlyTotal> totals, int[] updated) {
+		List<MonthlyTotal> missing = new ArrayList<>();
+		for (int i = 0; i < updated.length; i++) {
+			if (updated[i] == 0) {
+				missing.add(totals.get(i));
+			}
+		}
+		if (!missing.isEmpty()) {
+			jdbcTemplate.batchUpdate(INSERT_SQL, missing, missing.size(), (statement, total) -> {
+				statement.setLong(1, total.getCustomerId());
+				statement.setInt(2, total.getPoints());
+				statement.setInt(3, total.getExpiredPoints());
+				statement.setInt(4, total.getMonth());
+				statement.setInt(5, total.getYear());
+			});
+		}
+		return missing.size();
+	}
+}
@@ -0,0 +1,170 @@
+package com.infy.RewardPointCalculator.service;
+
+import java.sql.PreparedStatement;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Serializes reward point accrual for one customer-month across all
+ * application nodes sharing the same Postgres database.
+ *
+ * The work is run in a database transaction that first takes a
+ * transaction-scoped advisory lock (pg_advisory_xact_lock) keyed by a hash of
+ * customer ID, year and month. The lock is released by Postgres on commit or
+ * rollback, so a crashed node can never leave it behind. Waiting for the lock
+ * is bounded by lock_timeout. On databases other than Postgres (for example H2
+ * in local runs) the work is executed without the advisory lock.
+ *
+ * @author rifat.bano
+ */
+@Component
+public class AdvisoryLockService {
+
+	private static final Logger log = LoggerFactory.getLogger(AdvisoryLockService.class);
+
+	private final JdbcTemplate jdbcTemplate;
+	private final TransactionTemplate transactionTemplate;
+	private final long lockTimeoutMillis;
+	private final boolean active;
+
+	private final Timer lockWaitTimer;
+	private final Counter lockTimeoutCounter;
+
+	/**
+	 * Creates the advisory lock service. The lock is only used when it is enabled
+	 * and the connected database is Postgres.
+	 *
+	 * @param jdbcTemplate        Template used to take the advisory lock.
+	 * @param transactionTemplate Template opening the transaction the lock is
+	 *                            scoped to.
+	 * @param lockTimeoutMillis   Maximum time to wait for the lock.
+	 * @param enabled             Whether cross-node locking is switched on.
+	 * @param meterRegistry       The registry the lock metrics are published to.
+	 */
+	@Autowired
+	public AdvisoryLockService(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+			@Value("${rewards.advisory-lock.timeout-ms:5000}") long lockTimeoutMillis,
+			@Value("${rewards.advisory-lock.enabled:true}") boolean enabled, MeterRegistry meterRegistry) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.transactionTemplate = transactionTemplate;
+		this.lockTimeoutMillis = lockTimeoutMillis;
+		this.active = enabled && isPostgres(jdbcTemplate);
+
+		this.lockWaitTimer = Timer.builder("rewards.advisory-lock.wait")
+				.description("Time spent acquiring the customer-month advisory lock").register(meterRegistry);
+		this.lockTimeoutCounter = Counter.builder("rewards.advisory-lock.timeouts")
+				.description("Advisory lock acquisitions that hit the lock timeout").register(meterRegistry);
+		log.info("AdvisoryLockService initialized, active: {}, timeout: {} ms", active, lockTimeoutMillis);
+	}
+
+	/**
+	 * Runs the given action in a transaction holding the advisory lock of the
+	 * customer-month. All repository calls made by the action join this
+	 * transaction and are committed together with the lock release.
+	 *
+	 * @param customerId The ID of the customer whose points are changed.
+	 * @param year       The year of the reward points being changed.
+	 * @param month      The month of the reward points being changed.
+	 * @param action     The work to perform while holding the lock.
+	 * @return The value returned by the action.
+	 * @throws PessimisticLockingFailureException If the lock could not be taken
+	 *                                            within the timeout.
+	 */
+	public <T> T withMonthLock(Long customerId, int year, int month, Supplier<T> action) {
+		if (!active) {
+			return action.get();
+		}
+		return transactionTemplate.execute(status -> {
+			acquire(customerId, year, month);
+			return action.get();
+		});
+	}
+
+	/**
+	 * Takes the advisory locks of many customer-months in the caller's
+	 * transaction, for bulk writers that change many months at once. The locks
+	 * are taken in ascending key order in a single statement, so two bulk
+	 * writers with overlapping months cannot deadlock, and are held until the
+	 * caller's transaction ends.
+	 *
+	 * @param keys The lock keys of the months, see
+	 *             {@link #lockKey(Long, int, int)}.
+	 * @throws PessimisticLockingFailureException If a lock could not be taken
+	 *                                            within the timeout.
+	 */
+	public void lockMonths(long[] keys) {
+		if (!active || keys.length == 0) {
+			return;
+		}
+		Long[] sorted = Arrays.stream(keys).sorted().distinct().boxed().toArray(Long[]::new);
+		long start = System.nanoTime();
+		try {
+			jdbcTemplate.execute("SET LOCAL lock_timeout = '" + lockTimeoutMillis + "ms'");
+			jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+				// unnest returns the keys in array order, so they are locked in that order
+				try (PreparedStatement statement = connection
+						.prepareStatement("SELECT pg_advisory_xact_lock(k) FROM unnest(?::bigint[]) AS k")) {
+					statement.setArray(1, connection.createArrayOf("bigint", sorted));
+					statement.executeQuery().close();
+				}
+				return null;
+			});
+		} catch (PessimisticLockingFailureException e) {
+			lockTimeoutCounter.increment();
+			log.error("Timed out waiting for the advisory locks of {} customer-months", sorted.length);
+			throw e;
+		} finally {
+			lockWaitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+		}
+	}
+
+	/**
+	 * Computes the 64 bit advisory lock key of a customer-month.
+	 *
+	 * @param customerId The ID of the customer.
+	 * @param year       The year.
+	 * @param month      The month.
+	 * @return The key passed to pg_advisory_xact_lock.
+	 */
+	public static long lockKey(Long customerId, int year, int month) {
+		long key = customerId * 0x9E3779B97F4A7C15L + (year * 12L + month);
+		key = (key ^ (key >>> 30)) * 0xBF58476D1CE4E5B9L;
+		key = (key ^ (key >>> 27)) * 0x94D049BB133111EBL;
+		return key ^ (key >>> 31);
+	}
+
+	private void acquire(Long customerId, int year, int month) {
+		long start = System.nanoTime();
+		try {
+			jdbcTemplate.execute("SET LOCAL lock_timeout = '" + lockTimeoutMillis + "ms'");
+			jdbcTemplate.queryForList("SELECT pg_advisory_xact_lock(?)", lockKey(customerId, year, month));
+		} catch (PessimisticLockingFailureException e) {
+			lockTimeoutCounter.increment();
+			log.error("Timed out waiting for advisory lock of customerId: {} in {}-{}", customerId, month, year);
+			throw e;
+		} finally {
+			lockWaitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+		}
+	}
+
+	private static boolean isPostgres(JdbcTemplate jdbcTemplate) {
+		String productName = jdbcTemplate
+				.execute((ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+		return "PostgreSQL".equalsIgnoreCase(productName);
+	}
+}
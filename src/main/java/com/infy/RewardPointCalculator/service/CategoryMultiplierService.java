@@ -0,0 +1,230 @@
+package com.infy.RewardPointCalculator.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.infy.RewardPointCalculator.Util.KeywordMatcher;
+import com.infy.RewardPointCalculator.Util.RewardPointCalculator;
+import com.infy.RewardPointCalculator.dto.RewardCategoryDTO;
+import com.infy.RewardPointCalculator.model.RewardCategory;
+import com.infy.RewardPointCalculator.repository.RewardCategoryRepository;
+
+/**
+ * This service applies category bonus multipliers to reward points. The spent
+ * details of a transaction are classified by the keywords of the configured
+ * categories, and the points of a transaction in a category are multiplied by
+ * its multiplier. When several categories match, the highest multiplier wins.
+ *
+ * All keywords are compiled into one {@link KeywordMatcher}, so a transaction
+ * is classified in a single pass over its spent details, whatever the number
+ * of keywords. The matcher is rebuilt when the categories are replaced through
+ * the admin API, and on the other nodes when their periodic check sees the
+ * categories changed. Without categories every multiplier is 1.
+ *
+ * The multipliers apply to transactions recorded from now on. Every
+ * transaction stores the multiplier it was classified with, and all
+ * recomputes calculate its points from the stored value, so a category change
+ * never re-prices earlier transactions.
+ *
+ * @author rifat.bano
+ */
+@Service
+public class CategoryMultiplierService {
+
+	private static final Logger log = LoggerFactory.getLogger(CategoryMultiplierService.class);
+
+	private static final int NO_BONUS_PERCENT = 100;
+	private static final BigDecimal MAX_MULTIPLIER = BigDecimal.TEN;
+
+	@Autowired
+	private RewardCategoryRepository rewardCategoryRepository;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	private volatile Classifier classifier = new Classifier(new KeywordMatcher(Map.of()), new String[0], new int[0],
+			null);
+
+	/**
+	 * Compiled categories. Replaced as a whole, so a classification never sees
+	 * half of a change.
+	 */
+	private static class Classifier {
+
+		private final KeywordMatcher matcher;
+		private final String[] names;
+		private final int[] multiplierPercents;
+		private final String fingerprint;
+
+		Classifier(KeywordMatcher matcher, String[] names, int[] multiplierPercents, String fingerprint) {
+			this.matcher = matcher;
+			this.names = names;
+			this.multiplierPercents = multiplierPercents;
+			this.fingerprint = fingerprint;
+		}
+	}
+
+	/**
+	 * @param spentDetails The spent details of a transaction.
+	 * @return The name of the category with the highest multiplier among those
+	 *         matching, or null if none matches.
+	 */
+	public String classify(String spentDetails) {
+		Classifier current = classifier;
+		int index = current.matcher.match(spentDetails);
+		return index == KeywordMatcher.NO_MATCH ? null : current.names[index];
+	}
+
+	/**
+	 * @param spentDetails The spent details of a transaction.
+	 * @return The bonus multiplier of the transaction in percent, 100 if it
+	 *         belongs to no category.
+	 */
+	public int multiplierPercent(CharSequence spentDetails) {
+		Classifier current = classifier;
+		int index = current.matcher.match(spentDetails);
+		return index == KeywordMatcher.NO_MATCH ? NO_BONUS_PERCENT : current.multiplierPercents[index];
+	}
+
+	/**
+	 * Calculates the reward points of a transaction including its category bonus.
+	 *
+	 * @param amount       The amount of the transaction.
+	 * @param spentDetails The spent details of the transaction.
+	 * @return The reward points of the transaction.
+	 */
+	public int calculatePoints(double amount, String spentDetails) {
+		return RewardPointCalculator.calculatePoints(amount, multiplierPercent(spentDetails));
+	}
+
+	/**
+	 * @return All categories, ordered by name.
+	 */
+	public List<RewardCategory> getCategories() {
+		return rewardCategoryRepository.findAllByOrderByName();
+	}
+
+	/**
+	 * Replaces all categories and rebuilds the matcher.
+	 *
+	 * @param categories The new categories.
+	 * @return The stored categories, ordered by name.
+	 * @throws ResponseStatusException If a category has no name, a duplicate
+	 *                                 name, no keywords or a multiplier outside
+	 *                                 0 to 10.
+	 */
+	public List<RewardCategory> replaceCategories(List<RewardCategoryDTO> categories) {
+		List<RewardCategory> entities = new ArrayList<>();
+		Set<String> names = new HashSet<>();
+		for (RewardCategoryDTO category : categories) {
+			validate(category, names);
+			List<String> keywords = category.getKeywords().stream().filter(keyword -> keyword != null)
+					.map(String::trim).filter(keyword -> !keyword.isEmpty()).toList();
+			entities.add(new RewardCategory(category.getName().trim(), category.getMultiplier(),
+					String.join(",", keywords)));
+		}
+
+		new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+			rewardCategoryRepository.deleteAllInBatch();
+			rewardCategoryRepository.saveAll(entities);
+		});
+		refresh();
+		log.info("Reward categories replaced, {} categories", entities.size());
+		return getCategories();
+	}
+
+	/**
+	 * Rebuilds the matcher if the categories changed since it was built, for
+	 * example by another node.
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	@Scheduled(initialDelayString = "${rewards.categories.refresh-ms:30000}",
+			fixedDelayString = "${rewards.categories.refresh-ms:30000}")
+	public synchronized void refresh() {
+		try {
+			String fingerprint = rewardCategoryRepository.count() + "@" + rewardCategoryRepository
+					.findTopByOrderByUpdatedAtDesc().map(category -> String.valueOf(category.getUpdatedAt()))
+					.orElse("");
+			if (fingerprint.equals(classifier.fingerprint)) {
+				return;
+			}
+			classifier = build(rewardCategoryRepository.findAll(), fingerprint);
+		} catch (Exception e) {
+			log.error("Error occurred while reloading the reward categories", e);
+		}
+	}
+
+	/**
+	 * Compiles the keywords of all categories. Categories are ordered by
+	 * multiplier, and a category's position is the value of its keywords, so the
+	 * matcher's highest value is the highest multiplier.
+	 */
+	private Classifier build(List<RewardCategory> categories, String fingerprint) {
+		long start = System.nanoTime();
+		List<RewardCategory> ordered = new ArrayList<>(categories);
+		ordered.sort(Comparator.comparing(RewardCategory::getMultiplier).thenComparing(RewardCategory::getName));
+
+		String[] names = new String[ordered.size()];
+		int[] multiplierPercents = new int[ordered.size()];
+		Map<String, Integer> keywords = new HashMap<>();
+		for (int index = 0; index < ordered.size(); index++) {
+			RewardCategory category = ordered.get(index);
+			names[index] = category.getName();
+			multiplierPercents[index] = category.getMultiplier().movePointRight(2).setScale(0, RoundingMode.HALF_UP)
+					.intValue();
+			for (String keyword : category.getKeywords().split(",")) {
+				// A keyword shared by several categories belongs to the highest multiplier
+				keywords.merge(keyword.trim(), index, Math::max);
+			}
+		}
+		KeywordMatcher matcher = new KeywordMatcher(keywords);
+		log.info("Built reward category matcher with {} categories, {} keywords and {} states in {} ms",
+				names.length, keywords.size(), matcher.stateCount(),
+				TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+		return new Classifier(matcher, names, multiplierPercents, fingerprint);
+	}
+
+	private void validate(RewardCategoryDTO category, Set<String> names) {
+		if (category.getName() == null || category.getName().isBlank()) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Category name is required");
+		}
+		if (!names.add(category.getName().trim().toLowerCase())) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+					"Duplicate category name: " + category.getName());
+		}
+		if (category.getMultiplier() == null || category.getMultiplier().signum() < 0
+				|| category.getMultiplier().compareTo(MAX_MULTIPLIER) > 0) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+					"Multiplier of category " + category.getName() + " must be between 0 and 10");
+		}
+		if (category.getKeywords() == null
+				|| category.getKeywords().stream().allMatch(keyword -> keyword == null || keyword.isBlank())) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+					"Category " + category.getName() + " needs at least one keyword");
+		}
+		if (category.getKeywords().stream().anyMatch(keyword -> keyword != null && keyword.contains(","))) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+					"Keywords of category " + category.getName() + " must not contain commas");
+		}
+	}
+}
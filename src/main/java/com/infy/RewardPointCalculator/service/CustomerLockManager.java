@@ -0,0 +1,157 @@
+package com.infy.RewardPointCalculator.service;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Serializes reward point changes of a single customer inside this JVM and
+ * retries the optimistic version conflicts raised by concurrent writers.
+ *
+ * Customers are mapped onto a fixed number of lock stripes, so the memory used
+ * does not grow with the number of customers. Two customers may share a
+ * stripe, which only costs some extra waiting. Contention, lock wait time and
+ * retries are published to Micrometer so the stripe count can be tuned.
+ *
+ * @author rifat.bano
+ */
+@Component
+public class CustomerLockManager {
+
+	private static final Logger log = LoggerFactory.getLogger(CustomerLockManager.class);
+
+	private final ReentrantLock[] stripes;
+	private final int stripeMask;
+	private final int maxRetries;
+	private final long retryBackoffMillis;
+
+	private final MeterRegistry meterRegistry;
+	private final Counter contendedCounter;
+	private final Timer lockWaitTimer;
+	private final Counter retriesExhaustedCounter;
+
+	/**
+	 * Creates the lock manager with the configured number of stripes and retries.
+	 *
+	 * @param stripes            The requested number of lock stripes, rounded up
+	 *                           to the next power of two.
+	 * @param maxRetries         How many times an operation is retried after an
+	 *                           optimistic locking conflict.
+	 * @param retryBackoffMillis Base back-off between two attempts, multiplied by
+	 *                           the attempt number.
+	 * @param meterRegistry      The registry the lock metrics are published to.
+	 */
+	@Autowired
+	public CustomerLockManager(@Value("${rewards.lock.stripes:64}") int stripes,
+			@Value("${rewards.lock.max-retries:3}") int maxRetries,
+			@Value("${rewards.lock.retry-backoff-ms:10}") long retryBackoffMillis, MeterRegistry meterRegistry) {
+		int size = Integer.highestOneBit(Math.max(1, stripes - 1) << 1);
+		this.stripes = new ReentrantLock[size];
+		for (int i = 0; i < size; i++) {
+			this.stripes[i] = new ReentrantLock();
+		}
+		this.stripeMask = size - 1;
+		this.maxRetries = maxRetries;
+		this.retryBackoffMillis = retryBackoffMillis;
+		this.meterRegistry = meterRegistry;
+
+		this.contendedCounter = Counter.builder("rewards.lock.contended")
+				.description("Customer lock acquisitions that had to wait for another thread").register(meterRegistry);
+		this.lockWaitTimer = Timer.builder("rewards.lock.wait")
+				.description("Time spent waiting for a contended customer lock").register(meterRegistry);
+		this.retriesExhaustedCounter = Counter.builder("rewards.lock.retries.exhausted")
+				.description("Operations that still conflicted after all retries").register(meterRegistry);
+		Gauge.builder("rewards.lock.stripes", this, manager -> manager.stripes.length)
+				.description("Number of customer lock stripes").register(meterRegistry);
+		log.info("CustomerLockManager initialized with {} stripes and {} retries", size, maxRetries);
+	}
+
+	/**
+	 * Runs the given action while holding the lock stripe of the customer. The
+	 * lock is reentrant, so nested calls for the same customer on the same thread
+	 * do not block.
+	 *
+	 * @param customerId The ID of the customer whose data is being changed.
+	 * @param action     The work to perform under the lock.
+	 * @return The value returned by the action.
+	 */
+	public <T> T withCustomerLock(Long customerId, Supplier<T> action) {
+		ReentrantLock lock = stripeFor(customerId);
+		if (!lock.tryLock()) {
+			contendedCounter.increment();
+			long start = System.nanoTime();
+			lock.lock();
+			lockWaitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+		}
+		try {
+			return action.get();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Runs the given action and re-runs it when it fails with an optimistic
+	 * locking conflict, up to the configured number of retries. The action must
+	 * re-read the entities it changes, so every attempt works on fresh versions.
+	 *
+	 * @param operation A short, fixed name of the operation, used as metric tag.
+	 * @param action    The read-modify-write work to perform.
+	 * @return The value returned by the successful attempt.
+	 * @throws OptimisticLockingFailureException If the last attempt still
+	 *                                           conflicts.
+	 */
+	public <T> T retryOnConflict(String operation, Supplier<T> action) {
+		for (int attempt = 1;; attempt++) {
+			try {
+				return action.get();
+			} catch (OptimisticLockingFailureException e) {
+				if (attempt > maxRetries) {
+					retriesExhaustedCounter.increment();
+					log.error("Optimistic locking conflict in {} not resolved after {} retries", operation, maxRetries);
+					throw e;
+				}
+				meterRegistry.counter("rewards.lock.retries", "operation", operation).increment();
+				log.warn("Optimistic locking conflict in {}, retrying (attempt {} of {})", operation, attempt,
+						maxRetries);
+				backOff(attempt);
+			}
+		}
+	}
+
+	/**
+	 * Picks the lock stripe of a customer. The ID is scrambled first, so that
+	 * sequential IDs spread evenly over the stripes.
+	 *
+	 * @param customerId The ID of the customer.
+	 * @return The lock guarding that customer.
+	 */
+	private ReentrantLock stripeFor(Long customerId) {
+		int hash = Long.hashCode(customerId) * 0x9E3779B9;
+		return stripes[(hash ^ (hash >>> 16)) & stripeMask];
+	}
+
+	private void backOff(int attempt) {
+		if (retryBackoffMillis <= 0) {
+			return;
+		}
+		try {
+			Thread.sleep(retryBackoffMillis * attempt);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while waiting to retry", e);
+		}
+	}
+}
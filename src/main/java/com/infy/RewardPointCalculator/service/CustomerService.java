@@ -3,12 +3,14 @@ package com.infy.RewardPointCalculator.service;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
 
+import com.infy.RewardPointCalculator.config.MetricsConfig;
 import com.infy.RewardPointCalculator.dto.CustomerDTO;
 import com.infy.RewardPointCalculator.model.BlacklistedToken;
 import com.infy.RewardPointCalculator.model.Customer;
@@ -16,10 +18,16 @@ import com.infy.RewardPointCalculator.repository.BlacklistedTokenRepository;
 import com.infy.RewardPointCalculator.repository.CustomerRepository;
 import com.infy.RewardPointCalculator.tokenConfig.JwtTokenProvider;
 import com.infy.RewardPointCalculator.exception.*;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import io.micrometer.core.annotation.Timed;
 
 /**
  * This is the customer service which includes register, login and logout This
@@ -30,7 +38,8 @@ import java.util.ArrayList;
  */
 
 @Service
-public class CustomerService implements UserDetailsService {
+@Timed(value = MetricsConfig.SERVICE_TIMER, histogram = true)
+public class CustomerService implements UserDetailsService, UserDetailsPasswordService {
 
 	private static final Logger log = LoggerFactory.getLogger(CustomerService.class); // Logger instance with 'log' as
 																						// variable name
@@ -44,7 +53,12 @@ public class CustomerService implements UserDetailsService {
 	@Autowired
 	private JwtTokenProvider jwtTokenProvider;
 
-	private final BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
+	@Autowired
+	private PasswordHashingService passwordHashingService;
+
+	// The customers allowed to call the maintenance endpoints
+	@Value("${rewards.security.admin-emails:}")
+	private Set<String> adminEmails = Set.of();
 
 	/**
 	 * Registers and saves the customer details after validating the required
@@ -87,15 +101,17 @@ public class CustomerService implements UserDetailsService {
 			customer.setFirstName(customerDTO.getFirstName());
 			customer.setLastName(customerDTO.getLastName());
 			customer.setEmail(customerDTO.getEmail());
-			String encodedPassword = passwordEncoder.encode(customerDTO.getPassword()); // Use the injected password
-																						// encoder
-			customer.setPassword(encodedPassword); // Hashing the password using BCryptPasswordEncoder
+			// Hashed on the password hashing pool, fails with 503 while it is saturated
+			String encodedPassword = passwordHashingService.hash(customerDTO.getPassword());
+			customer.setPassword(encodedPassword); // Hashing the password using BCrypt
 			Customer savedCustomer = customerRepository.save(customer);
 			log.info("Customer registered successfully with email: {}", customer.getEmail());
 			return savedCustomer;
 		} catch (DataIntegrityViolationException e) {
 			log.error("Email already in use for registration: {}", customerDTO.getEmail());
 			throw new ResponseStatusException(HttpStatus.CONFLICT, "Email already in use", e);
+		} catch (ResponseStatusException e) {
+			throw e;
 		} catch (Exception e) {
 			log.error("An unexpected error occurred while registering customer: {}", customerDTO.getEmail(), e);
 			throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "An unexpected error occurred", e);
@@ -108,7 +124,8 @@ public class CustomerService implements UserDetailsService {
 	 * authentication process when a user tries to log in with their email. It loads
 	 * the user's details from the database, and returns a UserDetails object with
 	 * the user's email and password which is used by Spring Security for
-	 * authentication and authorization.
+	 * authentication and authorization. The customers listed in
+	 * rewards.security.admin-emails are granted ROLE_ADMIN.
 	 *
 	 * @param email The email of the user to be authenticated.
 	 * @return UserDetails The user details, including the email and hashed
@@ -124,7 +141,7 @@ public class CustomerService implements UserDetailsService {
 			log.info("User loaded successfully with email: {}", email);
 			// Return the user details with the email and encoded password
 			return new org.springframework.security.core.userdetails.User(customer.getEmail(), customer.getPassword(),
-					new ArrayList<>());
+					authoritiesOf(customer.getEmail()));
 		} catch (UsernameNotFoundException e) {
 			log.error("User not found for email: {}", email);
 			throw e; // Propagate exception
@@ -134,6 +151,42 @@ public class CustomerService implements UserDetailsService {
 		}
 	}
 
+	private List<GrantedAuthority> authoritiesOf(String email) {
+		List<GrantedAuthority> authorities = new ArrayList<>();
+		if (adminEmails != null && adminEmails.contains(email)) {
+			authorities.add(new SimpleGrantedAuthority("ROLE_ADMIN"));
+		}
+		return authorities;
+	}
+
+	/**
+	 * Stores a password hashed again with the current BCrypt cost. Called by
+	 * Spring Security after a successful login with a password hashed with a
+	 * lower cost. A failure to store it is logged and does not fail the login, the
+	 * rehash is tried again on the next one.
+	 *
+	 * @param user        The user who logged in.
+	 * @param newPassword The new hash of the password.
+	 * @return The user details with the new hash, or unchanged if it could not be
+	 *         stored.
+	 */
+	@Override
+	public UserDetails updatePassword(UserDetails user, String newPassword) {
+		try {
+			String email = user.getUsername();
+			Customer customer = customerRepository.findByEmail(email)
+					.orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + email));
+			customer.setPassword(newPassword);
+			customerRepository.save(customer);
+			log.info("Password rehashed with the current cost for email: {}", user.getUsername());
+			return new org.springframework.security.core.userdetails.User(customer.getEmail(), newPassword,
+					user.getAuthorities());
+		} catch (Exception e) {
+			log.warn("Could not store the rehashed password for email: {}", user.getUsername(), e);
+			return user;
+		}
+	}
+
 	/**
 	 * This method handles the logout functionality by invalidating the provided JWT
 	 * token. It extracts the username from the token, adds the token to the
@@ -2,22 +2,31 @@ package com.infy.RewardPointCalculator.service;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Objects;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.web.server.ResponseStatusException;
 import com.infy.RewardPointCalculator.Util.RewardPointCalculator;
+import com.infy.RewardPointCalculator.config.MetricsConfig;
 import com.infy.RewardPointCalculator.dto.CustomerTransactionDTO;
+import com.infy.RewardPointCalculator.jfr.RewardAccrualEvent;
+import com.infy.RewardPointCalculator.jfr.RewardRecomputeEvent;
+import com.infy.RewardPointCalculator.ledger.RewardLedger;
+import com.infy.RewardPointCalculator.ledger.RewardLedgerEventType;
 import com.infy.RewardPointCalculator.model.Customer;
 import com.infy.RewardPointCalculator.model.CustomerTransaction;
 import com.infy.RewardPointCalculator.model.RewardPoints;
+import com.infy.RewardPointCalculator.pipeline.RewardEventPipeline;
 import com.infy.RewardPointCalculator.repository.CustomerRepository;
 import com.infy.RewardPointCalculator.repository.CustomerTransactionRepository;
 import com.infy.RewardPointCalculator.repository.RewardPointsRepository;
 
+import io.micrometer.core.annotation.Timed;
 import jakarta.validation.Valid;
 
 /**
@@ -29,6 +38,7 @@ import jakarta.validation.Valid;
  */
 
 @Service
+@Timed(value = MetricsConfig.SERVICE_TIMER, histogram = true)
 public class CustomerTransactionService {
 
 	private static final Logger log = LoggerFactory.getLogger(CustomerTransactionService.class);
@@ -42,11 +52,38 @@ public class CustomerTransactionService {
 	@Autowired
 	private CustomerRepository customerRepository;
 
+	@Autowired
+	private CustomerLockManager customerLockManager;
+
+	@Autowired
+	private AdvisoryLockService advisoryLockService;
+
+	@Autowired
+	private RewardLedger rewardLedger;
+
+	@Autowired
+	private RewardEventPipeline rewardEventPipeline;
+
+	@Autowired
+	private PointsExpiryService pointsExpiryService;
+
+	@Autowired
+	private CategoryMultiplierService categoryMultiplierService;
+
+	@Autowired
+	private PointsBalanceService pointsBalanceService;
+
+	@Autowired
+	private PointsStreamService pointsStreamService;
+
+	@Autowired
+	private SingleFlight singleFlight;
+
 	/**
 	 * This method fetches all transactions for a given customer by their customer
 	 * ID. If no transactions are found, an exception is thrown. If an error occurs
 	 * during the transaction retrieval, an exception is thrown with an appropriate
-	 * error message.
+	 * error message. Identical concurrent calls share one load.
 	 *
 	 * @param customerId The ID of the customer whose transactions are to be
 	 *                   fetched.
@@ -54,6 +91,24 @@ public class CustomerTransactionService {
 	 *         customer ID.
 	 */
 	public List<CustomerTransaction> getTransactions(Long customerId) {
+		return getTransactions(customerId, pointsBalanceService.getVersion(customerId));
+	}
+
+	/**
+	 * Fetches all transactions for a customer, at least as recent as a data
+	 * version the caller read. Concurrent calls for the same version share one
+	 * load, a load started before a newer version is never shared.
+	 *
+	 * @param customerId The ID of the customer.
+	 * @param version    The data version read by the caller, for example to
+	 *                   build the ETag of the response.
+	 * @return A list of CustomerTransaction objects of the customer.
+	 */
+	public List<CustomerTransaction> getTransactions(Long customerId, long version) {
+		return singleFlight.execute("transactions", customerId + "@" + version, () -> loadTransactions(customerId));
+	}
+
+	private List<CustomerTransaction> loadTransactions(Long customerId) {
 		try {
 			List<CustomerTransaction> transactions = transactionRepository.findByCustomerId(customerId);
 			if (transactions.isEmpty()) {
@@ -71,8 +126,10 @@ public class CustomerTransactionService {
 	/**
 	 * This method adds a new transaction for a customer and updates their reward
 	 * points. It first checks if the customer exists, then creates the transaction
-	 * and updates the associated reward points based on the transaction amount. If
-	 * an error occurs during the process, an exception is thrown.
+	 * and updates the associated reward points based on the transaction amount. The
+	 * reward points are applied by the reward pipeline after the request returns,
+	 * or right away if the pipeline cannot take the event. If an error occurs
+	 * during the process, an exception is thrown.
 	 *
 	 * @param customerId     The ID of the customer to add the transaction for.
 	 * @param transactionDTO Data Transfer Object containing the transaction
@@ -82,8 +139,13 @@ public class CustomerTransactionService {
 	public CustomerTransaction addTransaction(Long customerId, CustomerTransactionDTO transactionDTO) {
 		try {
 			Customer customer = getCustomerById(customerId);
-			CustomerTransaction transaction = createTransaction(customer, transactionDTO);
-			updateRewardPointsForTransaction(customer, transaction);
+			CustomerTransaction transaction = customerLockManager.withCustomerLock(customerId, () -> {
+				CustomerTransaction createdTransaction = createTransaction(customer, transactionDTO);
+				if (!publishRewardEvent(createdTransaction, customerId, RewardLedgerEventType.ACCRUAL)) {
+					updateRewardPointsForTransaction(customer, createdTransaction, RewardLedgerEventType.ACCRUAL);
+				}
+				return createdTransaction;
+			});
 			log.info("Transaction added for customerId: {}", customerId);
 			return transaction;
 		} catch (Exception e) {
@@ -96,8 +158,10 @@ public class CustomerTransactionService {
 	/**
 	 * This method is responsible for editing an existing transaction for a
 	 * customer. It retrieves the existing transaction using the customerId and
-	 * transactionId, updates its details with the provided data, and adjusts the
-	 * reward points based on the updated transaction.
+	 * transactionId, updates its details with the provided data, and recomputes
+	 * the reward points of its month, and of its previous month if the date moved
+	 * to another one. The change of every recomputed month is recorded in the
+	 * reward ledger as an edit.
 	 *
 	 * @param customerId     The ID of the customer whose transaction needs to be
 	 *                       edited.
@@ -108,9 +172,24 @@ public class CustomerTransactionService {
 	public CustomerTransaction editTransaction(Long customerId, Long transactionId,
 			@Valid CustomerTransactionDTO transactionDTO) {
 		try {
-			CustomerTransaction existingTransaction = getTransactionById(customerId, transactionId);
-			updateTransactionDetails(existingTransaction, transactionDTO);
-			updateRewardPointsForTransaction(existingTransaction.getCustomer(), existingTransaction);
+			CustomerTransaction existingTransaction = customerLockManager.withCustomerLock(customerId, () -> {
+				LocalDate[] previousDate = new LocalDate[1];
+				CustomerTransaction transaction = customerLockManager.retryOnConflict("editTransaction", () -> {
+					CustomerTransaction current = getTransactionById(customerId, transactionId);
+					previousDate[0] = current.getDate();
+					updateTransactionDetails(current, transactionDTO);
+					return current;
+				});
+				LocalDate date = transaction.getDate();
+				if (previousDate[0] != null && (previousDate[0].getYear() != date.getYear()
+						|| previousDate[0].getMonthValue() != date.getMonthValue())) {
+					recomputeMonth(customerId, previousDate[0].getMonthValue(), previousDate[0].getYear(),
+							RewardLedgerEventType.EDIT, transactionId);
+				}
+				recomputeMonth(customerId, date.getMonthValue(), date.getYear(), RewardLedgerEventType.EDIT,
+						transactionId);
+				return transaction;
+			});
 			log.info("Transaction updated for customerId: {}", customerId);
 			return existingTransaction;
 		} catch (Exception e) {
@@ -121,10 +200,10 @@ public class CustomerTransactionService {
 	}
 
 	/**
-	 * This method deletes a specific transaction for a customer and adjusts their
-	 * reward points based on the transaction deletion. It first retrieves the
-	 * customer and transaction, then modifies the customer's reward points before
-	 * deleting the transaction from the repository.
+	 * This method deletes a specific transaction for a customer and recomputes the
+	 * reward points of its month from the remaining transactions, each at the
+	 * category bonus it was recorded with. The change of the month is
+	 * recorded in the reward ledger as a deletion.
 	 *
 	 * @param customerId    The ID of the customer whose transaction needs to be
 	 *                      deleted.
@@ -132,10 +211,15 @@ public class CustomerTransactionService {
 	 */
 	public void deleteTransaction(Long customerId, Long transactionId) {
 		try {
-			Customer customer = getCustomerById(customerId);
-			CustomerTransaction transaction = getTransactionById(customerId, transactionId);
-			adjustRewardPointsForDeletion(customer, transaction);
-			transactionRepository.delete(transaction);
+			getCustomerById(customerId);
+			customerLockManager.withCustomerLock(customerId, () -> {
+				CustomerTransaction transaction = getTransactionById(customerId, transactionId);
+				transactionRepository.delete(transaction);
+				pointsBalanceService.touch(customerId);
+				recomputeMonth(customerId, transaction.getDate().getMonthValue(), transaction.getDate().getYear(),
+						RewardLedgerEventType.DELETION, transactionId);
+				return transaction;
+			});
 			log.info("Transaction deleted for customerId: {}", customerId);
 		} catch (Exception e) {
 			log.error("Error occurred while deleting transaction for customerId: {}", customerId, e);
@@ -172,8 +256,11 @@ public class CustomerTransactionService {
 		transaction.setCustomer(customer);
 		transaction.setAmount(transactionDTO.getAmount());
 		transaction.setSpentDetails(transactionDTO.getSpentDetails());
+		transaction.setMultiplierPercent(
+				categoryMultiplierService.multiplierPercent(transactionDTO.getSpentDetails()));
 		transaction.setDate(transactionDTO.getTransactionDate());
 		CustomerTransaction savedTransaction = transactionRepository.save(transaction);
+		pointsBalanceService.touch(customer.getId());
 		log.info("Transaction created for customerId: {} with amount: {}", customer.getId(),
 				savedTransaction.getAmount());
 		return savedTransaction;
@@ -183,16 +270,24 @@ public class CustomerTransactionService {
 	/**
 	 * Updates the details of an existing transaction with the information provided
 	 * in the transactionDTO. The updated transaction is then saved to the database.
+	 * The category bonus is only classified again when the spent details change,
+	 * so editing the amount or date keeps the multiplier the transaction was
+	 * recorded with.
 	 * 
 	 * @param transaction    The existing transaction to be updated.
 	 * @param transactionDTO The data transfer object (DTO) containing the updated
 	 *                       transaction details.
 	 */
 	private void updateTransactionDetails(CustomerTransaction transaction, CustomerTransactionDTO transactionDTO) {
+		if (!Objects.equals(transaction.getSpentDetails(), transactionDTO.getSpentDetails())) {
+			transaction.setMultiplierPercent(
+					categoryMultiplierService.multiplierPercent(transactionDTO.getSpentDetails()));
+		}
 		transaction.setAmount(transactionDTO.getAmount());
 		transaction.setSpentDetails(transactionDTO.getSpentDetails());
 		transaction.setDate(transactionDTO.getTransactionDate());
 		transactionRepository.save(transaction);
+		pointsBalanceService.touch(transaction.getCustomer().getId());
 		log.info("Transaction updated for transactionId: {}", transaction.getId());
 	}
 
@@ -218,45 +313,125 @@ public class CustomerTransactionService {
 	 * calculates the points for the transaction and updates the reward points for
 	 * the corresponding month and year. The reward points are saved in the
 	 * repository. Additionally, an asynchronous process is triggered to update the
-	 * reward points.
+	 * reward points. The update holds the customer-month advisory lock, so nodes
+	 * sharing the database do not race. A concurrent change of the same month that
+	 * still gets through makes the save fail with a version conflict, in which case
+	 * the update is retried on fresh data. The added points are recorded in the
+	 * reward ledger.
 	 * 
 	 * @param customer    The customer for whom the reward points are being updated.
 	 * @param transaction The transaction details used to calculate reward points.
+	 * @param eventType   The ledger event recorded for the change.
 	 */
-	private void updateRewardPointsForTransaction(Customer customer, CustomerTransaction transaction) {
+	private void updateRewardPointsForTransaction(Customer customer, CustomerTransaction transaction,
+			RewardLedgerEventType eventType) {
 		int month = transaction.getDate().getMonthValue();
 		int year = transaction.getDate().getYear();
-		int points = RewardPointCalculator.calculatePoints(transaction.getAmount());
+		RewardAccrualEvent event = new RewardAccrualEvent();
+		event.begin();
+		int points = pointsOf(transaction);
 
-		RewardPoints rewardPoints = getOrCreateRewardPoints(customer, month, year);
-		rewardPoints.setPoints(rewardPoints.getPoints() + points);
-		rewardPointsRepository.save(rewardPoints);
+		accrueRewardPoints(customer, year, month, points);
+		rewardLedger.record(eventType, customer.getId(), year, month, points, transaction.getId());
+		if (event.shouldCommit()) {
+			event.set("accrual", customer.getId(), year, month, points, 1);
+			event.commit();
+		}
 
 		updateRewardPointsAsync(customer.getId(), month, year);
 		log.info("Reward points updated for customerId: {} for month: {} and year: {}", customer.getId(), month, year);
 	}
 
 	/**
-	 * Adjusts the reward points for a customer after deleting a transaction. This
-	 * method recalculates the reward points by subtracting the points associated
-	 * with the deleted transaction from the customer's total reward points for the
-	 * specific month and year.
+	 * @return The reward points of a transaction, at the category bonus it was
+	 *         recorded with.
+	 */
+	private static int pointsOf(CustomerTransaction transaction) {
+		return RewardPointCalculator.calculatePoints(transaction.getAmount(), transaction.getMultiplierPercent());
+	}
+
+	/**
+	 * Publishes a recorded transaction to the reward pipeline, which applies its
+	 * reward points in the background. Inside a caller's transaction, for
+	 * example an idempotent submission recording its key, nothing is published:
+	 * the points are applied synchronously and commit, or roll back, with the
+	 * transaction.
 	 * 
-	 * @param customer    The customer whose reward points need to be adjusted.
-	 * @param transaction The transaction that was deleted, used to determine the
-	 *                    points to be subtracted.
+	 * @param transaction The saved transaction.
+	 * @param customerId  The ID of the customer owning the transaction.
+	 * @param eventType   The ledger event recorded for the points, ACCRUAL for a
+	 *                    new transaction.
+	 * @return True if the pipeline took the event, false if the reward points have
+	 *         to be applied synchronously.
 	 */
-	private void adjustRewardPointsForDeletion(Customer customer, CustomerTransaction transaction) {
-		int points = RewardPointCalculator.calculatePoints(transaction.getAmount());
-		List<RewardPoints> rewardPointsList = rewardPointsRepository.findByCustomerAndMonthAndYear(customer,
-				transaction.getDate().getMonthValue(), transaction.getDate().getYear());
-
-		if (!rewardPointsList.isEmpty()) {
-			RewardPoints rewardPoints = rewardPointsList.get(0);
-			rewardPoints.setPoints(rewardPoints.getPoints() - points);
-			rewardPointsRepository.save(rewardPoints);
+	private boolean publishRewardEvent(CustomerTransaction transaction, Long customerId,
+			RewardLedgerEventType eventType) {
+		if (TransactionSynchronizationManager.isActualTransactionActive()) {
+			return false;
 		}
-		log.info("Reward points adjusted for customerId: {} after transaction deletion", customer.getId());
+		return rewardEventPipeline.publish(eventType, customerId, transaction.getId(), transaction.getDate(),
+				transaction.getAmount(), transaction.getMultiplierPercent());
+	}
+
+	/**
+	 * Adds points to the monthly reward points of a customer, creating the month
+	 * if needed. The update holds the customer-month advisory lock and is retried
+	 * on a version conflict. The caller records the change in the reward ledger.
+	 * 
+	 * @param customer The customer whose reward points are updated.
+	 * @param year     The year of the monthly reward points.
+	 * @param month    The month of the monthly reward points.
+	 * @param points   The points to add.
+	 */
+	public void accrueRewardPoints(Customer customer, int year, int month, int points) {
+		customerLockManager.retryOnConflict("accrual",
+				() -> advisoryLockService.withMonthLock(customer.getId(), year, month, () -> {
+					RewardPoints rewardPoints = getOrCreateRewardPoints(customer, month, year);
+					int previousPoints = rewardPoints.getPoints();
+					int previousExpiredPoints = expiredPointsOf(rewardPoints);
+					rewardPoints.setPoints(rewardPoints.getPoints() + points);
+					applyExpiry(rewardPoints);
+					return saveRewardPoints(customer.getId(), rewardPoints, previousPoints, previousExpiredPoints);
+				}));
+	}
+
+	/**
+	 * Keeps the expired points of a month in step with its points. Points changed
+	 * in a month that has already expired, for example by a late transaction,
+	 * expire right away, except for the points already redeemed from it.
+	 * 
+	 * @param rewardPoints The reward points about to be saved.
+	 */
+	private void applyExpiry(RewardPoints rewardPoints) {
+		int redeemedPoints = rewardPoints.getRedeemedPoints() == null ? 0 : rewardPoints.getRedeemedPoints();
+		rewardPoints.setExpiredPoints(pointsExpiryService.expiredPortion(rewardPoints.getYear(),
+				rewardPoints.getMonth(), Math.max(rewardPoints.getPoints() - redeemedPoints, 0)));
+	}
+
+	/**
+	 * Saves the monthly reward points of a customer and adds their change to the
+	 * customer's running points balance, in the transaction of the month lock
+	 * when there is one. The new points are pushed to the customer's open
+	 * streams once they are committed.
+	 * 
+	 * @param customerId            The ID of the customer.
+	 * @param rewardPoints          The changed reward points.
+	 * @param previousPoints        The points of the month before the change.
+	 * @param previousExpiredPoints The expired points of the month before the
+	 *                              change.
+	 * @return The saved reward points.
+	 */
+	private RewardPoints saveRewardPoints(Long customerId, RewardPoints rewardPoints, int previousPoints,
+			int previousExpiredPoints) {
+		RewardPoints saved = rewardPointsRepository.save(rewardPoints);
+		pointsBalanceService.applyDelta(customerId, (long) rewardPoints.getPoints() - previousPoints,
+				(long) expiredPointsOf(rewardPoints) - previousExpiredPoints);
+		pointsStreamService.publish(customerId, rewardPoints);
+		return saved;
+	}
+
+	private int expiredPointsOf(RewardPoints rewardPoints) {
+		return rewardPoints.getExpiredPoints() == null ? 0 : rewardPoints.getExpiredPoints();
 	}
 
 	/**
@@ -319,7 +494,9 @@ public class CustomerTransactionService {
 	 * This method fetches the customer's transactions for the specified month and
 	 * year, calculates the total points from these transactions, and updates or
 	 * creates a `RewardPoints` entry with the calculated points. The points are
-	 * computed using the `RewardPointCalculator` utility.
+	 * computed using the `RewardPointCalculator` utility, with the category bonus
+	 * each transaction was recorded with. The new total is recorded in the reward
+	 * ledger.
 	 * 
 	 * @param customerId The ID of the customer whose reward points need to be
 	 *                   updated.
@@ -327,20 +504,63 @@ public class CustomerTransactionService {
 	 * @param year       The year for which the reward points need to be updated.
 	 */
 	public void updateRewardPoints(Long customerId, Integer month, Integer year) {
+		recomputeMonth(customerId, month, year, RewardLedgerEventType.RECOMPUTE, null);
+	}
+
+	/**
+	 * Recomputes the reward points of a month from its transactions, and records
+	 * the change in the reward ledger: the new total for a recompute, the
+	 * difference to the previous total for an edit or a deletion.
+	 * 
+	 * @param customerId    The ID of the customer.
+	 * @param month         The month to recompute.
+	 * @param year          The year to recompute.
+	 * @param eventType     The ledger event recorded for the change.
+	 * @param transactionId The ID of the transaction causing the change, or null.
+	 * @return The new total of the month.
+	 */
+	private int recomputeMonth(Long customerId, int month, int year, RewardLedgerEventType eventType,
+			Long transactionId) {
 		log.info("updateRewardPoints started running for customerId: {} in {}-{}", customerId, month, year);
 
+		RewardRecomputeEvent event = new RewardRecomputeEvent();
+		event.begin();
 		Customer customer = getCustomerById(customerId);
-		List<CustomerTransaction> transactions = transactionRepository.findByCustomerIdAndDateBetween(customerId,
-				LocalDate.of(year, month, 1),
-				LocalDate.of(year, month, 1).withDayOfMonth(LocalDate.of(year, month, 1).lengthOfMonth()));
+		int points = customerLockManager.withCustomerLock(customerId, () -> {
+			int[] totals = customerLockManager.retryOnConflict("recompute",
+					() -> advisoryLockService.withMonthLock(customerId, year, month, () -> {
+						long start = System.nanoTime();
+						List<CustomerTransaction> transactions = transactionRepository.findByCustomerIdAndDateBetween(
+								customerId, LocalDate.of(year, month, 1),
+								LocalDate.of(year, month, 1)
+										.withDayOfMonth(LocalDate.of(year, month, 1).lengthOfMonth()));
+						long fetched = System.nanoTime();
 
-		int totalPoints = transactions.stream()
-				.mapToInt(transaction -> RewardPointCalculator.calculatePoints(transaction.getAmount())).sum();
+						int monthlyPoints = transactions.stream()
+								.mapToInt(CustomerTransactionService::pointsOf).sum();
+						long calculated = System.nanoTime();
 
-		RewardPoints rewardPoints = getOrCreateRewardPoints(customer, month, year);
-		rewardPoints.setPoints(totalPoints);
-		rewardPointsRepository.save(rewardPoints);
+						RewardPoints rewardPoints = getOrCreateRewardPoints(customer, month, year);
+						int previousPoints = rewardPoints.getPoints();
+						int previousExpiredPoints = expiredPointsOf(rewardPoints);
+						rewardPoints.setPoints(monthlyPoints);
+						applyExpiry(rewardPoints);
+						saveRewardPoints(customerId, rewardPoints, previousPoints, previousExpiredPoints);
+						event.addAttempt(fetched - start, calculated - fetched, System.nanoTime() - calculated,
+								transactions.size());
+						return new int[] { monthlyPoints, previousPoints };
+					}));
+			// Recorded under the customer lock, so the ledger keeps the order of the changes
+			rewardLedger.record(eventType, customerId, year, month,
+					eventType.isAbsolute() ? totals[0] : totals[0] - totals[1], transactionId);
+			return totals[0];
+		});
+		if (event.shouldCommit()) {
+			event.set(customerId, year, month, points);
+			event.commit();
+		}
 
 		log.info("updateRewardPoints finished running for customerId: {} in {}-{}", customerId, month, year);
+		return points;
 	}
 }
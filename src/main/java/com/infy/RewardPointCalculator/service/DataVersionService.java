@@ -0,0 +1,97 @@
+package com.infy.RewardPointCalculator.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.WebRequest;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Answers conditional GET requests of a customer's data from the customer's
+ * data version, before the data itself is read.
+ *
+ * The strong ETag of a response is made of the resource name, the customer ID
+ * and the data version kept with the points balance (see
+ * {@link PointsBalanceService}), which changes with every write of the
+ * customer's points or transactions. A request whose If-None-Match header
+ * carries the current tag is answered with 304 Not Modified without querying
+ * or serializing the data. The outcomes are counted per resource, so the hit
+ * rate can be followed.
+ *
+ * The handler reads the version once, with {@link #version(Long)}, and loads
+ * the data for that version, so the body is never older than its ETag.
+ *
+ * @author rifat.bano
+ */
+@Service
+public class DataVersionService {
+
+	@Autowired
+	private PointsBalanceService pointsBalanceService;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	/**
+	 * @param customerId The ID of the customer.
+	 * @return The current data version of the customer.
+	 */
+	public long version(Long customerId) {
+		return pointsBalanceService.getVersion(customerId);
+	}
+
+	/**
+	 * @param customerId The ID of the customer.
+	 * @param resource   The name of the resource, for example "transactions".
+	 * @return The current strong ETag of the resource of the customer.
+	 */
+	public String etag(Long customerId, String resource) {
+		return etag(customerId, resource, version(customerId));
+	}
+
+	/**
+	 * @param customerId The ID of the customer.
+	 * @param resource   The name of the resource.
+	 * @param version    The data version the response is built from.
+	 * @return The strong ETag of the resource of the customer at that version.
+	 */
+	public String etag(Long customerId, String resource, long version) {
+		return "\"" + resource + "-" + customerId + "-" + version + "\"";
+	}
+
+	/**
+	 * Checks the If-None-Match header of a request against the current ETag. The
+	 * ETag header is set on the response either way, and the status is set to
+	 * 304 if the client's copy is current.
+	 *
+	 * @param request    The request.
+	 * @param customerId The ID of the customer.
+	 * @param resource   The name of the resource.
+	 * @return True if the client's copy is current and the handler must return
+	 *         without a body.
+	 */
+	public boolean checkNotModified(WebRequest request, Long customerId, String resource) {
+		return checkNotModified(request, customerId, resource, version(customerId));
+	}
+
+	/**
+	 * Checks the If-None-Match header of a request against the ETag of a data
+	 * version read by the caller, who then loads the data for that version.
+	 *
+	 * @param request    The request.
+	 * @param customerId The ID of the customer.
+	 * @param resource   The name of the resource.
+	 * @param version    The data version read by the caller.
+	 * @return True if the client's copy is current and the handler must return
+	 *         without a body.
+	 */
+	public boolean checkNotModified(WebRequest request, Long customerId, String resource, long version) {
+		boolean conditional = request.getHeader("If-None-Match") != null;
+		boolean notModified = request.checkNotModified(etag(customerId, resource, version));
+		String outcome = notModified ? "not_modified" : conditional ? "modified" : "unconditional";
+		Counter.builder("rewards.etag.requests").tag("resource", resource).tag("outcome", outcome)
+				.description("Conditional GET requests by outcome").register(meterRegistry).increment();
+		return notModified;
+	}
+}
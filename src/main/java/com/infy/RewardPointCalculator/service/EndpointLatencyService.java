@@ -0,0 +1,248 @@
+package com.infy.RewardPointCalculator.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.infy.RewardPointCalculator.dto.EndpointLatency;
+import com.infy.RewardPointCalculator.dto.LatencyReport;
+
+/**
+ * Latency distribution of every endpoint, HTTP method and response status,
+ * kept in HdrHistograms at microsecond resolution.
+ *
+ * Request threads record into a {@link Recorder} per series, which is
+ * wait-free and does not allocate once the series exists. Every interval the
+ * recorders are rotated: the interval that ended becomes readable and is
+ * added to the running total, and a copy of the totals is kept as a numbered
+ * snapshot. A report covers the last interval, the running total, or the
+ * difference between the running total and an earlier snapshot.
+ *
+ * Endpoints are identified by their route pattern, so the number of series
+ * stays bounded; requests that matched no route share one endpoint.
+ *
+ * @author rifat.bano
+ */
+@Service
+public class EndpointLatencyService {
+
+	public static final String UNMATCHED = "UNMATCHED";
+
+	private static final String[] METHODS = { "GET", "POST", "PUT", "DELETE", "PATCH", "OTHER" };
+	private static final int STATUSES = 600;
+
+	private final ConcurrentHashMap<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+	private final LinkedHashMap<Long, Map<String, Histogram>> snapshots = new LinkedHashMap<>();
+	private final long highestMicros;
+	private final int significantDigits;
+	private final int maxEndpoints;
+	private final int snapshotsRetained;
+	private long snapshotId;
+
+	/**
+	 * The series of one route pattern, indexed by method and status.
+	 */
+	private static class Endpoint {
+
+		private final String name;
+		private final AtomicReferenceArray<Series> series = new AtomicReferenceArray<>(METHODS.length * STATUSES);
+
+		private Endpoint(String name) {
+			this.name = name;
+		}
+	}
+
+	/**
+	 * The histograms of one endpoint, method and status.
+	 */
+	private static class Series {
+
+		private final String method;
+		private final String endpoint;
+		private final int status;
+		private final Recorder recorder;
+		private final Histogram total;
+		private Histogram lastInterval;
+		private Histogram spare;
+
+		private Series(String method, String endpoint, int status, long highestMicros, int significantDigits) {
+			this.method = method;
+			this.endpoint = endpoint;
+			this.status = status;
+			this.recorder = new Recorder(highestMicros, significantDigits);
+			this.total = new Histogram(highestMicros, significantDigits);
+		}
+
+		private String key() {
+			return method + " " + endpoint + " " + status;
+		}
+	}
+
+	/**
+	 * Creates the latency histograms.
+	 *
+	 * @param highestMicros     The highest latency tracked, higher values are
+	 *                          recorded as this value.
+	 * @param significantDigits The precision of the histograms, in significant
+	 *                          decimal digits.
+	 * @param maxEndpoints      The maximum number of route patterns tracked,
+	 *                          further patterns are counted as unmatched.
+	 * @param snapshotsRetained The number of interval snapshots kept for diffing.
+	 */
+	@Autowired
+	public EndpointLatencyService(@Value("${rewards.latency.highest-micros:60000000}") long highestMicros,
+			@Value("${rewards.latency.significant-digits:2}") int significantDigits,
+			@Value("${rewards.latency.max-endpoints:200}") int maxEndpoints,
+			@Value("${rewards.latency.snapshots-retained:10}") int snapshotsRetained) {
+		this.highestMicros = highestMicros;
+		this.significantDigits = significantDigits;
+		this.maxEndpoints = maxEndpoints;
+		this.snapshotsRetained = snapshotsRetained;
+	}
+
+	/**
+	 * Records the latency of one request.
+	 *
+	 * @param method   The HTTP method.
+	 * @param endpoint The route pattern the request matched, or null.
+	 * @param status   The response status.
+	 * @param nanos    The time taken, in nanoseconds.
+	 */
+	public void record(String method, String endpoint, int status, long nanos) {
+		Endpoint target = endpoints.get(endpoint == null ? UNMATCHED : endpoint);
+		if (target == null) {
+			target = register(endpoint);
+		}
+		int methodIndex = methodIndex(method);
+		int statusIndex = status >= 0 && status < STATUSES ? status : 0;
+		int index = methodIndex * STATUSES + statusIndex;
+		Series series = target.series.get(index);
+		if (series == null) {
+			target.series.compareAndSet(index, null,
+					new Series(METHODS[methodIndex], target.name, statusIndex, highestMicros, significantDigits));
+			series = target.series.get(index);
+		}
+		series.recorder.recordValue(Math.min(Math.max(TimeUnit.NANOSECONDS.toMicros(nanos), 0), highestMicros));
+	}
+
+	/**
+	 * Ends the current interval. The interval's histograms become the ones
+	 * reported for the "interval" window, are added to the running totals, and
+	 * a snapshot of the totals is kept.
+	 */
+	@Scheduled(initialDelayString = "${rewards.latency.interval-ms:60000}",
+			fixedDelayString = "${rewards.latency.interval-ms:60000}")
+	public synchronized void rotate() {
+		Map<String, Histogram> snapshot = new HashMap<>();
+		for (Series series : allSeries()) {
+			Histogram interval = series.recorder.getIntervalHistogram(series.spare);
+			series.spare = series.lastInterval;
+			series.lastInterval = interval;
+			series.total.add(interval);
+			snapshot.put(series.key(), series.total.copy());
+		}
+		snapshots.put(++snapshotId, snapshot);
+		while (snapshots.size() > snapshotsRetained) {
+			snapshots.remove(snapshots.keySet().iterator().next());
+		}
+	}
+
+	/**
+	 * Reports the latency percentiles of every series.
+	 *
+	 * @param window "interval" for the last completed interval, or "total" for
+	 *               everything since start-up.
+	 * @param since  If set, the report covers the requests recorded after this
+	 *               snapshot, up to the last completed interval.
+	 * @return The report.
+	 * @throws ResponseStatusException With 404 if the snapshot is not retained,
+	 *                                 400 for an unknown window.
+	 */
+	public synchronized LatencyReport report(String window, Long since) {
+		Map<String, Histogram> base = null;
+		if (since != null) {
+			base = snapshots.get(since);
+			if (base == null) {
+				throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Snapshot " + since + " is not retained");
+			}
+			window = "since";
+		} else if (!"interval".equals(window) && !"total".equals(window)) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown window " + window);
+		}
+
+		List<EndpointLatency> rows = new ArrayList<>();
+		for (Series series : allSeries()) {
+			Histogram histogram;
+			if (base != null) {
+				histogram = series.total.copy();
+				Histogram before = base.get(series.key());
+				if (before != null) {
+					histogram.subtract(before);
+				}
+			} else {
+				histogram = "interval".equals(window) ? series.lastInterval : series.total;
+			}
+			if (histogram != null && histogram.getTotalCount() > 0) {
+				rows.add(new EndpointLatency(series.method, series.endpoint, series.status,
+						histogram.getTotalCount(), histogram.getValueAtPercentile(50),
+						histogram.getValueAtPercentile(99), histogram.getValueAtPercentile(99.9),
+						histogram.getMaxValue()));
+			}
+		}
+		rows.sort(Comparator.comparing(EndpointLatency::getEndpoint).thenComparing(EndpointLatency::getMethod)
+				.thenComparingInt(EndpointLatency::getStatus));
+		return new LatencyReport(window, snapshotId, since, rows);
+	}
+
+	private Endpoint register(String endpoint) {
+		if (endpoint == null || endpoints.size() >= maxEndpoints) {
+			return endpoints.computeIfAbsent(UNMATCHED, Endpoint::new);
+		}
+		return endpoints.computeIfAbsent(endpoint, Endpoint::new);
+	}
+
+	private List<Series> allSeries() {
+		List<Series> all = new ArrayList<>();
+		for (Endpoint endpoint : endpoints.values()) {
+			for (int i = 0; i < endpoint.series.length(); i++) {
+				Series one = endpoint.series.get(i);
+				if (one != null) {
+					all.add(one);
+				}
+			}
+		}
+		return all;
+	}
+
+	private static int methodIndex(String method) {
+		switch (method) {
+		case "GET":
+			return 0;
+		case "POST":
+			return 1;
+		case "PUT":
+			return 2;
+		case "DELETE":
+			return 3;
+		case "PATCH":
+			return 4;
+		default:
+			return 5;
+		}
+	}
+}
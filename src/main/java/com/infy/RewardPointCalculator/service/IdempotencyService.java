@@ -0,0 +1,327 @@
+package com.infy.RewardPointCalculator.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.infy.RewardPointCalculator.Util.BloomFilter;
+import com.infy.RewardPointCalculator.dto.TransactionSubmissionResult;
+import com.infy.RewardPointCalculator.model.CustomerTransaction;
+import com.infy.RewardPointCalculator.model.IdempotencyRecord;
+import com.infy.RewardPointCalculator.repository.CustomerTransactionRepository;
+import com.infy.RewardPointCalculator.repository.IdempotencyRecordRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * This service makes transaction submission idempotent. A client that retries
+ * a request with the same Idempotency-Key gets the transaction created by the
+ * first request back instead of a duplicate.
+ *
+ * Keys are stored in the idempotency_record table, whose unique key column is
+ * the source of truth across nodes. In front of it sits an in-memory window:
+ * a bounded LRU map of recent keys to their original responses, answering most
+ * retries without touching the database, and a Bloom filter that lets new keys
+ * skip the lookup query. The window is reloaded from recent records on startup.
+ *
+ * The record of a key is inserted in the same database transaction as the
+ * transaction it stands for, and already carries its ID. Either both commit or
+ * neither does, so a crash or a failure at any point leaves the key free for a
+ * retry and never a transaction without its key. On PostgreSQL a concurrent
+ * insert of the same key from another node waits for that transaction and
+ * then replays its result.
+ *
+ * The record also keeps a fingerprint of the request. A key reused with a
+ * different request is rejected with 422 instead of replaying a transaction
+ * the client did not ask for.
+ *
+ * @author rifat.bano
+ */
+@Service
+public class IdempotencyService {
+
+	private static final Logger log = LoggerFactory.getLogger(IdempotencyService.class);
+
+	private static final double BLOOM_FALSE_POSITIVE_PROBABILITY = 0.01;
+
+	private final IdempotencyRecordRepository idempotencyRecordRepository;
+	private final CustomerTransactionRepository transactionRepository;
+	private final CustomerLockManager customerLockManager;
+	private final TransactionTemplate transactionTemplate;
+
+	private final int windowSize;
+	private final long windowHours;
+
+	private final Map<String, Submission> recentResponses;
+	private volatile BloomFilter seenKeys;
+
+	private final Counter memoryReplayCounter;
+	private final Counter databaseReplayCounter;
+	private final Counter lookupSkippedCounter;
+	private final Counter mismatchCounter;
+
+	/**
+	 * A transaction created under a key, with the fingerprint of its request.
+	 */
+	private record Submission(CustomerTransaction transaction, String fingerprint) {
+	}
+
+	/**
+	 * Creates the idempotency service.
+	 *
+	 * @param idempotencyRecordRepository Repository of the stored keys.
+	 * @param transactionRepository       Repository used to load original
+	 *                                    responses that are not in memory.
+	 * @param customerLockManager         Serializes submissions of one customer.
+	 * @param transactionManager          Runs the insert and the record of its
+	 *                                    key in one transaction.
+	 * @param windowSize                  Maximum number of responses kept in
+	 *                                    memory.
+	 * @param windowHours                 Age of the records reloaded on startup.
+	 * @param meterRegistry               The registry the replay metrics are
+	 *                                    published to.
+	 */
+	@Autowired
+	public IdempotencyService(IdempotencyRecordRepository idempotencyRecordRepository,
+			CustomerTransactionRepository transactionRepository, CustomerLockManager customerLockManager,
+			PlatformTransactionManager transactionManager,
+			@Value("${rewards.idempotency.window-size:100000}") int windowSize,
+			@Value("${rewards.idempotency.window-hours:24}") long windowHours, MeterRegistry meterRegistry) {
+		this.idempotencyRecordRepository = idempotencyRecordRepository;
+		this.transactionRepository = transactionRepository;
+		this.customerLockManager = customerLockManager;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.windowSize = windowSize;
+		this.windowHours = windowHours;
+		this.recentResponses = Collections
+				.synchronizedMap(new LinkedHashMap<String, Submission>(16, 0.75f, true) {
+					private static final long serialVersionUID = 1L;
+
+					@Override
+					protected boolean removeEldestEntry(Map.Entry<String, Submission> eldest) {
+						return size() > IdempotencyService.this.windowSize;
+					}
+				});
+		this.seenKeys = new BloomFilter(windowSize, BLOOM_FALSE_POSITIVE_PROBABILITY);
+
+		this.memoryReplayCounter = Counter.builder("rewards.idempotency.replays").tag("source", "memory")
+				.description("Retried submissions answered with the original response").register(meterRegistry);
+		this.databaseReplayCounter = Counter.builder("rewards.idempotency.replays").tag("source", "database")
+				.description("Retried submissions answered with the original response").register(meterRegistry);
+		this.lookupSkippedCounter = Counter.builder("rewards.idempotency.lookups.skipped")
+				.description("New keys whose database lookup was skipped by the Bloom filter").register(meterRegistry);
+		this.mismatchCounter = Counter.builder("rewards.idempotency.mismatches")
+				.description("Keys reused with a different request").register(meterRegistry);
+	}
+
+	/**
+	 * Submits a transaction under an idempotency key. If the key was used before
+	 * by the same customer with the same request, the original transaction is
+	 * returned and the insert is not executed. Otherwise the insert is executed
+	 * and the key is recorded with the created transaction, in one database
+	 * transaction, and remembered for later retries.
+	 *
+	 * @param customerId     The ID of the customer submitting the transaction.
+	 * @param idempotencyKey The key sent by the client in the Idempotency-Key
+	 *                       header.
+	 * @param fingerprint    The fingerprint of the request, see
+	 *                       {@link #fingerprint(Object...)}.
+	 * @param insert         Creates the transaction when the key is new. It runs
+	 *                       in the transaction recording the key.
+	 * @return The transaction and whether it was replayed.
+	 * @throws ResponseStatusException With 422 if the key was used for a
+	 *                                 different request, with 409 if another
+	 *                                 request with the same key is still being
+	 *                                 processed.
+	 */
+	public TransactionSubmissionResult submit(Long customerId, String idempotencyKey, String fingerprint,
+			Supplier<CustomerTransaction> insert) {
+		String key = customerId + ":" + idempotencyKey;
+
+		Submission original = recentResponses.get(key);
+		if (original != null) {
+			return replayFromMemory(original, fingerprint);
+		}
+
+		return customerLockManager.withCustomerLock(customerId, () -> {
+			// A retry running concurrently on this node may have finished meanwhile
+			Submission finished = recentResponses.get(key);
+			if (finished != null) {
+				return replayFromMemory(finished, fingerprint);
+			}
+
+			if (seenKeys.mightContain(key)) {
+				Optional<IdempotencyRecord> stored = idempotencyRecordRepository.findByIdempotencyKey(key);
+				if (stored.isPresent()) {
+					return replayStored(customerId, key, stored.get(), fingerprint);
+				}
+			} else {
+				lookupSkippedCounter.increment();
+			}
+
+			CustomerTransaction transaction;
+			try {
+				transaction = insertWithKey(customerId, key, fingerprint, insert);
+			} catch (DataIntegrityViolationException e) {
+				// Recorded meanwhile by another node, the insert was rolled back with the key
+				IdempotencyRecord existing = idempotencyRecordRepository.findByIdempotencyKey(key).orElseThrow(() -> {
+					log.warn("Request with the same idempotency key is still in progress for customerId: {}",
+							customerId);
+					return new ResponseStatusException(HttpStatus.CONFLICT,
+							"A request with this Idempotency-Key is still being processed", e);
+				});
+				return replayStored(customerId, key, existing, fingerprint);
+			}
+			remember(key, new Submission(transaction, fingerprint));
+			log.info("Transaction {} created for idempotency key of customerId: {}", transaction.getId(), customerId);
+			return new TransactionSubmissionResult(transaction, false);
+		});
+	}
+
+	/**
+	 * Computes the fingerprint of a request from the fields that define it, to
+	 * tell a retry from a different request reusing the key.
+	 *
+	 * @param fields The fields of the request, in a fixed order.
+	 * @return The hex encoded SHA-256 of the fields.
+	 */
+	public static String fingerprint(Object... fields) {
+		try {
+			MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			for (Object field : fields) {
+				digest.update(String.valueOf(field).getBytes(StandardCharsets.UTF_8));
+				digest.update((byte) 0);
+			}
+			return HexFormat.of().formatHex(digest.digest());
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-256 is not available", e);
+		}
+	}
+
+	/**
+	 * Reloads the keys and original responses of recent submissions, so that
+	 * retries arriving after a restart are still answered from memory.
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	public void reloadRecentKeys() {
+		try {
+			List<IdempotencyRecord> records = new ArrayList<>(idempotencyRecordRepository
+					.findByCreatedAtAfterOrderByCreatedAtDesc(LocalDateTime.now().minusHours(windowHours),
+							PageRequest.of(0, windowSize)));
+			List<Long> transactionIds = records.stream().map(IdempotencyRecord::getTransactionId)
+					.filter(id -> id != null).collect(Collectors.toList());
+			Map<Long, CustomerTransaction> transactions = transactionRepository.findAllById(transactionIds).stream()
+					.collect(Collectors.toMap(CustomerTransaction::getId, Function.identity()));
+
+			// Oldest first, so that the newest keys end up as most recently used
+			Collections.reverse(records);
+			for (IdempotencyRecord record : records) {
+				CustomerTransaction transaction = transactions.get(record.getTransactionId());
+				if (transaction != null) {
+					remember(record.getIdempotencyKey(), new Submission(transaction, record.getRequestFingerprint()));
+				}
+			}
+			log.info("Reloaded {} idempotency keys from the last {} hours", records.size(), windowHours);
+		} catch (Exception e) {
+			log.error("Error occurred while reloading recent idempotency keys", e);
+		}
+	}
+
+	/**
+	 * Runs the insert and records the key with the created transaction in one
+	 * database transaction. The record is inserted first, so a concurrent
+	 * submission of the key fails on the unique constraint before inserting
+	 * anything.
+	 */
+	private CustomerTransaction insertWithKey(Long customerId, String key, String fingerprint,
+			Supplier<CustomerTransaction> insert) {
+		return transactionTemplate.execute(status -> {
+			IdempotencyRecord record = new IdempotencyRecord(key, customerId);
+			record.setRequestFingerprint(fingerprint);
+			record = idempotencyRecordRepository.saveAndFlush(record);
+			CustomerTransaction transaction = insert.get();
+			record.setTransactionId(transaction.getId());
+			idempotencyRecordRepository.saveAndFlush(record);
+			return transaction;
+		});
+	}
+
+	/**
+	 * Answers a key found in the database. The record and the transaction are
+	 * committed together, so a stored key always names its transaction.
+	 */
+	private TransactionSubmissionResult replayStored(Long customerId, String key, IdempotencyRecord record,
+			String fingerprint) {
+		checkFingerprint(record.getRequestFingerprint(), fingerprint);
+		CustomerTransaction original = transactionRepository.findById(record.getTransactionId())
+				.orElseThrow(() -> new ResponseStatusException(HttpStatus.GONE,
+						"The transaction created for this Idempotency-Key no longer exists"));
+		remember(key, new Submission(original, record.getRequestFingerprint()));
+		databaseReplayCounter.increment();
+		log.info("Replaying transaction {} from the database for a retried submission", original.getId());
+		return new TransactionSubmissionResult(original, true);
+	}
+
+	private TransactionSubmissionResult replayFromMemory(Submission original, String fingerprint) {
+		checkFingerprint(original.fingerprint(), fingerprint);
+		memoryReplayCounter.increment();
+		log.info("Replaying transaction {} from memory for a retried submission", original.transaction().getId());
+		return new TransactionSubmissionResult(original.transaction(), true);
+	}
+
+	/**
+	 * Rejects a key reused with a different request.
+	 */
+	private void checkFingerprint(String stored, String fingerprint) {
+		if (!Objects.equals(stored, fingerprint)) {
+			mismatchCounter.increment();
+			log.warn("Idempotency key reused with a different request");
+			throw new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY,
+					"The Idempotency-Key was already used for a different request");
+		}
+	}
+
+	private void remember(String key, Submission submission) {
+		recentResponses.put(key, submission);
+		BloomFilter filter = seenKeys;
+		if (filter.isSaturated()) {
+			// Start a fresh filter from the keys still in the window. Keys that fall out
+			// are still caught by the unique constraint when recording.
+			filter = new BloomFilter(windowSize, BLOOM_FALSE_POSITIVE_PROBABILITY);
+			synchronized (recentResponses) {
+				for (String recentKey : recentResponses.keySet()) {
+					filter.put(recentKey);
+				}
+			}
+			seenKeys = filter;
+		}
+		filter.put(key);
+	}
+}
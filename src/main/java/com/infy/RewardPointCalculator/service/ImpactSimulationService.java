@@ -0,0 +1,398 @@
+package com.infy.RewardPointCalculator.service;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.infy.RewardPointCalculator.Util.RewardPointCalculator;
+import com.infy.RewardPointCalculator.Util.TieredRewardRule;
+import com.infy.RewardPointCalculator.dto.ImpactSimulationReport;
+import com.infy.RewardPointCalculator.dto.ImpactSimulationReport.MonthImpact;
+import com.infy.RewardPointCalculator.dto.ImpactSimulationReport.TierImpact;
+import com.infy.RewardPointCalculator.dto.RewardRuleDTO;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * This service estimates the liability impact of a proposed reward rule
+ * across all customers, by evaluating the current and the proposed rule side
+ * by side over every transaction. Nothing is written.
+ *
+ * The transactions are read with one streaming cursor in fetch-size batches
+ * into column chunks (amount, month index and spent details in parallel
+ * arrays). Two chunks are used in turn: while the fork-join pool evaluates one
+ * chunk, the cursor fills the other. Every chunk is reduced into small arrays
+ * of sums per month and per tier, which are added to the running totals, so
+ * memory depends on the chunk size and the number of months, never on the
+ * size of the table.
+ *
+ * @author rifat.bano
+ */
+@Service
+public class ImpactSimulationService {
+
+	private static final Logger log = LoggerFactory.getLogger(ImpactSimulationService.class);
+
+	private static final String TRANSACTIONS_SQL = "SELECT t.date, t.amount, t.spent_details "
+			+ "FROM customer_transaction t";
+
+	/** Transactions evaluated by one task without splitting further. */
+	private static final int LEAF_SIZE = 4096;
+
+	/** Sums kept per month and per tier: transactions, current and simulated points. */
+	private static final int STATS = 3;
+
+	@Autowired
+	private DataSource dataSource;
+
+	@Autowired
+	private CategoryMultiplierService categoryMultiplierService;
+
+	@Autowired
+	private RewardSimulationService rewardSimulationService;
+
+	@Value("${rewards.impact.parallelism:4}")
+	private int parallelism;
+
+	@Value("${rewards.impact.fetch-size:10000}")
+	private int fetchSize;
+
+	@Value("${rewards.impact.chunk-size:65536}")
+	private int chunkSize;
+
+	private ExecutorService executor;
+	private ForkJoinPool pool;
+	private final AtomicBoolean running = new AtomicBoolean();
+	private volatile ImpactSimulationReport latestReport;
+
+	@PostConstruct
+	public void init() {
+		executor = Executors.newSingleThreadExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "reward-impact-simulation");
+			thread.setDaemon(true);
+			return thread;
+		});
+		pool = new ForkJoinPool(Math.max(1, parallelism));
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		executor.shutdownNow();
+		pool.shutdownNow();
+	}
+
+	/**
+	 * Starts a simulation of the proposed rule in the background.
+	 *
+	 * @param rule The proposed rule.
+	 * @return The report, which is filled in while the job runs.
+	 * @throws ResponseStatusException If the rule is invalid, or a simulation is
+	 *                                 already running.
+	 */
+	public ImpactSimulationReport start(RewardRuleDTO rule) {
+		TieredRewardRule proposed = rewardSimulationService.compile(rule);
+		if (!running.compareAndSet(false, true)) {
+			throw new ResponseStatusException(HttpStatus.CONFLICT, "An impact simulation is already running");
+		}
+		ImpactSimulationReport report = new ImpactSimulationReport();
+		report.setState("RUNNING");
+		report.setStartedAt(LocalDateTime.now());
+		latestReport = report;
+		try {
+			executor.execute(() -> run(report, proposed, rule.isApplyCategoryMultipliers()));
+		} catch (RuntimeException e) {
+			running.set(false);
+			throw e;
+		}
+		return report;
+	}
+
+	/**
+	 * @return The report of the running or last finished simulation.
+	 * @throws ResponseStatusException If no simulation ran since startup.
+	 */
+	public ImpactSimulationReport getLatestReport() {
+		ImpactSimulationReport report = latestReport;
+		if (report == null) {
+			throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No impact simulation has run yet");
+		}
+		return report;
+	}
+
+	private void run(ImpactSimulationReport report, TieredRewardRule proposed, boolean applyCategoryMultipliers) {
+		long start = System.nanoTime();
+		try (Connection connection = openReadOnly();
+				PreparedStatement statement = connection.prepareStatement(TRANSACTIONS_SQL,
+						ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+			statement.setFetchSize(fetchSize);
+			Totals totals = new Totals(proposed.tierCount() + 1);
+			try (ResultSet transactions = statement.executeQuery()) {
+				scan(transactions, totals, report, proposed, applyCategoryMultipliers);
+			} finally {
+				connection.rollback();
+			}
+			report.setMonths(totals.months());
+			report.setTiers(totals.tiers(proposed));
+			report.setState("COMPLETED");
+			log.info("Impact simulation completed: {} transactions, current {} points, simulated {} points",
+					report.getTransactionsScanned(), report.getCurrentTotal(), report.getSimulatedTotal());
+		} catch (Exception e) {
+			log.error("Error occurred while simulating the reward rule impact", e);
+			report.setState("FAILED");
+			report.setError(e.getMessage());
+		} finally {
+			report.setDurationMillis(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+			running.set(false);
+		}
+	}
+
+	/**
+	 * Fills the two chunks in turn, handing each full chunk to the pool before
+	 * filling the other one.
+	 */
+	private void scan(ResultSet transactions, Totals totals, ImpactSimulationReport report,
+			TieredRewardRule proposed, boolean applyCategoryMultipliers) throws SQLException {
+		Chunk[] chunks = { new Chunk(Math.max(1, chunkSize)), new Chunk(Math.max(1, chunkSize)) };
+		int filling = 0;
+		ForkJoinTask<long[]> pending = null;
+		while (true) {
+			boolean hasTransaction = transactions.next();
+			if (hasTransaction) {
+				LocalDate date = transactions.getDate(1).toLocalDate();
+				int monthIndex = totals.monthIndex(date.getYear() * 12 + date.getMonthValue() - 1);
+				chunks[filling].add(monthIndex, transactions.getDouble(2), transactions.getString(3));
+			}
+			Chunk chunk = chunks[filling];
+			if (chunk.size == chunk.amounts.length || (!hasTransaction && chunk.size > 0)) {
+				// The other chunk is only reused once its evaluation has been added up
+				totals.add(pending, report);
+				pending = pool.submit(new ChunkTask(chunk, proposed, applyCategoryMultipliers, totals.monthCount,
+						0, chunk.size));
+				filling = 1 - filling;
+				chunks[filling].size = 0;
+			}
+			if (!hasTransaction) {
+				break;
+			}
+		}
+		totals.add(pending, report);
+	}
+
+	private Connection openReadOnly() throws SQLException {
+		Connection connection = dataSource.getConnection();
+		try {
+			// Postgres only streams with a fetch size when autocommit is off
+			connection.setAutoCommit(false);
+			connection.setReadOnly(true);
+			return connection;
+		} catch (SQLException e) {
+			connection.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * A chunk of transactions in parallel arrays.
+	 */
+	private static class Chunk {
+
+		private final double[] amounts;
+		private final int[] monthIndexes;
+		private final String[] spentDetails;
+		private int size;
+
+		Chunk(int capacity) {
+			amounts = new double[capacity];
+			monthIndexes = new int[capacity];
+			spentDetails = new String[capacity];
+		}
+
+		void add(int monthIndex, double amount, String details) {
+			amounts[size] = amount;
+			monthIndexes[size] = monthIndex;
+			spentDetails[size] = details;
+			size++;
+		}
+	}
+
+	/**
+	 * The running sums of all evaluated chunks. Months get a dense index in the
+	 * order they are first seen, since the transactions are read unordered.
+	 */
+	private static class Totals {
+
+		private final Map<Integer, Integer> monthIndexes = new HashMap<>();
+		private int[] monthKeys = new int[64];
+		private int monthCount;
+		private long[] monthSums = new long[64 * STATS];
+		private final long[] tierSums;
+
+		Totals(int tierCount) {
+			tierSums = new long[tierCount * STATS];
+		}
+
+		int monthIndex(int monthKey) {
+			Integer index = monthIndexes.get(monthKey);
+			if (index != null) {
+				return index;
+			}
+			if (monthCount == monthKeys.length) {
+				monthKeys = Arrays.copyOf(monthKeys, monthCount * 2);
+			}
+			monthKeys[monthCount] = monthKey;
+			monthIndexes.put(monthKey, monthCount);
+			return monthCount++;
+		}
+
+		/**
+		 * Waits for the evaluation of a chunk and adds its sums, laid out as
+		 * described at {@link ChunkTask}.
+		 */
+		void add(ForkJoinTask<long[]> task, ImpactSimulationReport report) {
+			if (task == null) {
+				return;
+			}
+			long[] sums = task.join();
+			int months = (sums.length - tierSums.length) / STATS;
+			if (monthSums.length < months * STATS) {
+				monthSums = Arrays.copyOf(monthSums, Math.max(monthSums.length * 2, months * STATS));
+			}
+			for (int i = 0; i < months * STATS; i++) {
+				monthSums[i] += sums[i];
+			}
+			long transactions = 0;
+			long current = 0;
+			long simulated = 0;
+			for (int i = 0; i < tierSums.length; i += STATS) {
+				tierSums[i] += sums[months * STATS + i];
+				tierSums[i + 1] += sums[months * STATS + i + 1];
+				tierSums[i + 2] += sums[months * STATS + i + 2];
+				transactions += sums[months * STATS + i];
+				current += sums[months * STATS + i + 1];
+				simulated += sums[months * STATS + i + 2];
+			}
+			report.setTransactionsScanned(report.getTransactionsScanned() + transactions);
+			report.setCurrentTotal(report.getCurrentTotal() + current);
+			report.setSimulatedTotal(report.getSimulatedTotal() + simulated);
+			report.setChunksEvaluated(report.getChunksEvaluated() + 1);
+		}
+
+		List<MonthImpact> months() {
+			Integer[] order = new Integer[monthCount];
+			for (int i = 0; i < monthCount; i++) {
+				order[i] = i;
+			}
+			Arrays.sort(order, (left, right) -> Integer.compare(monthKeys[left], monthKeys[right]));
+			List<MonthImpact> months = new ArrayList<>(monthCount);
+			for (int index : order) {
+				int base = index * STATS;
+				months.add(new MonthImpact(monthKeys[index] / 12, monthKeys[index] % 12 + 1, monthSums[base],
+						monthSums[base + 1], monthSums[base + 2]));
+			}
+			return months;
+		}
+
+		List<TierImpact> tiers(TieredRewardRule proposed) {
+			List<TierImpact> tiers = new ArrayList<>(tierSums.length / STATS);
+			for (int tier = 0; tier < tierSums.length / STATS; tier++) {
+				int base = tier * STATS;
+				Double above = tier == 0 ? null : proposed.thresholdOf(tier - 1);
+				tiers.add(new TierImpact(above, tierSums[base], tierSums[base + 1], tierSums[base + 2]));
+			}
+			return tiers;
+		}
+	}
+
+	/**
+	 * Sums a range of a chunk under both rules. The result holds, for every
+	 * month index and then for every tier of the proposed rule (below every
+	 * tier first), the number of transactions, the current points and the
+	 * simulated points.
+	 */
+	private class ChunkTask extends RecursiveTask<long[]> {
+
+		private static final long serialVersionUID = 1L;
+
+		private final transient Chunk chunk;
+		private final transient TieredRewardRule proposed;
+		private final boolean applyCategoryMultipliers;
+		private final int monthCount;
+		private final int from;
+		private final int to;
+
+		ChunkTask(Chunk chunk, TieredRewardRule proposed, boolean applyCategoryMultipliers, int monthCount, int from,
+				int to) {
+			this.chunk = chunk;
+			this.proposed = proposed;
+			this.applyCategoryMultipliers = applyCategoryMultipliers;
+			this.monthCount = monthCount;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected long[] compute() {
+			if (to - from <= LEAF_SIZE) {
+				return evaluate();
+			}
+			int middle = (from + to) >>> 1;
+			ChunkTask left = new ChunkTask(chunk, proposed, applyCategoryMultipliers, monthCount, from, middle);
+			left.fork();
+			long[] sums = new ChunkTask(chunk, proposed, applyCategoryMultipliers, monthCount, middle, to).compute();
+			long[] leftSums = left.join();
+			for (int i = 0; i < sums.length; i++) {
+				sums[i] += leftSums[i];
+			}
+			return sums;
+		}
+
+		private long[] evaluate() {
+			long[] sums = new long[(monthCount + proposed.tierCount() + 1) * STATS];
+			int tierBase = monthCount * STATS;
+			double[] amounts = chunk.amounts;
+			int[] monthIndexes = chunk.monthIndexes;
+			for (int i = from; i < to; i++) {
+				double amount = amounts[i];
+				int multiplierPercent = categoryMultiplierService.multiplierPercent(chunk.spentDetails[i]);
+				int current = RewardPointCalculator.calculatePoints(amount, multiplierPercent);
+				int simulated = applyCategoryMultipliers ? proposed.calculatePoints(amount, multiplierPercent)
+						: proposed.calculatePoints(amount);
+				int month = monthIndexes[i] * STATS;
+				sums[month]++;
+				sums[month + 1] += current;
+				sums[month + 2] += simulated;
+				int tier = tierBase + (proposed.tierOf(amount) + 1) * STATS;
+				sums[tier]++;
+				sums[tier + 1] += current;
+				sums[tier + 2] += simulated;
+			}
+			return sums;
+		}
+	}
+}
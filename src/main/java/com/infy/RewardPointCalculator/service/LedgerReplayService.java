@@ -0,0 +1,110 @@
+package com.infy.RewardPointCalculator.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.infy.RewardPointCalculator.dto.LedgerReplaySummary;
+import com.infy.RewardPointCalculator.ledger.LedgerReplayer;
+import com.infy.RewardPointCalculator.ledger.RewardLedger;
+import com.infy.RewardPointCalculator.repository.RewardPointsBatchWriter;
+import com.infy.RewardPointCalculator.repository.RewardPointsBatchWriter.MonthlyTotal;
+
+/**
+ * This service rebuilds the monthly reward points from the reward ledger,
+ * without rescanning customer_transaction. The rebuilt totals can be checked
+ * against the summary only, or written back to reward_points.
+ *
+ * The ledger is a local file of the node, and only holds the changes made by
+ * this node. Writing it back would undo the changes of every other node
+ * sharing the database, so it is only allowed when the node is declared the
+ * only writer (rewards.ledger.single-writer).
+ *
+ * @author rifat.bano
+ */
+@Service
+public class LedgerReplayService {
+
+	private static final Logger log = LoggerFactory.getLogger(LedgerReplayService.class);
+
+	@Autowired
+	private RewardLedger rewardLedger;
+
+	@Autowired
+	private RewardPointsBatchWriter rewardPointsBatchWriter;
+
+	@Autowired
+	private PointsExpiryService pointsExpiryService;
+
+	@Autowired
+	private PointsBalanceService pointsBalanceService;
+
+	@Value("${rewards.ledger.restore-batch-size:1000}")
+	private int batchSize;
+
+	@Value("${rewards.ledger.single-writer:false}")
+	private boolean singleWriter;
+
+	/**
+	 * Rebuilds all monthly totals from the newest snapshot and the ledger tail.
+	 *
+	 * @param apply Whether the rebuilt totals are written to reward_points.
+	 * @return A summary of the replay.
+	 * @throws ResponseStatusException If the totals are to be written but the
+	 *                                 node is not the only writer, so its ledger
+	 *                                 misses the changes of other nodes.
+	 */
+	public LedgerReplaySummary replay(boolean apply) {
+		if (apply && !singleWriter) {
+			throw new ResponseStatusException(HttpStatus.CONFLICT,
+					"The ledger of this node does not hold the changes of other nodes");
+		}
+		long start = System.nanoTime();
+		LedgerReplayer.Replay replay = rewardLedger.replay();
+
+		long[] totalPoints = new long[1];
+		int[] rowsWritten = new int[1];
+		List<MonthlyTotal> batch = new ArrayList<>(batchSize);
+		replay.getBalances().forEach((customerId, year, month, points) -> {
+			totalPoints[0] += points;
+			if (apply) {
+				batch.add(new MonthlyTotal(customerId, year, month, points,
+						pointsExpiryService.expiredPortion(year, month, points)));
+				if (batch.size() == batchSize) {
+					rowsWritten[0] += write(batch);
+				}
+			}
+		});
+		if (apply) {
+			rowsWritten[0] += write(batch);
+			log.info("Restored {} monthly reward point totals from the ledger", replay.getBalances().size());
+		}
+
+		return new LedgerReplaySummary(replay.getSnapshotPosition(), replay.getPosition(),
+				replay.getReplayedRecords(), replay.getBalances().size(), totalPoints[0], rowsWritten[0],
+				TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+	}
+
+	/**
+	 * Writes and clears the batch, and resyncs the points balances of its
+	 * customers.
+	 *
+	 * @return The number of rows written.
+	 */
+	private int write(List<MonthlyTotal> batch) {
+		int written = batch.size();
+		rewardPointsBatchWriter.upsert(batch);
+		pointsBalanceService.resync(batch.stream().map(MonthlyTotal::getCustomerId).collect(Collectors.toSet()));
+		batch.clear();
+		return written;
+	}
+}
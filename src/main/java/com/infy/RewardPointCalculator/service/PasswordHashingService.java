@@ -0,0 +1,241 @@
+package com.infy.RewardPointCalculator.service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Runs the BCrypt hashing of logins and registrations on a small dedicated
+ * pool, so a login storm cannot take the request threads that serve cheap
+ * reads.
+ *
+ * Each hash costs tens of milliseconds of CPU. The pool has a fixed number of
+ * threads and a bounded queue: a hash that finds the queue full is rejected
+ * with 503 at once, and a caller that waited longer than the timeout gives up
+ * with 503, its hash is dropped if it has not started yet. The time a hash
+ * waited in the queue and the time it took are published per operation.
+ *
+ * The BCrypt cost is calibrated when the application starts: the highest cost
+ * between the configured minimum and maximum whose hash still takes at most
+ * the target time on this hardware. Hashes of a lower cost keep matching, and
+ * {@link #encoder()} reports them as needing an upgrade, so the password of a
+ * customer is hashed again with the current cost on the next successful
+ * login.
+ *
+ * @author rifat.bano
+ */
+@Component
+public class PasswordHashingService {
+
+	private static final Logger log = LoggerFactory.getLogger(PasswordHashingService.class);
+
+	private static final int CALIBRATION_ROUNDS = 3;
+
+	private final ThreadPoolExecutor executor;
+	private final long timeoutMillis;
+	private final BCryptPasswordEncoder bcrypt;
+	private final MeterRegistry meterRegistry;
+	private final PasswordEncoder encoder = new PooledPasswordEncoder();
+
+	/**
+	 * Creates the pool and calibrates the cost.
+	 *
+	 * @param threads       The threads hashing in parallel.
+	 * @param queueCapacity The hashes waiting for a thread before new ones are
+	 *                      rejected.
+	 * @param timeoutMillis How long a caller waits for its hash, queueing
+	 *                      included.
+	 * @param targetMillis  The time one hash should take at most.
+	 * @param minCost       The lowest BCrypt cost used, whatever the hardware.
+	 * @param maxCost       The highest BCrypt cost used.
+	 * @param meterRegistry The registry the hashing metrics are published to.
+	 */
+	@Autowired
+	public PasswordHashingService(@Value("${rewards.auth.hashing.threads:2}") int threads,
+			@Value("${rewards.auth.hashing.queue-capacity:64}") int queueCapacity,
+			@Value("${rewards.auth.hashing.timeout-ms:2000}") long timeoutMillis,
+			@Value("${rewards.auth.bcrypt.target-ms:50}") long targetMillis,
+			@Value("${rewards.auth.bcrypt.min-cost:10}") int minCost,
+			@Value("${rewards.auth.bcrypt.max-cost:14}") int maxCost, MeterRegistry meterRegistry) {
+		this.timeoutMillis = timeoutMillis;
+		this.meterRegistry = meterRegistry;
+		AtomicInteger threadCount = new AtomicInteger();
+		this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+					Thread thread = new Thread(runnable, "password-hashing-" + threadCount.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				}, new ThreadPoolExecutor.AbortPolicy());
+		int cost = calibrate(targetMillis, minCost, maxCost);
+		this.bcrypt = new BCryptPasswordEncoder(cost);
+		log.info("Password hashing uses BCrypt cost {} on {} threads", cost, threads);
+
+		Gauge.builder("rewards.auth.hashing.queue", executor, pool -> pool.getQueue().size())
+				.description("Hashes waiting for a thread").register(meterRegistry);
+		Gauge.builder("rewards.auth.hashing.active", executor, ThreadPoolExecutor::getActiveCount)
+				.description("Hashes running").register(meterRegistry);
+		Gauge.builder("rewards.auth.bcrypt.cost", () -> cost).description("BCrypt cost of new hashes")
+				.register(meterRegistry);
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		executor.shutdownNow();
+	}
+
+	/**
+	 * @return A PasswordEncoder running on the pool, for Spring Security and
+	 *         other callers of the PasswordEncoder interface.
+	 */
+	public PasswordEncoder encoder() {
+		return encoder;
+	}
+
+	/**
+	 * Hashes a password with the current cost.
+	 *
+	 * @param rawPassword The password.
+	 * @return The BCrypt hash.
+	 * @throws ResponseStatusException With 503 if the pool is saturated.
+	 */
+	public String hash(CharSequence rawPassword) {
+		return execute("hash", () -> bcrypt.encode(rawPassword));
+	}
+
+	/**
+	 * Checks a password against a stored hash of any cost.
+	 *
+	 * @param rawPassword     The password.
+	 * @param encodedPassword The stored hash.
+	 * @return True if they match.
+	 * @throws ResponseStatusException With 503 if the pool is saturated.
+	 */
+	public boolean matches(CharSequence rawPassword, String encodedPassword) {
+		return execute("verify", () -> bcrypt.matches(rawPassword, encodedPassword));
+	}
+
+	/**
+	 * @param encodedPassword A stored hash.
+	 * @return True if it was hashed with a lower cost than the current one.
+	 */
+	public boolean needsRehash(String encodedPassword) {
+		return encodedPassword != null && bcrypt.upgradeEncoding(encodedPassword);
+	}
+
+	private <T> T execute(String operation, Supplier<T> hashing) {
+		long queuedNanos = System.nanoTime();
+		Future<T> future;
+		try {
+			future = executor.submit(() -> {
+				long startNanos = System.nanoTime();
+				timer("rewards.auth.hashing.queue.wait", operation, "Time hashes waited for a thread")
+						.record(startNanos - queuedNanos, TimeUnit.NANOSECONDS);
+				try {
+					return hashing.get();
+				} finally {
+					timer("rewards.auth.hashing.time", operation, "Time taken by a hash")
+							.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+				}
+			});
+		} catch (RejectedExecutionException e) {
+			throw reject(operation, "queue_full");
+		}
+		try {
+			return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+		} catch (TimeoutException e) {
+			// Not run at all if it is still queued, and its queue slot is freed
+			future.cancel(false);
+			executor.purge();
+			throw reject(operation, "timeout");
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException cause) {
+				throw cause;
+			}
+			throw (Error) e.getCause();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Interrupted waiting for " + operation);
+		}
+	}
+
+	private ResponseStatusException reject(String operation, String reason) {
+		Counter.builder("rewards.auth.hashing.rejected").tag("operation", operation).tag("reason", reason)
+				.description("Hashes rejected because the pool was saturated").register(meterRegistry).increment();
+		log.warn("Rejected a password {} ({})", operation, reason);
+		return new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many logins, try again shortly");
+	}
+
+	private Timer timer(String name, String operation, String description) {
+		return Timer.builder(name).tag("operation", operation).description(description).publishPercentileHistogram()
+				.register(meterRegistry);
+	}
+
+	/**
+	 * Picks the highest cost whose hash takes at most the target time, from the
+	 * fastest of a few hashes at the minimum cost. Every step of the cost doubles
+	 * the time.
+	 */
+	private static int calibrate(long targetMillis, int minCost, int maxCost) {
+		if (minCost >= maxCost) {
+			return minCost;
+		}
+		BCryptPasswordEncoder probe = new BCryptPasswordEncoder(minCost);
+		long fastestNanos = Long.MAX_VALUE;
+		for (int i = 0; i < CALIBRATION_ROUNDS; i++) {
+			long startNanos = System.nanoTime();
+			probe.encode("calibration");
+			fastestNanos = Math.min(fastestNanos, System.nanoTime() - startNanos);
+		}
+		int cost = minCost;
+		long estimatedNanos = fastestNanos;
+		while (cost < maxCost && estimatedNanos * 2 <= TimeUnit.MILLISECONDS.toNanos(targetMillis)) {
+			cost++;
+			estimatedNanos *= 2;
+		}
+		log.debug("A BCrypt hash of cost {} took {} ms", minCost, fastestNanos / 1_000_000);
+		return cost;
+	}
+
+	/**
+	 * The PasswordEncoder view of the service.
+	 */
+	private class PooledPasswordEncoder implements PasswordEncoder {
+
+		@Override
+		public String encode(CharSequence rawPassword) {
+			return hash(rawPassword);
+		}
+
+		@Override
+		public boolean matches(CharSequence rawPassword, String encodedPassword) {
+			return PasswordHashingService.this.matches(rawPassword, encodedPassword);
+		}
+
+		@Override
+		public boolean upgradeEncoding(String encodedPassword) {
+			return needsRehash(encodedPassword);
+		}
+	}
+}
@@ -0,0 +1,285 @@
+package com.infy.RewardPointCalculator.service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.infy.RewardPointCalculator.model.CustomerPointsBalance;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * This service keeps the running points balance of every customer in
+ * customer_points_balance and serves it from memory.
+ *
+ * The writers of reward_points pass the change they made to a monthly row as
+ * a delta, which is added to the balance row in the same database transaction.
+ * Jobs that rewrite many months at once resync the balances of the customers
+ * they touched from reward_points instead. A customer without a balance row
+ * gets one, summed from reward_points, the first time it is read or changed.
+ * A writer that creates the row skips its delta, because its own change is
+ * already part of the sum. When two writers race to create the row, the one
+ * that loses adds its delta to the winner's row, whose sum did not see the
+ * loser's uncommitted change.
+ *
+ * The points held and spent by redemptions are kept in points_account and
+ * read with the balance, so the available points of a balance are what the
+ * customer can still redeem.
+ *
+ * Balances read are cached on every node for a short time. A change made on
+ * this node evicts the cached balance once its transaction commits, a change
+ * made on another node is seen when the cached balance ages out.
+ *
+ * The version of the balance also serves as the data version of the customer:
+ * it is incremented by every change of the customer's points and by every
+ * write of the customer's transactions, so responses built from them can be
+ * tagged with it.
+ *
+ * @author rifat.bano
+ */
+@Service
+public class PointsBalanceService {
+
+	private static final Logger log = LoggerFactory.getLogger(PointsBalanceService.class);
+
+	private static final String SELECT_SQL = "SELECT b.points, b.expired_points, b.version, b.updated_at, "
+			+ "COALESCE(a.reserved_points, 0), COALESCE(a.redeemed_points, 0) FROM customer_points_balance b "
+			+ "LEFT JOIN points_account a ON a.customer_id = b.customer_id WHERE b.customer_id = ?";
+	private static final String CREATE_SQL = "INSERT INTO customer_points_balance "
+			+ "(customer_id, points, expired_points, version, updated_at) "
+			+ "SELECT ?, s.points, s.expired_points, 1, ? FROM (SELECT COALESCE(SUM(points), 0) AS points, "
+			+ "COALESCE(SUM(expired_points), 0) AS expired_points FROM reward_points WHERE customer_id = ?) s "
+			+ "WHERE NOT EXISTS (SELECT 1 FROM customer_points_balance WHERE customer_id = ?)";
+	private static final String APPLY_DELTA_SQL = "UPDATE customer_points_balance SET points = points + ?, "
+			+ "expired_points = expired_points + ?, version = version + 1, updated_at = ? WHERE customer_id = ?";
+	private static final String RESYNC_SQL = "UPDATE customer_points_balance SET points = (SELECT "
+			+ "COALESCE(SUM(r.points), 0) FROM reward_points r "
+			+ "WHERE r.customer_id = customer_points_balance.customer_id), expired_points = (SELECT "
+			+ "COALESCE(SUM(r.expired_points), 0) FROM reward_points r "
+			+ "WHERE r.customer_id = customer_points_balance.customer_id), version = version + 1, updated_at = ? ";
+	private static final String RESYNC_CUSTOMER_SQL = RESYNC_SQL + "WHERE customer_id = ?";
+	private static final String RESYNC_RANGE_SQL = RESYNC_SQL + "WHERE customer_id BETWEEN ? AND ?";
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Value("${rewards.balance.cache-ttl-ms:1000}")
+	private long cacheTtlMillis;
+
+	@Value("${rewards.balance.cache-size:100000}")
+	private int cacheSize;
+
+	private final ConcurrentHashMap<Long, CachedBalance> cache = new ConcurrentHashMap<>();
+	private TransactionTemplate writeTemplate;
+	private TransactionTemplate createTemplate;
+
+	/**
+	 * A balance read from the database, with the time it was read.
+	 */
+	private static class CachedBalance {
+
+		private final CustomerPointsBalance balance;
+		private final long loadedNanos;
+
+		CachedBalance(CustomerPointsBalance balance, long loadedNanos) {
+			this.balance = balance;
+			this.loadedNanos = loadedNanos;
+		}
+	}
+
+	@PostConstruct
+	public void init() {
+		writeTemplate = new TransactionTemplate(transactionManager);
+		// A savepoint, so losing the race to create the row does not roll back the caller's transaction
+		createTemplate = new TransactionTemplate(transactionManager);
+		createTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_NESTED);
+	}
+
+	/**
+	 * @param customerId The ID of the customer.
+	 * @return The points balance of the customer, from memory if it was read
+	 *         recently, otherwise with one primary key lookup.
+	 */
+	public CustomerPointsBalance getBalance(Long customerId) {
+		CachedBalance cached = cache.get(customerId);
+		long now = System.nanoTime();
+		if (cached != null && now - cached.loadedNanos < TimeUnit.MILLISECONDS.toNanos(cacheTtlMillis)) {
+			return cached.balance;
+		}
+		return getCurrentBalance(customerId);
+	}
+
+	/**
+	 * Reads the points balance of a customer from the database, bypassing the
+	 * cache, for decisions that must see the changes made on other nodes. The
+	 * balance read replaces the cached one.
+	 *
+	 * @param customerId The ID of the customer.
+	 * @return The points balance of the customer.
+	 */
+	public CustomerPointsBalance getCurrentBalance(Long customerId) {
+		long now = System.nanoTime();
+		CustomerPointsBalance balance = load(customerId);
+		if (balance == null) {
+			create(customerId);
+			balance = load(customerId);
+		}
+		if (cache.size() >= cacheSize) {
+			cache.clear();
+		}
+		cache.put(customerId, new CachedBalance(balance, now));
+		return balance;
+	}
+
+	/**
+	 * Adds the change of one monthly row to the balance of its customer. Joins
+	 * the caller's transaction, so the balance commits together with the row.
+	 *
+	 * @param customerId   The ID of the customer.
+	 * @param pointsDelta  The change of the points of the month.
+	 * @param expiredDelta The change of the expired points of the month.
+	 */
+	public void applyDelta(Long customerId, long pointsDelta, long expiredDelta) {
+		writeTemplate.executeWithoutResult(status -> {
+			Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+			if (jdbcTemplate.update(APPLY_DELTA_SQL, pointsDelta, expiredDelta, now, customerId) == 0
+					&& !create(customerId)) {
+				// Created concurrently without this change
+				jdbcTemplate.update(APPLY_DELTA_SQL, pointsDelta, expiredDelta, now, customerId);
+			}
+			evictAfterCommit(List.of(customerId));
+		});
+	}
+
+	/**
+	 * Increments the version of a customer's balance without changing its
+	 * points, for a change of data the balance does not sum, such as the details
+	 * of a transaction.
+	 *
+	 * @param customerId The ID of the customer.
+	 */
+	public void touch(Long customerId) {
+		applyDelta(customerId, 0, 0);
+	}
+
+	/**
+	 * @param customerId The ID of the customer.
+	 * @return The data version of the customer, from memory if it was read
+	 *         recently.
+	 */
+	public long getVersion(Long customerId) {
+		return getBalance(customerId).getVersion();
+	}
+
+	/**
+	 * Adds the expired points of many monthly rows to the balances of their
+	 * customers, in the caller's transaction.
+	 *
+	 * @param expiredDeltas The expired points to add, by customer ID.
+	 */
+	public void applyExpiredDeltas(Map<Long, Long> expiredDeltas) {
+		expiredDeltas.forEach((customerId, expiredDelta) -> applyDelta(customerId, 0, expiredDelta));
+	}
+
+	/**
+	 * Recomputes the balances of the given customers from reward_points, in the
+	 * caller's transaction. Used after monthly rows were rewritten in bulk.
+	 *
+	 * @param customerIds The IDs of the customers.
+	 */
+	public void resync(Collection<Long> customerIds) {
+		if (customerIds.isEmpty()) {
+			return;
+		}
+		List<Long> ids = new ArrayList<>(customerIds);
+		Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+		writeTemplate.executeWithoutResult(status -> {
+			jdbcTemplate.batchUpdate(RESYNC_CUSTOMER_SQL, ids, ids.size(), (statement, id) -> {
+				statement.setTimestamp(1, now);
+				statement.setLong(2, id);
+			});
+			evictAfterCommit(ids);
+		});
+	}
+
+	/**
+	 * Recomputes the balances of all customers with IDs in a range from
+	 * reward_points, in the caller's transaction.
+	 *
+	 * @param fromCustomerId The first customer ID of the range.
+	 * @param toCustomerId   The last customer ID of the range.
+	 */
+	public void resyncRange(long fromCustomerId, long toCustomerId) {
+		writeTemplate.executeWithoutResult(status -> {
+			int updated = jdbcTemplate.update(RESYNC_RANGE_SQL, Timestamp.valueOf(LocalDateTime.now()), fromCustomerId,
+					toCustomerId);
+			log.debug("Resynced {} points balances of customers {} to {}", updated, fromCustomerId, toCustomerId);
+			runAfterCommit(() -> cache.keySet().removeIf(id -> id >= fromCustomerId && id <= toCustomerId));
+		});
+	}
+
+	private CustomerPointsBalance load(Long customerId) {
+		List<CustomerPointsBalance> rows = jdbcTemplate.query(SELECT_SQL,
+				(resultSet, rowNum) -> new CustomerPointsBalance(customerId, resultSet.getLong(1),
+						resultSet.getLong(2), resultSet.getLong(3),
+						resultSet.getTimestamp(4) == null ? null : resultSet.getTimestamp(4).toLocalDateTime(),
+						resultSet.getLong(5), resultSet.getLong(6)),
+				customerId);
+		return rows.isEmpty() ? null : rows.get(0);
+	}
+
+	/**
+	 * Creates the balance row of a customer from the months in reward_points as
+	 * the caller's transaction sees them, unless it exists already.
+	 *
+	 * @return True if this call created the row, false if it already existed.
+	 */
+	private boolean create(Long customerId) {
+		try {
+			Integer created = createTemplate.execute(status -> jdbcTemplate.update(CREATE_SQL, customerId,
+					Timestamp.valueOf(LocalDateTime.now()), customerId, customerId));
+			return created != null && created > 0;
+		} catch (DuplicateKeyException e) {
+			log.debug("Points balance of customer {} was created concurrently", customerId);
+			return false;
+		}
+	}
+
+	private void evictAfterCommit(List<Long> customerIds) {
+		runAfterCommit(() -> customerIds.forEach(cache::remove));
+	}
+
+	private void runAfterCommit(Runnable action) {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			action.run();
+			return;
+		}
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCommit() {
+				action.run();
+			}
+		});
+	}
+}
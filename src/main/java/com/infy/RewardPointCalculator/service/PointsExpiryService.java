@@ -0,0 +1,347 @@
+package com.infy.RewardPointCalculator.service;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.infy.RewardPointCalculator.Util.HierarchicalTimingWheel;
+import com.infy.RewardPointCalculator.dto.ExpiryRunSummary;
+import com.infy.RewardPointCalculator.model.PointsExpiryBucket;
+import com.infy.RewardPointCalculator.repository.PointsExpiryBucketRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * This service expires reward points a configured number of months after the
+ * month they were earned in. Points earned in January 2024 with 12 months of
+ * validity expire on 1 February 2025.
+ *
+ * Every earned month gets a bucket in the points_expiry_bucket table, due on
+ * its expiry day. The buckets that are not done yet are kept in a hierarchical
+ * timing wheel ticking in days, so the daily run only touches the buckets due
+ * that day instead of scanning reward_points. A due bucket is processed in
+ * batches of rows ordered by ID: each batch locks its rows, moves the points
+ * that were not redeemed into expired_points and stores the last row ID in the
+ * bucket, all in one database transaction. Redeemed points never expire, as
+ * they have already been spent and are accounted for by the redemption. The
+ * version of every changed row is incremented, so a concurrent accrual that
+ * loaded the row before fails its optimistic lock check and is retried on the
+ * expired row.
+ *
+ * Points written later for a month that has already expired are expired right
+ * away by the writers, which ask {@link #expiredPortion(int, int, int)}.
+ *
+ * @author rifat.bano
+ */
+@Service
+public class PointsExpiryService {
+
+	private static final Logger log = LoggerFactory.getLogger(PointsExpiryService.class);
+
+	private static final int WHEEL_LEVELS = 3;
+
+	private static final String FIRST_EARNED_MONTH_SQL = "SELECT year, month FROM reward_points "
+			+ "ORDER BY year, month LIMIT 1";
+	private static final String LOCK_BUCKET_SQL = "SELECT status, earned_year, earned_month, last_reward_points_id "
+			+ "FROM points_expiry_bucket WHERE id = ? FOR UPDATE";
+	private static final String DUE_ROWS_SQL = "SELECT id, GREATEST(points - redeemed_points, 0) - expired_points, "
+			+ "customer_id FROM reward_points WHERE year = ? AND month = ? AND id > ? ORDER BY id LIMIT ? FOR UPDATE";
+	private static final String EXPIRE_ROW_SQL = "UPDATE reward_points "
+			+ "SET expired_points = GREATEST(points - redeemed_points, 0), version = COALESCE(version, 0) + 1 "
+			+ "WHERE id = ?";
+	private static final String UPDATE_BUCKET_SQL = "UPDATE points_expiry_bucket SET status = ?, "
+			+ "last_reward_points_id = ?, rows_expired = rows_expired + ?, points_expired = points_expired + ?, "
+			+ "updated_at = ? WHERE id = ?";
+
+	@Autowired
+	private PointsExpiryBucketRepository bucketRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Autowired
+	private PointsBalanceService pointsBalanceService;
+
+	@Value("${rewards.expiry.enabled:true}")
+	private boolean enabled;
+
+	@Value("${rewards.expiry.months:12}")
+	private int expiryMonths;
+
+	@Value("${rewards.expiry.batch-size:1000}")
+	private int batchSize;
+
+	private TransactionTemplate writeTemplate;
+	private HierarchicalTimingWheel wheel;
+	private YearMonth scheduledThrough;
+
+	private Counter rowsExpiredCounter;
+	private Counter pointsExpiredCounter;
+
+	/**
+	 * Outcome of one batch of a bucket.
+	 */
+	private static class BatchResult {
+
+		private final boolean done;
+		private final int rows;
+		private final long points;
+
+		BatchResult(boolean done, int rows, long points) {
+			this.done = done;
+			this.rows = rows;
+			this.points = points;
+		}
+	}
+
+	@PostConstruct
+	public void init() {
+		writeTemplate = new TransactionTemplate(transactionManager);
+		wheel = new HierarchicalTimingWheel(LocalDate.now().toEpochDay(), WHEEL_LEVELS);
+
+		rowsExpiredCounter = Counter.builder("rewards.expiry.rows")
+				.description("Monthly reward point rows whose points expired").register(meterRegistry);
+		pointsExpiredCounter = Counter.builder("rewards.expiry.points").description("Reward points expired")
+				.register(meterRegistry);
+		Gauge.builder("rewards.expiry.buckets.pending", this, service -> service.wheel.size())
+				.description("Expiry buckets scheduled on this node that are not done yet").register(meterRegistry);
+	}
+
+	/**
+	 * @param year  The year the points were earned in.
+	 * @param month The month the points were earned in.
+	 * @return The day the points of that month expire.
+	 */
+	public LocalDate expiresOn(int year, int month) {
+		return YearMonth.of(year, month).plusMonths(expiryMonths + 1L).atDay(1);
+	}
+
+	/**
+	 * @param year  The year the points were earned in.
+	 * @param month The month the points were earned in.
+	 * @return True if the points of that month have expired by today.
+	 */
+	public boolean isExpired(int year, int month) {
+		return enabled && !expiresOn(year, month).isAfter(LocalDate.now());
+	}
+
+	/**
+	 * Tells how many of the points of a month are expired. Points expire per
+	 * month, so this is either all of them or none.
+	 *
+	 * @param year   The year the points were earned in.
+	 * @param month  The month the points were earned in.
+	 * @param points The points of the month that were not redeemed.
+	 * @return The points to store as expired.
+	 */
+	public int expiredPortion(int year, int month, int points) {
+		return isExpired(year, month) ? points : 0;
+	}
+
+	/**
+	 * Schedules the buckets left unfinished before the restart, and creates the
+	 * buckets of the months earned since the last one.
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	public synchronized void loadBuckets() {
+		if (!enabled) {
+			return;
+		}
+		try {
+			List<PointsExpiryBucket> pending = bucketRepository
+					.findByStatusNotOrderByDueDate(PointsExpiryBucket.Status.DONE);
+			for (PointsExpiryBucket bucket : pending) {
+				wheel.add(bucket.getId(), bucket.getDueDate().toEpochDay());
+			}
+			scheduledThrough = bucketRepository.findTopByOrderByDueDateDesc()
+					.map(bucket -> YearMonth.of(bucket.getEarnedYear(), bucket.getEarnedMonth())).orElse(null);
+			scheduleThrough(YearMonth.now());
+			log.info("Scheduled {} reward point expiry buckets, {} months of validity", wheel.size(), expiryMonths);
+		} catch (Exception e) {
+			log.error("Error occurred while loading the reward point expiry buckets", e);
+		}
+	}
+
+	/**
+	 * Runs the expirations due today, shortly after midnight.
+	 */
+	@Scheduled(cron = "${rewards.expiry.cron:0 5 0 * * *}")
+	public void scheduledRun() {
+		if (!enabled) {
+			return;
+		}
+		try {
+			run();
+		} catch (Exception e) {
+			log.error("Error occurred while expiring reward points", e);
+		}
+	}
+
+	/**
+	 * Processes every bucket due up to today. A bucket that fails is scheduled
+	 * again for the next day and continues after its last completed batch.
+	 *
+	 * @return A summary of the run.
+	 * @throws ResponseStatusException If expiry is disabled.
+	 */
+	public synchronized ExpiryRunSummary run() {
+		if (!enabled) {
+			throw new ResponseStatusException(HttpStatus.CONFLICT, "Reward point expiry is disabled");
+		}
+		long start = System.nanoTime();
+		LocalDate today = LocalDate.now();
+		scheduleThrough(YearMonth.from(today));
+
+		List<Long> dueBuckets = new ArrayList<>();
+		wheel.advance(today.toEpochDay(), (bucketId, dueDay) -> dueBuckets.add(bucketId));
+
+		int completed = 0;
+		long rows = 0;
+		long points = 0;
+		for (Long bucketId : dueBuckets) {
+			try {
+				BatchResult result = processBucket(bucketId);
+				rows += result.rows;
+				points += result.points;
+				completed++;
+			} catch (Exception e) {
+				log.error("Error occurred while expiring reward point bucket {}, retrying tomorrow", bucketId, e);
+				wheel.add(bucketId, today.toEpochDay() + 1);
+			}
+		}
+		if (!dueBuckets.isEmpty()) {
+			log.info("Expired {} reward points in {} rows from {} buckets", points, rows, completed);
+		}
+		return new ExpiryRunSummary(today, dueBuckets.size(), completed, rows, points, wheel.size(),
+				TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+	}
+
+	/**
+	 * Expires a bucket batch by batch until it is done.
+	 *
+	 * @return The rows and points expired by this call.
+	 */
+	private BatchResult processBucket(long bucketId) {
+		int rows = 0;
+		long points = 0;
+		BatchResult batch;
+		do {
+			batch = writeTemplate.execute(status -> expireBatch(bucketId));
+			rows += batch.rows;
+			points += batch.points;
+			rowsExpiredCounter.increment(batch.rows);
+			pointsExpiredCounter.increment(batch.points);
+		} while (!batch.done);
+		return new BatchResult(true, rows, points);
+	}
+
+	/**
+	 * Expires the next batch of rows of a bucket. The bucket row is locked first,
+	 * so nodes processing the same bucket take turns instead of expiring the same
+	 * rows twice.
+	 */
+	private BatchResult expireBatch(long bucketId) {
+		Object[] bucket = jdbcTemplate.queryForObject(LOCK_BUCKET_SQL,
+				(resultSet, rowNum) -> new Object[] { resultSet.getString(1), resultSet.getInt(2),
+						resultSet.getInt(3), resultSet.getLong(4) },
+				bucketId);
+		if (PointsExpiryBucket.Status.DONE.name().equals(bucket[0])) {
+			return new BatchResult(true, 0, 0);
+		}
+		int year = (Integer) bucket[1];
+		int month = (Integer) bucket[2];
+		long lastId = (Long) bucket[3];
+
+		List<long[]> dueRows = jdbcTemplate.query(DUE_ROWS_SQL,
+				(resultSet, rowNum) -> new long[] { resultSet.getLong(1), resultSet.getLong(2), resultSet.getLong(3) },
+				year, month, lastId, batchSize);
+		List<Long> changedIds = new ArrayList<>();
+		// Ordered by customer, so concurrent batches update the balances in the same order
+		Map<Long, Long> expiredByCustomer = new TreeMap<>();
+		long points = 0;
+		for (long[] row : dueRows) {
+			lastId = row[0];
+			if (row[1] != 0) {
+				changedIds.add(row[0]);
+				expiredByCustomer.merge(row[2], row[1], Long::sum);
+				points += row[1];
+			}
+		}
+		if (!changedIds.isEmpty()) {
+			jdbcTemplate.batchUpdate(EXPIRE_ROW_SQL, changedIds, changedIds.size(),
+					(statement, id) -> statement.setLong(1, id));
+			pointsBalanceService.applyExpiredDeltas(expiredByCustomer);
+		}
+
+		boolean done = dueRows.size() < batchSize;
+		jdbcTemplate.update(UPDATE_BUCKET_SQL,
+				(done ? PointsExpiryBucket.Status.DONE : PointsExpiryBucket.Status.RUNNING).name(), lastId,
+				changedIds.size(), points, Timestamp.valueOf(LocalDateTime.now()), bucketId);
+		return new BatchResult(done, changedIds.size(), points);
+	}
+
+	/**
+	 * Creates or finds the buckets of the months after the last scheduled one,
+	 * up to the given month, and schedules those that are not done. On the first
+	 * start the buckets begin with the oldest month holding reward points.
+	 */
+	private void scheduleThrough(YearMonth lastEarnedMonth) {
+		YearMonth next = scheduledThrough != null ? scheduledThrough.plusMonths(1) : firstEarnedMonth(lastEarnedMonth);
+		for (YearMonth month = next; !month.isAfter(lastEarnedMonth); month = month.plusMonths(1)) {
+			PointsExpiryBucket bucket = findOrCreateBucket(month);
+			if (bucket.getStatus() != PointsExpiryBucket.Status.DONE) {
+				wheel.add(bucket.getId(), bucket.getDueDate().toEpochDay());
+			}
+			scheduledThrough = month;
+		}
+	}
+
+	private YearMonth firstEarnedMonth(YearMonth fallback) {
+		List<YearMonth> first = jdbcTemplate.query(FIRST_EARNED_MONTH_SQL,
+				(resultSet, rowNum) -> YearMonth.of(resultSet.getInt(1), resultSet.getInt(2)));
+		return first.isEmpty() || first.get(0).isAfter(fallback) ? fallback : first.get(0);
+	}
+
+	private PointsExpiryBucket findOrCreateBucket(YearMonth month) {
+		LocalDate dueDate = expiresOn(month.getYear(), month.getMonthValue());
+		return bucketRepository.findByDueDate(dueDate).orElseGet(() -> {
+			try {
+				return bucketRepository
+						.save(new PointsExpiryBucket(dueDate, month.getYear(), month.getMonthValue()));
+			} catch (DataIntegrityViolationException e) {
+				// Created by another node meanwhile
+				return bucketRepository.findByDueDate(dueDate).orElseThrow(() -> e);
+			}
+		});
+	}
+}
@@ -0,0 +1,355 @@
+package com.infy.RewardPointCalculator.service;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter.SseEventBuilder;
+
+import com.infy.RewardPointCalculator.Util.DropOldestBuffer;
+import com.infy.RewardPointCalculator.dto.RewardPointsUpdate;
+import com.infy.RewardPointCalculator.model.RewardPoints;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Pushes changes of the monthly reward points to the customers' open
+ * Server-Sent Events streams, so clients do not have to poll for them.
+ *
+ * Open streams are held as asynchronous servlet requests, so an idle stream
+ * holds a connection but no thread. Every stream has a small buffer of events
+ * waiting to be sent. When a client reads slower than its events arrive, the
+ * oldest waiting events are dropped, so a slow client never holds more than
+ * its buffer. Events are written by a small pool of dispatcher threads, which
+ * only wake up for streams with waiting events. A heartbeat comment is sent
+ * periodically so proxies keep idle streams open and broken connections are
+ * noticed.
+ *
+ * Sending blocks while the client does not read, so a client that stops
+ * reading would hold a dispatcher thread, and a few of them all dispatchers.
+ * Every send therefore has a write timeout: a watchdog interrupts a send that
+ * has not completed in time, and the stream is closed, so a slow client holds
+ * a dispatcher for at most the write timeout and then no longer gets events.
+ *
+ * Changes are pushed after their transaction commits, and only to the streams
+ * open on the node making the change. Publishing a change of a customer
+ * without open streams costs a single map lookup.
+ *
+ * @author rifat.bano
+ */
+@Service
+public class PointsStreamService {
+
+	private static final Logger log = LoggerFactory.getLogger(PointsStreamService.class);
+
+	private static final String UPDATE_EVENT = "reward-points";
+
+	private final ConcurrentHashMap<Long, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+	private final Set<Subscriber> sending = ConcurrentHashMap.newKeySet();
+	private final AtomicInteger connections = new AtomicInteger();
+	private final ExecutorService dispatcher;
+
+	private final long timeoutMillis;
+	private final int bufferSize;
+	private final int maxConnections;
+	private final int maxPerCustomer;
+	private final long writeTimeoutNanos;
+
+	private final Counter sentCounter;
+	private final Counter droppedCounter;
+	private final Counter stalledCounter;
+
+	/**
+	 * An open stream with the events waiting to be sent to it.
+	 */
+	private static class Subscriber {
+
+		private final Long customerId;
+		private final SseEmitter emitter;
+		private final DropOldestBuffer<SseEventBuilder> buffer;
+		private final AtomicBoolean scheduled = new AtomicBoolean();
+		private final AtomicBoolean closed = new AtomicBoolean();
+		// The dispatcher sending to the stream and since when, guarded by the subscriber
+		private Thread sender;
+		private long sendStartedNanos;
+
+		Subscriber(Long customerId, SseEmitter emitter, int bufferSize) {
+			this.customerId = customerId;
+			this.emitter = emitter;
+			this.buffer = new DropOldestBuffer<>(bufferSize);
+		}
+	}
+
+	/**
+	 * Creates the stream registry with the configured limits.
+	 *
+	 * @param timeoutMillis   How long a stream stays open before the client has
+	 *                        to reconnect.
+	 * @param bufferSize      The number of events waiting per stream before the
+	 *                        oldest are dropped.
+	 * @param maxConnections  The number of streams open on this node at most.
+	 * @param maxPerCustomer  The number of streams a customer can open at most.
+	 * @param dispatchThreads The number of threads writing events.
+	 * @param writeTimeoutMs  How long sending one event may take before the
+	 *                        stream is closed.
+	 * @param meterRegistry   The registry the stream metrics are published to.
+	 */
+	@Autowired
+	public PointsStreamService(@Value("${rewards.stream.timeout-ms:1800000}") long timeoutMillis,
+			@Value("${rewards.stream.buffer-size:32}") int bufferSize,
+			@Value("${rewards.stream.max-connections:50000}") int maxConnections,
+			@Value("${rewards.stream.max-per-customer:5}") int maxPerCustomer,
+			@Value("${rewards.stream.dispatch-threads:4}") int dispatchThreads,
+			@Value("${rewards.stream.write-timeout-ms:5000}") long writeTimeoutMs, MeterRegistry meterRegistry) {
+		this.timeoutMillis = timeoutMillis;
+		this.bufferSize = bufferSize;
+		this.maxConnections = maxConnections;
+		this.maxPerCustomer = maxPerCustomer;
+		this.writeTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(writeTimeoutMs);
+		AtomicInteger threadNumber = new AtomicInteger();
+		this.dispatcher = Executors.newFixedThreadPool(dispatchThreads, runnable -> {
+			Thread thread = new Thread(runnable, "points-stream-" + threadNumber.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+
+		this.sentCounter = Counter.builder("rewards.stream.events").tag("outcome", "sent")
+				.description("Reward point stream events").register(meterRegistry);
+		this.droppedCounter = Counter.builder("rewards.stream.events").tag("outcome", "dropped")
+				.description("Reward point stream events").register(meterRegistry);
+		this.stalledCounter = Counter.builder("rewards.stream.stalled")
+				.description("Reward point streams closed because a send exceeded the write timeout")
+				.register(meterRegistry);
+		Gauge.builder("rewards.stream.connections", connections, AtomicInteger::get)
+				.description("Reward point streams open on this node").register(meterRegistry);
+	}
+
+	/**
+	 * Opens a stream of the reward point changes of a customer.
+	 *
+	 * @param customerId The ID of the customer.
+	 * @return The emitter to return from the request handler.
+	 * @throws ResponseStatusException If the customer or this node has too many
+	 *                                 open streams.
+	 */
+	public SseEmitter subscribe(Long customerId) {
+		if (connections.incrementAndGet() > maxConnections) {
+			connections.decrementAndGet();
+			throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many open reward point streams");
+		}
+		SseEmitter emitter = createEmitter(timeoutMillis);
+		Subscriber subscriber = new Subscriber(customerId, emitter, bufferSize);
+		boolean[] added = new boolean[1];
+		subscribers.compute(customerId, (id, streams) -> {
+			Set<Subscriber> current = streams != null ? streams : ConcurrentHashMap.newKeySet();
+			if (current.size() < maxPerCustomer) {
+				added[0] = current.add(subscriber);
+			}
+			return current.isEmpty() ? null : current;
+		});
+		if (!added[0]) {
+			connections.decrementAndGet();
+			throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS,
+					"Too many open reward point streams for this customer");
+		}
+
+		emitter.onCompletion(() -> remove(subscriber));
+		emitter.onTimeout(() -> remove(subscriber));
+		emitter.onError(error -> remove(subscriber));
+		enqueue(subscriber, SseEmitter.event().comment("connected"));
+		log.debug("Reward point stream opened for customerId: {}, {} streams open", customerId, connections.get());
+		return emitter;
+	}
+
+	/**
+	 * Pushes the new points of a month to the open streams of its customer,
+	 * once the current transaction commits.
+	 *
+	 * @param customerId   The ID of the customer.
+	 * @param rewardPoints The changed reward points.
+	 */
+	public void publish(Long customerId, RewardPoints rewardPoints) {
+		if (!subscribers.containsKey(customerId)) {
+			return;
+		}
+		RewardPointsUpdate update = new RewardPointsUpdate(rewardPoints.getMonth(), rewardPoints.getYear(),
+				rewardPoints.getPoints(),
+				rewardPoints.getExpiredPoints() == null ? 0 : rewardPoints.getExpiredPoints(), LocalDateTime.now());
+		runAfterCommit(() -> {
+			Set<Subscriber> streams = subscribers.get(customerId);
+			if (streams != null) {
+				for (Subscriber subscriber : streams) {
+					enqueue(subscriber, SseEmitter.event().name(UPDATE_EVENT).data(update));
+				}
+			}
+		});
+	}
+
+	/**
+	 * Sends a heartbeat comment to every open stream.
+	 */
+	@Scheduled(initialDelayString = "${rewards.stream.heartbeat-ms:15000}",
+			fixedDelayString = "${rewards.stream.heartbeat-ms:15000}")
+	public void heartbeat() {
+		for (Set<Subscriber> streams : subscribers.values()) {
+			for (Subscriber subscriber : streams) {
+				enqueue(subscriber, SseEmitter.event().comment("heartbeat"));
+			}
+		}
+	}
+
+	/**
+	 * Closes the streams whose current send has exceeded the write timeout and
+	 * interrupts the dispatcher blocked in it. Only the streams being sent to
+	 * are checked, at most one per dispatcher thread.
+	 */
+	@Scheduled(initialDelayString = "${rewards.stream.write-check-ms:1000}",
+			fixedDelayString = "${rewards.stream.write-check-ms:1000}")
+	public void evictStalledStreams() {
+		long now = System.nanoTime();
+		for (Subscriber subscriber : sending) {
+			synchronized (subscriber) {
+				if (subscriber.sender == null || now - subscriber.sendStartedNanos < writeTimeoutNanos) {
+					continue;
+				}
+				subscriber.sender.interrupt();
+			}
+			stalledCounter.increment();
+			log.warn("Reward point stream of customerId: {} closed, a send took longer than {} ms",
+					subscriber.customerId, TimeUnit.NANOSECONDS.toMillis(writeTimeoutNanos));
+			remove(subscriber);
+		}
+	}
+
+	/**
+	 * @return The number of streams open on this node.
+	 */
+	public int getConnectionCount() {
+		return connections.get();
+	}
+
+	/**
+	 * Closes all open streams, so clients reconnect to another node.
+	 */
+	@PreDestroy
+	public void shutdown() {
+		dispatcher.shutdownNow();
+		for (Set<Subscriber> streams : subscribers.values()) {
+			for (Subscriber subscriber : streams) {
+				subscriber.emitter.complete();
+				remove(subscriber);
+			}
+		}
+	}
+
+	/**
+	 * Creates the emitter of a new stream.
+	 *
+	 * @param timeoutMillis How long the stream stays open.
+	 * @return The emitter.
+	 */
+	protected SseEmitter createEmitter(long timeoutMillis) {
+		return new SseEmitter(timeoutMillis);
+	}
+
+	private void enqueue(Subscriber subscriber, SseEventBuilder event) {
+		if (subscriber.buffer.offer(event)) {
+			droppedCounter.increment();
+		}
+		if (subscriber.scheduled.compareAndSet(false, true)) {
+			try {
+				dispatcher.execute(() -> drain(subscriber));
+			} catch (RejectedExecutionException e) {
+				subscriber.scheduled.set(false);
+			}
+		}
+	}
+
+	/**
+	 * Writes the waiting events of a stream. Only one dispatcher thread drains a
+	 * stream at a time, and the stream is checked again after releasing it, so
+	 * an event enqueued meanwhile is not left behind. Every send is registered
+	 * with the write timeout watchdog while it runs.
+	 */
+	private void drain(Subscriber subscriber) {
+		List<SseEventBuilder> events = new ArrayList<>();
+		do {
+			events.clear();
+			subscriber.buffer.drainTo(events);
+			for (SseEventBuilder event : events) {
+				if (subscriber.closed.get()) {
+					return;
+				}
+				synchronized (subscriber) {
+					subscriber.sender = Thread.currentThread();
+					subscriber.sendStartedNanos = System.nanoTime();
+				}
+				sending.add(subscriber);
+				try {
+					subscriber.emitter.send(event);
+					sentCounter.increment();
+				} catch (IOException | IllegalStateException e) {
+					// The client went away or stalled, the emitter reports the error to the container
+					log.debug("Reward point stream closed for customerId: {}", subscriber.customerId);
+					remove(subscriber);
+					return;
+				} finally {
+					sending.remove(subscriber);
+					synchronized (subscriber) {
+						subscriber.sender = null;
+						// An interrupt of the watchdog is meant for this send only
+						Thread.interrupted();
+					}
+				}
+			}
+			subscriber.scheduled.set(false);
+		} while (subscriber.buffer.size() > 0 && subscriber.scheduled.compareAndSet(false, true));
+	}
+
+	private void remove(Subscriber subscriber) {
+		if (!subscriber.closed.compareAndSet(false, true)) {
+			return;
+		}
+		subscribers.computeIfPresent(subscriber.customerId, (id, streams) -> {
+			streams.remove(subscriber);
+			return streams.isEmpty() ? null : streams;
+		});
+		connections.decrementAndGet();
+	}
+
+	private void runAfterCommit(Runnable action) {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			action.run();
+			return;
+		}
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCommit() {
+				action.run();
+			}
+		});
+	}
+}
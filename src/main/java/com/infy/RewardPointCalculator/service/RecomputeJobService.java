@@ -0,0 +1,539 @@
+package com.infy.RewardPointCalculator.service;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.infy.RewardPointCalculator.Util.MonthlyPointsAccumulator;
+import com.infy.RewardPointCalculator.Util.RewardPointCalculator;
+import com.infy.RewardPointCalculator.dto.RecomputeJobStatus;
+import com.infy.RewardPointCalculator.ledger.RewardLedger;
+import com.infy.RewardPointCalculator.ledger.RewardLedgerEventType;
+import com.infy.RewardPointCalculator.model.RecomputeCheckpoint;
+import com.infy.RewardPointCalculator.repository.RecomputeCheckpointRepository;
+import com.infy.RewardPointCalculator.repository.RewardPointsBatchWriter;
+import com.infy.RewardPointCalculator.repository.RewardPointsBatchWriter.MonthlyTotal;
+import com.zaxxer.hikari.HikariDataSource;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * This service recomputes the monthly reward points of all customers, instead
+ * of calling updateRewardPoints for every customer and month one by one.
+ *
+ * The customer ID space is split into ranges (partitions) that are processed
+ * in parallel in a fork-join pool. Each partition reads the transactions of
+ * its range in one scan ordered by customer ID, streamed with a JDBC fetch
+ * size so it never holds more than one customer's months in memory. Every few
+ * hundred customers, their monthly totals are written with batched upserts in
+ * one database transaction together with the partition checkpoint. A job
+ * interrupted by a crash can therefore be resumed, and every partition
+ * continues after the last customer it wrote.
+ *
+ * A running partition holds two connections: the read-only one its scan
+ * streams from, and the one of the batch it writes in a new transaction
+ * meanwhile. The parallelism is therefore capped so that all partitions
+ * together leave at least one connection of the pool free, and the job can
+ * never wait for connections held by itself.
+ *
+ * The job overwrites totals computed from the transactions it read, so it
+ * should run while no transactions are being written, or be followed by the
+ * regular recompute of the months changed meanwhile. Every transaction is
+ * counted at the category bonus stored with it, so a recompute never
+ * re-prices earlier transactions at today's multipliers.
+ *
+ * @author rifat.bano
+ */
+@Service
+public class RecomputeJobService {
+
+	private static final Logger log = LoggerFactory.getLogger(RecomputeJobService.class);
+
+	private static final String CUSTOMER_ID_RANGE_SQL = "SELECT MIN(id), MAX(id) FROM customer";
+	private static final String TRANSACTIONS_SQL = "SELECT t.customer_id, t.date, t.amount, t.multiplier_percent "
+			+ "FROM customer_transaction t WHERE t.customer_id BETWEEN ? AND ? ORDER BY t.customer_id";
+	private static final long PROGRESS_LOG_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+	@Autowired
+	private DataSource dataSource;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Autowired
+	private RecomputeCheckpointRepository checkpointRepository;
+
+	@Autowired
+	private RewardPointsBatchWriter rewardPointsBatchWriter;
+
+	@Autowired
+	private RewardLedger rewardLedger;
+
+	@Autowired
+	private PointsExpiryService pointsExpiryService;
+
+	@Autowired
+	private PointsBalanceService pointsBalanceService;
+
+	@Value("${rewards.recompute.partitions:16}")
+	private int defaultPartitions;
+
+	@Value("${rewards.recompute.parallelism:4}")
+	private int parallelism;
+
+	@Value("${rewards.recompute.fetch-size:5000}")
+	private int fetchSize;
+
+	@Value("${rewards.recompute.batch-customers:500}")
+	private int batchCustomers;
+
+	private JdbcTemplate streamingJdbcTemplate;
+	private TransactionTemplate readTemplate;
+	private TransactionTemplate writeTemplate;
+	private ForkJoinPool pool;
+
+	private volatile JobRun currentRun;
+
+	/**
+	 * State of a job while it runs on this node.
+	 */
+	private static class JobRun {
+
+		private final String jobId;
+		private final AtomicReferenceArray<RecomputeCheckpoint> partitions;
+		private final long totalSpan;
+		private final long startNanos = System.nanoTime();
+		private final AtomicLong covered = new AtomicLong();
+		private final AtomicLong coveredThisRun = new AtomicLong();
+		private final AtomicLong customers = new AtomicLong();
+		private final AtomicLong transactions = new AtomicLong();
+		private final AtomicLong transactionsThisRun = new AtomicLong();
+		private final AtomicLong customersThisRun = new AtomicLong();
+		private final AtomicLong months = new AtomicLong();
+		private volatile boolean finished;
+		private volatile long finishedNanos;
+		private volatile long lastLogNanos = System.nanoTime();
+
+		JobRun(String jobId, List<RecomputeCheckpoint> checkpoints) {
+			this.jobId = jobId;
+			this.partitions = new AtomicReferenceArray<>(checkpoints.toArray(new RecomputeCheckpoint[0]));
+			long span = 0;
+			for (RecomputeCheckpoint checkpoint : checkpoints) {
+				span += checkpoint.getRangeEnd() - checkpoint.getRangeStart() + 1;
+				covered.addAndGet(coveredBy(checkpoint));
+				customers.addAndGet(checkpoint.getCustomersProcessed());
+				transactions.addAndGet(checkpoint.getTransactionsProcessed());
+				months.addAndGet(checkpoint.getMonthsWritten());
+			}
+			this.totalSpan = span;
+		}
+	}
+
+	@PostConstruct
+	public void init() {
+		streamingJdbcTemplate = new JdbcTemplate(dataSource);
+		streamingJdbcTemplate.setFetchSize(fetchSize);
+		// Postgres only streams with a fetch size inside a transaction
+		readTemplate = new TransactionTemplate(transactionManager);
+		readTemplate.setReadOnly(true);
+		writeTemplate = new TransactionTemplate(transactionManager);
+		writeTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+		int poolSize = maximumPoolSize();
+		int partitionThreads = effectiveParallelism(parallelism, poolSize);
+		if (partitionThreads < parallelism) {
+			log.warn("Recompute parallelism capped from {} to {} for a connection pool of {}", parallelism,
+					partitionThreads, poolSize);
+		}
+		// No compensation threads for blocked joins, they would exceed the cap
+		pool = new ForkJoinPool(partitionThreads, ForkJoinPool.defaultForkJoinWorkerThreadFactory, null, false,
+				partitionThreads, partitionThreads, 1, forkJoinPool -> true, 60, TimeUnit.SECONDS);
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		pool.shutdownNow();
+	}
+
+	/**
+	 * Starts a new recompute of all customers.
+	 *
+	 * @param partitions The number of customer ID ranges, or null for the
+	 *                   configured default.
+	 * @return The status of the started job.
+	 * @throws ResponseStatusException If a job is already running or the number
+	 *                                 of partitions is invalid.
+	 */
+	public synchronized RecomputeJobStatus start(Integer partitions) {
+		ensureNotRunning();
+		int count = partitions == null ? defaultPartitions : partitions;
+		if (count < 1 || count > 1024) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Partitions must be between 1 and 1024");
+		}
+		long[] range = jdbcTemplate.queryForObject(CUSTOMER_ID_RANGE_SQL,
+				(resultSet, rowNum) -> resultSet.getObject(1) == null ? null
+						: new long[] { resultSet.getLong(1), resultSet.getLong(2) });
+		String jobId = UUID.randomUUID().toString();
+		List<RecomputeCheckpoint> checkpoints = new ArrayList<>();
+		if (range != null) {
+			List<long[]> ranges = splitRange(range[0], range[1], count);
+			for (int i = 0; i < ranges.size(); i++) {
+				checkpoints.add(new RecomputeCheckpoint(jobId, i, ranges.get(i)[0], ranges.get(i)[1]));
+			}
+			checkpoints = checkpointRepository.saveAll(checkpoints);
+		}
+		log.info("Starting reward points recompute job {} with {} partitions", jobId, checkpoints.size());
+		return launch(jobId, checkpoints);
+	}
+
+	/**
+	 * Resumes the latest job, continuing every unfinished partition after the
+	 * last customer it wrote.
+	 *
+	 * @return The status of the resumed job.
+	 * @throws ResponseStatusException If a job is already running, no job exists
+	 *                                 or the latest job already completed.
+	 */
+	public synchronized RecomputeJobStatus resume() {
+		ensureNotRunning();
+		String jobId = checkpointRepository.findTopByOrderByIdDesc()
+				.orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "No recompute job to resume"))
+				.getJobId();
+		List<RecomputeCheckpoint> checkpoints = checkpointRepository.findByJobIdOrderByPartitionIndex(jobId);
+		if (checkpoints.stream().allMatch(checkpoint -> checkpoint.getStatus() == RecomputeCheckpoint.Status.DONE)) {
+			throw new ResponseStatusException(HttpStatus.CONFLICT, "The latest recompute job already completed");
+		}
+		log.info("Resuming reward points recompute job {}", jobId);
+		return launch(jobId, checkpoints);
+	}
+
+	/**
+	 * @return The progress of the job running on this node, or of the latest job
+	 *         stored if none is running here.
+	 */
+	public RecomputeJobStatus getStatus() {
+		JobRun run = currentRun;
+		if (run != null) {
+			return status(run);
+		}
+		return checkpointRepository.findTopByOrderByIdDesc().map(latest -> {
+			JobRun stored = new JobRun(latest.getJobId(),
+					checkpointRepository.findByJobIdOrderByPartitionIndex(latest.getJobId()));
+			stored.finished = true;
+			stored.finishedNanos = stored.startNanos;
+			return status(stored);
+		}).orElseGet(() -> {
+			RecomputeJobStatus status = new RecomputeJobStatus();
+			status.setState("IDLE");
+			return status;
+		});
+	}
+
+	/**
+	 * Splits the inclusive range [min, max] into at most the given number of
+	 * contiguous, non-empty ranges of about equal size.
+	 *
+	 * @return The ranges as [start, end] pairs, both inclusive.
+	 */
+	public static List<long[]> splitRange(long min, long max, int partitions) {
+		long span = max - min + 1;
+		int count = (int) Math.min(partitions, span);
+		List<long[]> ranges = new ArrayList<>(count);
+		long start = min;
+		for (int i = 0; i < count; i++) {
+			long size = span / count + (i < span % count ? 1 : 0);
+			ranges.add(new long[] { start, start + size - 1 });
+			start += size;
+		}
+		return ranges;
+	}
+
+	/**
+	 * Caps the configured parallelism so that the partitions, holding two
+	 * connections each, leave at least one connection of the pool free.
+	 *
+	 * @param configured The configured parallelism.
+	 * @param poolSize   The maximum size of the connection pool, or 0 if unknown.
+	 * @return The number of partitions to run at the same time, at least one.
+	 */
+	public static int effectiveParallelism(int configured, int poolSize) {
+		int parallelism = Math.max(1, configured);
+		if (poolSize <= 0) {
+			return parallelism;
+		}
+		return Math.max(1, Math.min(parallelism, (poolSize - 1) / 2));
+	}
+
+	/**
+	 * @return The maximum size of the Hikari connection pool, or 0 if the data
+	 *         source is not one.
+	 */
+	private int maximumPoolSize() {
+		try {
+			if (dataSource.isWrapperFor(HikariDataSource.class)) {
+				return dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize();
+			}
+		} catch (SQLException e) {
+			log.warn("Could not read the connection pool size", e);
+		}
+		return 0;
+	}
+
+	private void ensureNotRunning() {
+		JobRun run = currentRun;
+		if (run != null && !run.finished) {
+			throw new ResponseStatusException(HttpStatus.CONFLICT, "A recompute job is already running");
+		}
+	}
+
+	private RecomputeJobStatus launch(String jobId, List<RecomputeCheckpoint> checkpoints) {
+		JobRun run = new JobRun(jobId, checkpoints);
+		currentRun = run;
+		List<ForkJoinTask<?>> tasks = new ArrayList<>();
+		for (int i = 0; i < checkpoints.size(); i++) {
+			if (checkpoints.get(i).getStatus() != RecomputeCheckpoint.Status.DONE) {
+				int index = i;
+				tasks.add(ForkJoinTask.adapt(() -> runPartition(run, index)));
+			}
+		}
+		pool.execute(() -> {
+			try {
+				ForkJoinTask.invokeAll(tasks);
+			} finally {
+				run.finishedNanos = System.nanoTime();
+				run.finished = true;
+				RecomputeJobStatus status = status(run);
+				log.info("Reward points recompute job {} finished: {}, {} customers, {} transactions in {} s", jobId,
+						status.getState(), status.getCustomersProcessed(), status.getTransactionsProcessed(),
+						status.getElapsedSeconds());
+			}
+		});
+		return status(run);
+	}
+
+	/**
+	 * Recomputes one partition, starting after its last checkpoint.
+	 */
+	private void runPartition(JobRun run, int index) {
+		RecomputeCheckpoint checkpoint = run.partitions.get(index);
+		try {
+			checkpoint.setStatus(RecomputeCheckpoint.Status.RUNNING);
+			run.partitions.set(index, checkpointRepository.save(checkpoint));
+
+			long from = checkpoint.getLastCustomerId() == null ? checkpoint.getRangeStart()
+					: checkpoint.getLastCustomerId() + 1;
+			long to = checkpoint.getRangeEnd();
+			if (from <= to) {
+				PartitionScan scan = new PartitionScan(run, index, from);
+				readTemplate.executeWithoutResult(
+						transactionStatus -> streamingJdbcTemplate.query(TRANSACTIONS_SQL, scan, from, to));
+				scan.finish(to);
+			}
+
+			checkpoint = run.partitions.get(index);
+			checkpoint.setStatus(RecomputeCheckpoint.Status.DONE);
+			run.partitions.set(index, checkpointRepository.save(checkpoint));
+		} catch (Exception e) {
+			log.error("Error occurred in partition {} of recompute job {}", index, run.jobId, e);
+			try {
+				// Reload, the copy in memory may hold a checkpoint that was rolled back
+				checkpoint = checkpointRepository.findById(run.partitions.get(index).getId())
+						.orElse(run.partitions.get(index));
+				checkpoint.setStatus(RecomputeCheckpoint.Status.FAILED);
+				run.partitions.set(index, checkpointRepository.save(checkpoint));
+			} catch (Exception saveFailure) {
+				log.error("Error occurred while marking partition {} of recompute job {} as failed", index,
+						run.jobId, saveFailure);
+			}
+		}
+	}
+
+	/**
+	 * Consumes the ordered transaction stream of one partition, collecting the
+	 * monthly totals customer by customer and writing them in batches.
+	 */
+	private class PartitionScan implements RowCallbackHandler {
+
+		private final JobRun run;
+		private final int index;
+		private final MonthlyPointsAccumulator accumulator = new MonthlyPointsAccumulator();
+		private final List<MonthlyTotal> pending = new ArrayList<>();
+		private long batchStart;
+		private long currentCustomer = -1;
+		private int pendingCustomers;
+		private long pendingTransactions;
+
+		PartitionScan(JobRun run, int index, long from) {
+			this.run = run;
+			this.index = index;
+			this.batchStart = from;
+		}
+
+		@Override
+		public void processRow(ResultSet resultSet) throws SQLException {
+			long customerId = resultSet.getLong(1);
+			if (customerId != currentCustomer) {
+				completeCustomer();
+				if (pendingCustomers >= batchCustomers) {
+					flush(currentCustomer);
+				}
+				currentCustomer = customerId;
+			}
+			LocalDate date = resultSet.getDate(2).toLocalDate();
+			accumulator.add(date.getYear(), date.getMonthValue(),
+					RewardPointCalculator.calculatePoints(resultSet.getDouble(3), resultSet.getInt(4)));
+			pendingTransactions++;
+		}
+
+		/**
+		 * Writes the last batch, which covers the partition up to its end.
+		 */
+		void finish(long rangeEnd) {
+			completeCustomer();
+			flush(rangeEnd);
+		}
+
+		private void completeCustomer() {
+			if (currentCustomer < 0 || accumulator.size() == 0) {
+				return;
+			}
+			long customerId = currentCustomer;
+			accumulator.forEach((year, month, points) -> pending.add(new MonthlyTotal(customerId, year, month, points,
+					pointsExpiryService.expiredPortion(year, month, points))));
+			accumulator.clear();
+			pendingCustomers++;
+		}
+
+		/**
+		 * Replaces the totals of all customers from the batch start to batchEnd,
+		 * resyncs their points balances and moves the checkpoint to batchEnd in the
+		 * same database transaction.
+		 */
+		private void flush(long batchEnd) {
+			long customers = pendingCustomers;
+			long transactions = pendingTransactions;
+			List<MonthlyTotal> written = writeTemplate.execute(transactionStatus -> {
+				List<MonthlyTotal> totals = rewardPointsBatchWriter.replaceCustomerRange(batchStart, batchEnd,
+						pending);
+				pointsBalanceService.resyncRange(batchStart, batchEnd);
+				RecomputeCheckpoint checkpoint = run.partitions.get(index);
+				checkpoint.setLastCustomerId(batchEnd);
+				checkpoint.setCustomersProcessed(checkpoint.getCustomersProcessed() + customers);
+				checkpoint.setTransactionsProcessed(checkpoint.getTransactionsProcessed() + transactions);
+				checkpoint.setMonthsWritten(checkpoint.getMonthsWritten() + totals.size());
+				run.partitions.set(index, checkpointRepository.save(checkpoint));
+				return totals;
+			});
+			for (MonthlyTotal total : written) {
+				rewardLedger.record(RewardLedgerEventType.RECOMPUTE, total.getCustomerId(), total.getYear(),
+						total.getMonth(), total.getPoints(), null);
+			}
+
+			long covered = batchEnd - batchStart + 1;
+			run.covered.addAndGet(covered);
+			run.coveredThisRun.addAndGet(covered);
+			run.customers.addAndGet(customers);
+			run.customersThisRun.addAndGet(customers);
+			run.transactions.addAndGet(transactions);
+			run.transactionsThisRun.addAndGet(transactions);
+			run.months.addAndGet(written.size());
+			logProgress(run);
+
+			pending.clear();
+			pendingCustomers = 0;
+			pendingTransactions = 0;
+			batchStart = batchEnd + 1;
+		}
+	}
+
+	private void logProgress(JobRun run) {
+		long now = System.nanoTime();
+		if (now - run.lastLogNanos < PROGRESS_LOG_INTERVAL_NANOS) {
+			return;
+		}
+		run.lastLogNanos = now;
+		RecomputeJobStatus status = status(run);
+		log.info("Recompute job {}: {}% done, {} transactions/s, ETA {} s", run.jobId,
+				String.format("%.1f", status.getProgressPercent()),
+				String.format("%.0f", status.getTransactionsPerSecond()), status.getEtaSeconds());
+	}
+
+	private RecomputeJobStatus status(JobRun run) {
+		List<RecomputeCheckpoint> partitions = new ArrayList<>();
+		for (int i = 0; i < run.partitions.length(); i++) {
+			partitions.add(run.partitions.get(i));
+		}
+		int done = countStatus(partitions, RecomputeCheckpoint.Status.DONE);
+		int failed = countStatus(partitions, RecomputeCheckpoint.Status.FAILED);
+
+		RecomputeJobStatus status = new RecomputeJobStatus();
+		status.setJobId(run.jobId);
+		if (!run.finished) {
+			status.setState("RUNNING");
+		} else {
+			status.setState(done == partitions.size() ? "COMPLETED" : "FAILED");
+		}
+		status.setPartitions(partitions.size());
+		status.setPartitionsDone(done);
+		status.setPartitionsFailed(failed);
+		status.setCustomersProcessed(run.customers.get());
+		status.setTransactionsProcessed(run.transactions.get());
+		status.setMonthsWritten(run.months.get());
+		status.setProgressPercent(run.totalSpan == 0 ? 100.0 : 100.0 * run.covered.get() / run.totalSpan);
+
+		long elapsedNanos = (run.finished ? run.finishedNanos : System.nanoTime()) - run.startNanos;
+		double elapsedSeconds = elapsedNanos / 1e9;
+		status.setElapsedSeconds((long) elapsedSeconds);
+		if (elapsedSeconds > 0) {
+			status.setTransactionsPerSecond(run.transactionsThisRun.get() / elapsedSeconds);
+			status.setCustomersPerSecond(run.customersThisRun.get() / elapsedSeconds);
+		}
+		long coveredThisRun = run.coveredThisRun.get();
+		if (!run.finished && coveredThisRun > 0) {
+			double remaining = run.totalSpan - run.covered.get();
+			status.setEtaSeconds((long) Math.ceil(remaining * elapsedSeconds / coveredThisRun));
+		}
+		return status;
+	}
+
+	private static int countStatus(List<RecomputeCheckpoint> partitions, RecomputeCheckpoint.Status state) {
+		return (int) partitions.stream().filter(partition -> partition.getStatus() == state).count();
+	}
+
+	/**
+	 * @return The number of customer IDs of the partition already written.
+	 */
+	private static long coveredBy(RecomputeCheckpoint checkpoint) {
+		if (checkpoint.getStatus() == RecomputeCheckpoint.Status.DONE) {
+			return checkpoint.getRangeEnd() - checkpoint.getRangeStart() + 1;
+		}
+		return checkpoint.getLastCustomerId() == null ? 0
+				: checkpoint.getLastCustomerId() - checkpoint.getRangeStart() + 1;
+	}
+}
@@ -0,0 +1,348 @@
+package com.infy.RewardPointCalculator.service;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.infy.RewardPointCalculator.Util.MonthlyPointsAccumulator;
+import com.infy.RewardPointCalculator.Util.RewardPointCalculator;
+import com.infy.RewardPointCalculator.dto.ReconciliationReport;
+import com.infy.RewardPointCalculator.dto.ReconciliationReport.Discrepancy;
+import com.infy.RewardPointCalculator.repository.RewardPointsBatchWriter;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * This service checks reward_points against the totals implied by the
+ * transactions, which drift apart through the read-modify-write races of the
+ * incremental updates.
+ *
+ * Both tables are read with one streaming cursor each, ordered by customer, on
+ * two read-only connections. The cursors are merge-joined customer by
+ * customer: only the months of the current customer are held in memory, so
+ * the job runs in bounded memory whatever the table sizes. Each customer-month
+ * is classified as matching, MISMATCH (different points), MISSING (points but
+ * no row), EXTRA (a row holding points without transactions) or DUPLICATE
+ * (several rows).
+ *
+ * With repair enabled, duplicate rows are deleted and every wrong month is
+ * recomputed through {@link CustomerTransactionService#updateRewardPoints},
+ * which holds the customer and month locks and re-reads the transactions. A
+ * month that only looked wrong because it changed during the scan is thereby
+ * left correct as well.
+ *
+ * @author rifat.bano
+ */
+@Service
+public class ReconciliationService {
+
+	private static final Logger log = LoggerFactory.getLogger(ReconciliationService.class);
+
+	private static final String TRANSACTIONS_SQL = "SELECT t.customer_id, t.date, t.amount, t.multiplier_percent "
+			+ "FROM customer_transaction t ORDER BY t.customer_id";
+	private static final String REWARD_POINTS_SQL = "SELECT r.customer_id, r.year, r.month, r.points, r.id "
+			+ "FROM reward_points r ORDER BY r.customer_id, r.year, r.month, r.id";
+
+	@Autowired
+	private DataSource dataSource;
+
+	@Autowired
+	private CustomerTransactionService customerTransactionService;
+
+	@Autowired
+	private CustomerLockManager customerLockManager;
+
+	@Autowired
+	private RewardPointsBatchWriter rewardPointsBatchWriter;
+
+	@Autowired
+	private PointsBalanceService pointsBalanceService;
+
+	@Value("${rewards.reconciliation.fetch-size:5000}")
+	private int fetchSize;
+
+	@Value("${rewards.reconciliation.sample-limit:100}")
+	private int sampleLimit;
+
+	private ExecutorService executor;
+	private final AtomicBoolean running = new AtomicBoolean();
+	private volatile ReconciliationReport latestReport;
+
+	@PostConstruct
+	public void init() {
+		executor = Executors.newSingleThreadExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "reward-reconciliation");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		executor.shutdownNow();
+	}
+
+	/**
+	 * Starts a reconciliation in the background.
+	 *
+	 * @param repair Whether wrong months are repaired.
+	 * @return The report, which is filled in while the job runs.
+	 * @throws ResponseStatusException If a reconciliation is already running.
+	 */
+	public ReconciliationReport start(boolean repair) {
+		if (!running.compareAndSet(false, true)) {
+			throw new ResponseStatusException(HttpStatus.CONFLICT, "A reconciliation is already running");
+		}
+		ReconciliationReport report = new ReconciliationReport();
+		report.setState("RUNNING");
+		report.setRepair(repair);
+		report.setStartedAt(LocalDateTime.now());
+		latestReport = report;
+		try {
+			executor.execute(() -> run(report));
+		} catch (RuntimeException e) {
+			running.set(false);
+			throw e;
+		}
+		return report;
+	}
+
+	/**
+	 * @return The report of the running or last finished reconciliation.
+	 * @throws ResponseStatusException If no reconciliation ran since startup.
+	 */
+	public ReconciliationReport getLatestReport() {
+		ReconciliationReport report = latestReport;
+		if (report == null) {
+			throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No reconciliation has run yet");
+		}
+		return report;
+	}
+
+	private void run(ReconciliationReport report) {
+		long start = System.nanoTime();
+		try (Connection transactionConnection = openReadOnly();
+				Connection rewardConnection = openReadOnly();
+				PreparedStatement transactionStatement = streamingStatement(transactionConnection, TRANSACTIONS_SQL);
+				PreparedStatement rewardStatement = streamingStatement(rewardConnection, REWARD_POINTS_SQL);
+				ResultSet transactions = transactionStatement.executeQuery();
+				ResultSet rewardPoints = rewardStatement.executeQuery()) {
+			new MergeJoin(report, transactions, rewardPoints).run();
+			report.setState("COMPLETED");
+			log.info("Reconciliation completed: {} customers, {} mismatches, {} missing, {} extra, {} duplicates, "
+					+ "{} repaired", report.getCustomersScanned(), report.getMismatches(), report.getMissing(),
+					report.getExtra(), report.getDuplicates(), report.getRepaired());
+		} catch (Exception e) {
+			log.error("Error occurred while reconciling reward points", e);
+			report.setState("FAILED");
+			report.setError(e.getMessage());
+		} finally {
+			report.setDurationMillis(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+			running.set(false);
+		}
+	}
+
+	/**
+	 * Walks both cursors customer by customer and compares their months.
+	 */
+	private class MergeJoin {
+
+		private final ReconciliationReport report;
+		private final ResultSet transactions;
+		private final ResultSet rewardPoints;
+		private boolean hasTransaction;
+		private boolean hasRewardRow;
+
+		private final MonthlyPointsAccumulator expected = new MonthlyPointsAccumulator();
+		private int[] storedYears = new int[16];
+		private int[] storedMonths = new int[16];
+		private int[] storedPoints = new int[16];
+		private long[] storedIds = new long[16];
+		private int storedCount;
+
+		MergeJoin(ReconciliationReport report, ResultSet transactions, ResultSet rewardPoints) {
+			this.report = report;
+			this.transactions = transactions;
+			this.rewardPoints = rewardPoints;
+		}
+
+		void run() throws SQLException {
+			hasTransaction = transactions.next();
+			hasRewardRow = rewardPoints.next();
+			while (hasTransaction || hasRewardRow) {
+				long customerId = Math.min(hasTransaction ? transactions.getLong(1) : Long.MAX_VALUE,
+						hasRewardRow ? rewardPoints.getLong(1) : Long.MAX_VALUE);
+				readTransactions(customerId);
+				readRewardRows(customerId);
+				compare(customerId);
+				report.setCustomersScanned(report.getCustomersScanned() + 1);
+			}
+		}
+
+		private void readTransactions(long customerId) throws SQLException {
+			expected.clear();
+			long count = 0;
+			while (hasTransaction && transactions.getLong(1) == customerId) {
+				LocalDate date = transactions.getDate(2).toLocalDate();
+				int points = RewardPointCalculator.calculatePoints(transactions.getDouble(3), transactions.getInt(4));
+				expected.add(date.getYear(), date.getMonthValue(), points);
+				count++;
+				hasTransaction = transactions.next();
+			}
+			report.setTransactionsScanned(report.getTransactionsScanned() + count);
+		}
+
+		private void readRewardRows(long customerId) throws SQLException {
+			storedCount = 0;
+			while (hasRewardRow && rewardPoints.getLong(1) == customerId) {
+				if (storedCount == storedYears.length) {
+					int capacity = storedCount * 2;
+					storedYears = Arrays.copyOf(storedYears, capacity);
+					storedMonths = Arrays.copyOf(storedMonths, capacity);
+					storedPoints = Arrays.copyOf(storedPoints, capacity);
+					storedIds = Arrays.copyOf(storedIds, capacity);
+				}
+				storedYears[storedCount] = rewardPoints.getInt(2);
+				storedMonths[storedCount] = rewardPoints.getInt(3);
+				storedPoints[storedCount] = rewardPoints.getInt(4);
+				storedIds[storedCount] = rewardPoints.getLong(5);
+				storedCount++;
+				hasRewardRow = rewardPoints.next();
+			}
+			report.setRewardRowsScanned(report.getRewardRowsScanned() + storedCount);
+		}
+
+		/**
+		 * Merges the expected months and the stored rows of one customer, both in
+		 * year and month order.
+		 */
+		private void compare(long customerId) {
+			int i = 0;
+			int j = 0;
+			while (i < expected.size() || j < storedCount) {
+				int expectedKey = i < expected.size() ? expected.yearAt(i) * 12 + expected.monthAt(i) - 1
+						: Integer.MAX_VALUE;
+				int storedKey = j < storedCount ? storedYears[j] * 12 + storedMonths[j] - 1 : Integer.MAX_VALUE;
+
+				if (expectedKey < storedKey) {
+					int points = expected.pointsAt(i);
+					if (points != 0) {
+						report.setMissing(report.getMissing() + 1);
+						found(new Discrepancy(customerId, expected.yearAt(i), expected.monthAt(i), "MISSING", points,
+								null, 0), List.of());
+					}
+					i++;
+					continue;
+				}
+
+				int end = j;
+				while (end < storedCount && storedYears[end] * 12 + storedMonths[end] - 1 == storedKey) {
+					end++;
+				}
+				int points = 0;
+				if (expectedKey == storedKey) {
+					points = expected.pointsAt(i);
+					i++;
+				}
+				int rows = end - j;
+				List<Long> duplicateIds = new ArrayList<>();
+				for (int row = j + 1; row < end; row++) {
+					duplicateIds.add(storedIds[row]);
+				}
+				Discrepancy discrepancy = null;
+				if (rows > 1) {
+					report.setDuplicates(report.getDuplicates() + 1);
+					discrepancy = new Discrepancy(customerId, storedYears[j], storedMonths[j], "DUPLICATE", points,
+							storedPoints[j], rows);
+				}
+				if (storedPoints[j] != points) {
+					String type = expectedKey == storedKey ? "MISMATCH" : "EXTRA";
+					if (expectedKey == storedKey) {
+						report.setMismatches(report.getMismatches() + 1);
+					} else {
+						report.setExtra(report.getExtra() + 1);
+					}
+					if (discrepancy == null) {
+						discrepancy = new Discrepancy(customerId, storedYears[j], storedMonths[j], type, points,
+								storedPoints[j], rows);
+					}
+				}
+				if (discrepancy != null) {
+					found(discrepancy, duplicateIds);
+				}
+				j = end;
+			}
+		}
+
+		private void found(Discrepancy discrepancy, List<Long> duplicateIds) {
+			if (report.getSamples().size() < sampleLimit) {
+				report.getSamples().add(discrepancy);
+			}
+			if (report.isRepair()) {
+				repair(discrepancy, duplicateIds);
+			}
+		}
+
+		private void repair(Discrepancy discrepancy, List<Long> duplicateIds) {
+			try {
+				customerLockManager.withCustomerLock(discrepancy.getCustomerId(), () -> {
+					rewardPointsBatchWriter.delete(duplicateIds);
+					customerTransactionService.updateRewardPoints(discrepancy.getCustomerId(), discrepancy.getMonth(),
+							discrepancy.getYear());
+					// The deleted duplicates were not seen by the recompute's delta
+					pointsBalanceService.resync(List.of(discrepancy.getCustomerId()));
+					return null;
+				});
+				report.setRepaired(report.getRepaired() + 1);
+			} catch (Exception e) {
+				log.error("Error occurred while repairing reward points for customerId: {} in {}-{}",
+						discrepancy.getCustomerId(), discrepancy.getMonth(), discrepancy.getYear(), e);
+			}
+		}
+	}
+
+	/**
+	 * Opens a connection for a streaming cursor. The pool rolls back the open
+	 * transaction and restores the connection settings when it is closed.
+	 */
+	private Connection openReadOnly() throws SQLException {
+		Connection connection = dataSource.getConnection();
+		try {
+			// Postgres only streams with a fetch size when autocommit is off
+			connection.setAutoCommit(false);
+			connection.setReadOnly(true);
+			return connection;
+		} catch (SQLException e) {
+			connection.close();
+			throw e;
+		}
+	}
+
+	private PreparedStatement streamingStatement(Connection connection, String sql) throws SQLException {
+		PreparedStatement statement = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY,
+				ResultSet.CONCUR_READ_ONLY);
+		statement.setFetchSize(fetchSize);
+		return statement;
+	}
+}
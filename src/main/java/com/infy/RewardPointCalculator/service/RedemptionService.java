@@ -0,0 +1,413 @@
+package com.infy.RewardPointCalculator.service;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.infy.RewardPointCalculator.dto.PointsBalance;
+import com.infy.RewardPointCalculator.dto.RedemptionRequestDTO;
+import com.infy.RewardPointCalculator.model.CustomerPointsBalance;
+import com.infy.RewardPointCalculator.model.PointsRedemption;
+import com.infy.RewardPointCalculator.model.PointsRedemption.Status;
+import com.infy.RewardPointCalculator.repository.PointsRedemptionRepository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * This service lets customers spend their reward points. A redemption first
+ * reserves points, which holds them, and is then committed or cancelled. A
+ * reservation that is neither within the configured time expires and its
+ * points are released.
+ *
+ * The balance is the points of all months that have not expired, read from
+ * the running balance row of the customer in customer_points_balance, minus
+ * the reserved and redeemed points kept in points_account. It is the same
+ * balance GET /reward-points/balance reports. Overspending is prevented by the
+ * database: a reservation is a conditional UPDATE of the account row that
+ * only matches while the reserved and redeemed points plus the new
+ * reservation stay within the earned points of the balance row, and every
+ * state change of a redemption is an UPDATE conditional on it still being
+ * RESERVED, so it happens exactly once across threads and nodes.
+ *
+ * A commit spends its points against the oldest months that still have
+ * points left, and records them in the redeemed_points of those months. The
+ * expiry of a month only takes its points that were not redeemed, so spent
+ * points are never taken back by expiry.
+ *
+ * The earned points can drop while a reservation is open, when a transaction
+ * is deleted or edited or a month expires. A commit therefore checks again
+ * that the redeemed points stay within the earned points, and is refused
+ * otherwise; the reservation then stays open until it is cancelled or
+ * expires. A transaction deleted or edited after its points were redeemed can
+ * still leave the balance below zero, which the available points report as
+ * zero.
+ *
+ * In front of the database every node keeps an atomic counter per customer
+ * with the points it believes are available. A reservation first takes its
+ * points from the counter with a compare-and-set, so requests that cannot
+ * succeed are refused without a database round trip. The counters are only an
+ * admission filter: a counter that is too low is reloaded before refusing,
+ * and one that is too high is corrected when the database refuses.
+ *
+ * @author rifat.bano
+ */
+@Service
+public class RedemptionService {
+
+	private static final Logger log = LoggerFactory.getLogger(RedemptionService.class);
+
+	private static final String ENSURE_ACCOUNT_SQL = "INSERT INTO points_account "
+			+ "(customer_id, reserved_points, redeemed_points, updated_at) SELECT ?, 0, 0, ? "
+			+ "WHERE NOT EXISTS (SELECT 1 FROM points_account WHERE customer_id = ?)";
+	private static final String EARNED_SQL = "SELECT points - expired_points FROM customer_points_balance "
+			+ "WHERE customer_id = ?";
+	private static final String RESERVE_SQL = "UPDATE points_account SET reserved_points = reserved_points + ?, "
+			+ "updated_at = ? WHERE customer_id = ? AND reserved_points + redeemed_points + ? <= (" + EARNED_SQL + ")";
+	private static final String INSERT_REDEMPTION_SQL = "INSERT INTO points_redemption "
+			+ "(customer_id, points, status, reference, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?)";
+	private static final String REDEMPTION_SQL = "SELECT points, status, reference, created_at, updated_at "
+			+ "FROM points_redemption WHERE id = ? AND customer_id = ?";
+	private static final String TRANSITION_SQL = "UPDATE points_redemption SET status = ?, updated_at = ? "
+			+ "WHERE id = ? AND customer_id = ? AND status = 'RESERVED'";
+	private static final String RELEASE_SQL = "UPDATE points_account SET reserved_points = reserved_points - ?, "
+			+ "updated_at = ? WHERE customer_id = ?";
+	private static final String COMMIT_SQL = "UPDATE points_account SET reserved_points = reserved_points - ?, "
+			+ "redeemed_points = redeemed_points + ?, updated_at = ? WHERE customer_id = ? "
+			+ "AND redeemed_points + ? <= (" + EARNED_SQL + ")";
+	private static final String UNREDEEMED_MONTHS_SQL = "SELECT id, points - expired_points - redeemed_points "
+			+ "FROM reward_points WHERE customer_id = ? AND points - expired_points - redeemed_points > 0 "
+			+ "ORDER BY year, month FOR UPDATE";
+	private static final String REDEEM_MONTH_SQL = "UPDATE reward_points SET redeemed_points = redeemed_points + ?, "
+			+ "version = COALESCE(version, 0) + 1 WHERE id = ?";
+	private static final String STALE_RESERVATIONS_SQL = "SELECT id, customer_id FROM points_redemption "
+			+ "WHERE status = 'RESERVED' AND created_at < ? ORDER BY id LIMIT ?";
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Autowired
+	private PointsRedemptionRepository pointsRedemptionRepository;
+
+	@Autowired
+	private PointsBalanceService pointsBalanceService;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Value("${rewards.redemption.reservation-ttl-seconds:900}")
+	private long reservationTtlSeconds;
+
+	@Value("${rewards.redemption.cached-balances:100000}")
+	private int cachedBalances;
+
+	@Value("${rewards.redemption.expiry-batch-size:500}")
+	private int expiryBatchSize;
+
+	private final ConcurrentHashMap<Long, AtomicLong> balances = new ConcurrentHashMap<>();
+	private TransactionTemplate writeTemplate;
+
+	@PostConstruct
+	public void init() {
+		writeTemplate = new TransactionTemplate(transactionManager);
+	}
+
+	/**
+	 * Reserves points of a customer.
+	 *
+	 * @param customerId The ID of the customer.
+	 * @param request    The points to reserve and an optional reference.
+	 * @return The reservation.
+	 * @throws ResponseStatusException With 400 if the points are not positive,
+	 *                                 or 409 if the customer does not have
+	 *                                 enough points available.
+	 */
+	public PointsRedemption reserve(Long customerId, RedemptionRequestDTO request) {
+		if (request.getPoints() == null || request.getPoints() <= 0) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Points must be greater than zero");
+		}
+		int points = request.getPoints();
+
+		AtomicLong balance = balanceOf(customerId);
+		if (!take(balance, points)) {
+			// The counter may be behind points earned since it was loaded
+			balance.set(loadAvailable(customerId));
+			if (!take(balance, points)) {
+				count("rejected");
+				throw new ResponseStatusException(HttpStatus.CONFLICT, "Not enough points available");
+			}
+		}
+
+		LocalDateTime now = LocalDateTime.now();
+		Long id;
+		try {
+			id = writeTemplate.execute(status -> {
+				if (jdbcTemplate.update(RESERVE_SQL, points, Timestamp.valueOf(now), customerId, points,
+						customerId) == 0) {
+					return null;
+				}
+				pointsBalanceService.touch(customerId);
+				return insertRedemption(customerId, points, request.getReference(), now);
+			});
+		} catch (RuntimeException e) {
+			balance.addAndGet(points);
+			throw e;
+		}
+		if (id == null) {
+			// Another node spent the points, or some expired
+			balance.set(loadAvailable(customerId));
+			count("rejected");
+			throw new ResponseStatusException(HttpStatus.CONFLICT, "Not enough points available");
+		}
+		count("reserved");
+		log.info("Reserved {} points for customerId: {} in redemption {}", points, customerId, id);
+		return new PointsRedemption(id, customerId, points, Status.RESERVED, request.getReference(), now, now);
+	}
+
+	/**
+	 * Commits a reservation, which spends its points for good. Committing a
+	 * committed redemption again returns it unchanged.
+	 *
+	 * @param customerId   The ID of the customer.
+	 * @param redemptionId The ID of the redemption.
+	 * @return The committed redemption.
+	 * @throws ResponseStatusException With 404 if the customer has no such
+	 *                                 redemption, or 409 if it was cancelled or
+	 *                                 expired, or if the customer no longer
+	 *                                 earned enough points to spend it.
+	 */
+	public PointsRedemption commit(Long customerId, Long redemptionId) {
+		return transition(customerId, redemptionId, Status.COMMITTED);
+	}
+
+	/**
+	 * Cancels a reservation, which releases its points. Cancelling a cancelled
+	 * redemption again returns it unchanged.
+	 *
+	 * @param customerId   The ID of the customer.
+	 * @param redemptionId The ID of the redemption.
+	 * @return The cancelled redemption.
+	 * @throws ResponseStatusException With 404 if the customer has no such
+	 *                                 redemption, or 409 if it was committed or
+	 *                                 expired.
+	 */
+	public PointsRedemption cancel(Long customerId, Long redemptionId) {
+		return transition(customerId, redemptionId, Status.CANCELLED);
+	}
+
+	/**
+	 * @param customerId The ID of the customer.
+	 * @return The latest redemptions of the customer, newest first.
+	 */
+	public List<PointsRedemption> getRedemptions(Long customerId) {
+		return pointsRedemptionRepository.findTop100ByCustomerIdOrderByIdDesc(customerId);
+	}
+
+	/**
+	 * @param customerId The ID of the customer.
+	 * @return The points balance of the customer, from its running balance.
+	 */
+	public PointsBalance getBalance(Long customerId) {
+		CustomerPointsBalance balance = pointsBalanceService.getBalance(customerId);
+		return new PointsBalance(customerId, balance.getEarnedPoints(), balance.getReservedPoints(),
+				balance.getRedeemedPoints());
+	}
+
+	/**
+	 * Releases the points of reservations that were neither committed nor
+	 * cancelled in time.
+	 */
+	@Scheduled(initialDelayString = "${rewards.redemption.expiry-interval-ms:60000}",
+			fixedDelayString = "${rewards.redemption.expiry-interval-ms:60000}")
+	public void expireReservations() {
+		try {
+			Timestamp cutoff = Timestamp.valueOf(LocalDateTime.now().minusSeconds(reservationTtlSeconds));
+			List<long[]> stale = jdbcTemplate.query(STALE_RESERVATIONS_SQL,
+					(resultSet, rowNum) -> new long[] { resultSet.getLong(1), resultSet.getLong(2) }, cutoff,
+					expiryBatchSize);
+			int expired = 0;
+			for (long[] reservation : stale) {
+				try {
+					if (transition(reservation[1], reservation[0], Status.EXPIRED).getStatus() == Status.EXPIRED) {
+						expired++;
+					}
+				} catch (ResponseStatusException e) {
+					// Committed or cancelled concurrently
+				}
+			}
+			if (expired > 0) {
+				log.info("Expired {} points reservations older than {} seconds", expired, reservationTtlSeconds);
+			}
+		} catch (Exception e) {
+			log.error("Error occurred while expiring points reservations", e);
+		}
+	}
+
+	/**
+	 * Moves a reservation to its final state and adjusts the account in the same
+	 * transaction. Only the caller whose conditional update matched adjusts the
+	 * account, so a concurrent commit and cancel of the same reservation cannot
+	 * both take effect.
+	 */
+	private PointsRedemption transition(Long customerId, Long redemptionId, Status target) {
+		LocalDateTime now = LocalDateTime.now();
+		boolean[] changed = new boolean[1];
+		PointsRedemption redemption = writeTemplate.execute(status -> {
+			PointsRedemption current = findRedemption(customerId, redemptionId);
+			if (current.getStatus() != Status.RESERVED) {
+				return current;
+			}
+			if (jdbcTemplate.update(TRANSITION_SQL, target.name(), Timestamp.valueOf(now), redemptionId,
+					customerId) == 0) {
+				// Changed since it was read
+				return findRedemption(customerId, redemptionId);
+			}
+			if (target == Status.COMMITTED) {
+				if (jdbcTemplate.update(COMMIT_SQL, current.getPoints(), current.getPoints(), Timestamp.valueOf(now),
+						customerId, current.getPoints(), customerId) == 0) {
+					// Rolls back the transition, the reservation stays open
+					throw new ResponseStatusException(HttpStatus.CONFLICT, "Not enough points earned to commit");
+				}
+				redeemFromMonths(customerId, current.getPoints());
+			} else {
+				jdbcTemplate.update(RELEASE_SQL, current.getPoints(), Timestamp.valueOf(now), customerId);
+			}
+			pointsBalanceService.touch(customerId);
+			current.setStatus(target);
+			current.setUpdatedAt(now);
+			changed[0] = true;
+			return current;
+		});
+
+		if (changed[0]) {
+			if (target != Status.COMMITTED) {
+				AtomicLong balance = balances.get(customerId);
+				if (balance != null) {
+					balance.addAndGet(redemption.getPoints());
+				}
+			}
+			count(target.name().toLowerCase());
+			log.info("Redemption {} of customerId: {} {}", redemptionId, customerId, target);
+			return redemption;
+		}
+		if (redemption.getStatus() == target) {
+			return redemption;
+		}
+		throw new ResponseStatusException(HttpStatus.CONFLICT,
+				"Redemption " + redemptionId + " is already " + redemption.getStatus());
+	}
+
+	/**
+	 * Spends committed points against the oldest months of the customer that
+	 * still have points left. The version of every changed month is incremented,
+	 * so a concurrent accrual that loaded it before is retried.
+	 */
+	private void redeemFromMonths(Long customerId, int points) {
+		List<long[]> months = jdbcTemplate.query(UNREDEEMED_MONTHS_SQL,
+				(resultSet, rowNum) -> new long[] { resultSet.getLong(1), resultSet.getLong(2) }, customerId);
+		long remaining = points;
+		for (long[] month : months) {
+			if (remaining == 0) {
+				break;
+			}
+			long redeemed = Math.min(remaining, month[1]);
+			jdbcTemplate.update(REDEEM_MONTH_SQL, redeemed, month[0]);
+			remaining -= redeemed;
+		}
+	}
+
+	private PointsRedemption findRedemption(Long customerId, Long redemptionId) {
+		try {
+			return jdbcTemplate.queryForObject(REDEMPTION_SQL,
+					(resultSet, rowNum) -> new PointsRedemption(redemptionId, customerId, resultSet.getInt(1),
+							Status.valueOf(resultSet.getString(2)), resultSet.getString(3),
+							resultSet.getTimestamp(4).toLocalDateTime(), resultSet.getTimestamp(5) == null ? null
+									: resultSet.getTimestamp(5).toLocalDateTime()),
+					redemptionId, customerId);
+		} catch (EmptyResultDataAccessException e) {
+			throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Redemption not found");
+		}
+	}
+
+	private Long insertRedemption(Long customerId, int points, String reference, LocalDateTime now) {
+		KeyHolder keyHolder = new GeneratedKeyHolder();
+		jdbcTemplate.update(connection -> {
+			PreparedStatement statement = connection.prepareStatement(INSERT_REDEMPTION_SQL, new String[] { "id" });
+			statement.setLong(1, customerId);
+			statement.setInt(2, points);
+			statement.setString(3, Status.RESERVED.name());
+			statement.setString(4, reference);
+			statement.setTimestamp(5, Timestamp.valueOf(now));
+			statement.setTimestamp(6, Timestamp.valueOf(now));
+			return statement;
+		}, keyHolder);
+		return keyHolder.getKey().longValue();
+	}
+
+	private AtomicLong balanceOf(Long customerId) {
+		AtomicLong balance = balances.get(customerId);
+		if (balance != null) {
+			return balance;
+		}
+		if (balances.size() >= cachedBalances) {
+			// The counters are reloaded on demand, so dropping them all is safe
+			balances.clear();
+		}
+		return balances.computeIfAbsent(customerId, id -> new AtomicLong(loadAvailable(id)));
+	}
+
+	/**
+	 * Takes points from a counter unless that would make it negative.
+	 */
+	private static boolean take(AtomicLong balance, int points) {
+		long available;
+		do {
+			available = balance.get();
+			if (available < points) {
+				return false;
+			}
+		} while (!balance.compareAndSet(available, available - points));
+		return true;
+	}
+
+	/**
+	 * Reads the available points from the balance row, creating the account row
+	 * of the customer on first use. The balance row is created by the read, so
+	 * the conditional updates always find it.
+	 */
+	private long loadAvailable(Long customerId) {
+		try {
+			jdbcTemplate.update(ENSURE_ACCOUNT_SQL, customerId, Timestamp.valueOf(LocalDateTime.now()), customerId);
+		} catch (DuplicateKeyException e) {
+			// Created concurrently
+		}
+		CustomerPointsBalance balance = pointsBalanceService.getCurrentBalance(customerId);
+		return balance.getEarnedPoints() - balance.getReservedPoints() - balance.getRedeemedPoints();
+	}
+
+	private void count(String outcome) {
+		meterRegistry.counter("rewards.redemptions", "outcome", outcome).increment();
+	}
+}
@@ -0,0 +1,142 @@
+package com.infy.RewardPointCalculator.service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.infy.RewardPointCalculator.Util.RewardPointCalculator;
+import com.infy.RewardPointCalculator.ledger.RewardLedger;
+import com.infy.RewardPointCalculator.ledger.RewardLedgerEventType;
+import com.infy.RewardPointCalculator.pipeline.EventHandler;
+import com.infy.RewardPointCalculator.pipeline.RewardEvent;
+import com.infy.RewardPointCalculator.pipeline.RewardEventPipeline;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Aggregation stage of the reward pipeline. It calculates the points of every
+ * published transaction, at the category bonus stored with it, and applies
+ * them per customer-month: all events of one customer-month in a batch are
+ * added to the monthly total in a single locked update, followed by one
+ * recompute of the month.
+ *
+ * If applying fails, the month is recomputed from its transactions, which is
+ * also what corrects a month whose transaction was deleted before its event
+ * was processed.
+ *
+ * @author rifat.bano
+ */
+@Component
+public class RewardAggregationHandler implements EventHandler<RewardEvent> {
+
+	private static final Logger log = LoggerFactory.getLogger(RewardAggregationHandler.class);
+
+	@Autowired
+	private RewardEventPipeline rewardEventPipeline;
+
+	@Autowired
+	private CustomerTransactionService customerTransactionService;
+
+	@Autowired
+	private CustomerLockManager customerLockManager;
+
+	@Autowired
+	private RewardLedger rewardLedger;
+
+	/**
+	 * Changes of one customer-month collected from the current batch.
+	 */
+	private static class MonthlyChange {
+
+		private final long customerId;
+		private final int year;
+		private final int month;
+		private int points;
+		private final List<TransactionPoints> transactions = new ArrayList<>();
+
+		MonthlyChange(long customerId, int year, int month) {
+			this.customerId = customerId;
+			this.year = year;
+			this.month = month;
+		}
+	}
+
+	/**
+	 * Points of one transaction, recorded in the ledger once applied.
+	 */
+	private static class TransactionPoints {
+
+		private final RewardLedgerEventType type;
+		private final long transactionId;
+		private final int points;
+
+		TransactionPoints(RewardLedgerEventType type, long transactionId, int points) {
+			this.type = type;
+			this.transactionId = transactionId;
+			this.points = points;
+		}
+	}
+
+	private final Map<String, MonthlyChange> batch = new LinkedHashMap<>();
+
+	@PostConstruct
+	public void register() {
+		rewardEventPipeline.registerHandler(RewardEventPipeline.Stage.AGGREGATION, this);
+	}
+
+	/**
+	 * Collects the event and applies the collected changes at the end of the
+	 * batch. Only called from the aggregation stage thread.
+	 */
+	@Override
+	public void onEvent(RewardEvent event, long sequence, boolean endOfBatch) {
+		int points = RewardPointCalculator.calculatePoints(event.getAmount(), event.getMultiplierPercent());
+		event.setPoints(points);
+
+		MonthlyChange change = batch.computeIfAbsent(
+				event.getCustomerId() + ":" + event.getYear() + ":" + event.getMonth(),
+				key -> new MonthlyChange(event.getCustomerId(), event.getYear(), event.getMonth()));
+		change.points += points;
+		change.transactions.add(new TransactionPoints(event.getType(), event.getTransactionId(), points));
+
+		if (endOfBatch) {
+			try {
+				batch.values().forEach(this::apply);
+			} finally {
+				batch.clear();
+			}
+		}
+	}
+
+	private void apply(MonthlyChange change) {
+		try {
+			customerLockManager.withCustomerLock(change.customerId, () -> {
+				customerTransactionService.accrueRewardPoints(
+						customerTransactionService.getCustomerById(change.customerId), change.year, change.month,
+						change.points);
+				for (TransactionPoints transaction : change.transactions) {
+					rewardLedger.record(transaction.type, change.customerId, change.year, change.month,
+							transaction.points, transaction.transactionId);
+				}
+				return null;
+			});
+			log.info("Reward points updated for customerId: {} for month: {} and year: {} from {} events",
+					change.customerId, change.month, change.year, change.transactions.size());
+		} catch (Exception e) {
+			log.error("Error occurred while applying reward events for customerId: {} in {}-{}, recomputing",
+					change.customerId, change.month, change.year, e);
+		}
+		try {
+			customerTransactionService.updateRewardPoints(change.customerId, change.month, change.year);
+		} catch (Exception e) {
+			log.error("Error occurred while recomputing reward points for customerId: {} in {}-{}",
+					change.customerId, change.month, change.year, e);
+		}
+	}
+}
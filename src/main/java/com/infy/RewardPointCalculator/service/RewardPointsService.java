@@ -8,6 +8,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
 
+import com.infy.RewardPointCalculator.config.MetricsConfig;
 import com.infy.RewardPointCalculator.model.Customer;
 import com.infy.RewardPointCalculator.model.RewardPoints;
 import com.infy.RewardPointCalculator.repository.CustomerRepository;
@@ -15,15 +16,21 @@ import com.infy.RewardPointCalculator.repository.RewardPointsRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import io.micrometer.core.annotation.Timed;
+
 /**
  * This is RewardPointsService. It has two different methods. First method
  * getRewardPoints gives the total point of that month and year which customer
- * has selected Second method getAllRewardPoints gives total points aggregated
+ * has selected Second method getAllRewardPoints gives total points aggregated.
+ * Both report the expired points of every month next to its points, and the
+ * points still available. Identical concurrent reads share one load through
+ * {@link SingleFlight}.
  * 
  * @author rifat.bano
  */
 
 @Service
+@Timed(value = MetricsConfig.SERVICE_TIMER, histogram = true)
 public class RewardPointsService {
 
 	private static final Logger log = LoggerFactory.getLogger(RewardPointsService.class);
@@ -32,6 +39,10 @@ public class RewardPointsService {
 	private RewardPointsRepository rewardPointsRepository;
 	@Autowired
 	private CustomerRepository customerRepository;
+	@Autowired
+	private SingleFlight singleFlight;
+	@Autowired
+	private PointsBalanceService pointsBalanceService;
 
 	/**
 	 * Retrieves the aggregated reward points for a customer for a given month and
@@ -53,6 +64,13 @@ public class RewardPointsService {
 	 *                                 general errors.
 	 */
 	public RewardPoints getRewardPoints(Long customerId, Integer month, Integer year) {
+		// Keyed by the data version, so a load started before the caller's last write is not shared with it
+		long version = pointsBalanceService.getVersion(customerId);
+		return singleFlight.execute("reward-points", customerId + ":" + month + ":" + year + "@" + version,
+				() -> loadRewardPoints(customerId, month, year));
+	}
+
+	private RewardPoints loadRewardPoints(Long customerId, Integer month, Integer year) {
 		try {
 			log.info("Fetching reward points for customerId: {}, month: {}, year: {}", customerId, month, year);
 
@@ -71,18 +89,21 @@ public class RewardPointsService {
 				return new RewardPoints(null, customer, 0, month, year); // Return zero points if not found
 			}
 
-			// Aggregate the points
+			// Aggregate the points, and the expired points
 			int totalPoints = rewardPointsList.stream().mapToInt(RewardPoints::getPoints).sum();
+			int expiredPoints = rewardPointsList.stream()
+					.mapToInt(rewardPoints -> rewardPoints.getPoints() - rewardPoints.getAvailablePoints()).sum();
 
 			// Prepare aggregated reward points
 			RewardPoints aggregatedRewardPoints = new RewardPoints();
 			aggregatedRewardPoints.setCustomer(customer);
 			aggregatedRewardPoints.setPoints(totalPoints);
+			aggregatedRewardPoints.setExpiredPoints(expiredPoints);
 			aggregatedRewardPoints.setMonth(month);
 			aggregatedRewardPoints.setYear(year);
 
-			log.info("Successfully fetched aggregated reward points for customerId: {}, month: {}, year: {}: {}",
-					customerId, month, year, totalPoints);
+			log.info("Successfully fetched aggregated reward points for customerId: {}, month: {}, year: {}: {} "
+					+ "({} expired)", customerId, month, year, totalPoints, expiredPoints);
 
 			return aggregatedRewardPoints;
 
@@ -114,6 +135,25 @@ public class RewardPointsService {
 	 *                                 errors.
 	 */
 	public List<RewardPoints> getAllRewardPoints(Long customerId) {
+		return getAllRewardPoints(customerId, pointsBalanceService.getVersion(customerId));
+	}
+
+	/**
+	 * Retrieves all reward points for a customer, at least as recent as a data
+	 * version the caller read. Concurrent calls for the same version share one
+	 * load.
+	 *
+	 * @param customerId The ID of the customer.
+	 * @param version    The data version read by the caller, for example to
+	 *                   build the ETag of the response.
+	 * @return A list of `RewardPoints` objects associated with the given customer.
+	 */
+	public List<RewardPoints> getAllRewardPoints(Long customerId, long version) {
+		return singleFlight.execute("all-reward-points", customerId + "@" + version,
+				() -> loadAllRewardPoints(customerId));
+	}
+
+	private List<RewardPoints> loadAllRewardPoints(Long customerId) {
 		try {
 			log.info("Fetching all reward points for customerId: {}", customerId);
 
@@ -0,0 +1,280 @@
+package com.infy.RewardPointCalculator.service;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.infy.RewardPointCalculator.Util.RewardPointCalculator;
+import com.infy.RewardPointCalculator.Util.TieredRewardRule;
+import com.infy.RewardPointCalculator.dto.RewardRuleDTO;
+import com.infy.RewardPointCalculator.dto.RewardSimulationResult;
+import com.infy.RewardPointCalculator.dto.RewardSimulationResult.MonthComparison;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * This service previews how a proposed reward rule would change the points of
+ * a customer, by evaluating the current and the proposed rule side by side
+ * over the customer's whole transaction history. Nothing is written.
+ *
+ * The transactions are read once with a streaming cursor into primitive
+ * arrays (amount and month index per transaction, in date order). Both rules
+ * are then evaluated by a fork-join reduction: the array is split in ranges,
+ * every range sums its points per month into a small array, and the partial
+ * sums are added up pairwise. Classifying the spent details into categories
+ * happens inside the ranges as well, so it runs in parallel.
+ *
+ * @author rifat.bano
+ */
+@Service
+public class RewardSimulationService {
+
+	private static final Logger log = LoggerFactory.getLogger(RewardSimulationService.class);
+
+	private static final String TRANSACTIONS_SQL = "SELECT t.date, t.amount, t.spent_details "
+			+ "FROM customer_transaction t WHERE t.customer_id = ? ORDER BY t.date";
+
+	/** Transactions evaluated by one task without splitting further. */
+	private static final int LEAF_SIZE = 4096;
+
+	@Autowired
+	private DataSource dataSource;
+
+	@Autowired
+	private CategoryMultiplierService categoryMultiplierService;
+
+	@Value("${rewards.simulation.parallelism:4}")
+	private int parallelism;
+
+	@Value("${rewards.simulation.fetch-size:5000}")
+	private int fetchSize;
+
+	@Value("${rewards.simulation.max-transactions:1000000}")
+	private int maxTransactions;
+
+	private ForkJoinPool pool;
+
+	@PostConstruct
+	public void init() {
+		pool = new ForkJoinPool(Math.max(1, parallelism));
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		pool.shutdownNow();
+	}
+
+	/**
+	 * Evaluates the current and the proposed rule over all transactions of a
+	 * customer.
+	 *
+	 * @param customerId The ID of the customer.
+	 * @param rule       The proposed rule.
+	 * @return The points per month under both rules.
+	 * @throws ResponseStatusException If the rule is invalid, or the customer
+	 *                                 has more transactions than a simulation
+	 *                                 may load.
+	 */
+	public RewardSimulationResult simulate(Long customerId, RewardRuleDTO rule) {
+		TieredRewardRule proposed = compile(rule);
+
+		long loadStart = System.nanoTime();
+		TransactionHistory history = load(customerId);
+		long loadMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - loadStart);
+
+		long evaluationStart = System.nanoTime();
+		long[] totals = history.size == 0 ? new long[0]
+				: pool.invoke(new EvaluationTask(history, proposed, rule.isApplyCategoryMultipliers(), 0,
+						history.size));
+		long evaluationMicros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - evaluationStart);
+
+		List<MonthComparison> months = new ArrayList<>(history.monthCount);
+		long currentTotal = 0;
+		long simulatedTotal = 0;
+		for (int index = 0; index < history.monthCount; index++) {
+			int key = history.monthKeys[index];
+			months.add(new MonthComparison(key / 12, key % 12 + 1, totals[2 * index], totals[2 * index + 1]));
+			currentTotal += totals[2 * index];
+			simulatedTotal += totals[2 * index + 1];
+		}
+		log.info("Simulated reward rule for customer {}: {} transactions, {} months, loaded in {} ms, "
+				+ "evaluated in {} us", customerId, history.size, history.monthCount, loadMillis, evaluationMicros);
+		return new RewardSimulationResult(history.size, currentTotal, simulatedTotal, loadMillis, evaluationMicros,
+				months);
+	}
+
+	/**
+	 * Validates a proposed rule and compiles its tiers in threshold order.
+	 *
+	 * @param rule The proposed rule.
+	 * @return The compiled rule.
+	 * @throws ResponseStatusException If the rule has no tiers, a tier without
+	 *                                 threshold or points, or two tiers with the
+	 *                                 same threshold.
+	 */
+	public TieredRewardRule compile(RewardRuleDTO rule) {
+		if (rule == null || rule.getTiers() == null || rule.getTiers().isEmpty()) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "At least one tier is required");
+		}
+		List<RewardRuleDTO.Tier> tiers = new ArrayList<>(rule.getTiers());
+		for (RewardRuleDTO.Tier tier : tiers) {
+			if (tier == null || tier.getAbove() == null || tier.getPointsPerDollar() == null || tier.getAbove() < 0
+					|| tier.getPointsPerDollar() < 0) {
+				throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+						"Every tier needs a threshold and points per dollar, neither negative");
+			}
+		}
+		tiers.sort(Comparator.comparing(RewardRuleDTO.Tier::getAbove));
+		double[] thresholds = new double[tiers.size()];
+		double[] pointsPerDollar = new double[tiers.size()];
+		for (int i = 0; i < tiers.size(); i++) {
+			thresholds[i] = tiers.get(i).getAbove();
+			pointsPerDollar[i] = tiers.get(i).getPointsPerDollar();
+			if (i > 0 && thresholds[i] == thresholds[i - 1]) {
+				throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+						"Two tiers have the same threshold: " + thresholds[i]);
+			}
+		}
+		return new TieredRewardRule(thresholds, pointsPerDollar);
+	}
+
+	private TransactionHistory load(Long customerId) {
+		TransactionHistory history = new TransactionHistory();
+		try (Connection connection = dataSource.getConnection()) {
+			// Postgres only streams with a fetch size when autocommit is off
+			connection.setAutoCommit(false);
+			connection.setReadOnly(true);
+			try (PreparedStatement statement = connection.prepareStatement(TRANSACTIONS_SQL,
+					ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+				statement.setFetchSize(fetchSize);
+				statement.setLong(1, customerId);
+				try (ResultSet transactions = statement.executeQuery()) {
+					while (transactions.next()) {
+						if (history.size == maxTransactions) {
+							throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE,
+									"Customer has more than " + maxTransactions + " transactions to simulate");
+						}
+						LocalDate date = transactions.getDate(1).toLocalDate();
+						history.add(date.getYear() * 12 + date.getMonthValue() - 1, transactions.getDouble(2),
+								transactions.getString(3));
+					}
+				}
+			} finally {
+				connection.rollback();
+			}
+		} catch (SQLException e) {
+			throw new IllegalStateException("Unable to load transactions of customer " + customerId, e);
+		}
+		return history;
+	}
+
+	/**
+	 * The transactions of one customer in date order, in parallel arrays. Month
+	 * indexes point into {@code monthKeys} (year * 12 + month - 1), which is
+	 * ascending because the transactions are.
+	 */
+	private static class TransactionHistory {
+
+		private double[] amounts = new double[256];
+		private int[] monthIndexes = new int[256];
+		private String[] spentDetails = new String[256];
+		private int size;
+
+		private int[] monthKeys = new int[16];
+		private int monthCount;
+
+		void add(int monthKey, double amount, String details) {
+			if (monthCount == 0 || monthKeys[monthCount - 1] != monthKey) {
+				if (monthCount == monthKeys.length) {
+					monthKeys = Arrays.copyOf(monthKeys, monthCount * 2);
+				}
+				monthKeys[monthCount++] = monthKey;
+			}
+			if (size == amounts.length) {
+				amounts = Arrays.copyOf(amounts, size * 2);
+				monthIndexes = Arrays.copyOf(monthIndexes, size * 2);
+				spentDetails = Arrays.copyOf(spentDetails, size * 2);
+			}
+			amounts[size] = amount;
+			monthIndexes[size] = monthCount - 1;
+			spentDetails[size] = details;
+			size++;
+		}
+	}
+
+	/**
+	 * Sums the points of a range of transactions per month under both rules.
+	 * The result holds the current points of month index i at 2i and the
+	 * simulated points at 2i + 1.
+	 */
+	private class EvaluationTask extends RecursiveTask<long[]> {
+
+		private static final long serialVersionUID = 1L;
+
+		private final transient TransactionHistory history;
+		private final transient TieredRewardRule proposed;
+		private final boolean applyCategoryMultipliers;
+		private final int from;
+		private final int to;
+
+		EvaluationTask(TransactionHistory history, TieredRewardRule proposed, boolean applyCategoryMultipliers,
+				int from, int to) {
+			this.history = history;
+			this.proposed = proposed;
+			this.applyCategoryMultipliers = applyCategoryMultipliers;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected long[] compute() {
+			if (to - from <= LEAF_SIZE) {
+				return evaluate();
+			}
+			int middle = (from + to) >>> 1;
+			EvaluationTask left = new EvaluationTask(history, proposed, applyCategoryMultipliers, from, middle);
+			left.fork();
+			long[] sums = new EvaluationTask(history, proposed, applyCategoryMultipliers, middle, to).compute();
+			long[] leftSums = left.join();
+			// Both halves are sized by the month count, so they add up index by index
+			for (int i = 0; i < sums.length; i++) {
+				sums[i] += leftSums[i];
+			}
+			return sums;
+		}
+
+		private long[] evaluate() {
+			long[] sums = new long[2 * history.monthCount];
+			double[] amounts = history.amounts;
+			int[] monthIndexes = history.monthIndexes;
+			for (int i = from; i < to; i++) {
+				int multiplierPercent = categoryMultiplierService.multiplierPercent(history.spentDetails[i]);
+				int month = 2 * monthIndexes[i];
+				sums[month] += RewardPointCalculator.calculatePoints(amounts[i], multiplierPercent);
+				sums[month + 1] += applyCategoryMultipliers ? proposed.calculatePoints(amounts[i], multiplierPercent)
+						: proposed.calculatePoints(amounts[i]);
+			}
+			return sums;
+		}
+	}
+}
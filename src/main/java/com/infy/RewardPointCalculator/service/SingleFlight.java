@@ -0,0 +1,148 @@
+package com.infy.RewardPointCalculator.service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Coalesces identical concurrent reads into one load inside this JVM.
+ *
+ * The first caller for a key becomes the leader and runs the load on its own
+ * thread. Callers arriving with the same key while the load runs wait for its
+ * outcome instead of running their own: they get the same result object, or
+ * the same exception. A follower waits at most the configured timeout and
+ * then fails with 504, the leader's load is not interrupted. The key is
+ * released before the outcome is handed out, so a caller arriving after the
+ * load finished starts a fresh one.
+ *
+ * A follower gets the result of a load that may have started before its own
+ * request, and before a write it already saw. Callers that must see their
+ * writes, or that tag the result with a data version, put that version into
+ * the key: a load is then only shared by callers that saw the same version,
+ * and a caller that saw a newer one starts its own load.
+ *
+ * Shared results are handed to several threads, so callers must not modify
+ * them. The number of callers served per load is published as the coalescing
+ * factor.
+ *
+ * @author rifat.bano
+ */
+@Component
+public class SingleFlight {
+
+	private static final Logger log = LoggerFactory.getLogger(SingleFlight.class);
+
+	private final ConcurrentHashMap<String, Flight> flights = new ConcurrentHashMap<>();
+	private final long timeoutMillis;
+	private final MeterRegistry meterRegistry;
+
+	/**
+	 * A load in progress and the number of callers waiting for it.
+	 */
+	private static class Flight {
+
+		private final CompletableFuture<Object> outcome = new CompletableFuture<>();
+		private final AtomicInteger followers = new AtomicInteger();
+	}
+
+	/**
+	 * Creates the coalescer.
+	 *
+	 * @param timeoutMillis How long a follower waits for the leader's load.
+	 * @param meterRegistry The registry the coalescing metrics are published to.
+	 */
+	@Autowired
+	public SingleFlight(@Value("${rewards.singleflight.timeout-ms:5000}") long timeoutMillis,
+			MeterRegistry meterRegistry) {
+		this.timeoutMillis = timeoutMillis;
+		this.meterRegistry = meterRegistry;
+	}
+
+	/**
+	 * Runs the load, or joins the identical load already running.
+	 *
+	 * @param group  The kind of read, used as metric tag, for example
+	 *               "reward-points".
+	 * @param key    The arguments identifying the read within the group.
+	 * @param loader The load to run if none is running for the key.
+	 * @return The result of the load.
+	 * @throws ResponseStatusException With 504 if a follower waited longer than
+	 *                                 the timeout. Any exception of the load is
+	 *                                 rethrown to the leader and all followers.
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> T execute(String group, String key, Supplier<T> loader) {
+		Flight flight = new Flight();
+		Flight running = flights.putIfAbsent(group + ":" + key, flight);
+		if (running != null) {
+			return (T) follow(group, key, running);
+		}
+
+		counter(group, "leader").increment();
+		try {
+			T result;
+			try {
+				result = loader.get();
+			} finally {
+				flights.remove(group + ":" + key, flight);
+			}
+			flight.outcome.complete(result);
+			return result;
+		} catch (RuntimeException | Error e) {
+			flight.outcome.completeExceptionally(e);
+			throw e;
+		} finally {
+			DistributionSummary.builder("rewards.singleflight.callers").tag("group", group)
+					.description("Callers served by one load").register(meterRegistry)
+					.record(1 + flight.followers.get());
+		}
+	}
+
+	/**
+	 * @return The number of loads currently running.
+	 */
+	public int inFlight() {
+		return flights.size();
+	}
+
+	private Object follow(String group, String key, Flight running) {
+		running.followers.incrementAndGet();
+		counter(group, "follower").increment();
+		try {
+			return running.outcome.get(timeoutMillis, TimeUnit.MILLISECONDS);
+		} catch (TimeoutException e) {
+			counter(group, "timeout").increment();
+			log.warn("Timed out after {} ms waiting for the {} load of {}", timeoutMillis, group, key);
+			throw new ResponseStatusException(HttpStatus.GATEWAY_TIMEOUT, "Timed out waiting for " + group);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException cause) {
+				throw cause;
+			}
+			throw (Error) e.getCause();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Interrupted waiting for " + group);
+		}
+	}
+
+	private Counter counter(String group, String role) {
+		return Counter.builder("rewards.singleflight.calls").tag("group", group).tag("role", role)
+				.description("Coalesced reads by role").register(meterRegistry);
+	}
+}
@@ -0,0 +1,739 @@
+package com.infy.RewardPointCalculator.service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+import javax.sql.DataSource;
+
+import org.postgresql.copy.CopyIn;
+import org.postgresql.copy.CopyManager;
+import org.postgresql.core.BaseConnection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.infy.RewardPointCalculator.Util.RewardPointCalculator;
+import com.infy.RewardPointCalculator.dto.ImportJobStatus;
+import com.infy.RewardPointCalculator.importer.CopyBuffer;
+import com.infy.RewardPointCalculator.importer.MonthlyDeltas;
+import com.infy.RewardPointCalculator.importer.ParsedTransaction;
+import com.infy.RewardPointCalculator.importer.TransactionFileParser;
+import com.infy.RewardPointCalculator.ledger.RewardLedger;
+import com.infy.RewardPointCalculator.ledger.RewardLedgerEventType;
+import com.infy.RewardPointCalculator.model.ImportCheckpoint;
+import com.infy.RewardPointCalculator.repository.ImportCheckpointRepository;
+import com.infy.RewardPointCalculator.repository.RewardPointsBatchWriter;
+import com.infy.RewardPointCalculator.repository.RewardPointsBatchWriter.MonthlyTotal;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * This service imports the nightly transaction files of merchants, with
+ * millions of transactions each, instead of adding them one by one.
+ *
+ * The file is split into chunks that end at line boundaries (see
+ * {@link TransactionFileParser}), which are processed in parallel in a
+ * fork-join pool. Each chunk is memory-mapped and parsed in place, and every
+ * valid line is streamed into customer_transaction with COPY on PostgreSQL, or
+ * with JDBC batches on other databases. While the chunk is parsed, the reward
+ * points of its transactions are summed per customer and month. The sums are
+ * then added to reward_points in one batched pass, the points balances of the
+ * customers are resynced and the chunk is marked done, all in the database
+ * transaction of the COPY. An import interrupted by a crash can therefore be
+ * resumed, and only the chunks not done yet are imported again.
+ *
+ * The COPY of the chunks runs in parallel, but only one chunk at a time adds
+ * its sums, from then until it commits, so two chunks never both insert the
+ * first row of the same month. Before adding them, the chunk also takes the
+ * customer-month advisory locks of all its months (see
+ * {@link AdvisoryLockService#lockMonths(long[])}), so a transaction added
+ * through the API on another node cannot insert the first row of one of those
+ * months at the same time and split it across two rows. The sums are added
+ * rather than replacing the totals, and every changed row gets a new version,
+ * so transactions added through the API meanwhile are retried on the new
+ * totals.
+ *
+ * Lines that break a rule of CustomerTransactionDTO, or name a customer that
+ * did not exist when the import started, are rejected. They are written to a
+ * report with their byte offset and the reason, once the import completes.
+ *
+ * Only files inside the import directory can be imported, named relative to
+ * it. Absolute paths, parent references and links leading out of the
+ * directory are rejected, so the endpoint cannot be used to read other files
+ * of the server.
+ *
+ * @author rifat.bano
+ */
+@Service
+public class TransactionImportService {
+
+	private static final Logger log = LoggerFactory.getLogger(TransactionImportService.class);
+
+	private static final String CUSTOMER_IDS_SQL = "SELECT id FROM customer ORDER BY id";
+	private static final String COPY_SQL = "COPY customer_transaction "
+			+ "(customer_id, amount, spent_details, date, version, multiplier_percent) FROM STDIN WITH (FORMAT csv)";
+	private static final String INSERT_SQL = "INSERT INTO customer_transaction "
+			+ "(customer_id, amount, spent_details, date, version, multiplier_percent) VALUES (?, ?, ?, ?, 0, ?)";
+	private static final String UNKNOWN_CUSTOMER = "Customer not found";
+	private static final String REJECT_HEADER = "offset,reason,line\n";
+	private static final int COPY_FLUSH_BYTES = 1 << 20;
+	private static final long PROGRESS_LOG_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+	@Autowired
+	private DataSource dataSource;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Autowired
+	private ImportCheckpointRepository checkpointRepository;
+
+	@Autowired
+	private RewardPointsBatchWriter rewardPointsBatchWriter;
+
+	@Autowired
+	private RewardLedger rewardLedger;
+
+	@Autowired
+	private PointsExpiryService pointsExpiryService;
+
+	@Autowired
+	private CategoryMultiplierService categoryMultiplierService;
+
+	@Autowired
+	private PointsBalanceService pointsBalanceService;
+
+	@Autowired
+	private AdvisoryLockService advisoryLockService;
+
+	@Value("${rewards.import.chunk-bytes:67108864}")
+	private long chunkBytes;
+
+	@Value("${rewards.import.parallelism:4}")
+	private int parallelism;
+
+	@Value("${rewards.import.batch-size:5000}")
+	private int batchSize;
+
+	@Value("${rewards.import.reject-dir:data/imports/rejects}")
+	private String rejectDir;
+
+	@Value("${rewards.import.dir:data/imports/incoming}")
+	private String importDir;
+
+	private TransactionTemplate writeTemplate;
+	private ForkJoinPool pool;
+	private final ReentrantLock deltaLock = new ReentrantLock();
+
+	private volatile ImportRun currentRun;
+
+	/**
+	 * State of an import while it runs on this node.
+	 */
+	private static class ImportRun {
+
+		private final String jobId;
+		private final AtomicReferenceArray<ImportCheckpoint> chunks;
+		private final long totalBytes;
+		private final long startNanos = System.nanoTime();
+		private final AtomicLong bytes = new AtomicLong();
+		private final AtomicLong bytesThisRun = new AtomicLong();
+		private final AtomicLong rows = new AtomicLong();
+		private final AtomicLong rowsThisRun = new AtomicLong();
+		private final AtomicLong rejected = new AtomicLong();
+		private final AtomicLong months = new AtomicLong();
+		private FileChannel channel;
+		private long[] customerIds;
+		private boolean postgres;
+		private volatile String rejectReport;
+		private volatile boolean finished;
+		private volatile long finishedNanos;
+		private volatile long lastLogNanos = System.nanoTime();
+
+		ImportRun(String jobId, List<ImportCheckpoint> checkpoints) {
+			this.jobId = jobId;
+			this.chunks = new AtomicReferenceArray<>(checkpoints.toArray(new ImportCheckpoint[0]));
+			this.totalBytes = checkpoints.isEmpty() ? 0 : checkpoints.get(0).getFileSize();
+			for (ImportCheckpoint checkpoint : checkpoints) {
+				if (checkpoint.getStatus() == ImportCheckpoint.Status.DONE) {
+					bytes.addAndGet(checkpoint.getRangeEnd() - checkpoint.getRangeStart());
+					rows.addAndGet(checkpoint.getRowsImported());
+					rejected.addAndGet(checkpoint.getRowsRejected());
+					months.addAndGet(checkpoint.getMonthsUpdated());
+				}
+			}
+		}
+
+		private String fileName() {
+			return chunks.length() == 0 ? null : chunks.get(0).getFileName();
+		}
+	}
+
+	@PostConstruct
+	public void init() {
+		writeTemplate = new TransactionTemplate(transactionManager);
+		writeTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+		pool = new ForkJoinPool(parallelism);
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		pool.shutdownNow();
+	}
+
+	/**
+	 * Starts importing a transaction file.
+	 *
+	 * @param file The name of the file, relative to the import directory.
+	 * @return The status of the started import.
+	 * @throws ResponseStatusException If an import is already running, or the
+	 *                                 file is outside the import directory,
+	 *                                 cannot be read or is empty.
+	 */
+	public synchronized ImportJobStatus start(String file) {
+		ensureNotRunning();
+		Path path = resolveImportFile(file);
+		String jobId = UUID.randomUUID().toString();
+		List<ImportCheckpoint> checkpoints = new ArrayList<>();
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			long modified = Files.getLastModifiedTime(path).toMillis();
+			for (TransactionFileParser.Chunk chunk : TransactionFileParser.split(channel, chunkBytes)) {
+				checkpoints.add(new ImportCheckpoint(jobId, path.toString(), channel.size(), modified, chunk.index(),
+						chunk.start(), chunk.end()));
+			}
+		} catch (IOException e) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "The file cannot be read: " + path, e);
+		}
+		if (checkpoints.isEmpty()) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "The file is empty: " + path);
+		}
+		checkpoints = checkpointRepository.saveAll(checkpoints);
+		log.info("Starting transaction import {} of {} with {} chunks", jobId, path, checkpoints.size());
+		return launch(jobId, checkpoints);
+	}
+
+	/**
+	 * Resumes the latest import with the chunks not done yet.
+	 *
+	 * @return The status of the resumed import.
+	 * @throws ResponseStatusException If an import is already running, no import
+	 *                                 exists, the latest import already completed
+	 *                                 or its file changed since it started.
+	 */
+	public synchronized ImportJobStatus resume() {
+		ensureNotRunning();
+		String jobId = checkpointRepository.findTopByOrderByIdDesc()
+				.orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "No import to resume"))
+				.getJobId();
+		List<ImportCheckpoint> checkpoints = checkpointRepository.findByJobIdOrderByChunkIndex(jobId);
+		if (checkpoints.stream().allMatch(checkpoint -> checkpoint.getStatus() == ImportCheckpoint.Status.DONE)) {
+			throw new ResponseStatusException(HttpStatus.CONFLICT, "The latest import already completed");
+		}
+		ImportCheckpoint first = checkpoints.get(0);
+		Path path = Path.of(first.getFileName());
+		try {
+			if (!path.toRealPath().startsWith(importRoot())) {
+				throw new ResponseStatusException(HttpStatus.CONFLICT, "The file is not in the import directory");
+			}
+			if (Files.size(path) != first.getFileSize()
+					|| Files.getLastModifiedTime(path).toMillis() != first.getFileModified()) {
+				throw new ResponseStatusException(HttpStatus.CONFLICT, "The file changed since the import started");
+			}
+		} catch (IOException e) {
+			throw new ResponseStatusException(HttpStatus.CONFLICT, "The file cannot be read: " + path, e);
+		}
+		log.info("Resuming transaction import {} of {}", jobId, path);
+		return launch(jobId, checkpoints);
+	}
+
+	/**
+	 * @return The progress of the import running on this node, or of the latest
+	 *         import stored if none is running here.
+	 */
+	public ImportJobStatus getStatus() {
+		ImportRun run = currentRun;
+		if (run != null) {
+			return status(run);
+		}
+		return checkpointRepository.findTopByOrderByIdDesc().map(latest -> {
+			ImportRun stored = new ImportRun(latest.getJobId(),
+					checkpointRepository.findByJobIdOrderByChunkIndex(latest.getJobId()));
+			stored.finished = true;
+			stored.finishedNanos = stored.startNanos;
+			Path report = reportPath(stored.jobId);
+			stored.rejectReport = Files.exists(report) ? report.toString() : null;
+			return status(stored);
+		}).orElseGet(() -> {
+			ImportJobStatus status = new ImportJobStatus();
+			status.setState("IDLE");
+			return status;
+		});
+	}
+
+	/**
+	 * Resolves a file name against the import directory, following links, and
+	 * rejects names leading out of it.
+	 */
+	private Path resolveImportFile(String file) {
+		Path name;
+		try {
+			name = Path.of(file);
+		} catch (InvalidPathException e) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid file name: " + file);
+		}
+		if (file.isBlank() || name.isAbsolute() || name.getRoot() != null) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "The file must be named relative to the "
+					+ "import directory: " + file);
+		}
+		for (Path element : name) {
+			if (element.toString().equals("..")) {
+				throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid file name: " + file);
+			}
+		}
+		try {
+			Path root = importRoot();
+			Path path = root.resolve(name).toRealPath();
+			if (!path.startsWith(root) || !Files.isRegularFile(path) || !Files.isReadable(path)) {
+				throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "The file cannot be read: " + file);
+			}
+			return path;
+		} catch (IOException e) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "The file cannot be read: " + file, e);
+		}
+	}
+
+	private Path importRoot() throws IOException {
+		Path root = Path.of(importDir).toAbsolutePath();
+		Files.createDirectories(root);
+		return root.toRealPath();
+	}
+
+	private void ensureNotRunning() {
+		ImportRun run = currentRun;
+		if (run != null && !run.finished) {
+			throw new ResponseStatusException(HttpStatus.CONFLICT, "An import is already running");
+		}
+	}
+
+	private ImportJobStatus launch(String jobId, List<ImportCheckpoint> checkpoints) {
+		ImportRun run = new ImportRun(jobId, checkpoints);
+		try {
+			run.channel = FileChannel.open(Path.of(run.fileName()), StandardOpenOption.READ);
+		} catch (IOException e) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "The file cannot be read: " + run.fileName(),
+					e);
+		}
+		run.customerIds = loadCustomerIds();
+		run.postgres = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> connection.getMetaData()
+				.getDatabaseProductName().equalsIgnoreCase("PostgreSQL"));
+		currentRun = run;
+
+		List<ForkJoinTask<?>> tasks = new ArrayList<>();
+		for (int i = 0; i < checkpoints.size(); i++) {
+			if (checkpoints.get(i).getStatus() != ImportCheckpoint.Status.DONE) {
+				int index = i;
+				tasks.add(ForkJoinTask.adapt(() -> runChunk(run, index)));
+			}
+		}
+		pool.execute(() -> {
+			try {
+				ForkJoinTask.invokeAll(tasks);
+			} finally {
+				closeQuietly(run);
+				if (isCompleted(run)) {
+					writeRejectReport(run);
+				}
+				run.finishedNanos = System.nanoTime();
+				run.finished = true;
+				ImportJobStatus status = status(run);
+				log.info("Transaction import {} finished: {}, {} rows imported, {} rejected in {} s", jobId,
+						status.getState(), status.getRowsImported(), status.getRowsRejected(),
+						status.getElapsedSeconds());
+			}
+		});
+		return status(run);
+	}
+
+	/**
+	 * Imports one chunk in one database transaction.
+	 */
+	private void runChunk(ImportRun run, int index) {
+		ImportCheckpoint checkpoint = run.chunks.get(index);
+		try {
+			checkpoint.setStatus(ImportCheckpoint.Status.RUNNING);
+			run.chunks.set(index, checkpointRepository.save(checkpoint));
+
+			ChunkImport chunkImport = new ChunkImport(run, index);
+			try {
+				writeTemplate.executeWithoutResult(transactionStatus -> chunkImport.run());
+			} finally {
+				if (deltaLock.isHeldByCurrentThread()) {
+					deltaLock.unlock();
+				}
+			}
+			for (MonthlyTotal delta : chunkImport.deltas) {
+				rewardLedger.record(RewardLedgerEventType.ACCRUAL, delta.getCustomerId(), delta.getYear(),
+						delta.getMonth(), delta.getPoints(), null);
+			}
+
+			checkpoint = run.chunks.get(index);
+			long chunkSize = checkpoint.getRangeEnd() - checkpoint.getRangeStart();
+			run.bytes.addAndGet(chunkSize);
+			run.bytesThisRun.addAndGet(chunkSize);
+			run.rows.addAndGet(checkpoint.getRowsImported());
+			run.rowsThisRun.addAndGet(checkpoint.getRowsImported());
+			run.rejected.addAndGet(checkpoint.getRowsRejected());
+			run.months.addAndGet(checkpoint.getMonthsUpdated());
+			logProgress(run);
+		} catch (Exception e) {
+			log.error("Error occurred in chunk {} of transaction import {}", index, run.jobId, e);
+			try {
+				// Reload, the copy in memory may hold a checkpoint that was rolled back
+				checkpoint = checkpointRepository.findById(run.chunks.get(index).getId())
+						.orElse(run.chunks.get(index));
+				checkpoint.setStatus(ImportCheckpoint.Status.FAILED);
+				run.chunks.set(index, checkpointRepository.save(checkpoint));
+			} catch (Exception saveFailure) {
+				log.error("Error occurred while marking chunk {} of transaction import {} as failed", index,
+						run.jobId, saveFailure);
+			}
+		}
+	}
+
+	/**
+	 * Parses one chunk, writes its valid lines and rejects, and adds its reward
+	 * points. Runs inside the chunk's database transaction.
+	 */
+	private class ChunkImport implements TransactionFileParser.LineHandler {
+
+		private final ImportRun run;
+		private final int index;
+		private final MonthlyDeltas monthlyDeltas = new MonthlyDeltas();
+		private final CopyBuffer rejectBuffer = new CopyBuffer(4096);
+		private final List<MonthlyTotal> deltas = new ArrayList<>();
+		private RowWriter writer;
+		private OutputStream rejects;
+		private long imported;
+		private long rejected;
+
+		ChunkImport(ImportRun run, int index) {
+			this.run = run;
+			this.index = index;
+		}
+
+		void run() {
+			ImportCheckpoint checkpoint = run.chunks.get(index);
+			Path rejectPart = rejectPartPath(run.jobId, index);
+			try {
+				// A part left by a failed attempt is written again
+				Files.deleteIfExists(rejectPart);
+				Connection connection = DataSourceUtils.getConnection(dataSource);
+				writer = run.postgres ? new CopyRowWriter(connection) : new BatchRowWriter(connection);
+				try {
+					new TransactionFileParser(LocalDate.now()).parse(run.channel, new TransactionFileParser.Chunk(
+							index, checkpoint.getRangeStart(), checkpoint.getRangeEnd()), this);
+					writer.finish();
+				} finally {
+					writer.close();
+					if (rejects != null) {
+						rejects.close();
+					}
+				}
+			} catch (RuntimeException e) {
+				throw e;
+			} catch (Exception e) {
+				throw new IllegalStateException("Import of chunk " + index + " failed", e);
+			}
+
+			monthlyDeltas.forEach((customerId, year, month, points, transactions) -> deltas.add(new MonthlyTotal(
+					customerId, year, month, points, pointsExpiryService.expiredPortion(year, month, points))));
+			Set<Long> customerIds = new LinkedHashSet<>();
+			deltas.forEach(delta -> customerIds.add(delta.getCustomerId()));
+			long[] lockKeys = deltas.stream().mapToLong(
+					delta -> AdvisoryLockService.lockKey(delta.getCustomerId(), delta.getYear(), delta.getMonth()))
+					.toArray();
+
+			// Held until the transaction ended, see runChunk
+			deltaLock.lock();
+			advisoryLockService.lockMonths(lockKeys);
+			rewardPointsBatchWriter.addDeltas(deltas);
+			pointsBalanceService.resync(customerIds);
+			checkpoint.setRowsImported(imported);
+			checkpoint.setRowsRejected(rejected);
+			checkpoint.setMonthsUpdated(deltas.size());
+			checkpoint.setStatus(ImportCheckpoint.Status.DONE);
+			run.chunks.set(index, checkpointRepository.save(checkpoint));
+		}
+
+		@Override
+		public void accept(ParsedTransaction transaction) throws Exception {
+			if (Arrays.binarySearch(run.customerIds, transaction.getCustomerId()) < 0) {
+				reject(transaction, UNKNOWN_CUSTOMER);
+				return;
+			}
+			int multiplierPercent = categoryMultiplierService.multiplierPercent(transaction.getSpentDetailsText());
+			writer.write(transaction, multiplierPercent);
+			monthlyDeltas.add(transaction.getCustomerId(), transaction.getYear(), transaction.getMonth(),
+					RewardPointCalculator.calculatePoints(transaction.getAmount(), multiplierPercent));
+			imported++;
+		}
+
+		@Override
+		public void reject(ParsedTransaction line, String reason) throws IOException {
+			if (rejects == null) {
+				Path part = rejectPartPath(run.jobId, index);
+				Files.createDirectories(part.getParent());
+				rejects = new BufferedOutputStream(Files.newOutputStream(part));
+			}
+			rejectBuffer.clear();
+			rejectBuffer.appendLong(line.getOffset()).append(",\"").append(reason).append("\",");
+			line.appendLine(rejectBuffer);
+			rejectBuffer.append((byte) '\n');
+			rejects.write(rejectBuffer.array(), 0, rejectBuffer.size());
+			rejected++;
+		}
+	}
+
+	/**
+	 * Writes the valid lines of a chunk to customer_transaction.
+	 */
+	private interface RowWriter extends AutoCloseable {
+
+		void write(ParsedTransaction transaction, int multiplierPercent) throws SQLException;
+
+		void finish() throws SQLException;
+
+		@Override
+		void close() throws SQLException;
+	}
+
+	/**
+	 * Streams the lines to a COPY in large pieces.
+	 */
+	private static class CopyRowWriter implements RowWriter {
+
+		private final CopyIn copyIn;
+		private final CopyBuffer buffer = new CopyBuffer(COPY_FLUSH_BYTES + 4096);
+
+		CopyRowWriter(Connection connection) throws SQLException {
+			this.copyIn = new CopyManager(connection.unwrap(BaseConnection.class)).copyIn(COPY_SQL);
+		}
+
+		@Override
+		public void write(ParsedTransaction transaction, int multiplierPercent) throws SQLException {
+			transaction.appendCopyRow(buffer, multiplierPercent);
+			if (buffer.size() >= COPY_FLUSH_BYTES) {
+				flush();
+			}
+		}
+
+		@Override
+		public void finish() throws SQLException {
+			flush();
+			copyIn.endCopy();
+		}
+
+		@Override
+		public void close() throws SQLException {
+			if (copyIn.isActive()) {
+				copyIn.cancelCopy();
+			}
+		}
+
+		private void flush() throws SQLException {
+			copyIn.writeToCopy(buffer.array(), 0, buffer.size());
+			buffer.clear();
+		}
+	}
+
+	/**
+	 * Inserts the lines in JDBC batches, for databases without COPY.
+	 */
+	private class BatchRowWriter implements RowWriter {
+
+		private final PreparedStatement statement;
+		private int pending;
+
+		BatchRowWriter(Connection connection) throws SQLException {
+			this.statement = connection.prepareStatement(INSERT_SQL);
+		}
+
+		@Override
+		public void write(ParsedTransaction transaction, int multiplierPercent) throws SQLException {
+			statement.setLong(1, transaction.getCustomerId());
+			statement.setDouble(2, transaction.getAmount());
+			statement.setString(3, transaction.getSpentDetails());
+			statement.setDate(4, Date.valueOf(
+					LocalDate.of(transaction.getYear(), transaction.getMonth(), transaction.getDay())));
+			statement.setInt(5, multiplierPercent);
+			statement.addBatch();
+			if (++pending == batchSize) {
+				finish();
+			}
+		}
+
+		@Override
+		public void finish() throws SQLException {
+			statement.executeBatch();
+			pending = 0;
+		}
+
+		@Override
+		public void close() throws SQLException {
+			statement.close();
+		}
+	}
+
+	private long[] loadCustomerIds() {
+		long[][] ids = { new long[1024] };
+		int[] count = { 0 };
+		jdbcTemplate.query(CUSTOMER_IDS_SQL, resultSet -> {
+			if (count[0] == ids[0].length) {
+				ids[0] = Arrays.copyOf(ids[0], count[0] * 2);
+			}
+			ids[0][count[0]++] = resultSet.getLong(1);
+		});
+		return Arrays.copyOf(ids[0], count[0]);
+	}
+
+	/**
+	 * Joins the reject parts of the chunks, in file order, into the report of
+	 * the import.
+	 */
+	private void writeRejectReport(ImportRun run) {
+		if (run.rejected.get() == 0) {
+			return;
+		}
+		Path report = reportPath(run.jobId);
+		try (OutputStream out = Files.newOutputStream(report)) {
+			out.write(REJECT_HEADER.getBytes(StandardCharsets.US_ASCII));
+			for (int i = 0; i < run.chunks.length(); i++) {
+				Path part = rejectPartPath(run.jobId, i);
+				if (Files.exists(part)) {
+					Files.copy(part, out);
+				}
+			}
+			for (int i = 0; i < run.chunks.length(); i++) {
+				Files.deleteIfExists(rejectPartPath(run.jobId, i));
+			}
+			run.rejectReport = report.toString();
+			log.info("Transaction import {} rejected {} lines, see {}", run.jobId, run.rejected.get(), report);
+		} catch (IOException e) {
+			log.error("Error occurred while writing the reject report of transaction import {}", run.jobId, e);
+		}
+	}
+
+	private Path reportPath(String jobId) {
+		return Path.of(rejectDir, jobId, "rejects.csv");
+	}
+
+	private Path rejectPartPath(String jobId, int index) {
+		return Path.of(rejectDir, jobId, String.format("chunk-%05d.csv", index));
+	}
+
+	private static boolean isCompleted(ImportRun run) {
+		return countStatus(run, ImportCheckpoint.Status.DONE) == run.chunks.length();
+	}
+
+	private static void closeQuietly(ImportRun run) {
+		try {
+			run.channel.close();
+		} catch (IOException e) {
+			log.warn("Error occurred while closing the file of transaction import {}", run.jobId, e);
+		}
+	}
+
+	private void logProgress(ImportRun run) {
+		long now = System.nanoTime();
+		if (now - run.lastLogNanos < PROGRESS_LOG_INTERVAL_NANOS) {
+			return;
+		}
+		run.lastLogNanos = now;
+		ImportJobStatus status = status(run);
+		log.info("Transaction import {}: {}% done, {} rows/s, ETA {} s", run.jobId,
+				String.format("%.1f", status.getProgressPercent()), String.format("%.0f", status.getRowsPerSecond()),
+				status.getEtaSeconds());
+	}
+
+	private ImportJobStatus status(ImportRun run) {
+		ImportJobStatus status = new ImportJobStatus();
+		status.setJobId(run.jobId);
+		status.setFileName(run.fileName());
+		if (!run.finished) {
+			status.setState("RUNNING");
+		} else {
+			status.setState(isCompleted(run) ? "COMPLETED" : "FAILED");
+		}
+		status.setChunks(run.chunks.length());
+		status.setChunksDone(countStatus(run, ImportCheckpoint.Status.DONE));
+		status.setChunksFailed(countStatus(run, ImportCheckpoint.Status.FAILED));
+		status.setBytesTotal(run.totalBytes);
+		status.setBytesProcessed(run.bytes.get());
+		status.setRowsImported(run.rows.get());
+		status.setRowsRejected(run.rejected.get());
+		status.setMonthsUpdated(run.months.get());
+		status.setProgressPercent(run.totalBytes == 0 ? 100.0 : 100.0 * run.bytes.get() / run.totalBytes);
+		status.setRejectReport(run.rejectReport);
+
+		long elapsedNanos = (run.finished ? run.finishedNanos : System.nanoTime()) - run.startNanos;
+		double elapsedSeconds = elapsedNanos / 1e9;
+		status.setElapsedSeconds((long) elapsedSeconds);
+		if (elapsedSeconds > 0) {
+			status.setRowsPerSecond(run.rowsThisRun.get() / elapsedSeconds);
+		}
+		long bytesThisRun = run.bytesThisRun.get();
+		if (!run.finished && bytesThisRun > 0) {
+			double remaining = run.totalBytes - run.bytes.get();
+			status.setEtaSeconds((long) Math.ceil(remaining * elapsedSeconds / bytesThisRun));
+		}
+		return status;
+	}
+
+	private static int countStatus(ImportRun run, ImportCheckpoint.Status state) {
+		int count = 0;
+		for (int i = 0; i < run.chunks.length(); i++) {
+			if (run.chunks.get(i).getStatus() == state) {
+				count++;
+			}
+		}
+		return count;
+	}
+}
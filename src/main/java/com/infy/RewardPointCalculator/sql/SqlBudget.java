@@ -0,0 +1,26 @@
+package com.infy.RewardPointCalculator.sql;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Declares how many SQL statements one request to a handler may issue,
+ * including the statements of the authentication filter. Requests over the
+ * budget are logged and counted by the {@link SqlBudgetFilter}. Handlers
+ * without the annotation get the default budget (rewards.sql.default-budget).
+ *
+ * @author rifat.bano
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface SqlBudget {
+
+	/**
+	 * @return The maximum number of statements per request.
+	 */
+	int value();
+}
@@ -0,0 +1,122 @@
+package com.infy.RewardPointCalculator.sql;
+
+import java.io.IOException;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Counts the SQL statements of every request and checks them against the
+ * budget of its handler (see {@link SqlBudget}). A request over the budget is
+ * logged with its most repeated statement, and a statement executed at least
+ * rewards.sql.repeat-threshold times in one request is logged as an N+1
+ * suspect. The statements per request are published per endpoint, together
+ * with the number of budget violations and N+1 suspects.
+ *
+ * Only statements run on the request thread are counted; work handed to async
+ * executors is not. Disabled with rewards.sql.tracking.enabled.
+ *
+ * @author rifat.bano
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 2)
+public class SqlBudgetFilter extends OncePerRequestFilter {
+
+	private static final Logger log = LoggerFactory.getLogger(SqlBudgetFilter.class);
+
+	private final boolean enabled;
+	private final int defaultBudget;
+	private final int repeatThreshold;
+	private final MeterRegistry meterRegistry;
+
+	/**
+	 * Creates the filter.
+	 *
+	 * @param enabled         Whether statements are counted.
+	 * @param defaultBudget   The budget of handlers without {@link SqlBudget}.
+	 * @param repeatThreshold The executions of one statement text per request
+	 *                        that make it an N+1 suspect.
+	 * @param meterRegistry   The registry the metrics are published to.
+	 */
+	@Autowired
+	public SqlBudgetFilter(@Value("${rewards.sql.tracking.enabled:true}") boolean enabled,
+			@Value("${rewards.sql.default-budget:20}") int defaultBudget,
+			@Value("${rewards.sql.repeat-threshold:5}") int repeatThreshold, MeterRegistry meterRegistry) {
+		this.enabled = enabled;
+		this.defaultBudget = defaultBudget;
+		this.repeatThreshold = repeatThreshold;
+		this.meterRegistry = meterRegistry;
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+			throws ServletException, IOException {
+		if (!enabled) {
+			filterChain.doFilter(request, response);
+			return;
+		}
+
+		SqlStatementTracker.open();
+		try {
+			filterChain.doFilter(request, response);
+		} finally {
+			check(request, SqlStatementTracker.close());
+		}
+	}
+
+	private void check(HttpServletRequest request, SqlStatementTracker.Statements statements) {
+		Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+		String endpoint = pattern == null ? "UNMATCHED" : request.getMethod() + " " + pattern;
+		int budget = budgetOf(request.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE));
+
+		DistributionSummary.builder("rewards.sql.statements").tag("endpoint", endpoint)
+				.description("SQL statements per request").register(meterRegistry).record(statements.getTotal());
+
+		if (statements.getTotal() > budget) {
+			counter("rewards.sql.budget.violations", endpoint).increment();
+			log.warn("{} issued {} SQL statements, over its budget of {}. Most repeated: {}", endpoint,
+					statements.getTotal(), budget, mostRepeated(statements));
+		}
+		Map<String, Integer> repeated = statements.getRepeated(repeatThreshold);
+		if (!repeated.isEmpty()) {
+			counter("rewards.sql.n_plus_one", endpoint).increment();
+			repeated.forEach((sql, count) -> log.warn("N+1 suspect in {}: {} executions of {}", endpoint, count, sql));
+		}
+	}
+
+	private int budgetOf(Object handler) {
+		if (handler instanceof HandlerMethod handlerMethod) {
+			SqlBudget sqlBudget = handlerMethod.getMethodAnnotation(SqlBudget.class);
+			if (sqlBudget != null) {
+				return sqlBudget.value();
+			}
+		}
+		return defaultBudget;
+	}
+
+	private static String mostRepeated(SqlStatementTracker.Statements statements) {
+		return statements.getExecutions().entrySet().stream().max(Map.Entry.comparingByValue())
+				.map(entry -> entry.getValue() + "x " + entry.getKey()).orElse("none");
+	}
+
+	private Counter counter(String name, String endpoint) {
+		return Counter.builder(name).tag("endpoint", endpoint).register(meterRegistry);
+	}
+}
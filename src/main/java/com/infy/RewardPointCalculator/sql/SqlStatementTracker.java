@@ -0,0 +1,130 @@
+package com.infy.RewardPointCalculator.sql;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Counts the SQL statements executed on the current thread while a scope is
+ * open, in total and per statement text. Statements are counted by the
+ * {@link StatementCountingDataSource}; threads without an open scope are not
+ * tracked.
+ *
+ * Besides the per-request scope of the {@link SqlBudgetFilter}, tests can
+ * count the statements of any piece of code with {@link #count(Supplier)}.
+ *
+ * @author rifat.bano
+ */
+public final class SqlStatementTracker {
+
+	private static final ThreadLocal<Statements> CURRENT = new ThreadLocal<>();
+
+	/**
+	 * The statements executed within one scope.
+	 */
+	public static class Statements {
+
+		private final Map<String, Integer> executions = new HashMap<>();
+		private int total;
+
+		private void record(String sql) {
+			total++;
+			executions.merge(sql, 1, Integer::sum);
+		}
+
+		/**
+		 * @return The number of statements executed.
+		 */
+		public int getTotal() {
+			return total;
+		}
+
+		/**
+		 * @return The number of executions of each distinct statement text.
+		 */
+		public Map<String, Integer> getExecutions() {
+			return executions;
+		}
+
+		/**
+		 * @param threshold The number of executions that makes a statement
+		 *                  suspect.
+		 * @return The statements executed at least threshold times, typical of an
+		 *         N+1 query pattern, with their execution counts.
+		 */
+		public Map<String, Integer> getRepeated(int threshold) {
+			Map<String, Integer> repeated = new HashMap<>();
+			executions.forEach((sql, count) -> {
+				if (count >= threshold) {
+					repeated.put(sql, count);
+				}
+			});
+			return repeated;
+		}
+	}
+
+	/**
+	 * The result of an action with the statements it executed.
+	 */
+	public record Counted<T>(T result, Statements statements) {
+	}
+
+	private SqlStatementTracker() {
+	}
+
+	/**
+	 * Opens a scope on the current thread, replacing any scope left open.
+	 */
+	public static void open() {
+		CURRENT.set(new Statements());
+	}
+
+	/**
+	 * Closes the scope of the current thread.
+	 *
+	 * @return The statements executed in the scope, none if no scope was open.
+	 */
+	public static Statements close() {
+		Statements statements = CURRENT.get();
+		CURRENT.remove();
+		return statements == null ? new Statements() : statements;
+	}
+
+	/**
+	 * Runs an action in its own scope. A scope already open on the thread is
+	 * resumed afterwards, with the action's statements added to it.
+	 *
+	 * @param action The action to run.
+	 * @return The result of the action and the statements it executed.
+	 */
+	public static <T> Counted<T> count(Supplier<T> action) {
+		Statements outer = CURRENT.get();
+		Statements inner = new Statements();
+		CURRENT.set(inner);
+		try {
+			return new Counted<>(action.get(), inner);
+		} finally {
+			if (outer == null) {
+				CURRENT.remove();
+			} else {
+				inner.executions.forEach((sql, count) -> {
+					outer.total += count;
+					outer.executions.merge(sql, count, Integer::sum);
+				});
+				CURRENT.set(outer);
+			}
+		}
+	}
+
+	/**
+	 * Counts one statement in the scope of the current thread, if one is open.
+	 *
+	 * @param sql The statement text.
+	 */
+	static void record(String sql) {
+		Statements statements = CURRENT.get();
+		if (statements != null) {
+			statements.record(sql);
+		}
+	}
+}
@@ -0,0 +1,104 @@
+package com.infy.RewardPointCalculator.sql;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+
+import javax.sql.DataSource;
+
+/**
+ * Wraps a DataSource so that every statement executed through its
+ * connections is counted by the {@link SqlStatementTracker}. Prepared and
+ * callable statements are counted under the text they were prepared with,
+ * plain statements under the text passed to execute; a batch counts as one
+ * statement. Everything else is passed to the wrapped objects unchanged, and
+ * unwrap reaches the wrapped DataSource, so pool metrics keep working.
+ *
+ * @author rifat.bano
+ */
+public final class StatementCountingDataSource {
+
+	private StatementCountingDataSource() {
+	}
+
+	/**
+	 * @param dataSource The DataSource to wrap.
+	 * @return The counting DataSource.
+	 */
+	public static DataSource wrap(DataSource dataSource) {
+		return proxy(DataSource.class, dataSource, (target, method, args) -> {
+			Object result = invoke(target, method, args);
+			return result instanceof Connection connection ? wrapConnection(connection) : result;
+		});
+	}
+
+	private static Connection wrapConnection(Connection connection) {
+		return proxy(Connection.class, connection, (target, method, args) -> {
+			Object result = invoke(target, method, args);
+			String name = method.getName();
+			if (result instanceof CallableStatement statement && name.equals("prepareCall")) {
+				return wrapStatement(CallableStatement.class, statement, (String) args[0]);
+			}
+			if (result instanceof PreparedStatement statement && name.equals("prepareStatement")) {
+				return wrapStatement(PreparedStatement.class, statement, (String) args[0]);
+			}
+			if (result instanceof Statement statement && name.equals("createStatement")) {
+				return wrapStatement(Statement.class, statement, null);
+			}
+			return result;
+		});
+	}
+
+	private static <S extends Statement> S wrapStatement(Class<S> type, S statement, String preparedSql) {
+		return proxy(type, statement, (target, method, args) -> {
+			String name = method.getName();
+			if (name.startsWith("execute")) {
+				String sql = args != null && args.length > 0 && args[0] instanceof String text ? text : preparedSql;
+				SqlStatementTracker.record(sql == null ? name : sql);
+			}
+			return invoke(target, method, args);
+		});
+	}
+
+	/**
+	 * Handles a call on a proxy whose target is known.
+	 */
+	private interface Handler<T> {
+
+		Object handle(T target, Method method, Object[] args) throws Throwable;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <T> T proxy(Class<T> type, T target, Handler<T> handler) {
+		InvocationHandler invocationHandler = (proxy, method, args) -> {
+			switch (method.getName()) {
+			case "unwrap":
+				return type.equals(args[0]) ? proxy : invoke(target, method, args);
+			case "isWrapperFor":
+				return type.equals(args[0]) || (Boolean) invoke(target, method, args);
+			case "equals":
+				return proxy == args[0];
+			case "hashCode":
+				return System.identityHashCode(proxy);
+			case "toString":
+				return "Counting " + target;
+			default:
+				return handler.handle(target, method, args);
+			}
+		};
+		return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, invocationHandler);
+	}
+
+	private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+		try {
+			return method.invoke(target, args);
+		} catch (InvocationTargetException e) {
+			throw e.getCause();
+		}
+	}
+}
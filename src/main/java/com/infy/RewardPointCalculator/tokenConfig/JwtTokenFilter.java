@@ -1,6 +1,8 @@
 package com.infy.RewardPointCalculator.tokenConfig;
 
 import java.io.IOException;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -12,8 +14,11 @@ import org.springframework.security.web.authentication.WebAuthenticationDetailsS
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
+import com.infy.RewardPointCalculator.jfr.AuthFilterEvent;
 import com.infy.RewardPointCalculator.service.CustomerService;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -31,14 +36,22 @@ import jakarta.servlet.http.HttpServletResponse;
  * 
  * The filter ensures that subsequent filters or controllers can access the
  * authenticated user via Spring Security's `SecurityContext`.
+ * 
+ * Every stage of the filter (resolve, blacklist, verify, user_load) is timed in
+ * the rewards.auth.filter timer, tagged with the stage and its outcome. The
+ * whole of it is also emitted as an {@link AuthFilterEvent} for Flight
+ * Recorder.
  */
 @Component
 public class JwtTokenFilter extends OncePerRequestFilter {
 
 	private static final Logger log = LoggerFactory.getLogger(JwtTokenFilter.class);
 
+	private static final String STAGE_TIMER = "rewards.auth.filter";
+
 	private JwtTokenProvider jwtTokenProvider;
 	private CustomerService userDetailsService;
+	private MeterRegistry meterRegistry;
 
 	/**
 	 * Constructor that initializes the JwtTokenFilter with dependencies for JWT
@@ -48,12 +61,15 @@ public class JwtTokenFilter extends OncePerRequestFilter {
 	 *                           like token extraction and validation.
 	 * @param userDetailsService The service for fetching user details based on the
 	 *                           username in the token.
+	 * @param meterRegistry      The registry the stage timers are published to.
 	 */
 	@Autowired
-	public JwtTokenFilter(JwtTokenProvider jwtTokenProvider, CustomerService userDetailsService) {
+	public JwtTokenFilter(JwtTokenProvider jwtTokenProvider, CustomerService userDetailsService,
+			MeterRegistry meterRegistry) {
 		super();
 		this.jwtTokenProvider = jwtTokenProvider;
 		this.userDetailsService = userDetailsService;
+		this.meterRegistry = meterRegistry;
 		log.info("JwtTokenFilter initialized with JwtTokenProvider and CustomerService.");
 	}
 
@@ -77,18 +93,30 @@ public class JwtTokenFilter extends OncePerRequestFilter {
 	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
 			throws ServletException, IOException {
 
-		log.info("Processing request: {} {}", request.getMethod(), request.getRequestURI());
-
-		String token = jwtTokenProvider.resolveToken(request);
+		log.debug("Processing request: {} {}", request.getMethod(), request.getRequestURI());
+		AuthFilterEvent event = new AuthFilterEvent();
+		event.begin();
+
+		String token = timeStage("resolve", () -> jwtTokenProvider.extractToken(request),
+				resolved -> resolved != null ? "found" : "absent");
+		if (token != null && timeStage("blacklist", () -> jwtTokenProvider.isTokenBlacklisted(token),
+				blacklisted -> blacklisted ? "blacklisted" : "allowed")) {
+			log.warn("The token is blacklisted. Customer has logged out.");
+			commit(event, "blacklisted");
+			filterChain.doFilter(request, response);
+			return;
+		}
 
 		if (token != null) {
-			log.info("Token found in request header.");
+			log.debug("Token found in request header.");
 
-			if (jwtTokenProvider.validateToken(token)) {
-				log.info("Token is valid. Extracting user details.");
+			if (timeStage("verify", () -> jwtTokenProvider.validateToken(token),
+					valid -> valid ? "valid" : "invalid")) {
+				log.debug("Token is valid. Extracting user details.");
 
 				String username = jwtTokenProvider.getUsername(token);
-				UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+				UserDetails userDetails = timeStage("user_load",
+						() -> userDetailsService.loadUserByUsername(username), loaded -> "loaded");
 
 				UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
 						userDetails, null, userDetails.getAuthorities());
@@ -96,15 +124,43 @@ public class JwtTokenFilter extends OncePerRequestFilter {
 				authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
 				SecurityContextHolder.getContext().setAuthentication(authentication);
 
-				log.info("Authentication set for user: {}", username);
+				log.debug("Authentication set for user: {}", username);
+				commit(event, "authenticated");
 			} else {
 				log.warn("Invalid or expired token found.");
+				commit(event, "invalid");
 			}
 		} else {
-			log.warn("No token found in request.");
+			log.debug("No token found in request.");
+			commit(event, "anonymous");
 		}
 
 		// Continue the filter chain
 		filterChain.doFilter(request, response);
 	}
+
+	private void commit(AuthFilterEvent event, String outcome) {
+		if (event.shouldCommit()) {
+			event.setOutcome(outcome);
+			event.commit();
+		}
+	}
+
+	/**
+	 * Runs one stage of the filter and records its duration, tagged with the
+	 * stage and an outcome from a small fixed set.
+	 */
+	private <T> T timeStage(String stage, Supplier<T> action, Function<T, String> outcomeOf) {
+		Timer.Sample sample = Timer.start(meterRegistry);
+		String outcome = "error";
+		try {
+			T result = action.get();
+			outcome = outcomeOf.apply(result);
+			return result;
+		} finally {
+			sample.stop(Timer.builder(STAGE_TIMER).tag("stage", stage).tag("outcome", outcome)
+					.description("Duration of the JWT filter stages").publishPercentileHistogram()
+					.register(meterRegistry));
+		}
+	}
 }
@@ -82,23 +82,34 @@ public class JwtTokenProvider {
 	 *         blacklisted.
 	 */
 	public String resolveToken(HttpServletRequest request) {
+		String token = extractToken(request);
+
+		// Check if the token is blacklisted
+		if (token != null && isTokenBlacklisted(token)) {
+			log.error("The token is blacklisted. Customer has logged out.");
+			return null; // Return null or handle it appropriately if the token is blacklisted
+		}
+		return token;
+	}
+
+	/**
+	 * This method extracts the token from the Authorization header of the HTTP
+	 * request, without checking the blacklist.
+	 * 
+	 * @param request The HTTP request to extract the token from.
+	 * @return The JWT token, or null if there is no Bearer token.
+	 */
+	public String extractToken(HttpServletRequest request) {
 		String bearerToken = request.getHeader("Authorization");
-		log.info("Resolving token from Authorization header: {}", bearerToken);
+		log.debug("Resolving token from Authorization header.");
 
 		if (StringUtils.hasText(bearerToken) && bearerToken.startsWith("Bearer ")) {
 			String token = bearerToken.substring(7); // Extract the token
-
-			// Check if the token is blacklisted
-			if (isTokenBlacklisted(token)) {
-				log.error("The token is blacklisted. Customer has logged out.");
-				return null; // Return null or handle it appropriately if the token is blacklisted
-			}
-
-			log.info("Token resolved: {}", token);
+			log.debug("Token resolved.");
 			return token;
 		}
 
-		log.warn("No Bearer token found in Authorization header.");
+		log.debug("No Bearer token found in Authorization header.");
 		return null;
 	}
 
@@ -110,22 +121,22 @@ public class JwtTokenProvider {
 	 * @return True if the token is valid, false otherwise.
 	 */
 	public boolean validateToken(String token) {
-		log.info("Validating JWT token: {}", token);
+		log.debug("Validating JWT token.");
 
 		try {
 			Jwts.parser().setSigningKey(key).parseClaimsJws(token);
-			log.info("JWT token is valid: {}", token);
+			log.debug("JWT token is valid.");
 			return true;
 		} catch (MalformedJwtException ex) {
-			log.error("Invalid JWT token: {}", token, ex);
+			log.warn("Invalid JWT token: {}", ex.getMessage());
 		} catch (ExpiredJwtTokenException ex) {
-			log.error("Expired JWT token: {}", token, ex);
+			log.warn("Expired JWT token: {}", ex.getMessage());
 		} catch (UnsupportedJwtTokenException ex) {
-			log.error("Unsupported JWT token: {}", token, ex);
+			log.warn("Unsupported JWT token: {}", ex.getMessage());
 		} catch (IllegalArgumentException ex) {
-			log.error("JWT claims string is empty: {}", token, ex);
+			log.warn("JWT claims string is empty: {}", ex.getMessage());
 		} catch (SignatureException e) {
-			log.error("Error with the signature of the token: {}", token, e);
+			log.warn("Error with the signature of the token: {}", e.getMessage());
 		}
 
 		return false;
@@ -138,7 +149,7 @@ public class JwtTokenProvider {
 	 * @return True if the token is valid, false if it is expired.
 	 */
 	public boolean isTokenValid(String token) {
-		log.info("Checking if token is valid: {}", token);
+		log.debug("Checking if token is valid.");
 		return !isTokenExpired(token);
 	}
 
@@ -152,7 +163,7 @@ public class JwtTokenProvider {
 	public boolean isTokenExpired(String token) {
 		Date expirationDate = extractExpiration(token);
 		boolean expired = expirationDate.before(new Date());
-		log.info("Token expiration date: {}. Is token expired? {}", expirationDate, expired);
+		log.debug("Token expiration date: {}. Is token expired? {}", expirationDate, expired);
 		return expired;
 	}
 
@@ -173,9 +184,8 @@ public class JwtTokenProvider {
 	 * @return The username extracted from the token.
 	 */
 	public String getUsername(String token) {
-		log.info("Extracting username from token: {}", token);
 		String username = Jwts.parser().setSigningKey(key).parseClaimsJws(token).getBody().getSubject();
-		log.info("Extracted username: {}", username);
+		log.debug("Extracted username: {}", username);
 		return username;
 	}
 
@@ -188,7 +198,7 @@ public class JwtTokenProvider {
 	 */
 	public boolean isTokenBlacklisted(String token) {
 		Optional<BlacklistedToken> blacklistedToken = blacklistedTokenRepository.findByToken(token);
-		log.info("Checking if token is blacklisted: {}. Found: {}", token, blacklistedToken.isPresent());
+		log.debug("Checking if token is blacklisted. Found: {}", blacklistedToken.isPresent());
 
 		return blacklistedToken.isPresent();
 	}
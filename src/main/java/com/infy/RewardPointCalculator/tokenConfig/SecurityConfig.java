@@ -3,23 +3,26 @@ package com.infy.RewardPointCalculator.tokenConfig;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
+import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
 import com.infy.RewardPointCalculator.service.CustomerService;
+import com.infy.RewardPointCalculator.service.PasswordHashingService;
 
 import jakarta.annotation.PostConstruct;
+import jakarta.servlet.DispatcherType;
 import jakarta.servlet.http.HttpServletResponse;
 
 /**
@@ -27,28 +30,45 @@ import jakarta.servlet.http.HttpServletResponse;
  * Security. This class configures various components related to authentication
  * and authorization. It also integrates JWT authentication via the
  * JwtTokenFilter.
+ *
+ * The maintenance endpoints under /api/admin and /internal rewrite data of all
+ * customers or run heavy jobs, they require ROLE_ADMIN, granted to the
+ * customers listed in rewards.security.admin-emails.
+ *
+ * Only the health check is public on the application port. The Prometheus
+ * scrape and the other actuator endpoints are served on the management port
+ * (management.server.port), which is kept off the public network; requests
+ * reaching them on the application port require ROLE_ADMIN.
  */
 @EnableWebSecurity
+@EnableMethodSecurity
 @Configuration
 public class SecurityConfig {
 	private static final Logger log = LoggerFactory.getLogger(SecurityConfig.class);
 
 	private final JwtTokenFilter jwtAuthenticationFilter;
 	private final CustomerService userDetailsService;
+	private final PasswordHashingService passwordHashingService;
+	private final int managementPort;
 
 	// Constructor for dependency injection (Spring will inject the required
 	// dependencies here)
 	@Autowired
-	public SecurityConfig(JwtTokenFilter jwtAuthenticationFilter, CustomerService userDetailsService) {
+	public SecurityConfig(JwtTokenFilter jwtAuthenticationFilter, CustomerService userDetailsService,
+			PasswordHashingService passwordHashingService, @Value("${management.server.port:-1}") int managementPort) {
 		this.jwtAuthenticationFilter = jwtAuthenticationFilter;
 		this.userDetailsService = userDetailsService;
+		this.passwordHashingService = passwordHashingService;
+		this.managementPort = managementPort;
 		log.info("SecurityConfig initialized with JwtTokenFilter and CustomerService.");
 	}
 
 	/**
 	 * Configures the AuthenticationProvider used by Spring Security for handling
 	 * authentication logic. The AuthenticationProvider is configured to use a
-	 * UserDetailsService and a PasswordEncoder (BCrypt).
+	 * UserDetailsService and a PasswordEncoder (BCrypt). Passwords hashed with a
+	 * lower cost than the current one are hashed again after a successful login
+	 * and stored through the UserDetailsPasswordService.
 	 * 
 	 * @return The configured AuthenticationProvider.
 	 */
@@ -58,6 +78,7 @@ public class SecurityConfig {
 		DaoAuthenticationProvider provider = new DaoAuthenticationProvider();
 		provider.setUserDetailsService(userDetailsService); // Ensure UserDetailsService is injected
 		provider.setPasswordEncoder(passwordEncoder()); // Ensure PasswordEncoder is set to BCryptPasswordEncoder
+		provider.setUserDetailsPasswordService(userDetailsService); // Stores the rehashed passwords
 		log.info("AuthenticationProvider configured with UserDetailsService and PasswordEncoder.");
 		return provider;
 	}
@@ -72,15 +93,16 @@ public class SecurityConfig {
 	}
 
 	/**
-	 * Configures the PasswordEncoder bean. BCryptPasswordEncoder is used here,
-	 * which is a secure method for password encoding.
+	 * Configures the PasswordEncoder bean. BCrypt is used here, which is a secure
+	 * method for password encoding. The hashing runs on the bounded pool of the
+	 * PasswordHashingService, not on the request thread.
 	 * 
 	 * @return The configured PasswordEncoder bean.
 	 */
 	@Bean
 	public PasswordEncoder passwordEncoder() {
-		log.info("Configuring PasswordEncoder (BCryptPasswordEncoder).");
-		return new BCryptPasswordEncoder(); // Prefer BCrypt for password encryption in production
+		log.info("Configuring PasswordEncoder (BCrypt on the password hashing pool).");
+		return passwordHashingService.encoder();
 	}
 
 	/**
@@ -118,9 +140,19 @@ public class SecurityConfig {
 
 		// Configuring the HTTP request authorization rules
 		httpSecurity.authorizeHttpRequests()
+				// The async dispatch ending a reward point stream was authorized when the stream was opened
+				.dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+				// The error page keeps the status of the failed request, a 403 is not turned into a 401
+				.dispatcherTypeMatchers(DispatcherType.ERROR).permitAll()
 				.requestMatchers("/api/customers/register", "/api/customers/login", "/api/customers/logout",
 						"/swagger-ui.html", "/swagger-ui/**", "/v3/api-docs/**")
 				.permitAll() // Allow unauthenticated access to login API
+				.requestMatchers("/actuator/health").permitAll() // Health checks
+				// Scrapes arrive on the management port, which is not exposed publicly
+				.requestMatchers(request -> managementPort > 0 && request.getLocalPort() == managementPort)
+				.permitAll()
+				.requestMatchers("/actuator/**").hasRole("ADMIN") // Metrics through the application port
+				.requestMatchers("/api/admin/**", "/internal/**").hasRole("ADMIN") // Maintenance endpoints
 				.anyRequest().authenticated() // All other requests require authentication
 				.and().sessionManagement().sessionCreationPolicy(SessionCreationPolicy.STATELESS) // Stateless session
 																									// management
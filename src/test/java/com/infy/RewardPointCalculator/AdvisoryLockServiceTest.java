@@ -0,0 +1,177 @@
+package com.infy.RewardPointCalculator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.infy.RewardPointCalculator.service.AdvisoryLockService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Tests for the {@link AdvisoryLockService} class.
+ * <p>
+ * Two independent data sources stand in for two application nodes. Threads on
+ * both "nodes" increment the same row with an unprotected read-modify-write
+ * while holding the customer-month advisory lock. If the lock works across
+ * connections, no increment is lost.
+ * </p>
+ * <p>
+ * The lock test needs a running Postgres and is only enabled when the
+ * REWARDS_TEST_PG_URL environment variable is set, for example
+ * jdbc:postgresql://localhost:5432/postgres. User and password are read from
+ * REWARDS_TEST_PG_USER and REWARDS_TEST_PG_PASSWORD (default postgres).
+ * </p>
+ */
+public class AdvisoryLockServiceTest {
+
+	private static final int THREADS_PER_NODE = 4;
+	private static final int INCREMENTS_PER_THREAD = 50;
+
+	private final List<JdbcTemplate> nodes = new ArrayList<>();
+	private final List<TransactionTemplate> transactionTemplates = new ArrayList<>();
+	private final List<AdvisoryLockService> lockServices = new ArrayList<>();
+
+	/**
+	 * Creates two data sources with their own transaction managers and lock
+	 * services, and a counter row to increment.
+	 */
+	private void createNodes() {
+		for (int i = 0; i < 2; i++) {
+			DriverManagerDataSource dataSource = new DriverManagerDataSource(System.getenv("REWARDS_TEST_PG_URL"),
+					System.getenv().getOrDefault("REWARDS_TEST_PG_USER", "postgres"),
+					System.getenv().getOrDefault("REWARDS_TEST_PG_PASSWORD", "postgres"));
+			JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+			TransactionTemplate transactionTemplate = new TransactionTemplate(
+					new DataSourceTransactionManager(dataSource));
+			nodes.add(jdbcTemplate);
+			transactionTemplates.add(transactionTemplate);
+			lockServices.add(
+					new AdvisoryLockService(jdbcTemplate, transactionTemplate, 10000, true, new SimpleMeterRegistry()));
+		}
+		JdbcTemplate jdbcTemplate = nodes.get(0);
+		jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS advisory_lock_test (id INT PRIMARY KEY, points INT NOT NULL)");
+		jdbcTemplate.update("DELETE FROM advisory_lock_test");
+		jdbcTemplate.update("INSERT INTO advisory_lock_test (id, points) VALUES (1, 0)");
+	}
+
+	/**
+	 * Drops the counter table.
+	 */
+	@AfterEach
+	public void tearDown() {
+		if (!nodes.isEmpty()) {
+			nodes.get(0).execute("DROP TABLE IF EXISTS advisory_lock_test");
+		}
+	}
+
+	/**
+	 * Runs concurrent read-modify-write increments from both nodes and checks
+	 * that every increment is visible in the final value.
+	 */
+	@Test
+	@EnabledIfEnvironmentVariable(named = "REWARDS_TEST_PG_URL", matches = ".+")
+	public void testWithMonthLock_NoLostUpdatesAcrossNodes() throws Exception {
+		createNodes();
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS_PER_NODE * 2);
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<?>> futures = new ArrayList<>();
+
+		for (int node = 0; node < 2; node++) {
+			JdbcTemplate jdbcTemplate = nodes.get(node);
+			AdvisoryLockService lockService = lockServices.get(node);
+			for (int t = 0; t < THREADS_PER_NODE; t++) {
+				futures.add(executor.submit(() -> {
+					start.await();
+					for (int i = 0; i < INCREMENTS_PER_THREAD; i++) {
+						lockService.withMonthLock(1L, 2025, 1, () -> {
+							Integer points = jdbcTemplate
+									.queryForObject("SELECT points FROM advisory_lock_test WHERE id = 1", Integer.class);
+							return jdbcTemplate.update("UPDATE advisory_lock_test SET points = ? WHERE id = 1",
+									points + 1);
+						});
+					}
+					return null;
+				}));
+			}
+		}
+		start.countDown();
+		for (Future<?> future : futures) {
+			future.get(2, TimeUnit.MINUTES);
+		}
+		executor.shutdown();
+
+		Integer points = nodes.get(0).queryForObject("SELECT points FROM advisory_lock_test WHERE id = 1",
+				Integer.class);
+		assertEquals(2 * THREADS_PER_NODE * INCREMENTS_PER_THREAD, points);
+	}
+
+	/**
+	 * A bulk writer holding the locks of several months excludes a writer of one
+	 * of those months on the other node, so no increment is lost between them.
+	 */
+	@Test
+	@EnabledIfEnvironmentVariable(named = "REWARDS_TEST_PG_URL", matches = ".+")
+	public void testLockMonths_ExcludesMonthLockAcrossNodes() throws Exception {
+		createNodes();
+		long[] keys = { AdvisoryLockService.lockKey(1L, 2025, 2), AdvisoryLockService.lockKey(1L, 2025, 1) };
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		List<Future<?>> futures = new ArrayList<>();
+		futures.add(executor.submit(() -> {
+			for (int i = 0; i < INCREMENTS_PER_THREAD; i++) {
+				transactionTemplates.get(0).executeWithoutResult(status -> {
+					lockServices.get(0).lockMonths(keys);
+					increment(nodes.get(0));
+				});
+			}
+			return null;
+		}));
+		futures.add(executor.submit(() -> {
+			for (int i = 0; i < INCREMENTS_PER_THREAD; i++) {
+				lockServices.get(1).withMonthLock(1L, 2025, 1, () -> increment(nodes.get(1)));
+			}
+			return null;
+		}));
+		for (Future<?> future : futures) {
+			future.get(2, TimeUnit.MINUTES);
+		}
+		executor.shutdown();
+
+		Integer points = nodes.get(0).queryForObject("SELECT points FROM advisory_lock_test WHERE id = 1",
+				Integer.class);
+		assertEquals(2 * INCREMENTS_PER_THREAD, points);
+	}
+
+	/**
+	 * The lock key depends on customer, year and month.
+	 */
+	@Test
+	public void testLockKey_DistinctPerCustomerMonth() {
+		long key = AdvisoryLockService.lockKey(1L, 2025, 1);
+
+		assertEquals(key, AdvisoryLockService.lockKey(1L, 2025, 1));
+		assertNotEquals(key, AdvisoryLockService.lockKey(2L, 2025, 1));
+		assertNotEquals(key, AdvisoryLockService.lockKey(1L, 2025, 2));
+		assertNotEquals(key, AdvisoryLockService.lockKey(1L, 2024, 1));
+	}
+
+	private static int increment(JdbcTemplate jdbcTemplate) {
+		Integer points = jdbcTemplate.queryForObject("SELECT points FROM advisory_lock_test WHERE id = 1",
+				Integer.class);
+		return jdbcTemplate.update("UPDATE advisory_lock_test SET points = ? WHERE id = 1", points + 1);
+	}
+}
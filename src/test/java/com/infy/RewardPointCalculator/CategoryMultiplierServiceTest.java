@@ -0,0 +1,90 @@
+package com.infy.RewardPointCalculator;
+
+import static org.mockito.Mockito.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.infy.RewardPointCalculator.dto.RewardCategoryDTO;
+import com.infy.RewardPointCalculator.model.RewardCategory;
+import com.infy.RewardPointCalculator.repository.RewardCategoryRepository;
+import com.infy.RewardPointCalculator.service.CategoryMultiplierService;
+
+/**
+ * Unit tests for the {@link CategoryMultiplierService} class.
+ * <p>
+ * These tests verify that transactions are classified by the keywords of the
+ * stored categories and that their points get the bonus of the category with
+ * the highest multiplier.
+ * </p>
+ */
+@ExtendWith(MockitoExtension.class)
+public class CategoryMultiplierServiceTest {
+
+	@Mock
+	private RewardCategoryRepository rewardCategoryRepository;
+
+	@InjectMocks
+	private CategoryMultiplierService categoryMultiplierService;
+
+	/**
+	 * Without categories the points are not changed.
+	 */
+	@Test
+	public void testCalculatePoints_NoCategories() {
+		assertEquals(90, categoryMultiplierService.calculatePoints(120.0, "Weekly grocery shopping"));
+		assertNull(categoryMultiplierService.classify("Weekly grocery shopping"));
+	}
+
+	/**
+	 * After a refresh the stored categories apply, and a transaction matching
+	 * several categories gets the highest multiplier.
+	 */
+	@Test
+	public void testRefresh_AppliesHighestMultiplier() {
+		RewardCategory grocery = new RewardCategory("grocery", new BigDecimal("1.5"), "grocery,supermarket");
+		grocery.setUpdatedAt(LocalDateTime.now());
+		RewardCategory fuel = new RewardCategory("fuel", new BigDecimal("2.00"), "fuel,petrol");
+		when(rewardCategoryRepository.count()).thenReturn(2L);
+		when(rewardCategoryRepository.findTopByOrderByUpdatedAtDesc()).thenReturn(Optional.of(grocery));
+		when(rewardCategoryRepository.findAll()).thenReturn(List.of(grocery, fuel));
+
+		categoryMultiplierService.refresh();
+
+		assertEquals("grocery", categoryMultiplierService.classify("SUPERMARKET run"));
+		assertEquals(135, categoryMultiplierService.calculatePoints(120.0, "Weekly grocery shopping"));
+		assertEquals(180, categoryMultiplierService.calculatePoints(120.0, "grocery and fuel"));
+		assertEquals(90, categoryMultiplierService.calculatePoints(120.0, "dinner"));
+
+		// Unchanged categories are not rebuilt
+		categoryMultiplierService.refresh();
+		verify(rewardCategoryRepository, times(1)).findAll();
+	}
+
+	/**
+	 * Categories with a multiplier out of range are rejected before anything is
+	 * stored.
+	 */
+	@Test
+	public void testReplaceCategories_InvalidMultiplier() {
+		List<RewardCategoryDTO> categories = List
+				.of(new RewardCategoryDTO("fuel", new BigDecimal("12"), List.of("fuel")));
+
+		ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+				() -> categoryMultiplierService.replaceCategories(categories));
+
+		assertEquals(HttpStatus.BAD_REQUEST, exception.getStatusCode());
+		verifyNoInteractions(rewardCategoryRepository);
+	}
+}
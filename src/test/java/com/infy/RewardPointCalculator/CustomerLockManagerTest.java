@@ -0,0 +1,128 @@
+package com.infy.RewardPointCalculator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import com.infy.RewardPointCalculator.model.RewardPoints;
+import com.infy.RewardPointCalculator.service.CustomerLockManager;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Unit tests for the {@link CustomerLockManager} class.
+ * <p>
+ * These tests verify that the striped customer lock serializes concurrent
+ * read-modify-write updates, and that optimistic locking conflicts are retried
+ * a bounded number of times and counted in the metrics.
+ * </p>
+ */
+public class CustomerLockManagerTest {
+
+	private SimpleMeterRegistry meterRegistry;
+	private CustomerLockManager customerLockManager;
+
+	/**
+	 * Creates a lock manager with a few stripes and no back-off before each test.
+	 */
+	@BeforeEach
+	public void setUp() {
+		meterRegistry = new SimpleMeterRegistry();
+		customerLockManager = new CustomerLockManager(4, 2, 0, meterRegistry);
+	}
+
+	/**
+	 * Many threads increment the same unsynchronized counter for one customer.
+	 * Holding the customer lock around the read and the write must make sure no
+	 * update is lost.
+	 */
+	@Test
+	public void testWithCustomerLock_NoLostUpdates() throws InterruptedException {
+		int threads = 8;
+		int incrementsPerThread = 1000;
+		int[] points = new int[1];
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		CountDownLatch start = new CountDownLatch(1);
+
+		for (int t = 0; t < threads; t++) {
+			executor.submit(() -> {
+				start.await();
+				for (int i = 0; i < incrementsPerThread; i++) {
+					customerLockManager.withCustomerLock(1L, () -> {
+						int current = points[0];
+						Thread.yield();
+						points[0] = current + 1;
+						return null;
+					});
+				}
+				return null;
+			});
+		}
+		start.countDown();
+		executor.shutdown();
+		assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+		assertEquals(threads * incrementsPerThread, points[0]);
+	}
+
+	/**
+	 * An operation that conflicts once and then succeeds is retried and returns
+	 * the result of the second attempt.
+	 */
+	@Test
+	public void testRetryOnConflict_SucceedsAfterRetry() {
+		AtomicInteger attempts = new AtomicInteger();
+
+		Integer result = customerLockManager.retryOnConflict("accrual", () -> {
+			if (attempts.incrementAndGet() == 1) {
+				throw new ObjectOptimisticLockingFailureException(RewardPoints.class, 1L);
+			}
+			return 42;
+		});
+
+		assertEquals(42, result);
+		assertEquals(2, attempts.get());
+		assertEquals(1.0, meterRegistry.counter("rewards.lock.retries", "operation", "accrual").count());
+	}
+
+	/**
+	 * An operation that keeps conflicting is attempted once plus the configured
+	 * number of retries, after which the conflict is propagated.
+	 */
+	@Test
+	public void testRetryOnConflict_RetriesExhausted() {
+		AtomicInteger attempts = new AtomicInteger();
+
+		assertThrows(ObjectOptimisticLockingFailureException.class,
+				() -> customerLockManager.retryOnConflict("accrual", () -> {
+					attempts.incrementAndGet();
+					throw new ObjectOptimisticLockingFailureException(RewardPoints.class, 1L);
+				}));
+
+		assertEquals(3, attempts.get());
+		assertEquals(1.0, meterRegistry.get("rewards.lock.retries.exhausted").counter().count());
+	}
+
+	/**
+	 * Exceptions other than optimistic locking conflicts are not retried.
+	 */
+	@Test
+	public void testRetryOnConflict_OtherExceptionNotRetried() {
+		AtomicInteger attempts = new AtomicInteger();
+
+		assertThrows(IllegalStateException.class, () -> customerLockManager.retryOnConflict("accrual", () -> {
+			attempts.incrementAndGet();
+			throw new IllegalStateException("boom");
+		}));
+
+		assertEquals(1, attempts.get());
+	}
+}
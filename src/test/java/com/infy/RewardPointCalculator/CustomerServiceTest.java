@@ -7,6 +7,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.web.server.ResponseStatusException;
 
 import com.infy.RewardPointCalculator.dto.CustomerDTO;
@@ -15,13 +16,19 @@ import com.infy.RewardPointCalculator.model.Customer;
 import com.infy.RewardPointCalculator.repository.BlacklistedTokenRepository;
 import com.infy.RewardPointCalculator.repository.CustomerRepository;
 import com.infy.RewardPointCalculator.service.CustomerService;
+import com.infy.RewardPointCalculator.service.PasswordHashingService;
 import com.infy.RewardPointCalculator.tokenConfig.JwtTokenProvider;
 
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * Unit tests for the {@link CustomerService} class.
@@ -43,6 +50,9 @@ public class CustomerServiceTest {
 	@Mock
 	private JwtTokenProvider jwtTokenProvider; // Mock JwtTokenProvider
 
+	@Mock
+	private PasswordHashingService passwordHashingService; // Mock PasswordHashingService
+
 	@InjectMocks
 	private CustomerService customerService; // Service to be tested
 
@@ -76,13 +86,30 @@ public class CustomerServiceTest {
 	 */
 	@Test
 	public void testRegister_Successful() {
+		when(passwordHashingService.hash("password123")).thenReturn("encodedPassword");
 		when(customerRepository.save(any(Customer.class))).thenReturn(customer);
 
 		Customer savedCustomer = customerService.register(customerDTO);
 
 		assertNotNull(savedCustomer);
 		assertEquals("john.doe@example.com", savedCustomer.getEmail());
-		verify(customerRepository, times(1)).save(any(Customer.class)); // Ensure save is called once
+		verify(customerRepository, times(1)).save(argThat(saved -> "encodedPassword".equals(saved.getPassword())));
+	}
+
+	/**
+	 * Tests the customer registration functionality while the password hashing
+	 * pool is saturated. The 503 of the pool reaches the caller unchanged.
+	 */
+	@Test
+	public void testRegister_HashingPoolSaturated() {
+		when(passwordHashingService.hash("password123"))
+				.thenThrow(new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many logins"));
+
+		ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+				() -> customerService.register(customerDTO));
+
+		assertEquals(HttpStatus.SERVICE_UNAVAILABLE, exception.getStatusCode());
+		verify(customerRepository, never()).save(any(Customer.class));
 	}
 
 	/**
@@ -119,6 +146,37 @@ public class CustomerServiceTest {
 
 		assertNotNull(userDetails);
 		assertEquals("john.doe@example.com", userDetails.getUsername());
+		assertTrue(userDetails.getAuthorities().isEmpty());
+	}
+
+	/**
+	 * Tests that the customers configured as administrators are granted
+	 * ROLE_ADMIN, which the maintenance endpoints require.
+	 */
+	@Test
+	public void testLoadUserByUsername_GrantsAdminRole() {
+		ReflectionTestUtils.setField(customerService, "adminEmails", Set.of("john.doe@example.com"));
+		when(customerRepository.findByEmail("john.doe@example.com")).thenReturn(Optional.of(customer));
+
+		UserDetails userDetails = customerService.loadUserByUsername("john.doe@example.com");
+
+		assertEquals(List.of("ROLE_ADMIN"),
+				userDetails.getAuthorities().stream().map(authority -> authority.getAuthority()).toList());
+	}
+
+	/**
+	 * Tests storing a password rehashed with the current cost after a login.
+	 */
+	@Test
+	public void testUpdatePassword_StoresNewHash() {
+		when(customerRepository.findByEmail("john.doe@example.com")).thenReturn(Optional.of(customer));
+
+		UserDetails updated = customerService.updatePassword(
+				new User("john.doe@example.com", "encodedPassword", new ArrayList<>()), "rehashedPassword");
+
+		assertEquals("rehashedPassword", updated.getPassword());
+		assertEquals("rehashedPassword", customer.getPassword());
+		verify(customerRepository, times(1)).save(customer);
 	}
 
 	/**
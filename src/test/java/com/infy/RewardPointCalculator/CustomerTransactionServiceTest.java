@@ -8,16 +8,34 @@ import org.springframework.http.HttpStatus;
 import org.springframework.web.server.ResponseStatusException;
 
 import com.infy.RewardPointCalculator.dto.CustomerTransactionDTO;
+import com.infy.RewardPointCalculator.ledger.RewardLedger;
+import com.infy.RewardPointCalculator.ledger.RewardLedgerEventType;
 import com.infy.RewardPointCalculator.model.Customer;
 import com.infy.RewardPointCalculator.model.CustomerTransaction;
+import com.infy.RewardPointCalculator.model.RewardPoints;
+import com.infy.RewardPointCalculator.pipeline.RewardEventPipeline;
 import com.infy.RewardPointCalculator.repository.CustomerRepository;
 import com.infy.RewardPointCalculator.repository.CustomerTransactionRepository;
 import com.infy.RewardPointCalculator.repository.RewardPointsRepository;
+import com.infy.RewardPointCalculator.service.AdvisoryLockService;
+import com.infy.RewardPointCalculator.service.CategoryMultiplierService;
+import com.infy.RewardPointCalculator.service.CustomerLockManager;
 import com.infy.RewardPointCalculator.service.CustomerTransactionService;
+import com.infy.RewardPointCalculator.service.PointsBalanceService;
+import com.infy.RewardPointCalculator.service.PointsExpiryService;
+import com.infy.RewardPointCalculator.service.PointsStreamService;
+import com.infy.RewardPointCalculator.service.SingleFlight;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import java.time.LocalDate;
 import org.junit.jupiter.api.BeforeEach;
@@ -25,6 +43,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 /**
@@ -48,6 +67,34 @@ public class CustomerTransactionServiceTest {
 	@Mock
 	private CustomerRepository customerRepository;
 
+	@Spy
+	private CustomerLockManager customerLockManager = new CustomerLockManager(16, 3, 0, new SimpleMeterRegistry());
+
+	@Spy
+	private AdvisoryLockService advisoryLockService = new AdvisoryLockService(null, null, 0, false,
+			new SimpleMeterRegistry());
+
+	@Mock
+	private RewardLedger rewardLedger;
+
+	@Mock
+	private RewardEventPipeline rewardEventPipeline;
+
+	@Mock
+	private PointsExpiryService pointsExpiryService;
+
+	@Spy
+	private CategoryMultiplierService categoryMultiplierService = new CategoryMultiplierService();
+
+	@Mock
+	private PointsBalanceService pointsBalanceService;
+
+	@Mock
+	private PointsStreamService pointsStreamService;
+
+	@Spy
+	private SingleFlight singleFlight = new SingleFlight(1000, new SimpleMeterRegistry());
+
 	@InjectMocks
 	private CustomerTransactionService customerTransactionService;
 
@@ -94,6 +141,37 @@ public class CustomerTransactionServiceTest {
 		assertEquals("Shopping", transactions.get(0).getSpentDetails());
 	}
 
+	/**
+	 * Tests that a load started at an older data version is not shared with a
+	 * caller that saw a newer one, so a read after a write sees the write.
+	 */
+	@Test
+	public void testGetTransactions_DoesNotShareLoadOfOlderVersion() throws Exception {
+		CustomerTransaction added = new CustomerTransaction();
+		added.setCustomer(customer);
+		CountDownLatch loading = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		when(transactionRepository.findByCustomerId(1L)).thenAnswer(invocation -> {
+			loading.countDown();
+			release.await(5, TimeUnit.SECONDS);
+			return Arrays.asList(transaction);
+		}).thenReturn(Arrays.asList(transaction, added));
+
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			Future<List<CustomerTransaction>> before = executor
+					.submit(() -> customerTransactionService.getTransactions(1L, 1));
+			assertTrue(loading.await(5, TimeUnit.SECONDS));
+
+			assertEquals(2, customerTransactionService.getTransactions(1L, 2).size());
+			release.countDown();
+			assertEquals(1, before.get(5, TimeUnit.SECONDS).size());
+		} finally {
+			release.countDown();
+			executor.shutdownNow();
+		}
+	}
+
 	/**
 	 * Tests the
 	 * {@link CustomerTransactionService#addTransaction(Long, CustomerTransactionDTO)}
@@ -110,6 +188,8 @@ public class CustomerTransactionServiceTest {
 		assertNotNull(createdTransaction);
 		assertEquals("Shopping", createdTransaction.getSpentDetails());
 		verify(transactionRepository, times(1)).save(any(CustomerTransaction.class));
+		verify(rewardLedger, times(1)).record(eq(RewardLedgerEventType.ACCRUAL), eq(1L), anyInt(), anyInt(), eq(50),
+				any());
 	}
 
 	/**
@@ -148,6 +228,39 @@ public class CustomerTransactionServiceTest {
 		verify(transactionRepository, times(1)).save(any(CustomerTransaction.class));
 	}
 
+	/**
+	 * Tests the
+	 * {@link CustomerTransactionService#editTransaction(Long, Long, CustomerTransactionDTO)}
+	 * method for a transaction moved to another month. Verifies that both months
+	 * are recomputed and that the ledger gets the change of each month as a
+	 * delta.
+	 */
+	@Test
+	public void testEditTransaction_MovedToOtherMonth() {
+		transaction.setId(1L);
+		transaction.setDate(LocalDate.of(2024, 1, 10));
+		transactionDTO.setTransactionDate(LocalDate.of(2024, 2, 5));
+		RewardPoints january = new RewardPoints();
+		january.setCustomer(customer);
+		january.setMonth(1);
+		january.setYear(2024);
+		january.setPoints(50);
+		when(customerRepository.findById(1L)).thenReturn(Optional.of(customer));
+		when(transactionRepository.findByCustomerIdAndId(1L, 1L)).thenReturn(Optional.of(transaction));
+		when(transactionRepository.findByCustomerIdAndDateBetween(1L, LocalDate.of(2024, 1, 1),
+				LocalDate.of(2024, 1, 31))).thenReturn(List.of());
+		when(transactionRepository.findByCustomerIdAndDateBetween(1L, LocalDate.of(2024, 2, 1),
+				LocalDate.of(2024, 2, 29))).thenReturn(List.of(transaction));
+		when(rewardPointsRepository.findByCustomerAndMonthAndYear(customer, 1, 2024)).thenReturn(List.of(january));
+		when(rewardPointsRepository.findByCustomerAndMonthAndYear(customer, 2, 2024)).thenReturn(List.of());
+
+		customerTransactionService.editTransaction(1L, 1L, transactionDTO);
+
+		verify(rewardLedger).record(RewardLedgerEventType.EDIT, 1L, 2024, 1, -50, 1L);
+		verify(rewardLedger).record(RewardLedgerEventType.EDIT, 1L, 2024, 2, 50, 1L);
+		verifyNoInteractions(rewardEventPipeline);
+	}
+
 	/**
 	 * Tests the
 	 * {@link CustomerTransactionService#editTransaction(Long, Long, CustomerTransactionDTO)}
@@ -180,6 +293,39 @@ public class CustomerTransactionServiceTest {
 		verify(transactionRepository, times(1)).delete(any(CustomerTransaction.class));
 	}
 
+	/**
+	 * Tests the {@link CustomerTransactionService#deleteTransaction(Long, Long)}
+	 * method for a month stored at other multipliers than the current ones.
+	 * Verifies that the month is recomputed from the remaining transactions at
+	 * the multipliers they were recorded with, not at today's.
+	 */
+	@Test
+	public void testDeleteTransaction_RecomputesMonth() {
+		transaction.setId(1L);
+		transaction.setDate(LocalDate.of(2024, 3, 10));
+		CustomerTransaction remaining = new CustomerTransaction();
+		remaining.setCustomer(customer);
+		remaining.setAmount((double) 120);
+		remaining.setDate(LocalDate.of(2024, 3, 20));
+		remaining.setMultiplierPercent(200);
+		RewardPoints march = new RewardPoints();
+		march.setCustomer(customer);
+		march.setMonth(3);
+		march.setYear(2024);
+		march.setPoints(400);
+		when(customerRepository.findById(1L)).thenReturn(Optional.of(customer));
+		when(transactionRepository.findByCustomerIdAndId(1L, 1L)).thenReturn(Optional.of(transaction));
+		when(transactionRepository.findByCustomerIdAndDateBetween(1L, LocalDate.of(2024, 3, 1),
+				LocalDate.of(2024, 3, 31))).thenReturn(List.of(remaining));
+		when(rewardPointsRepository.findByCustomerAndMonthAndYear(customer, 3, 2024)).thenReturn(List.of(march));
+
+		customerTransactionService.deleteTransaction(1L, 1L);
+
+		assertEquals(180, march.getPoints());
+		verify(rewardPointsRepository).save(march);
+		verify(rewardLedger).record(RewardLedgerEventType.DELETION, 1L, 2024, 3, -220, 1L);
+	}
+
 	/**
 	 * Tests the {@link CustomerTransactionService#deleteTransaction(Long, Long)}
 	 * method when the transaction is not found. Verifies that an error response is
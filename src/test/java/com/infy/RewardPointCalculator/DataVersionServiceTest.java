@@ -0,0 +1,83 @@
+package com.infy.RewardPointCalculator;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import com.infy.RewardPointCalculator.service.DataVersionService;
+import com.infy.RewardPointCalculator.service.PointsBalanceService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Unit tests for the conditional GET handling of the {@link DataVersionService}.
+ */
+@ExtendWith(MockitoExtension.class)
+public class DataVersionServiceTest {
+
+	@Mock
+	private PointsBalanceService pointsBalanceService;
+
+	@InjectMocks
+	private DataVersionService dataVersionService;
+
+	private SimpleMeterRegistry meterRegistry;
+
+	@BeforeEach
+	public void setUp() {
+		meterRegistry = new SimpleMeterRegistry();
+		ReflectionTestUtils.setField(dataVersionService, "meterRegistry", meterRegistry);
+	}
+
+	/**
+	 * A request without If-None-Match gets the current ETag, a request with it
+	 * gets 304 until the data version changes.
+	 */
+	@Test
+	public void testCheckNotModified_FollowsDataVersion() {
+		when(pointsBalanceService.getVersion(1L)).thenReturn(7L);
+
+		MockHttpServletResponse first = new MockHttpServletResponse();
+		assertFalse(dataVersionService.checkNotModified(
+				new ServletWebRequest(new MockHttpServletRequest("GET", "/"), first), 1L, "transactions"));
+		String etag = first.getHeader("ETag");
+		assertEquals("\"transactions-1-7\"", etag);
+
+		MockHttpServletResponse second = new MockHttpServletResponse();
+		assertTrue(dataVersionService.checkNotModified(new ServletWebRequest(conditional(etag), second), 1L,
+				"transactions"));
+		assertEquals(304, second.getStatus());
+
+		when(pointsBalanceService.getVersion(1L)).thenReturn(8L);
+		MockHttpServletResponse third = new MockHttpServletResponse();
+		assertFalse(dataVersionService.checkNotModified(new ServletWebRequest(conditional(etag), third), 1L,
+				"transactions"));
+		assertEquals(200, third.getStatus());
+		assertEquals("\"transactions-1-8\"", third.getHeader("ETag"));
+
+		assertEquals(1.0, count("not_modified"));
+		assertEquals(1.0, count("modified"));
+		assertEquals(1.0, count("unconditional"));
+	}
+
+	private MockHttpServletRequest conditional(String etag) {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/");
+		request.addHeader("If-None-Match", etag);
+		return request;
+	}
+
+	private double count(String outcome) {
+		return meterRegistry.get("rewards.etag.requests").tag("resource", "transactions").tag("outcome", outcome)
+				.counter().count();
+	}
+}
@@ -0,0 +1,99 @@
+package com.infy.RewardPointCalculator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.infy.RewardPointCalculator.dto.EndpointLatency;
+import com.infy.RewardPointCalculator.dto.LatencyReport;
+import com.infy.RewardPointCalculator.service.EndpointLatencyService;
+
+/**
+ * Unit tests for the per-endpoint latency histograms of the
+ * {@link EndpointLatencyService}.
+ */
+public class EndpointLatencyServiceTest {
+
+	private static final String POINTS = "/api/customers/reward-points";
+
+	private EndpointLatencyService endpointLatencyService;
+
+	@BeforeEach
+	public void setUp() {
+		endpointLatencyService = new EndpointLatencyService(60000000, 3, 2, 3);
+	}
+
+	/**
+	 * Latencies become readable per endpoint, method and status once the
+	 * interval ends.
+	 */
+	@Test
+	public void testReport_PercentilesOfLastInterval() {
+		for (int i = 1; i <= 1000; i++) {
+			endpointLatencyService.record("GET", POINTS, 200, TimeUnit.MILLISECONDS.toNanos(i));
+		}
+		endpointLatencyService.record("GET", POINTS, 500, TimeUnit.MILLISECONDS.toNanos(5));
+		assertTrue(endpointLatencyService.report("interval", null).getEndpoints().isEmpty());
+
+		endpointLatencyService.rotate();
+		LatencyReport report = endpointLatencyService.report("interval", null);
+
+		assertEquals(2, report.getEndpoints().size());
+		EndpointLatency ok = report.getEndpoints().get(0);
+		assertEquals(200, ok.getStatus());
+		assertEquals(1000, ok.getCount());
+		assertEquals(500000, ok.getP50Micros(), 500);
+		assertEquals(990000, ok.getP99Micros(), 1000);
+		assertEquals(1000000, ok.getMaxMicros(), 1000);
+		assertEquals(1, report.getEndpoints().get(1).getCount());
+	}
+
+	/**
+	 * A report since a snapshot covers only the requests recorded after it.
+	 */
+	@Test
+	public void testReport_DiffsAgainstSnapshot() {
+		endpointLatencyService.record("GET", POINTS, 200, TimeUnit.MILLISECONDS.toNanos(1));
+		endpointLatencyService.rotate();
+		long snapshot = endpointLatencyService.report("total", null).getSnapshotId();
+
+		endpointLatencyService.record("GET", POINTS, 200, TimeUnit.MILLISECONDS.toNanos(9));
+		endpointLatencyService.record("GET", POINTS, 200, TimeUnit.MILLISECONDS.toNanos(9));
+		endpointLatencyService.rotate();
+
+		assertEquals(3, endpointLatencyService.report("total", null).getEndpoints().get(0).getCount());
+		EndpointLatency diff = endpointLatencyService.report("total", snapshot).getEndpoints().get(0);
+		assertEquals(2, diff.getCount());
+		assertEquals(9000, diff.getP50Micros(), 10);
+
+		endpointLatencyService.rotate();
+		endpointLatencyService.rotate();
+		endpointLatencyService.rotate();
+		ResponseStatusException evicted = assertThrows(ResponseStatusException.class,
+				() -> endpointLatencyService.report("total", snapshot));
+		assertEquals(HttpStatus.NOT_FOUND, evicted.getStatusCode());
+	}
+
+	/**
+	 * Route patterns beyond the limit and requests without a route share one
+	 * endpoint.
+	 */
+	@Test
+	public void testRecord_BoundsEndpoints() {
+		endpointLatencyService.record("GET", "/a", 200, 1000);
+		endpointLatencyService.record("GET", "/b", 200, 1000);
+		endpointLatencyService.record("GET", "/c", 200, 1000);
+		endpointLatencyService.record("POST", null, 401, 1000);
+		endpointLatencyService.rotate();
+
+		LatencyReport report = endpointLatencyService.report("interval", null);
+		assertEquals(4, report.getEndpoints().size());
+		assertEquals(2, report.getEndpoints().stream()
+				.filter(row -> row.getEndpoint().equals(EndpointLatencyService.UNMATCHED)).count());
+	}
+}
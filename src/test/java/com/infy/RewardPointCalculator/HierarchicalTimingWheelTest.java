@@ -0,0 +1,61 @@
+package com.infy.RewardPointCalculator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.infy.RewardPointCalculator.Util.HierarchicalTimingWheel;
+
+/**
+ * Unit tests for the {@link HierarchicalTimingWheel} class.
+ */
+public class HierarchicalTimingWheelTest {
+
+	/**
+	 * Entries on every level, and beyond the highest level, expire in the tick of
+	 * their deadline and not before.
+	 */
+	@Test
+	public void testAdvance_ExpiresEntriesAtTheirDeadline() {
+		HierarchicalTimingWheel wheel = new HierarchicalTimingWheel(1000, 2);
+		long[] deadlines = { 1001, 1063, 1064, 1500, 5095, 5096, 20000 };
+		for (int i = 0; i < deadlines.length; i++) {
+			wheel.add(i, deadlines[i]);
+		}
+
+		List<String> expired = new ArrayList<>();
+		for (long time = 1000; time <= 20000; time++) {
+			long now = time;
+			wheel.advance(time, (id, deadline) -> {
+				assertEquals(now, deadline);
+				expired.add(id + "@" + now);
+			});
+		}
+
+		assertEquals(List.of("0@1001", "1@1063", "2@1064", "3@1500", "4@5095", "5@5096", "6@20000"), expired);
+		assertEquals(0, wheel.size());
+	}
+
+	/**
+	 * A jump of many ticks expires everything due in between, and entries added
+	 * with a deadline in the past expire on the next advance.
+	 */
+	@Test
+	public void testAdvance_CatchesUpAfterGap() {
+		HierarchicalTimingWheel wheel = new HierarchicalTimingWheel(0, 3);
+		wheel.add(1, 10);
+		wheel.add(2, 400);
+		wheel.add(3, 90000);
+		wheel.add(4, -5);
+
+		List<Long> expired = new ArrayList<>();
+		assertEquals(3, wheel.advance(500, (id, deadline) -> expired.add(id)));
+
+		assertEquals(List.of(4L, 1L, 2L), expired);
+		assertEquals(1, wheel.size());
+		assertEquals(500, wheel.currentTime());
+	}
+}
@@ -0,0 +1,200 @@
+package com.infy.RewardPointCalculator;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.infy.RewardPointCalculator.dto.TransactionSubmissionResult;
+import com.infy.RewardPointCalculator.model.CustomerTransaction;
+import com.infy.RewardPointCalculator.model.IdempotencyRecord;
+import com.infy.RewardPointCalculator.repository.CustomerTransactionRepository;
+import com.infy.RewardPointCalculator.repository.IdempotencyRecordRepository;
+import com.infy.RewardPointCalculator.service.CustomerLockManager;
+import com.infy.RewardPointCalculator.service.IdempotencyService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Unit tests for the {@link IdempotencyService} class.
+ * <p>
+ * These tests verify that a retried submission with the same Idempotency-Key
+ * returns the original transaction without running the insert again, both when
+ * the original response is still in memory and when it has to be loaded from
+ * the database, that the key is recorded in the transaction of the insert,
+ * and that a key reused for a different request is rejected.
+ * </p>
+ */
+@ExtendWith(MockitoExtension.class)
+public class IdempotencyServiceTest {
+
+	@Mock
+	private IdempotencyRecordRepository idempotencyRecordRepository;
+
+	@Mock
+	private CustomerTransactionRepository transactionRepository;
+
+	@Mock
+	private PlatformTransactionManager transactionManager;
+
+	private IdempotencyService idempotencyService;
+
+	private CustomerTransaction transaction;
+
+	/**
+	 * Creates the service with a small window and a transaction to return from
+	 * the insert.
+	 */
+	@BeforeEach
+	public void setUp() {
+		idempotencyService = new IdempotencyService(idempotencyRecordRepository, transactionRepository,
+				new CustomerLockManager(4, 3, 0, new SimpleMeterRegistry()), transactionManager, 100, 24,
+				new SimpleMeterRegistry());
+		lenient().when(transactionManager.getTransaction(any())).thenReturn(mock(TransactionStatus.class));
+
+		transaction = new CustomerTransaction();
+		transaction.setId(10L);
+		transaction.setAmount(120.0);
+	}
+
+	/**
+	 * The first submission runs the insert, the retry is answered from memory
+	 * and does not touch the insert path or the database again.
+	 */
+	@Test
+	public void testSubmit_RetryReplayedFromMemory() {
+		when(idempotencyRecordRepository.saveAndFlush(any(IdempotencyRecord.class)))
+				.thenAnswer(invocation -> invocation.getArgument(0));
+		AtomicInteger inserts = new AtomicInteger();
+
+		TransactionSubmissionResult first = idempotencyService.submit(1L, "key-1", "fp-1", () -> {
+			inserts.incrementAndGet();
+			return transaction;
+		});
+		TransactionSubmissionResult retry = idempotencyService.submit(1L, "key-1", "fp-1", () -> {
+			inserts.incrementAndGet();
+			return transaction;
+		});
+
+		assertFalse(first.isReplayed());
+		assertTrue(retry.isReplayed());
+		assertSame(transaction, retry.getTransaction());
+		assertEquals(1, inserts.get());
+		verify(transactionManager, times(1)).commit(any());
+	}
+
+	/**
+	 * The key is recorded with the ID of the created transaction before the
+	 * transaction of the insert commits, so the two never commit apart.
+	 */
+	@Test
+	public void testSubmit_KeyRecordedInTransactionOfInsert() {
+		when(idempotencyRecordRepository.saveAndFlush(any(IdempotencyRecord.class)))
+				.thenAnswer(invocation -> invocation.getArgument(0));
+
+		idempotencyService.submit(1L, "key-5", "fp-5", () -> transaction);
+
+		ArgumentCaptor<IdempotencyRecord> saved = ArgumentCaptor.forClass(IdempotencyRecord.class);
+		InOrder inOrder = inOrder(transactionManager, idempotencyRecordRepository);
+		inOrder.verify(transactionManager).getTransaction(any());
+		inOrder.verify(idempotencyRecordRepository, times(2)).saveAndFlush(saved.capture());
+		inOrder.verify(transactionManager).commit(any());
+		assertEquals(10L, saved.getValue().getTransactionId());
+		assertEquals("fp-5", saved.getValue().getRequestFingerprint());
+	}
+
+	/**
+	 * A key that is only known to the database, for example one stored by
+	 * another node, is caught by the unique constraint and the stored
+	 * transaction is returned without running the insert.
+	 */
+	@Test
+	public void testSubmit_KeyStoredInDatabaseReplayed() {
+		IdempotencyRecord stored = new IdempotencyRecord("1:key-2", 1L);
+		stored.setTransactionId(10L);
+		stored.setRequestFingerprint("fp-2");
+		stored.setCreatedAt(LocalDateTime.now());
+		when(idempotencyRecordRepository.saveAndFlush(any(IdempotencyRecord.class)))
+				.thenThrow(new DataIntegrityViolationException("duplicate key"));
+		when(idempotencyRecordRepository.findByIdempotencyKey("1:key-2")).thenReturn(Optional.of(stored));
+		when(transactionRepository.findById(10L)).thenReturn(Optional.of(transaction));
+
+		TransactionSubmissionResult result = idempotencyService.submit(1L, "key-2", "fp-2", () -> {
+			throw new AssertionError("Insert must not run for a replayed key");
+		});
+
+		assertTrue(result.isReplayed());
+		assertEquals(10L, result.getTransaction().getId());
+	}
+
+	/**
+	 * A failed insert rolls back the record of the key with it, so the client can
+	 * retry it.
+	 */
+	@Test
+	public void testSubmit_FailedInsertReleasesKey() {
+		when(idempotencyRecordRepository.saveAndFlush(any(IdempotencyRecord.class)))
+				.thenAnswer(invocation -> invocation.getArgument(0));
+
+		assertThrows(IllegalStateException.class, () -> idempotencyService.submit(1L, "key-4", "fp-4", () -> {
+			throw new IllegalStateException("insert failed");
+		}));
+
+		verify(transactionManager, times(1)).rollback(any());
+		verify(transactionManager, never()).commit(any());
+	}
+
+	/**
+	 * A key reused with a different request is rejected with 422, whether the
+	 * original is still in memory or only in the database.
+	 */
+	@Test
+	public void testSubmit_KeyReusedForDifferentRequestRejected() {
+		when(idempotencyRecordRepository.saveAndFlush(any(IdempotencyRecord.class)))
+				.thenAnswer(invocation -> invocation.getArgument(0));
+		idempotencyService.submit(1L, "key-6", "fp-6", () -> transaction);
+
+		ResponseStatusException fromMemory = assertThrows(ResponseStatusException.class,
+				() -> idempotencyService.submit(1L, "key-6", "other", () -> transaction));
+		assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, fromMemory.getStatusCode());
+
+		IdempotencyRecord stored = new IdempotencyRecord("1:key-7", 1L);
+		stored.setTransactionId(10L);
+		stored.setRequestFingerprint("fp-7");
+		when(idempotencyRecordRepository.saveAndFlush(any(IdempotencyRecord.class)))
+				.thenThrow(new DataIntegrityViolationException("duplicate key"));
+		when(idempotencyRecordRepository.findByIdempotencyKey("1:key-7")).thenReturn(Optional.of(stored));
+
+		ResponseStatusException fromDatabase = assertThrows(ResponseStatusException.class,
+				() -> idempotencyService.submit(1L, "key-7", "other", () -> transaction));
+		assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, fromDatabase.getStatusCode());
+	}
+
+	/**
+	 * The fingerprint depends on every field of the request.
+	 */
+	@Test
+	public void testFingerprint_DiffersByField() {
+		String fingerprint = IdempotencyService.fingerprint(120.0, "Groceries", "2024-01-15");
+
+		assertEquals(fingerprint, IdempotencyService.fingerprint(120.0, "Groceries", "2024-01-15"));
+		assertNotEquals(fingerprint, IdempotencyService.fingerprint(121.0, "Groceries", "2024-01-15"));
+		assertNotEquals(fingerprint, IdempotencyService.fingerprint(120.0, "Groceries", "2024-01-16"));
+	}
+}
@@ -0,0 +1,166 @@
+package com.infy.RewardPointCalculator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.infy.RewardPointCalculator.Util.RewardPointCalculator;
+import com.infy.RewardPointCalculator.dto.ImpactSimulationReport;
+import com.infy.RewardPointCalculator.dto.RewardRuleDTO;
+import com.infy.RewardPointCalculator.service.CategoryMultiplierService;
+import com.infy.RewardPointCalculator.service.ImpactSimulationService;
+import com.infy.RewardPointCalculator.service.RewardSimulationService;
+
+/**
+ * Unit tests for the {@link ImpactSimulationService} class, run against an
+ * in-memory H2 database.
+ * <p>
+ * The chunks are much smaller than the table, so the tests cover handing
+ * chunks back and forth between the cursor and the pool, and a last partial
+ * chunk.
+ * </p>
+ */
+@ExtendWith(MockitoExtension.class)
+public class ImpactSimulationServiceTest {
+
+	private static final int TRANSACTIONS = 25000;
+
+	@Spy
+	private DriverManagerDataSource dataSource = new DriverManagerDataSource(
+			"jdbc:h2:mem:impact;NON_KEYWORDS=MONTH,YEAR;DB_CLOSE_DELAY=-1", "sa", "");
+
+	@Spy
+	private CategoryMultiplierService categoryMultiplierService = new CategoryMultiplierService();
+
+	@Spy
+	private RewardSimulationService rewardSimulationService = new RewardSimulationService();
+
+	@InjectMocks
+	private ImpactSimulationService impactSimulationService;
+
+	private JdbcTemplate jdbcTemplate;
+
+	@BeforeEach
+	public void setUp() {
+		jdbcTemplate = new JdbcTemplate(dataSource);
+		jdbcTemplate.execute("CREATE TABLE customer_transaction (id BIGINT AUTO_INCREMENT PRIMARY KEY, "
+				+ "customer_id BIGINT NOT NULL, amount DOUBLE PRECISION NOT NULL, spent_details TEXT, "
+				+ "date DATE NOT NULL)");
+
+		List<Object[]> rows = new ArrayList<>();
+		for (int i = 0; i < TRANSACTIONS; i++) {
+			rows.add(new Object[] { (long) (i % 97), amountOf(i),
+					Date.valueOf(LocalDate.of(2024, 1, 1).plusDays(i % 90)) });
+		}
+		jdbcTemplate.batchUpdate("INSERT INTO customer_transaction (customer_id, amount, date) VALUES (?, ?, ?)",
+				rows);
+
+		ReflectionTestUtils.setField(impactSimulationService, "parallelism", 4);
+		ReflectionTestUtils.setField(impactSimulationService, "fetchSize", 1000);
+		ReflectionTestUtils.setField(impactSimulationService, "chunkSize", 3000);
+		impactSimulationService.init();
+	}
+
+	@AfterEach
+	public void tearDown() {
+		impactSimulationService.shutdown();
+		jdbcTemplate.execute("DROP ALL OBJECTS");
+	}
+
+	/**
+	 * The totals, the months and the tiers add up to evaluating every
+	 * transaction one by one.
+	 */
+	@Test
+	public void testSimulate_AggregatesMatchSequentialEvaluation() throws InterruptedException {
+		long expectedCurrent = 0;
+		long expectedSimulated = 0;
+		long aboveHundred = 0;
+		for (int i = 0; i < TRANSACTIONS; i++) {
+			double amount = amountOf(i);
+			expectedCurrent += RewardPointCalculator.calculatePoints(amount);
+			expectedSimulated += (int) (Math.max(0, Math.min(amount, 100) - 25) * 1)
+					+ (int) (Math.max(0, amount - 100) * 3);
+			if (amount > 100) {
+				aboveHundred++;
+			}
+		}
+
+		impactSimulationService.start(rule(25, 1, 100, 3));
+		ImpactSimulationReport report = awaitReport();
+
+		assertEquals("COMPLETED", report.getState());
+		assertEquals(TRANSACTIONS, report.getTransactionsScanned());
+		assertEquals(9, report.getChunksEvaluated());
+		assertEquals(expectedCurrent, report.getCurrentTotal());
+		assertEquals(expectedSimulated, report.getSimulatedTotal());
+		assertEquals(3, report.getMonths().size());
+		assertEquals(1, report.getMonths().get(0).getMonth());
+		assertEquals(expectedSimulated,
+				report.getMonths().stream().mapToLong(month -> month.getSimulatedPoints()).sum());
+		assertEquals(3, report.getTiers().size());
+		assertNull(report.getTiers().get(0).getAbove());
+		assertEquals(aboveHundred, report.getTiers().get(2).getTransactions());
+		assertEquals(expectedCurrent, report.getTiers().stream().mapToLong(tier -> tier.getCurrentPoints()).sum());
+	}
+
+	/**
+	 * An invalid rule is rejected before a job starts.
+	 */
+	@Test
+	public void testSimulate_InvalidRuleRejected() {
+		RewardRuleDTO rule = new RewardRuleDTO();
+		rule.setTiers(List.of());
+
+		ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+				() -> impactSimulationService.start(rule));
+
+		assertEquals(HttpStatus.BAD_REQUEST, exception.getStatusCode());
+		assertThrows(ResponseStatusException.class, () -> impactSimulationService.getLatestReport());
+	}
+
+	private static double amountOf(int index) {
+		return 10.0 + (index * 37) % 250 + (index % 4) * 0.25;
+	}
+
+	private ImpactSimulationReport awaitReport() throws InterruptedException {
+		for (int i = 0; i < 500; i++) {
+			ImpactSimulationReport report = impactSimulationService.getLatestReport();
+			if (!"RUNNING".equals(report.getState())) {
+				return report;
+			}
+			Thread.sleep(10);
+		}
+		fail("Impact simulation did not finish in time");
+		return null;
+	}
+
+	/**
+	 * @param tiers Pairs of threshold and points per dollar.
+	 */
+	private RewardRuleDTO rule(double... tiers) {
+		List<RewardRuleDTO.Tier> list = new ArrayList<>();
+		for (int i = 0; i < tiers.length; i += 2) {
+			list.add(new RewardRuleDTO.Tier(tiers[i], tiers[i + 1]));
+		}
+		RewardRuleDTO rule = new RewardRuleDTO();
+		rule.setTiers(list);
+		return rule;
+	}
+}
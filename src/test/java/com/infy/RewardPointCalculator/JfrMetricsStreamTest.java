@@ -0,0 +1,72 @@
+package com.infy.RewardPointCalculator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.infy.RewardPointCalculator.jfr.JfrMetricsStream;
+import com.infy.RewardPointCalculator.jfr.RewardAccrualEvent;
+import com.infy.RewardPointCalculator.jfr.RewardRecomputeEvent;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Unit tests for the {@link JfrMetricsStream} and the reward Flight Recorder
+ * events.
+ */
+public class JfrMetricsStreamTest {
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private JfrMetricsStream jfrMetricsStream;
+
+	@AfterEach
+	public void tearDown() {
+		if (jfrMetricsStream != null) {
+			jfrMetricsStream.stop();
+		}
+	}
+
+	/**
+	 * Without a recording the events are disabled and not committed.
+	 */
+	@Test
+	public void testEvents_DisabledWithoutRecording() {
+		RewardAccrualEvent event = new RewardAccrualEvent();
+		event.begin();
+		assertFalse(event.shouldCommit());
+	}
+
+	/**
+	 * A committed recompute event shows up in the phase timers.
+	 */
+	@Test
+	public void testStream_TurnsEventsIntoMetrics() throws InterruptedException {
+		jfrMetricsStream = new JfrMetricsStream(true, 0, meterRegistry);
+		jfrMetricsStream.start();
+
+		RewardRecomputeEvent event = new RewardRecomputeEvent();
+		event.begin();
+		event.addAttempt(TimeUnit.MILLISECONDS.toNanos(3), 1000, 2000, 12);
+		event.set(1L, 2024, 3, 120);
+		assertTrue(event.shouldCommit());
+		event.commit();
+
+		// The meters are registered up front; the stream delivers events once per
+		// flush, about every second, and the row count is recorded last
+		DistributionSummary rows = meterRegistry.get("rewards.jfr.recompute.rows").summary();
+		long deadline = System.currentTimeMillis() + 10000;
+		while (rows.count() == 0 && System.currentTimeMillis() < deadline) {
+			Thread.sleep(50);
+		}
+		Timer fetch = meterRegistry.get("rewards.jfr.recompute").tag("phase", "fetch").timer();
+		assertEquals(1, fetch.count());
+		assertEquals(3.0, fetch.totalTime(TimeUnit.MILLISECONDS), 0.001);
+		assertEquals(1, rows.count());
+		assertEquals(12.0, rows.totalAmount());
+	}
+}
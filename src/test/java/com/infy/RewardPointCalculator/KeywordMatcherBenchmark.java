@@ -0,0 +1,72 @@
+package com.infy.RewardPointCalculator;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.infy.RewardPointCalculator.Util.KeywordMatcher;
+
+/**
+ * JMH benchmark of classifying the spent details of one transaction with the
+ * {@link KeywordMatcher}, for growing numbers of category keywords. Run with
+ * {@code mvn -Pbenchmark test-compile exec:exec}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class KeywordMatcherBenchmark {
+
+	private static final String[] SPENT_DETAILS = { "Weekly grocery shopping at FreshMart",
+			"Shell fuel station #221", "Dinner with friends", "Online electronics order",
+			"Pharmacy prescription refill", "Monthly gym membership", "Coffee and bagel", "Airline ticket to Denver" };
+
+	@Param({ "10", "1000", "5000" })
+	private int keywordCount;
+
+	private KeywordMatcher matcher;
+	private String[] texts;
+	private int next;
+
+	@Setup
+	public void setUp() {
+		Random random = new Random(42);
+		Map<String, Integer> keywords = new HashMap<>();
+		keywords.put("grocery", 1);
+		keywords.put("fuel", 2);
+		while (keywords.size() < keywordCount) {
+			StringBuilder keyword = new StringBuilder();
+			int length = 4 + random.nextInt(8);
+			for (int i = 0; i < length; i++) {
+				keyword.append((char) ('a' + random.nextInt(26)));
+			}
+			keywords.put(keyword.toString(), random.nextInt(20));
+		}
+		matcher = new KeywordMatcher(keywords);
+
+		texts = new String[1024];
+		for (int i = 0; i < texts.length; i++) {
+			texts[i] = SPENT_DETAILS[i % SPENT_DETAILS.length] + " " + i;
+		}
+	}
+
+	@Benchmark
+	public int classify() {
+		return matcher.match(texts[next++ & (texts.length - 1)]);
+	}
+}
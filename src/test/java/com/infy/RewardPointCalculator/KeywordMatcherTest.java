@@ -0,0 +1,66 @@
+package com.infy.RewardPointCalculator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.infy.RewardPointCalculator.Util.KeywordMatcher;
+
+/**
+ * Unit tests for the {@link KeywordMatcher} class.
+ */
+public class KeywordMatcherTest {
+
+	/**
+	 * Keywords are found anywhere in the text, ignoring case, and the highest
+	 * value among the keywords found is returned.
+	 */
+	@Test
+	public void testMatch_ReturnsHighestValueFound() {
+		Map<String, Integer> keywords = new HashMap<>();
+		keywords.put("grocery", 1);
+		keywords.put("fuel", 2);
+		keywords.put("Shell", 3);
+		KeywordMatcher matcher = new KeywordMatcher(keywords);
+
+		assertEquals(1, matcher.match("Weekly GROCERY shopping"));
+		assertEquals(2, matcher.match("refuel at the station"));
+		assertEquals(3, matcher.match("grocery and fuel at the shell station"));
+		assertEquals(KeywordMatcher.NO_MATCH, matcher.match("dinner with friends"));
+		assertEquals(KeywordMatcher.NO_MATCH, matcher.match(null));
+	}
+
+	/**
+	 * Keywords that overlap or are suffixes of each other are all found, which
+	 * needs the failure links of the automaton.
+	 */
+	@Test
+	public void testMatch_FindsOverlappingKeywords() {
+		Map<String, Integer> keywords = new HashMap<>();
+		keywords.put("he", 1);
+		keywords.put("she", 2);
+		keywords.put("hers", 4);
+		keywords.put("his", 3);
+		KeywordMatcher matcher = new KeywordMatcher(keywords);
+
+		assertEquals(2, matcher.match("ushe"));
+		assertEquals(4, matcher.match("ushers"));
+		assertEquals(3, matcher.match("ahishe"));
+		assertEquals(1, matcher.match("the"));
+		assertEquals(KeywordMatcher.NO_MATCH, matcher.match("hs"));
+	}
+
+	/**
+	 * A matcher without keywords matches nothing.
+	 */
+	@Test
+	public void testMatch_EmptyMatcher() {
+		KeywordMatcher matcher = new KeywordMatcher(Map.of());
+
+		assertEquals(KeywordMatcher.NO_MATCH, matcher.match("grocery"));
+		assertEquals(1, matcher.stateCount());
+	}
+}
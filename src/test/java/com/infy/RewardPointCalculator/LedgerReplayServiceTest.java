@@ -0,0 +1,105 @@
+package com.infy.RewardPointCalculator;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.infy.RewardPointCalculator.dto.LedgerReplaySummary;
+import com.infy.RewardPointCalculator.ledger.LedgerReplayer;
+import com.infy.RewardPointCalculator.ledger.MonthlyBalances;
+import com.infy.RewardPointCalculator.ledger.RewardLedger;
+import com.infy.RewardPointCalculator.repository.RewardPointsBatchWriter;
+import com.infy.RewardPointCalculator.repository.RewardPointsBatchWriter.MonthlyTotal;
+import com.infy.RewardPointCalculator.service.LedgerReplayService;
+import com.infy.RewardPointCalculator.service.PointsBalanceService;
+import com.infy.RewardPointCalculator.service.PointsExpiryService;
+
+/**
+ * Unit tests for the {@link LedgerReplayService} class.
+ * <p>
+ * The ledger of a node only holds its own changes, so writing it back is only
+ * allowed on a node declared the only writer.
+ * </p>
+ */
+@ExtendWith(MockitoExtension.class)
+public class LedgerReplayServiceTest {
+
+	@Mock
+	private RewardLedger rewardLedger;
+
+	@Mock
+	private RewardPointsBatchWriter rewardPointsBatchWriter;
+
+	@Mock
+	private PointsExpiryService pointsExpiryService;
+
+	@Mock
+	private PointsBalanceService pointsBalanceService;
+
+	@InjectMocks
+	private LedgerReplayService ledgerReplayService;
+
+	private LedgerReplayer.Replay replay;
+
+	@BeforeEach
+	public void setUp() {
+		MonthlyBalances balances = new MonthlyBalances();
+		balances.add(1L, 2024, 5, 90);
+		replay = new LedgerReplayer.Replay(balances, 0, 1, 1);
+		ReflectionTestUtils.setField(ledgerReplayService, "batchSize", 10);
+	}
+
+	/**
+	 * Without the single writer declaration the totals are summarized, but never
+	 * written.
+	 */
+	@Test
+	public void testReplay_ApplyRefusedWithSeveralWriters() {
+		when(rewardLedger.replay()).thenReturn(replay);
+
+		LedgerReplaySummary summary = ledgerReplayService.replay(false);
+		ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+				() -> ledgerReplayService.replay(true));
+
+		assertEquals(90, summary.getTotalPoints());
+		assertEquals(HttpStatus.CONFLICT, exception.getStatusCode());
+		verify(rewardLedger, times(1)).replay();
+		verifyNoInteractions(rewardPointsBatchWriter);
+	}
+
+	/**
+	 * On the single writer the rebuilt totals are written and the balances of
+	 * their customers resynced.
+	 */
+	@Test
+	public void testReplay_ApplyWritesTotalsOnSingleWriter() {
+		ReflectionTestUtils.setField(ledgerReplayService, "singleWriter", true);
+		when(rewardLedger.replay()).thenReturn(replay);
+		// The batch is cleared after every write, so the totals are copied
+		List<MonthlyTotal> written = new ArrayList<>();
+		when(rewardPointsBatchWriter.upsert(anyList())).thenAnswer(invocation -> {
+			written.addAll(invocation.getArgument(0));
+			return 0;
+		});
+
+		LedgerReplaySummary summary = ledgerReplayService.replay(true);
+
+		assertEquals(1, summary.getRowsWritten());
+		assertEquals(90, written.get(0).getPoints());
+		verify(pointsBalanceService).resync(Set.of(1L));
+	}
+}
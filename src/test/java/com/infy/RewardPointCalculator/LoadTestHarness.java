@@ -0,0 +1,228 @@
+package com.infy.RewardPointCalculator;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * End-to-end HTTP load test of the customer flow: register, log in, add
+ * transactions, read the reward points and log out. Run with
+ * {@code mvn -Ploadtest test-compile exec:java -Dloadtest.args="..."}, or
+ * start the main method from the IDE.
+ *
+ * The load follows an open model: flows arrive at the given rate, at fixed
+ * intervals or as a Poisson process, whether or not earlier flows have
+ * finished, like independent users do. Within a flow, each step starts when
+ * the previous one returned, after the think time. Latencies are measured
+ * from the intended start of each step, see {@link LoadTestReport}. Arrivals
+ * beyond the in-flight limit are dropped and reported.
+ *
+ * Options, as --name=value:
+ * <ul>
+ * <li>base-url: the application to test, default http://localhost:8090</li>
+ * <li>embedded: start the application in this JVM on a random port with the
+ * h2 profile and an in-memory database, instead of using base-url. Client and
+ * server then share the machine's CPUs.</li>
+ * <li>rate: flows started per second, default 20</li>
+ * <li>arrivals: constant or poisson, default poisson</li>
+ * <li>duration: seconds of arrivals, default 60</li>
+ * <li>transactions: transactions added per flow, default 3</li>
+ * <li>think-ms: pause between the steps of a flow, default 0</li>
+ * <li>max-in-flight: concurrent flows before arrivals are dropped, default
+ * 2000</li>
+ * <li>timeout-ms: timeout of each request, default 30000</li>
+ * <li>seed: seed of the arrivals and transaction amounts, default 42</li>
+ * <li>report-dir: where the report goes, default target/loadtest</li>
+ * </ul>
+ */
+public class LoadTestHarness {
+
+	private static final ObjectMapper JSON = new ObjectMapper();
+
+	private final String baseUrl;
+	private final int transactions;
+	private final long thinkMillis;
+	private final Duration timeout;
+	private final HttpClient httpClient;
+	private final LoadTestReport report = new LoadTestReport();
+	private final String runId = Long.toString(System.currentTimeMillis(), 36);
+
+	private LoadTestHarness(String baseUrl, int transactions, long thinkMillis, Duration timeout,
+			ExecutorService executor) {
+		this.baseUrl = baseUrl;
+		this.transactions = transactions;
+		this.thinkMillis = thinkMillis;
+		this.timeout = timeout;
+		this.httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).executor(executor)
+				.connectTimeout(Duration.ofSeconds(10)).build();
+	}
+
+	public static void main(String[] args) throws Exception {
+		Map<String, String> options = parse(args);
+		double rate = Double.parseDouble(options.getOrDefault("rate", "20"));
+		boolean poisson = options.getOrDefault("arrivals", "poisson").equals("poisson");
+		long durationSeconds = Long.parseLong(options.getOrDefault("duration", "60"));
+		int maxInFlight = Integer.parseInt(options.getOrDefault("max-in-flight", "2000"));
+		SplittableRandom random = new SplittableRandom(Long.parseLong(options.getOrDefault("seed", "42")));
+
+		ConfigurableApplicationContext application = null;
+		String baseUrl = options.getOrDefault("base-url", "http://localhost:8090");
+		if (options.containsKey("embedded")) {
+			// As arguments, default properties would lose to application.properties
+			application = new SpringApplicationBuilder(RewardPointCalculatorApplication.class).profiles("h2")
+					.run("--server.port=0", "--management.server.port=-1",
+							"--spring.datasource.url=jdbc:h2:mem:loadtest;NON_KEYWORDS=MONTH,YEAR;DB_CLOSE_DELAY=-1");
+			baseUrl = "http://localhost:" + ((WebServerApplicationContext) application).getWebServer().getPort();
+		}
+
+		ExecutorService executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors() * 2);
+		LoadTestHarness harness = new LoadTestHarness(baseUrl,
+				Integer.parseInt(options.getOrDefault("transactions", "3")),
+				Long.parseLong(options.getOrDefault("think-ms", "0")),
+				Duration.ofMillis(Long.parseLong(options.getOrDefault("timeout-ms", "30000"))), executor);
+		String description = String.format("Target %s, %.1f flows/s (%s arrivals) for %d s, %d transactions per "
+				+ "flow, think time %d ms", baseUrl, rate, poisson ? "poisson" : "constant", durationSeconds,
+				harness.transactions, harness.thinkMillis);
+		System.out.println(description);
+
+		Semaphore inFlight = new Semaphore(maxInFlight);
+		long start = System.nanoTime();
+		long end = start + TimeUnit.SECONDS.toNanos(durationSeconds);
+		double intervalNanos = TimeUnit.SECONDS.toNanos(1) / rate;
+		double next = start;
+		for (int flow = 0; next < end; flow++) {
+			long intended = (long) next;
+			LockSupport.parkNanos(intended - System.nanoTime());
+			if (inFlight.tryAcquire()) {
+				harness.runFlow(flow, intended, random.split()).whenComplete((ok, e) -> inFlight.release());
+			} else {
+				harness.report.arrivalDropped();
+			}
+			next += poisson ? -Math.log(1 - random.nextDouble()) * intervalNanos : intervalNanos;
+		}
+		// Let the flows in flight finish
+		inFlight.tryAcquire(maxInFlight, 5, TimeUnit.MINUTES);
+		double seconds = (System.nanoTime() - start) / 1e9;
+
+		Path path = harness.report.write(Path.of(options.getOrDefault("report-dir", "target/loadtest")), description,
+				seconds);
+		System.out.println("Report written to " + path.toAbsolutePath());
+		executor.shutdownNow();
+		if (application != null) {
+			application.close();
+		}
+	}
+
+	/**
+	 * Runs one flow.
+	 *
+	 * @return A future completed with true if every step succeeded.
+	 */
+	private CompletableFuture<Boolean> runFlow(int flow, long arrivalNanos, SplittableRandom random) {
+		report.flowStarted();
+		String email = "load-" + runId + "-" + flow + "@loadtest.example";
+		String password = "password-" + flow;
+
+		CompletableFuture<String> steps = step("register", arrivalNanos,
+				post("/api/customers/register", Map.of("firstName", "Load", "lastName", "Test" + flow, "email", email,
+						"password", password), null))
+				.thenCompose(registered -> step("login", thinkStart(),
+						post("/api/customers/login", Map.of("email", email, "password", password), null)))
+				.thenApply(LoadTestHarness::jwt);
+		for (int i = 0; i < transactions; i++) {
+			double amount = Math.round((10 + random.nextDouble() * 190) * 100) / 100.0;
+			steps = steps.thenCompose(jwt -> step("add_transaction", thinkStart(),
+					post("/api/customers/transactions", Map.of("amount", amount, "spentDetails", "groceries",
+							"transactionDate", LocalDate.now().toString()), jwt)).thenApply(response -> jwt));
+		}
+		return steps
+				.thenCompose(jwt -> step("read_points", thinkStart(),
+						request("/api/customers/reward-points/all", jwt).GET().build()).thenApply(response -> jwt))
+				.thenCompose(jwt -> step("logout", thinkStart(),
+						request("/api/customers/logout", jwt).POST(HttpRequest.BodyPublishers.noBody()).build()))
+				.handle((response, e) -> {
+					report.flowCompleted(e == null);
+					return e == null;
+				});
+	}
+
+	/**
+	 * Sends one request after its intended start and records its latencies.
+	 * A failed step fails the rest of the flow.
+	 */
+	private CompletableFuture<HttpResponse<String>> step(String name, long intendedNanos, HttpRequest request) {
+		CompletableFuture<Void> wait = intendedNanos > System.nanoTime()
+				? CompletableFuture.runAsync(() -> {
+				}, CompletableFuture.delayedExecutor(intendedNanos - System.nanoTime(), TimeUnit.NANOSECONDS))
+				: CompletableFuture.completedFuture(null);
+		return wait.thenCompose(ready -> {
+			long sent = System.nanoTime();
+			return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString()).handle((response, e) -> {
+				boolean ok = e == null && response.statusCode() / 100 == 2;
+				report.record(name, intendedNanos, sent, System.nanoTime(), ok);
+				if (!ok) {
+					throw new CompletionException(new IllegalStateException(
+							name + " failed: " + (e != null ? e : "status " + response.statusCode())));
+				}
+				return response;
+			});
+		});
+	}
+
+	private long thinkStart() {
+		return System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(thinkMillis);
+	}
+
+	private HttpRequest post(String path, Map<String, ?> body, String jwt) {
+		try {
+			return request(path, jwt).header("Content-Type", "application/json")
+					.POST(HttpRequest.BodyPublishers.ofString(JSON.writeValueAsString(body))).build();
+		} catch (Exception e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private HttpRequest.Builder request(String path, String jwt) {
+		HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(timeout);
+		return jwt == null ? builder : builder.header("Authorization", "Bearer " + jwt);
+	}
+
+	private static String jwt(HttpResponse<String> response) {
+		try {
+			return JSON.readTree(response.body()).get("jwt").asText();
+		} catch (Exception e) {
+			throw new IllegalStateException("No token in the login response", e);
+		}
+	}
+
+	private static Map<String, String> parse(String[] args) {
+		Map<String, String> options = new HashMap<>();
+		for (String arg : args) {
+			String option = arg.startsWith("--") ? arg.substring(2) : arg;
+			int equals = option.indexOf('=');
+			options.put(equals < 0 ? option : option.substring(0, equals),
+					equals < 0 ? "true" : option.substring(equals + 1));
+		}
+		return options;
+	}
+}
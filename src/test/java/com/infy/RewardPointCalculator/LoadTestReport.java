@@ -0,0 +1,131 @@
+package com.infy.RewardPointCalculator;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+/**
+ * Latencies of the {@link LoadTestHarness}, per step of the flow, in
+ * HdrHistograms with microsecond resolution.
+ *
+ * Every step records two latencies. The response time runs from the moment
+ * the step was meant to start, which for the first step is the flow's
+ * scheduled arrival, so a stalled server or load generator shows up as
+ * latency instead of silently lowering the load (coordinated omission). The
+ * service time runs from the moment the request was actually sent.
+ */
+public class LoadTestReport {
+
+	private static final long HIGHEST_MICROS = TimeUnit.MINUTES.toMicros(10);
+
+	private final Map<String, Step> steps = new ConcurrentHashMap<>();
+	private final AtomicLong flowsStarted = new AtomicLong();
+	private final AtomicLong flowsCompleted = new AtomicLong();
+	private final AtomicLong flowsFailed = new AtomicLong();
+	private final AtomicLong arrivalsDropped = new AtomicLong();
+
+	/**
+	 * The latencies and outcomes of one step.
+	 */
+	private static class Step {
+
+		private final Recorder responseTime = new Recorder(HIGHEST_MICROS, 3);
+		private final Recorder serviceTime = new Recorder(HIGHEST_MICROS, 3);
+		private final AtomicLong errors = new AtomicLong();
+	}
+
+	/**
+	 * Records one step.
+	 *
+	 * @param step          The name of the step.
+	 * @param intendedNanos When the step was meant to start.
+	 * @param sentNanos     When its request was sent.
+	 * @param doneNanos     When its response arrived.
+	 * @param ok            Whether the step succeeded.
+	 */
+	public void record(String step, long intendedNanos, long sentNanos, long doneNanos, boolean ok) {
+		Step stats = steps.computeIfAbsent(step, name -> new Step());
+		stats.responseTime.recordValue(micros(doneNanos - intendedNanos));
+		stats.serviceTime.recordValue(micros(doneNanos - sentNanos));
+		if (!ok) {
+			stats.errors.incrementAndGet();
+		}
+	}
+
+	public void flowStarted() {
+		flowsStarted.incrementAndGet();
+	}
+
+	public void flowCompleted(boolean ok) {
+		(ok ? flowsCompleted : flowsFailed).incrementAndGet();
+	}
+
+	public void arrivalDropped() {
+		arrivalsDropped.incrementAndGet();
+	}
+
+	/**
+	 * Writes report.md with the percentiles of every step, and the full
+	 * percentile distribution of each step's response time as a .hgrm file that
+	 * HdrHistogram's plotter can compare across runs.
+	 *
+	 * @param directory   The directory to write to.
+	 * @param description The run's settings, written at the top.
+	 * @param seconds     The duration of the run.
+	 * @return The path of the report.
+	 */
+	public Path write(Path directory, String description, double seconds) throws IOException {
+		Files.createDirectories(directory);
+		Map<String, Histogram[]> histograms = new TreeMap<>();
+		steps.forEach((name, step) -> histograms.put(name,
+				new Histogram[] { step.responseTime.getIntervalHistogram(), step.serviceTime.getIntervalHistogram() }));
+
+		StringBuilder report = new StringBuilder();
+		report.append("# Load test report\n\n").append(description).append("\n\n");
+		report.append(String.format("Flows: %d started, %d completed, %d failed, %d arrivals dropped, "
+				+ "%.1f completed flows/s%n%n", flowsStarted.get(), flowsCompleted.get(), flowsFailed.get(),
+				arrivalsDropped.get(), flowsCompleted.get() / seconds));
+		report.append("Latencies in ms. Response time is corrected for coordinated omission, "
+				+ "service time is not.\n\n");
+		report.append("| Step | Latency | Count | Errors | p50 | p90 | p99 | p99.9 | Max |\n");
+		report.append("|---|---|---|---|---|---|---|---|---|\n");
+		histograms.forEach((name, pair) -> {
+			long errors = steps.get(name).errors.get();
+			row(report, name, "response", pair[0], errors);
+			row(report, name, "service", pair[1], errors);
+		});
+
+		Path path = directory.resolve("report.md");
+		Files.writeString(path, report);
+		for (Map.Entry<String, Histogram[]> entry : histograms.entrySet()) {
+			try (PrintStream out = new PrintStream(directory.resolve(entry.getKey() + ".hgrm").toFile())) {
+				entry.getValue()[0].outputPercentileDistribution(out, 1000.0);
+			}
+		}
+		return path;
+	}
+
+	private static void row(StringBuilder report, String step, String latency, Histogram histogram, long errors) {
+		report.append(String.format("| %s | %s | %d | %d | %.2f | %.2f | %.2f | %.2f | %.2f |%n", step, latency,
+				histogram.getTotalCount(), errors, millis(histogram.getValueAtPercentile(50)),
+				millis(histogram.getValueAtPercentile(90)), millis(histogram.getValueAtPercentile(99)),
+				millis(histogram.getValueAtPercentile(99.9)), millis(histogram.getMaxValue())));
+	}
+
+	private static long micros(long nanos) {
+		return Math.min(Math.max(TimeUnit.NANOSECONDS.toMicros(nanos), 0), HIGHEST_MICROS);
+	}
+
+	private static double millis(long micros) {
+		return micros / 1000.0;
+	}
+}
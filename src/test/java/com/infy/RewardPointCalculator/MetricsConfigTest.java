@@ -0,0 +1,35 @@
+package com.infy.RewardPointCalculator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+import com.infy.RewardPointCalculator.config.MetricsConfig;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Unit tests for the tag cardinality limits of the {@link MetricsConfig}.
+ */
+public class MetricsConfigTest {
+
+	/**
+	 * URIs beyond the limit are not registered, and identifier tags are dropped.
+	 */
+	@Test
+	public void testMeterFilters_BoundTagCardinality() {
+		MetricsConfig metricsConfig = new MetricsConfig();
+		SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+		meterRegistry.config().meterFilter(metricsConfig.httpUriTagLimit(2))
+				.meterFilter(metricsConfig.identifierTagFilter());
+
+		for (int i = 0; i < 5; i++) {
+			Counter.builder("http.server.requests").tag("uri", "/unknown/" + i).tag("customerId", String.valueOf(i))
+					.register(meterRegistry).increment();
+		}
+
+		assertEquals(2, meterRegistry.find("http.server.requests").counters().size());
+		assertNull(meterRegistry.find("http.server.requests").tagKeys("customerId").counter());
+	}
+}
@@ -0,0 +1,59 @@
+package com.infy.RewardPointCalculator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.infy.RewardPointCalculator.Util.MonthlyPointsAccumulator;
+
+/**
+ * Unit tests for the {@link MonthlyPointsAccumulator} class.
+ */
+public class MonthlyPointsAccumulatorTest {
+
+	/**
+	 * Points of the same month are summed and months come out oldest first,
+	 * whatever order the transactions arrive in.
+	 */
+	@Test
+	public void testAdd_SumsPerMonthInOrder() {
+		MonthlyPointsAccumulator accumulator = new MonthlyPointsAccumulator();
+		accumulator.add(2024, 3, 90);
+		accumulator.add(2023, 12, 10);
+		accumulator.add(2024, 3, 25);
+		accumulator.add(2024, 1, 0);
+
+		List<String> months = new ArrayList<>();
+		accumulator.forEach((year, month, points) -> months.add(year + "-" + month + "=" + points));
+
+		assertEquals(List.of("2023-12=10", "2024-1=0", "2024-3=115"), months);
+		assertEquals(2024, accumulator.yearAt(2));
+		assertEquals(3, accumulator.monthAt(2));
+		assertEquals(115, accumulator.pointsAt(2));
+	}
+
+	/**
+	 * The accumulator grows beyond its initial capacity and is empty after
+	 * clearing.
+	 */
+	@Test
+	public void testClear_ReusedForNextCustomer() {
+		MonthlyPointsAccumulator accumulator = new MonthlyPointsAccumulator();
+		for (int year = 2020; year < 2025; year++) {
+			for (int month = 12; month >= 1; month--) {
+				accumulator.add(year, month, month);
+			}
+		}
+		assertEquals(60, accumulator.size());
+		assertEquals(2020, accumulator.yearAt(0));
+		assertEquals(1, accumulator.monthAt(0));
+
+		accumulator.clear();
+		accumulator.add(2025, 6, 7);
+		assertEquals(1, accumulator.size());
+		assertEquals(7, accumulator.pointsAt(0));
+	}
+}
@@ -0,0 +1,122 @@
+package com.infy.RewardPointCalculator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.infy.RewardPointCalculator.service.PasswordHashingService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Unit tests for the bounded pool of the {@link PasswordHashingService}.
+ */
+public class PasswordHashingServiceTest {
+
+	// Slow enough that a hash is still running while the test fills the queue
+	private static final int SLOW_COST = 14;
+
+	private SimpleMeterRegistry meterRegistry;
+	private ExecutorService executor;
+	private PasswordHashingService service;
+
+	@BeforeEach
+	public void setUp() {
+		meterRegistry = new SimpleMeterRegistry();
+		executor = Executors.newFixedThreadPool(2);
+	}
+
+	@AfterEach
+	public void tearDown() {
+		executor.shutdownNow();
+		if (service != null) {
+			service.shutdown();
+		}
+	}
+
+	/**
+	 * A hash matches its password only, and is reported as needing a rehash by
+	 * a service with a higher cost.
+	 */
+	@Test
+	public void testHash_MatchesAndNeedsRehash() {
+		service = new PasswordHashingService(1, 4, 5000, 50, 4, 4, meterRegistry);
+		String hash = service.hash("password123");
+
+		assertTrue(service.matches("password123", hash));
+		assertFalse(service.matches("password124", hash));
+		assertFalse(service.needsRehash(hash));
+		assertTrue(service.encoder().matches("password123", hash));
+
+		PasswordHashingService stronger = new PasswordHashingService(1, 4, 5000, 50, 5, 5, meterRegistry);
+		try {
+			assertTrue(stronger.needsRehash(hash));
+			assertTrue(stronger.encoder().upgradeEncoding(hash));
+			assertTrue(stronger.matches("password123", hash));
+		} finally {
+			stronger.shutdown();
+		}
+		assertEquals(1, meterRegistry.get("rewards.auth.hashing.time").tag("operation", "hash").timer().count());
+	}
+
+	/**
+	 * A hash arriving while the thread is busy and the queue is full is
+	 * rejected with 503 at once.
+	 */
+	@Test
+	public void testHash_RejectsWhenQueueFull() throws Exception {
+		service = new PasswordHashingService(1, 1, 30000, 50, SLOW_COST, SLOW_COST, meterRegistry);
+		executor.submit(() -> service.hash("first"));
+		waitFor(() -> gauge("rewards.auth.hashing.active") == 1);
+		executor.submit(() -> service.hash("second"));
+		waitFor(() -> gauge("rewards.auth.hashing.queue") == 1);
+
+		ResponseStatusException rejected = assertThrows(ResponseStatusException.class,
+				() -> service.hash("third"));
+		assertEquals(HttpStatus.SERVICE_UNAVAILABLE, rejected.getStatusCode());
+		assertEquals(1.0, rejected("queue_full"));
+	}
+
+	/**
+	 * A caller waiting longer than the timeout gets 503, and its queued hash is
+	 * dropped.
+	 */
+	@Test
+	public void testMatches_TimesOutWhileQueued() throws Exception {
+		service = new PasswordHashingService(1, 1, 50, 50, SLOW_COST, SLOW_COST, meterRegistry);
+		String hash = new BCryptPasswordEncoder(4).encode("password123");
+		executor.submit(() -> service.hash("first"));
+		waitFor(() -> gauge("rewards.auth.hashing.active") == 1);
+
+		ResponseStatusException timeout = assertThrows(ResponseStatusException.class,
+				() -> service.matches("password123", hash));
+		assertEquals(HttpStatus.SERVICE_UNAVAILABLE, timeout.getStatusCode());
+		assertEquals(1.0, rejected("timeout"));
+		waitFor(() -> gauge("rewards.auth.hashing.queue") == 0);
+	}
+
+	private double gauge(String name) {
+		return meterRegistry.get(name).gauge().value();
+	}
+
+	private double rejected(String reason) {
+		return meterRegistry.get("rewards.auth.hashing.rejected").tag("reason", reason).counter().count();
+	}
+
+	private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 5000;
+		while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+			Thread.sleep(5);
+		}
+		assertTrue(condition.getAsBoolean());
+	}
+}
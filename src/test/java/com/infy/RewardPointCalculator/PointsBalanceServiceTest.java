@@ -0,0 +1,162 @@
+package com.infy.RewardPointCalculator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.infy.RewardPointCalculator.model.CustomerPointsBalance;
+import com.infy.RewardPointCalculator.service.PointsBalanceService;
+
+/**
+ * Unit tests for the {@link PointsBalanceService} class, run against an
+ * in-memory H2 database. Customer 1 has earned 1000 points, of which 200
+ * expired.
+ */
+@ExtendWith(MockitoExtension.class)
+public class PointsBalanceServiceTest {
+
+	private static final DataSource DATA_SOURCE = new DriverManagerDataSource(
+			"jdbc:h2:mem:balance;NON_KEYWORDS=MONTH,YEAR;DB_CLOSE_DELAY=-1", "sa", "");
+
+	@Spy
+	private JdbcTemplate jdbcTemplate = new JdbcTemplate(DATA_SOURCE);
+
+	@Spy
+	private DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(DATA_SOURCE);
+
+	@InjectMocks
+	private PointsBalanceService pointsBalanceService;
+
+	@BeforeEach
+	public void setUp() {
+		jdbcTemplate.execute("CREATE TABLE reward_points (id BIGINT AUTO_INCREMENT PRIMARY KEY, "
+				+ "customer_id BIGINT NOT NULL, points INT NOT NULL, expired_points INT NOT NULL DEFAULT 0, "
+				+ "month INT NOT NULL, year INT NOT NULL)");
+		jdbcTemplate.execute("CREATE TABLE customer_points_balance (customer_id BIGINT PRIMARY KEY, "
+				+ "points BIGINT NOT NULL, expired_points BIGINT NOT NULL, version BIGINT NOT NULL, "
+				+ "updated_at TIMESTAMP)");
+		jdbcTemplate.execute("CREATE TABLE points_account (customer_id BIGINT PRIMARY KEY, "
+				+ "reserved_points BIGINT NOT NULL, redeemed_points BIGINT NOT NULL, updated_at TIMESTAMP)");
+
+		jdbcTemplate.update("INSERT INTO reward_points (customer_id, points, expired_points, month, year) "
+				+ "VALUES (1, 200, 200, 1, 2023), (1, 500, 0, 1, 2024), (1, 300, 0, 2, 2024)");
+
+		ReflectionTestUtils.setField(pointsBalanceService, "cacheTtlMillis", 60000L);
+		ReflectionTestUtils.setField(pointsBalanceService, "cacheSize", 1000);
+		pointsBalanceService.init();
+	}
+
+	@AfterEach
+	public void tearDown() {
+		jdbcTemplate.execute("DROP ALL OBJECTS");
+	}
+
+	/**
+	 * A customer without a balance row gets one summed from its months.
+	 */
+	@Test
+	public void testGetBalance_CreatedFromMonths() {
+		CustomerPointsBalance balance = pointsBalanceService.getBalance(1L);
+
+		assertEquals(1000, balance.getPoints());
+		assertEquals(200, balance.getExpiredPoints());
+		assertEquals(800, balance.getAvailablePoints());
+		assertEquals(1, balance.getVersion());
+		assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM customer_points_balance", Integer.class));
+	}
+
+	/**
+	 * The points held by reservations and the points redeemed are not
+	 * available, so the balance matches the one redemptions are admitted
+	 * against.
+	 */
+	@Test
+	public void testGetBalance_SubtractsRedemptions() {
+		jdbcTemplate.update("INSERT INTO points_account (customer_id, reserved_points, redeemed_points) "
+				+ "VALUES (1, 100, 300)");
+
+		CustomerPointsBalance balance = pointsBalanceService.getBalance(1L);
+
+		assertEquals(800, balance.getEarnedPoints());
+		assertEquals(100, balance.getReservedPoints());
+		assertEquals(300, balance.getRedeemedPoints());
+		assertEquals(400, balance.getAvailablePoints());
+	}
+
+	/**
+	 * A delta is added to the balance, increments its version and evicts the
+	 * cached balance, while reads in between are served from the cache.
+	 */
+	@Test
+	public void testApplyDelta_UpdatesBalanceAndVersion() {
+		CustomerPointsBalance before = pointsBalanceService.getBalance(1L);
+		jdbcTemplate.update("UPDATE customer_points_balance SET points = 0");
+		assertSame(before, pointsBalanceService.getBalance(1L));
+		jdbcTemplate.update("UPDATE customer_points_balance SET points = 1000");
+
+		pointsBalanceService.applyDelta(1L, 50, 0);
+		pointsBalanceService.applyExpiredDeltas(Map.of(1L, 300L));
+
+		CustomerPointsBalance after = pointsBalanceService.getBalance(1L);
+		assertEquals(1050, after.getPoints());
+		assertEquals(500, after.getExpiredPoints());
+		assertEquals(3, after.getVersion());
+	}
+
+	/**
+	 * The writer that creates the balance row within its transaction does not
+	 * count its own change twice, and a rolled back change leaves no trace.
+	 */
+	@Test
+	public void testApplyDelta_CreatesRowInCallerTransaction() {
+		TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+		transactionTemplate.executeWithoutResult(status -> {
+			jdbcTemplate.update("INSERT INTO reward_points (customer_id, points, expired_points, month, year) "
+					+ "VALUES (2, 120, 0, 3, 2024)");
+			pointsBalanceService.applyDelta(2L, 120, 0);
+		});
+		assertEquals(120, pointsBalanceService.getBalance(2L).getPoints());
+
+		transactionTemplate.executeWithoutResult(status -> {
+			jdbcTemplate.update("UPDATE reward_points SET points = points + 30 WHERE customer_id = 2");
+			pointsBalanceService.applyDelta(2L, 30, 0);
+			status.setRollbackOnly();
+		});
+		assertEquals(120, pointsBalanceService.getBalance(2L).getPoints());
+	}
+
+	/**
+	 * A resync recomputes the balance from the months after they were rewritten
+	 * in bulk.
+	 */
+	@Test
+	public void testResync_RecomputesFromMonths() {
+		pointsBalanceService.getBalance(1L);
+		jdbcTemplate.update("UPDATE reward_points SET points = points * 2 WHERE customer_id = 1");
+
+		pointsBalanceService.resync(List.of(1L));
+		assertEquals(2000, pointsBalanceService.getBalance(1L).getPoints());
+
+		jdbcTemplate.update("UPDATE reward_points SET expired_points = points WHERE customer_id = 1");
+		pointsBalanceService.resyncRange(1, 10);
+		CustomerPointsBalance balance = pointsBalanceService.getBalance(1L);
+		assertEquals(0, balance.getAvailablePoints());
+		assertEquals(3, balance.getVersion());
+	}
+}
@@ -0,0 +1,161 @@
+package com.infy.RewardPointCalculator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.infy.RewardPointCalculator.Util.DropOldestBuffer;
+import com.infy.RewardPointCalculator.model.RewardPoints;
+import com.infy.RewardPointCalculator.service.PointsStreamService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Unit tests for the {@link PointsStreamService} and its per-stream
+ * {@link DropOldestBuffer}.
+ */
+public class PointsStreamServiceTest {
+
+	private SimpleMeterRegistry meterRegistry;
+	private PointsStreamService pointsStreamService;
+
+	@BeforeEach
+	public void setUp() {
+		meterRegistry = new SimpleMeterRegistry();
+		pointsStreamService = new PointsStreamService(60000, 4, 3, 2, 1, 5000, meterRegistry);
+	}
+
+	@AfterEach
+	public void tearDown() {
+		pointsStreamService.shutdown();
+	}
+
+	/**
+	 * A customer cannot open more streams than allowed per customer, and the
+	 * node rejects streams beyond its limit.
+	 */
+	@Test
+	public void testSubscribe_EnforcesLimits() {
+		pointsStreamService.subscribe(1L);
+		pointsStreamService.subscribe(1L);
+		ResponseStatusException perCustomer = assertThrows(ResponseStatusException.class,
+				() -> pointsStreamService.subscribe(1L));
+		assertEquals(HttpStatus.TOO_MANY_REQUESTS, perCustomer.getStatusCode());
+
+		pointsStreamService.subscribe(2L);
+		ResponseStatusException perNode = assertThrows(ResponseStatusException.class,
+				() -> pointsStreamService.subscribe(3L));
+		assertEquals(HttpStatus.SERVICE_UNAVAILABLE, perNode.getStatusCode());
+		assertEquals(3, pointsStreamService.getConnectionCount());
+	}
+
+	/**
+	 * A change is sent to the open streams of its customer only.
+	 */
+	@Test
+	public void testPublish_SendsToSubscribedCustomer() throws InterruptedException {
+		pointsStreamService.subscribe(1L);
+		RewardPoints rewardPoints = new RewardPoints();
+		rewardPoints.setMonth(3);
+		rewardPoints.setYear(2024);
+		rewardPoints.setPoints(90);
+
+		pointsStreamService.publish(1L, rewardPoints);
+		pointsStreamService.publish(2L, rewardPoints);
+
+		// The connected comment and the update
+		long deadline = System.currentTimeMillis() + 5000;
+		while (sent() < 2 && System.currentTimeMillis() < deadline) {
+			Thread.sleep(10);
+		}
+		Thread.sleep(50);
+		assertEquals(2, sent());
+	}
+
+	/**
+	 * A client that stops reading is closed once its send exceeds the write
+	 * timeout, which frees the only dispatcher for the other streams.
+	 */
+	@Test
+	public void testEvictStalledStreams_FreesDispatcher() throws InterruptedException {
+		pointsStreamService.shutdown();
+		CountDownLatch neverRead = new CountDownLatch(1);
+		CountDownLatch sendBlocked = new CountDownLatch(1);
+		pointsStreamService = new PointsStreamService(60000, 4, 3, 2, 1, 50, meterRegistry) {
+			private boolean first = true;
+
+			@Override
+			protected SseEmitter createEmitter(long timeoutMillis) {
+				if (!first) {
+					return super.createEmitter(timeoutMillis);
+				}
+				first = false;
+				return new SseEmitter(timeoutMillis) {
+					@Override
+					public void send(SseEventBuilder builder) throws IOException {
+						sendBlocked.countDown();
+						try {
+							neverRead.await();
+						} catch (InterruptedException e) {
+							throw new InterruptedIOException("Send interrupted");
+						}
+					}
+				};
+			}
+		};
+		pointsStreamService.subscribe(1L);
+		assertTrue(sendBlocked.await(5, TimeUnit.SECONDS));
+		pointsStreamService.subscribe(2L);
+		Thread.sleep(100);
+		assertEquals(0, sent());
+
+		pointsStreamService.evictStalledStreams();
+
+		long deadline = System.currentTimeMillis() + 5000;
+		while (sent() < 1 && System.currentTimeMillis() < deadline) {
+			Thread.sleep(10);
+		}
+		assertEquals(1, sent());
+		assertEquals(1, pointsStreamService.getConnectionCount());
+		assertEquals(1, meterRegistry.get("rewards.stream.stalled").counter().count());
+	}
+
+	/**
+	 * A full buffer drops its oldest items and keeps the newest ones in order.
+	 */
+	@Test
+	public void testDropOldestBuffer_KeepsNewestItems() {
+		DropOldestBuffer<Integer> buffer = new DropOldestBuffer<>(3);
+		for (int i = 1; i <= 5; i++) {
+			buffer.offer(i);
+		}
+		assertEquals(3, buffer.size());
+		assertEquals(2, buffer.dropped());
+
+		List<Integer> drained = new ArrayList<>();
+		assertEquals(3, buffer.drainTo(drained));
+		assertEquals(List.of(3, 4, 5), drained);
+		assertEquals(0, buffer.size());
+
+		assertFalse(buffer.offer(6));
+		drained.clear();
+		buffer.drainTo(drained);
+		assertEquals(List.of(6), drained);
+	}
+
+	private double sent() {
+		return meterRegistry.get("rewards.stream.events").tag("outcome", "sent").counter().count();
+	}
+}
@@ -0,0 +1,267 @@
+package com.infy.RewardPointCalculator;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.infy.RewardPointCalculator.dto.RecomputeJobStatus;
+import com.infy.RewardPointCalculator.ledger.RewardLedger;
+import com.infy.RewardPointCalculator.ledger.RewardLedgerEventType;
+import com.infy.RewardPointCalculator.model.RecomputeCheckpoint;
+import com.infy.RewardPointCalculator.repository.RecomputeCheckpointRepository;
+import com.infy.RewardPointCalculator.repository.RewardPointsBatchWriter;
+import com.infy.RewardPointCalculator.service.PointsBalanceService;
+import com.infy.RewardPointCalculator.service.PointsExpiryService;
+import com.infy.RewardPointCalculator.service.RecomputeJobService;
+
+/**
+ * Unit tests for the {@link RecomputeJobService} class, run against an
+ * in-memory H2 database.
+ * <p>
+ * Customers 1 to 6 exist; 1, 2 and 5 have transactions, 3 has a month holding
+ * points without transactions and 5 has a month with wrong points. Every batch
+ * holds one customer, so the checkpoint moves after each of them.
+ * </p>
+ */
+@ExtendWith(MockitoExtension.class)
+public class RecomputeJobServiceTest {
+
+	@Spy
+	private DriverManagerDataSource dataSource = new DriverManagerDataSource(
+			"jdbc:h2:mem:recompute;NON_KEYWORDS=MONTH,YEAR;DB_CLOSE_DELAY=-1", "sa", "");
+
+	@Mock
+	private RecomputeCheckpointRepository checkpointRepository;
+
+	@Mock
+	private RewardLedger rewardLedger;
+
+	@Mock
+	private PointsExpiryService pointsExpiryService;
+
+	@Mock
+	private PointsBalanceService pointsBalanceService;
+
+	@InjectMocks
+	private RecomputeJobService recomputeJobService;
+
+	private JdbcTemplate jdbcTemplate;
+
+	/** The last customer ID of every checkpoint saved, by partition. */
+	private final List<List<Long>> checkpointProgress = List.of(new ArrayList<>(), new ArrayList<>());
+
+	@BeforeEach
+	public void setUp() {
+		jdbcTemplate = new JdbcTemplate(dataSource);
+		jdbcTemplate.execute("CREATE TABLE customer (id BIGINT PRIMARY KEY)");
+		jdbcTemplate.execute("CREATE TABLE customer_transaction (id BIGINT AUTO_INCREMENT PRIMARY KEY, "
+				+ "customer_id BIGINT NOT NULL, amount DOUBLE PRECISION NOT NULL, spent_details TEXT, "
+				+ "date DATE NOT NULL, multiplier_percent INT NOT NULL DEFAULT 100)");
+		jdbcTemplate.execute("CREATE TABLE reward_points (id BIGINT AUTO_INCREMENT PRIMARY KEY, "
+				+ "customer_id BIGINT NOT NULL, points INT NOT NULL, expired_points INT NOT NULL DEFAULT 0, "
+				+ "redeemed_points INT NOT NULL DEFAULT 0, month INT NOT NULL, year INT NOT NULL, version BIGINT)");
+		for (long id = 1; id <= 6; id++) {
+			jdbcTemplate.update("INSERT INTO customer (id) VALUES (?)", id);
+		}
+
+		insertTransaction(1, 120, "2024-01-10");
+		insertTransaction(1, 75, "2024-01-20");
+		insertTransaction(2, 200, "2024-02-05");
+		insertTransaction(5, 130, "2024-03-01");
+
+		insertRewardPoints(3, 40, 4, 2024);
+		insertRewardPoints(5, 7, 3, 2024);
+
+		RewardPointsBatchWriter rewardPointsBatchWriter = new RewardPointsBatchWriter();
+		ReflectionTestUtils.setField(rewardPointsBatchWriter, "jdbcTemplate", jdbcTemplate);
+		ReflectionTestUtils.setField(recomputeJobService, "jdbcTemplate", jdbcTemplate);
+		ReflectionTestUtils.setField(recomputeJobService, "transactionManager",
+				new DataSourceTransactionManager(dataSource));
+		ReflectionTestUtils.setField(recomputeJobService, "rewardPointsBatchWriter", rewardPointsBatchWriter);
+		ReflectionTestUtils.setField(recomputeJobService, "defaultPartitions", 2);
+		ReflectionTestUtils.setField(recomputeJobService, "parallelism", 2);
+		ReflectionTestUtils.setField(recomputeJobService, "fetchSize", 2);
+		ReflectionTestUtils.setField(recomputeJobService, "batchCustomers", 1);
+		recomputeJobService.init();
+
+		lenient().when(checkpointRepository.save(any(RecomputeCheckpoint.class))).thenAnswer(invocation -> {
+			RecomputeCheckpoint checkpoint = invocation.getArgument(0);
+			if (checkpoint.getStatus() == RecomputeCheckpoint.Status.RUNNING) {
+				synchronized (checkpointProgress) {
+					checkpointProgress.get(checkpoint.getPartitionIndex()).add(checkpoint.getLastCustomerId());
+				}
+			}
+			return checkpoint;
+		});
+	}
+
+	@AfterEach
+	public void tearDown() {
+		recomputeJobService.shutdown();
+		jdbcTemplate.execute("DROP ALL OBJECTS");
+	}
+
+	/**
+	 * The scan writes the total of every month with transactions, at the
+	 * multipliers stored with them, zeroes the month left without transactions
+	 * and fixes the wrong one.
+	 */
+	@Test
+	public void testStart_RecomputesAllMonths() throws InterruptedException {
+		jdbcTemplate.update("UPDATE customer_transaction SET multiplier_percent = 200 WHERE customer_id = 2");
+		when(checkpointRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+		recomputeJobService.start(null);
+		RecomputeJobStatus status = awaitStatus();
+
+		assertEquals("COMPLETED", status.getState());
+		assertEquals(2, status.getPartitionsDone());
+		assertEquals(3, status.getCustomersProcessed());
+		assertEquals(4, status.getTransactionsProcessed());
+		assertEquals(4, status.getMonthsWritten());
+		assertEquals(115, points(1, 1, 2024));
+		assertEquals(500, points(2, 2, 2024));
+		assertEquals(0, points(3, 4, 2024));
+		assertEquals(110, points(5, 3, 2024));
+		verify(rewardLedger).record(RewardLedgerEventType.RECOMPUTE, 3L, 2024, 4, 0, null);
+		verify(pointsBalanceService).resyncRange(2L, 3L);
+	}
+
+	/**
+	 * Every batch moves the checkpoint of its partition to its last customer,
+	 * and the last batch to the end of the partition.
+	 */
+	@Test
+	public void testStart_AdvancesCheckpointPerBatch() throws InterruptedException {
+		when(checkpointRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+		recomputeJobService.start(2);
+		awaitStatus();
+
+		// The first entry is the partition being marked as running
+		assertEquals(Arrays.asList(null, 1L, 3L), checkpointProgress.get(0));
+		assertEquals(Arrays.asList(null, 6L), checkpointProgress.get(1));
+	}
+
+	/**
+	 * A resumed job continues every unfinished partition after its checkpoint,
+	 * and leaves the customers already written and the finished partitions
+	 * alone.
+	 */
+	@Test
+	public void testResume_ContinuesAfterCheckpoint() throws InterruptedException {
+		insertRewardPoints(1, 999, 1, 2024);
+		RecomputeCheckpoint first = new RecomputeCheckpoint("job-1", 0, 1L, 3L);
+		first.setLastCustomerId(1L);
+		first.setCustomersProcessed(1);
+		first.setStatus(RecomputeCheckpoint.Status.FAILED);
+		RecomputeCheckpoint second = new RecomputeCheckpoint("job-1", 1, 4L, 6L);
+		second.setLastCustomerId(6L);
+		second.setStatus(RecomputeCheckpoint.Status.DONE);
+		when(checkpointRepository.findTopByOrderByIdDesc()).thenReturn(Optional.of(second));
+		when(checkpointRepository.findByJobIdOrderByPartitionIndex("job-1")).thenReturn(List.of(first, second));
+
+		recomputeJobService.resume();
+		RecomputeJobStatus status = awaitStatus();
+
+		assertEquals("COMPLETED", status.getState());
+		assertEquals(2, status.getCustomersProcessed());
+		assertEquals(999, points(1, 1, 2024));
+		assertEquals(250, points(2, 2, 2024));
+		assertEquals(0, points(3, 4, 2024));
+		assertEquals(7, points(5, 3, 2024));
+		assertEquals(Arrays.asList(1L, 3L), checkpointProgress.get(0));
+		verify(pointsBalanceService, never()).resyncRange(eq(1L), anyLong());
+	}
+
+	/**
+	 * The parallelism leaves a connection of the pool free, two connections per
+	 * partition, and is kept when the pool size is unknown.
+	 */
+	@Test
+	public void testEffectiveParallelism_FitsConnectionPool() {
+		assertEquals(4, RecomputeJobService.effectiveParallelism(4, 10));
+		assertEquals(2, RecomputeJobService.effectiveParallelism(4, 5));
+		assertEquals(1, RecomputeJobService.effectiveParallelism(8, 2));
+		assertEquals(4, RecomputeJobService.effectiveParallelism(4, 0));
+	}
+
+	/**
+	 * The ranges cover the customer ID space exactly once, without gaps or
+	 * overlaps, and differ in size by at most one.
+	 */
+	@Test
+	public void testSplitRange_CoversAllIds() {
+		List<long[]> ranges = RecomputeJobService.splitRange(5, 104, 7);
+
+		assertEquals(7, ranges.size());
+		assertEquals(5, ranges.get(0)[0]);
+		assertEquals(104, ranges.get(ranges.size() - 1)[1]);
+		for (int i = 1; i < ranges.size(); i++) {
+			assertEquals(ranges.get(i - 1)[1] + 1, ranges.get(i)[0]);
+		}
+		for (long[] range : ranges) {
+			long size = range[1] - range[0] + 1;
+			assertTrue(size == 14 || size == 15);
+		}
+	}
+
+	/**
+	 * Fewer customer IDs than partitions give one range per ID.
+	 */
+	@Test
+	public void testSplitRange_MorePartitionsThanIds() {
+		List<long[]> ranges = RecomputeJobService.splitRange(1, 3, 16);
+
+		assertEquals(3, ranges.size());
+		assertArrayEquals(new long[] { 3, 3 }, ranges.get(2));
+	}
+
+	private RecomputeJobStatus awaitStatus() throws InterruptedException {
+		for (int i = 0; i < 500; i++) {
+			RecomputeJobStatus status = recomputeJobService.getStatus();
+			if (!"RUNNING".equals(status.getState())) {
+				return status;
+			}
+			Thread.sleep(10);
+		}
+		fail("Recompute job did not finish in time");
+		return null;
+	}
+
+	private int points(long customerId, int month, int year) {
+		return jdbcTemplate.queryForObject(
+				"SELECT points FROM reward_points WHERE customer_id = ? AND month = ? AND year = ?", Integer.class,
+				customerId, month, year);
+	}
+
+	private void insertTransaction(long customerId, double amount, String date) {
+		jdbcTemplate.update("INSERT INTO customer_transaction (customer_id, amount, date) VALUES (?, ?, ?)", customerId,
+				amount, java.sql.Date.valueOf(date));
+	}
+
+	private void insertRewardPoints(long customerId, int points, int month, int year) {
+		jdbcTemplate.update("INSERT INTO reward_points (customer_id, points, month, year) VALUES (?, ?, ?, ?)",
+				customerId, points, month, year);
+	}
+}
@@ -0,0 +1,171 @@
+package com.infy.RewardPointCalculator;
+
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.infy.RewardPointCalculator.dto.ReconciliationReport;
+import com.infy.RewardPointCalculator.repository.RewardPointsBatchWriter;
+import com.infy.RewardPointCalculator.service.CustomerLockManager;
+import com.infy.RewardPointCalculator.service.CustomerTransactionService;
+import com.infy.RewardPointCalculator.service.PointsBalanceService;
+import com.infy.RewardPointCalculator.service.ReconciliationService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Unit tests for the {@link ReconciliationService} class, run against an
+ * in-memory H2 database.
+ * <p>
+ * The data holds one example of every kind of discrepancy next to correct
+ * months, so the tests verify the merge-join classification and that repair
+ * recomputes exactly the wrong months.
+ * </p>
+ */
+@ExtendWith(MockitoExtension.class)
+public class ReconciliationServiceTest {
+
+	@Spy
+	private DriverManagerDataSource dataSource = new DriverManagerDataSource(
+			"jdbc:h2:mem:reconciliation;NON_KEYWORDS=MONTH,YEAR;DB_CLOSE_DELAY=-1", "sa", "");
+
+	@Mock
+	private CustomerTransactionService customerTransactionService;
+
+	@Spy
+	private CustomerLockManager customerLockManager = new CustomerLockManager(4, 3, 0, new SimpleMeterRegistry());
+
+	@Mock
+	private RewardPointsBatchWriter rewardPointsBatchWriter;
+
+	@Mock
+	private PointsBalanceService pointsBalanceService;
+
+	@InjectMocks
+	private ReconciliationService reconciliationService;
+
+	private JdbcTemplate jdbcTemplate;
+
+	/**
+	 * Creates the tables with four customers:
+	 * <ul>
+	 * <li>1: one correct month, one month with wrong points</li>
+	 * <li>2: a month with transactions but no row</li>
+	 * <li>3: a row holding points without transactions, and a harmless zero
+	 * row</li>
+	 * <li>4: a correct month stored twice</li>
+	 * </ul>
+	 */
+	@BeforeEach
+	public void setUp() {
+		jdbcTemplate = new JdbcTemplate(dataSource);
+		jdbcTemplate.execute("CREATE TABLE customer_transaction (id BIGINT AUTO_INCREMENT PRIMARY KEY, "
+				+ "customer_id BIGINT NOT NULL, amount DOUBLE PRECISION NOT NULL, spent_details TEXT, "
+				+ "date DATE NOT NULL, multiplier_percent INT NOT NULL DEFAULT 100)");
+		jdbcTemplate.execute("CREATE TABLE reward_points (id BIGINT AUTO_INCREMENT PRIMARY KEY, "
+				+ "customer_id BIGINT NOT NULL, points INT NOT NULL, month INT NOT NULL, year INT NOT NULL)");
+
+		insertTransaction(1, 120, "2024-01-10");
+		insertTransaction(1, 75, "2024-01-20");
+		insertTransaction(1, 200, "2024-02-05");
+		insertTransaction(2, 130, "2024-03-01");
+		insertTransaction(4, 60, "2024-06-15");
+
+		insertRewardPoints(1, 115, 1, 2024);
+		insertRewardPoints(1, 100, 2, 2024);
+		insertRewardPoints(3, 40, 4, 2024);
+		insertRewardPoints(3, 0, 5, 2024);
+		insertRewardPoints(4, 10, 6, 2024);
+		insertRewardPoints(4, 10, 6, 2024);
+
+		ReflectionTestUtils.setField(reconciliationService, "sampleLimit", 10);
+		reconciliationService.init();
+	}
+
+	@AfterEach
+	public void tearDown() {
+		reconciliationService.shutdown();
+		jdbcTemplate.execute("DROP ALL OBJECTS");
+	}
+
+	/**
+	 * Every kind of discrepancy is counted once and sampled, correct months are
+	 * not reported and nothing is repaired.
+	 */
+	@Test
+	public void testReconcile_ReportsEveryDiscrepancy() throws InterruptedException {
+		reconciliationService.start(false);
+		ReconciliationReport report = awaitReport();
+
+		assertEquals("COMPLETED", report.getState());
+		assertEquals(4, report.getCustomersScanned());
+		assertEquals(5, report.getTransactionsScanned());
+		assertEquals(6, report.getRewardRowsScanned());
+		assertEquals(1, report.getMismatches());
+		assertEquals(1, report.getMissing());
+		assertEquals(1, report.getExtra());
+		assertEquals(1, report.getDuplicates());
+		assertEquals(4, report.getSamples().size());
+		assertEquals("MISMATCH", report.getSamples().get(0).getType());
+		assertEquals(250, report.getSamples().get(0).getExpectedPoints());
+		verifyNoInteractions(customerTransactionService);
+	}
+
+	/**
+	 * With repair, duplicate rows are deleted and every wrong month is
+	 * recomputed.
+	 */
+	@Test
+	public void testReconcile_RepairRecomputesWrongMonths() throws InterruptedException {
+		Long duplicateId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM reward_points WHERE customer_id = 4",
+				Long.class);
+
+		reconciliationService.start(true);
+		ReconciliationReport report = awaitReport();
+
+		assertEquals("COMPLETED", report.getState());
+		assertEquals(4, report.getRepaired());
+		verify(customerTransactionService).updateRewardPoints(1L, 2, 2024);
+		verify(customerTransactionService).updateRewardPoints(2L, 3, 2024);
+		verify(customerTransactionService).updateRewardPoints(3L, 4, 2024);
+		verify(customerTransactionService).updateRewardPoints(4L, 6, 2024);
+		verify(rewardPointsBatchWriter).delete(List.of(duplicateId));
+		verify(rewardPointsBatchWriter, times(4)).delete(anyList());
+	}
+
+	private ReconciliationReport awaitReport() throws InterruptedException {
+		for (int i = 0; i < 500; i++) {
+			ReconciliationReport report = reconciliationService.getLatestReport();
+			if (!"RUNNING".equals(report.getState())) {
+				return report;
+			}
+			Thread.sleep(10);
+		}
+		fail("Reconciliation did not finish in time");
+		return null;
+	}
+
+	private void insertTransaction(long customerId, double amount, String date) {
+		jdbcTemplate.update("INSERT INTO customer_transaction (customer_id, amount, date) VALUES (?, ?, ?)", customerId,
+				amount, java.sql.Date.valueOf(date));
+	}
+
+	private void insertRewardPoints(long customerId, int points, int month, int year) {
+		jdbcTemplate.update("INSERT INTO reward_points (customer_id, points, month, year) VALUES (?, ?, ?, ?)",
+				customerId, points, month, year);
+	}
+}
@@ -0,0 +1,273 @@
+package com.infy.RewardPointCalculator;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.infy.RewardPointCalculator.dto.RedemptionRequestDTO;
+import com.infy.RewardPointCalculator.model.PointsExpiryBucket;
+import com.infy.RewardPointCalculator.model.PointsRedemption;
+import com.infy.RewardPointCalculator.repository.PointsExpiryBucketRepository;
+import com.infy.RewardPointCalculator.repository.PointsRedemptionRepository;
+import com.infy.RewardPointCalculator.service.PointsBalanceService;
+import com.infy.RewardPointCalculator.service.PointsExpiryService;
+import com.infy.RewardPointCalculator.service.RedemptionService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Unit tests for the {@link RedemptionService} class, run against an
+ * in-memory H2 database. Customer 1 has earned 1000 points, of which 200
+ * expired, so 800 points can be spent.
+ */
+@ExtendWith(MockitoExtension.class)
+public class RedemptionServiceTest {
+
+	private static final DataSource DATA_SOURCE = new DriverManagerDataSource(
+			"jdbc:h2:mem:redemption;NON_KEYWORDS=MONTH,YEAR;DB_CLOSE_DELAY=-1", "sa", "");
+
+	@Spy
+	private JdbcTemplate jdbcTemplate = new JdbcTemplate(DATA_SOURCE);
+
+	@Spy
+	private DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(DATA_SOURCE);
+
+	@Mock
+	private PointsRedemptionRepository pointsRedemptionRepository;
+
+	@Mock
+	private PointsExpiryBucketRepository bucketRepository;
+
+	@Spy
+	private PointsBalanceService pointsBalanceService = new PointsBalanceService();
+
+	@InjectMocks
+	private RedemptionService redemptionService;
+
+	@BeforeEach
+	public void setUp() {
+		jdbcTemplate.execute("CREATE TABLE reward_points (id BIGINT AUTO_INCREMENT PRIMARY KEY, "
+				+ "customer_id BIGINT NOT NULL, points INT NOT NULL, expired_points INT NOT NULL DEFAULT 0, "
+				+ "redeemed_points INT NOT NULL DEFAULT 0, month INT NOT NULL, year INT NOT NULL, version BIGINT)");
+		jdbcTemplate.execute("CREATE TABLE points_account (customer_id BIGINT PRIMARY KEY, "
+				+ "reserved_points BIGINT NOT NULL, redeemed_points BIGINT NOT NULL, updated_at TIMESTAMP)");
+		jdbcTemplate.execute("CREATE TABLE customer_points_balance (customer_id BIGINT PRIMARY KEY, "
+				+ "points BIGINT NOT NULL, expired_points BIGINT NOT NULL, version BIGINT NOT NULL, "
+				+ "updated_at TIMESTAMP)");
+		jdbcTemplate.execute("CREATE TABLE points_redemption (id BIGINT AUTO_INCREMENT PRIMARY KEY, "
+				+ "customer_id BIGINT NOT NULL, points INT NOT NULL, status VARCHAR(20) NOT NULL, "
+				+ "reference VARCHAR(255), created_at TIMESTAMP NOT NULL, updated_at TIMESTAMP)");
+
+		jdbcTemplate.update("INSERT INTO reward_points (customer_id, points, expired_points, month, year) "
+				+ "VALUES (1, 200, 200, 1, 2023), (1, 500, 0, 1, 2024), (1, 300, 0, 2, 2024)");
+
+		ReflectionTestUtils.setField(pointsBalanceService, "jdbcTemplate", jdbcTemplate);
+		ReflectionTestUtils.setField(pointsBalanceService, "transactionManager", transactionManager);
+		ReflectionTestUtils.setField(pointsBalanceService, "cacheTtlMillis", 60000L);
+		ReflectionTestUtils.setField(pointsBalanceService, "cacheSize", 1000);
+		pointsBalanceService.init();
+		ReflectionTestUtils.setField(redemptionService, "meterRegistry", new SimpleMeterRegistry());
+		ReflectionTestUtils.setField(redemptionService, "reservationTtlSeconds", 900L);
+		ReflectionTestUtils.setField(redemptionService, "cachedBalances", 1000);
+		ReflectionTestUtils.setField(redemptionService, "expiryBatchSize", 100);
+		redemptionService.init();
+	}
+
+	@AfterEach
+	public void tearDown() {
+		jdbcTemplate.execute("DROP ALL OBJECTS");
+	}
+
+	/**
+	 * A reservation holds its points until it is committed or cancelled, and a
+	 * redemption changes state only once.
+	 */
+	@Test
+	public void testReserveCommitCancel() {
+		PointsRedemption first = redemptionService.reserve(1L, request(300));
+		PointsRedemption second = redemptionService.reserve(1L, request(400));
+		assertEquals(PointsRedemption.Status.RESERVED, first.getStatus());
+		assertEquals(700, reserved());
+
+		assertEquals(PointsRedemption.Status.COMMITTED, redemptionService.commit(1L, first.getId()).getStatus());
+		assertEquals(PointsRedemption.Status.COMMITTED, redemptionService.commit(1L, first.getId()).getStatus());
+		assertEquals(PointsRedemption.Status.CANCELLED, redemptionService.cancel(1L, second.getId()).getStatus());
+
+		ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+				() -> redemptionService.commit(1L, second.getId()));
+		assertEquals(HttpStatus.CONFLICT, exception.getStatusCode());
+		assertEquals(0, reserved());
+		assertEquals(300L, jdbcTemplate.queryForObject("SELECT redeemed_points FROM points_account", Long.class));
+
+		// The cancelled points can be reserved again
+		redemptionService.reserve(1L, request(500));
+	}
+
+	/**
+	 * Expired points cannot be spent, and a redemption of another customer is
+	 * not found.
+	 */
+	@Test
+	public void testReserve_InsufficientPointsRejected() {
+		ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+				() -> redemptionService.reserve(1L, request(801)));
+		assertEquals(HttpStatus.CONFLICT, exception.getStatusCode());
+
+		PointsRedemption redemption = redemptionService.reserve(1L, request(800));
+		exception = assertThrows(ResponseStatusException.class, () -> redemptionService.cancel(2L, redemption.getId()));
+		assertEquals(HttpStatus.NOT_FOUND, exception.getStatusCode());
+	}
+
+	/**
+	 * A commit is refused when the earned points dropped below the reservation
+	 * after it was made, and the reservation stays open so it can be cancelled.
+	 */
+	@Test
+	public void testCommit_RefusedWhenEarnedPointsDropped() {
+		PointsRedemption redemption = redemptionService.reserve(1L, request(800));
+		// A deleted transaction takes back 200 points of January
+		jdbcTemplate.update("UPDATE reward_points SET points = 300 WHERE month = 1 AND year = 2024");
+		pointsBalanceService.applyDelta(1L, -200, 0);
+
+		ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+				() -> redemptionService.commit(1L, redemption.getId()));
+		assertEquals(HttpStatus.CONFLICT, exception.getStatusCode());
+		assertEquals(0L, jdbcTemplate.queryForObject("SELECT redeemed_points FROM points_account", Long.class));
+		assertEquals(800, reserved());
+
+		assertEquals(PointsRedemption.Status.CANCELLED, redemptionService.cancel(1L, redemption.getId()).getStatus());
+		assertEquals(0, reserved());
+	}
+
+	/**
+	 * Committed points are spent from the oldest months first, and the expiry of
+	 * those months leaves them alone instead of taking them back a second time.
+	 */
+	@Test
+	public void testCommit_RedeemedPointsDoNotExpire() {
+		PointsRedemption redemption = redemptionService.reserve(1L, request(600));
+		redemptionService.commit(1L, redemption.getId());
+		assertEquals(500, redeemed(1, 2024));
+		assertEquals(100, redeemed(2, 2024));
+
+		jdbcTemplate.execute("CREATE TABLE points_expiry_bucket (id BIGINT PRIMARY KEY, due_date DATE NOT NULL, "
+				+ "earned_year INT NOT NULL, earned_month INT NOT NULL, status VARCHAR(20) NOT NULL, "
+				+ "last_reward_points_id BIGINT NOT NULL DEFAULT 0, rows_expired BIGINT NOT NULL DEFAULT 0, "
+				+ "points_expired BIGINT NOT NULL DEFAULT 0, updated_at TIMESTAMP)");
+		List<PointsExpiryBucket> buckets = List.of(expiryBucket(1L, 1, 2024), expiryBucket(2L, 2, 2024));
+		when(bucketRepository.findByStatusNotOrderByDueDate(PointsExpiryBucket.Status.DONE)).thenReturn(buckets);
+		PointsExpiryBucket current = new PointsExpiryBucket(LocalDate.now(), YearMonth.now().getYear(),
+				YearMonth.now().getMonthValue());
+		when(bucketRepository.findTopByOrderByDueDateDesc()).thenReturn(Optional.of(current));
+		PointsExpiryService pointsExpiryService = new PointsExpiryService();
+		ReflectionTestUtils.setField(pointsExpiryService, "bucketRepository", bucketRepository);
+		ReflectionTestUtils.setField(pointsExpiryService, "jdbcTemplate", jdbcTemplate);
+		ReflectionTestUtils.setField(pointsExpiryService, "transactionManager", transactionManager);
+		ReflectionTestUtils.setField(pointsExpiryService, "meterRegistry", new SimpleMeterRegistry());
+		ReflectionTestUtils.setField(pointsExpiryService, "pointsBalanceService", pointsBalanceService);
+		ReflectionTestUtils.setField(pointsExpiryService, "enabled", true);
+		ReflectionTestUtils.setField(pointsExpiryService, "expiryMonths", 12);
+		ReflectionTestUtils.setField(pointsExpiryService, "batchSize", 100);
+		pointsExpiryService.init();
+		pointsExpiryService.loadBuckets();
+
+		assertEquals(200, pointsExpiryService.run().getPointsExpired());
+		assertEquals(0, expired(1, 2024));
+		assertEquals(200, expired(2, 2024));
+		// 1000 earned, 400 expired and 600 redeemed
+		assertEquals(600, redemptionService.getBalance(1L).getEarnedPoints());
+		assertEquals(600, redemptionService.getBalance(1L).getRedeemedPoints());
+		assertEquals(0, redemptionService.getBalance(1L).getAvailablePoints());
+	}
+
+	/**
+	 * Many concurrent reservations never spend more than the balance, and use
+	 * it up completely.
+	 */
+	@Test
+	public void testReserve_ConcurrentReservationsNeverOverspend() throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		List<Future<Integer>> results = new ArrayList<>();
+		for (int thread = 0; thread < 8; thread++) {
+			results.add(executor.submit(() -> {
+				int reserved = 0;
+				for (int attempt = 0; attempt < 40; attempt++) {
+					try {
+						redemptionService.reserve(1L, request(7));
+						reserved++;
+					} catch (ResponseStatusException e) {
+						assertEquals(HttpStatus.CONFLICT, e.getStatusCode());
+					}
+				}
+				return reserved;
+			}));
+		}
+		int reservations = 0;
+		for (Future<Integer> result : results) {
+			reservations += result.get(30, TimeUnit.SECONDS);
+		}
+		executor.shutdown();
+
+		assertEquals(800 / 7, reservations);
+		assertEquals(reservations * 7L, reserved());
+		assertEquals(reservations,
+				jdbcTemplate.queryForObject("SELECT COUNT(*) FROM points_redemption", Integer.class));
+	}
+
+	private long reserved() {
+		return jdbcTemplate.queryForObject("SELECT reserved_points FROM points_account WHERE customer_id = 1",
+				Long.class);
+	}
+
+	private int redeemed(int month, int year) {
+		return jdbcTemplate.queryForObject("SELECT redeemed_points FROM reward_points WHERE month = ? AND year = ?",
+				Integer.class, month, year);
+	}
+
+	private int expired(int month, int year) {
+		return jdbcTemplate.queryForObject("SELECT expired_points FROM reward_points WHERE month = ? AND year = ?",
+				Integer.class, month, year);
+	}
+
+	private PointsExpiryBucket expiryBucket(long id, int month, int year) {
+		PointsExpiryBucket bucket = new PointsExpiryBucket(YearMonth.of(year, month).plusMonths(13).atDay(1), year,
+				month);
+		bucket.setId(id);
+		bucket.setStatus(PointsExpiryBucket.Status.PENDING);
+		jdbcTemplate.update("INSERT INTO points_expiry_bucket (id, due_date, earned_year, earned_month, status) "
+				+ "VALUES (?, ?, ?, ?, ?)", id, bucket.getDueDate(), year, month, bucket.getStatus().name());
+		return bucket;
+	}
+
+	private RedemptionRequestDTO request(int points) {
+		RedemptionRequestDTO request = new RedemptionRequestDTO();
+		request.setPoints(points);
+		return request;
+	}
+}
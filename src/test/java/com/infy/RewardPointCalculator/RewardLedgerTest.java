@@ -0,0 +1,156 @@
+package com.infy.RewardPointCalculator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.infy.RewardPointCalculator.ledger.LedgerReplayer;
+import com.infy.RewardPointCalculator.ledger.LedgerSegmentLog;
+import com.infy.RewardPointCalculator.ledger.LedgerSnapshotStore;
+import com.infy.RewardPointCalculator.ledger.RewardLedger;
+import com.infy.RewardPointCalculator.ledger.RewardLedgerEventType;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Unit tests for the reward ledger: the segmented log, the snapshots and the
+ * replay of monthly totals.
+ * <p>
+ * Segments are kept tiny so that every test crosses several segment files.
+ * </p>
+ */
+public class RewardLedgerTest {
+
+	@TempDir
+	Path directory;
+
+	/**
+	 * Deltas are added to the monthly total and a recompute replaces it, across
+	 * segment boundaries and a snapshot taken in the middle.
+	 */
+	@Test
+	public void testReplay_SnapshotPlusTail() {
+		LedgerSegmentLog segmentLog = new LedgerSegmentLog(directory, 4);
+		LedgerReplayer replayer = new LedgerReplayer(segmentLog, new LedgerSnapshotStore(directory, 2));
+
+		segmentLog.append(RewardLedgerEventType.ACCRUAL, 1L, 2024, 5, 90, 10L, 0L);
+		segmentLog.append(RewardLedgerEventType.ACCRUAL, 1L, 2024, 5, 30, 11L, 0L);
+		segmentLog.append(RewardLedgerEventType.ACCRUAL, 2L, 2024, 6, 250, 12L, 0L);
+		segmentLog.append(RewardLedgerEventType.DELETION, 1L, 2024, 5, -30, 11L, 0L);
+		segmentLog.append(RewardLedgerEventType.EDIT, 2L, 2024, 6, 40, 12L, 0L);
+		replayer.snapshot();
+
+		segmentLog.append(RewardLedgerEventType.RECOMPUTE, 2L, 2024, 6, 40, 0L, 0L);
+		segmentLog.append(RewardLedgerEventType.ACCRUAL, 1L, 2024, 7, 5, 13L, 0L);
+
+		LedgerReplayer.Replay replay = replayer.replay();
+
+		assertEquals(5, replay.getSnapshotPosition());
+		assertEquals(2, replay.getReplayedRecords());
+		assertEquals(7, replay.getPosition());
+		assertEquals(90, replay.getBalances().get(1L, 2024, 5));
+		assertEquals(40, replay.getBalances().get(2L, 2024, 6));
+		assertEquals(5, replay.getBalances().get(1L, 2024, 7));
+		assertEquals(3, replay.getBalances().size());
+	}
+
+	/**
+	 * A reopened ledger continues after the last complete record, and a record
+	 * whose type byte was never written is treated as the end of the log.
+	 */
+	@Test
+	public void testReopen_ContinuesAfterLastCompleteRecord() throws IOException {
+		LedgerSegmentLog segmentLog = new LedgerSegmentLog(directory, 4);
+		for (int i = 0; i < 6; i++) {
+			segmentLog.append(RewardLedgerEventType.ACCRUAL, 1L, 2024, 1, 10, i, 0L);
+		}
+		segmentLog.close();
+
+		LedgerSegmentLog reopened = new LedgerSegmentLog(directory, 4);
+		assertEquals(6, reopened.position());
+		reopened.append(RewardLedgerEventType.ACCRUAL, 1L, 2024, 1, 10, 6L, 0L);
+
+		LedgerReplayer.Replay replay = new LedgerReplayer(reopened, new LedgerSnapshotStore(directory, 2)).replay();
+		assertEquals(70, replay.getBalances().get(1L, 2024, 1));
+		assertEquals(2, segmentFiles().size());
+	}
+
+	/**
+	 * A damaged snapshot is skipped and the replay falls back to the previous
+	 * snapshot.
+	 */
+	@Test
+	public void testReplay_CorruptSnapshotSkipped() throws IOException {
+		LedgerSegmentLog segmentLog = new LedgerSegmentLog(directory, 4);
+		LedgerReplayer replayer = new LedgerReplayer(segmentLog, new LedgerSnapshotStore(directory, 2));
+
+		segmentLog.append(RewardLedgerEventType.ACCRUAL, 3L, 2023, 12, 25, 1L, 0L);
+		replayer.snapshot();
+		segmentLog.append(RewardLedgerEventType.ACCRUAL, 3L, 2023, 12, 25, 2L, 0L);
+		replayer.snapshot();
+
+		Path newest = snapshotFiles().get(1);
+		byte[] content = Files.readAllBytes(newest);
+		content[content.length - 1] ^= 0x55;
+		Files.write(newest, content);
+
+		LedgerReplayer.Replay replay = replayer.replay();
+		assertEquals(1, replay.getSnapshotPosition());
+		assertEquals(50, replay.getBalances().get(3L, 2023, 12));
+	}
+
+	/**
+	 * A change recorded inside a transaction is appended when the transaction
+	 * commits, and never if it rolls back.
+	 */
+	@Test
+	public void testRecord_InsideTransactionAppendedAfterCommit() {
+		RewardLedger ledger = new RewardLedger(true, directory.toString(), 4, 2, new SimpleMeterRegistry());
+		try {
+			TransactionSynchronizationManager.initSynchronization();
+			ledger.record(RewardLedgerEventType.ACCRUAL, 1L, 2024, 5, 90, 10L);
+			assertEquals(0, ledger.replay().getPosition());
+			TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+			TransactionSynchronizationManager.clearSynchronization();
+
+			TransactionSynchronizationManager.initSynchronization();
+			ledger.record(RewardLedgerEventType.ACCRUAL, 1L, 2024, 5, 30, 11L);
+			// Rolled back: the synchronizations are dropped without a commit
+			TransactionSynchronizationManager.clearSynchronization();
+
+			LedgerReplayer.Replay replay = ledger.replay();
+			assertEquals(1, replay.getPosition());
+			assertEquals(90, replay.getBalances().get(1L, 2024, 5));
+		} finally {
+			if (TransactionSynchronizationManager.isSynchronizationActive()) {
+				TransactionSynchronizationManager.clearSynchronization();
+			}
+			ledger.close();
+		}
+	}
+
+	private List<Path> segmentFiles() throws IOException {
+		return files(".seg");
+	}
+
+	private List<Path> snapshotFiles() throws IOException {
+		return files(".snap");
+	}
+
+	private List<Path> files(String suffix) throws IOException {
+		try (Stream<Path> files = Files.list(directory)) {
+			return files.filter(file -> file.getFileName().toString().endsWith(suffix)).sorted()
+					.collect(Collectors.toList());
+		}
+	}
+}
@@ -14,6 +14,9 @@ import com.infy.RewardPointCalculator.model.RewardPoints;
 import com.infy.RewardPointCalculator.repository.CustomerRepository;
 import com.infy.RewardPointCalculator.repository.RewardPointsRepository;
 import com.infy.RewardPointCalculator.service.RewardPointsService;
+import com.infy.RewardPointCalculator.service.PointsBalanceService;
+import com.infy.RewardPointCalculator.service.SingleFlight;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import java.util.Arrays;
@@ -37,6 +40,12 @@ public class RewardPointsServiceTest {
 	@Mock
 	private CustomerRepository customerRepository;
 
+	@Mock
+	private PointsBalanceService pointsBalanceService;
+
+	@Spy
+	private SingleFlight singleFlight = new SingleFlight(1000, new SimpleMeterRegistry());
+
 	@InjectMocks
 	private RewardPointsService rewardPointsService;
 
@@ -91,6 +100,28 @@ public class RewardPointsServiceTest {
 		assertEquals(2025, result.getYear());
 	}
 
+	/**
+	 * Test case for retrieving reward points of a month that has expired.
+	 * <p>
+	 * This test verifies that the expired points are aggregated next to the
+	 * points, and that none of them are reported as available.
+	 * </p>
+	 */
+	@Test
+	public void testGetRewardPoints_Expired() {
+		rewardPoints1.setExpiredPoints(100);
+		rewardPoints2.setExpiredPoints(200);
+		when(customerRepository.findById(1L)).thenReturn(Optional.of(customer));
+		when(rewardPointsRepository.findByCustomerAndMonthAndYear(customer, 1, 2025))
+				.thenReturn(Arrays.asList(rewardPoints1, rewardPoints2));
+
+		RewardPoints result = rewardPointsService.getRewardPoints(1L, 1, 2025);
+
+		assertEquals(300, result.getPoints());
+		assertEquals(300, result.getExpiredPoints());
+		assertEquals(0, result.getAvailablePoints());
+	}
+
 	/**
 	 * Test case when no reward points are found for a given customer, month, and
 	 * year.
@@ -0,0 +1,154 @@
+package com.infy.RewardPointCalculator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.infy.RewardPointCalculator.Util.RewardPointCalculator;
+import com.infy.RewardPointCalculator.dto.RewardRuleDTO;
+import com.infy.RewardPointCalculator.dto.RewardSimulationResult;
+import com.infy.RewardPointCalculator.service.CategoryMultiplierService;
+import com.infy.RewardPointCalculator.service.RewardSimulationService;
+
+/**
+ * Unit tests for the {@link RewardSimulationService} class, run against an
+ * in-memory H2 database.
+ * <p>
+ * Customer 1 has a few hand-checked transactions, customer 2 enough
+ * transactions for the evaluation to be split into many parallel tasks.
+ * </p>
+ */
+@ExtendWith(MockitoExtension.class)
+public class RewardSimulationServiceTest {
+
+	private static final int LARGE_HISTORY = 20000;
+
+	@Spy
+	private DriverManagerDataSource dataSource = new DriverManagerDataSource(
+			"jdbc:h2:mem:simulation;NON_KEYWORDS=MONTH,YEAR;DB_CLOSE_DELAY=-1", "sa", "");
+
+	@Spy
+	private CategoryMultiplierService categoryMultiplierService = new CategoryMultiplierService();
+
+	@InjectMocks
+	private RewardSimulationService rewardSimulationService;
+
+	private JdbcTemplate jdbcTemplate;
+
+	@BeforeEach
+	public void setUp() {
+		jdbcTemplate = new JdbcTemplate(dataSource);
+		jdbcTemplate.execute("CREATE TABLE customer_transaction (id BIGINT AUTO_INCREMENT PRIMARY KEY, "
+				+ "customer_id BIGINT NOT NULL, amount DOUBLE PRECISION NOT NULL, spent_details TEXT, "
+				+ "date DATE NOT NULL)");
+
+		insertTransaction(1, 120, "2024-01-10");
+		insertTransaction(1, 75, "2024-01-20");
+		insertTransaction(1, 200, "2024-02-05");
+
+		List<Object[]> rows = new ArrayList<>();
+		for (int i = 0; i < LARGE_HISTORY; i++) {
+			rows.add(new Object[] { 2L, 40.0 + i % 150, Date.valueOf(LocalDate.of(2023, 1, 1).plusDays(i % 730)) });
+		}
+		jdbcTemplate.batchUpdate("INSERT INTO customer_transaction (customer_id, amount, date) VALUES (?, ?, ?)",
+				rows);
+
+		ReflectionTestUtils.setField(rewardSimulationService, "parallelism", 4);
+		ReflectionTestUtils.setField(rewardSimulationService, "fetchSize", 1000);
+		ReflectionTestUtils.setField(rewardSimulationService, "maxTransactions", 100000);
+		rewardSimulationService.init();
+	}
+
+	@AfterEach
+	public void tearDown() {
+		rewardSimulationService.shutdown();
+		jdbcTemplate.execute("DROP ALL OBJECTS");
+	}
+
+	/**
+	 * The current rule expressed as tiers simulates to exactly the current
+	 * points, month by month.
+	 */
+	@Test
+	public void testSimulate_CurrentRuleMatchesCurrentPoints() {
+		RewardSimulationResult result = rewardSimulationService.simulate(1L, rule(50, 1, 100, 2));
+
+		assertEquals(3, result.getTransactionCount());
+		assertEquals(2, result.getMonths().size());
+		assertEquals(2024, result.getMonths().get(0).getYear());
+		assertEquals(1, result.getMonths().get(0).getMonth());
+		assertEquals(115, result.getMonths().get(0).getCurrentPoints());
+		assertEquals(115, result.getMonths().get(0).getSimulatedPoints());
+		assertEquals(250, result.getMonths().get(1).getCurrentPoints());
+		assertEquals(0, result.getDifference());
+	}
+
+	/**
+	 * A proposed rule over a history split into many tasks sums to the same
+	 * totals as evaluating every transaction one by one.
+	 */
+	@Test
+	public void testSimulate_ParallelReductionMatchesSequentialTotals() {
+		long expectedCurrent = 0;
+		long expectedSimulated = 0;
+		for (int i = 0; i < LARGE_HISTORY; i++) {
+			double amount = 40.0 + i % 150;
+			expectedCurrent += RewardPointCalculator.calculatePoints(amount);
+			expectedSimulated += (int) (Math.max(0, amount - 25) * 3);
+		}
+
+		RewardSimulationResult result = rewardSimulationService.simulate(2L, rule(25, 3));
+
+		assertEquals(LARGE_HISTORY, result.getTransactionCount());
+		assertEquals(24, result.getMonths().size());
+		assertEquals(expectedCurrent, result.getCurrentTotal());
+		assertEquals(expectedSimulated, result.getSimulatedTotal());
+		assertEquals(expectedSimulated, result.getMonths().stream().mapToLong(month -> month.getSimulatedPoints())
+				.sum());
+	}
+
+	/**
+	 * Two tiers with the same threshold are rejected.
+	 */
+	@Test
+	public void testSimulate_DuplicateThresholdRejected() {
+		ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+				() -> rewardSimulationService.simulate(1L, rule(50, 1, 50, 2)));
+
+		assertEquals(HttpStatus.BAD_REQUEST, exception.getStatusCode());
+	}
+
+	/**
+	 * @param tiers Pairs of threshold and points per dollar.
+	 */
+	private RewardRuleDTO rule(double... tiers) {
+		List<RewardRuleDTO.Tier> list = new ArrayList<>();
+		for (int i = 0; i < tiers.length; i += 2) {
+			list.add(new RewardRuleDTO.Tier(tiers[i], tiers[i + 1]));
+		}
+		RewardRuleDTO rule = new RewardRuleDTO();
+		rule.setTiers(list);
+		return rule;
+	}
+
+	private void insertTransaction(long customerId, double amount, String date) {
+		jdbcTemplate.update("INSERT INTO customer_transaction (customer_id, amount, date) VALUES (?, ?, ?)", customerId,
+				amount, Date.valueOf(date));
+	}
+}
@@ -0,0 +1,130 @@
+package com.infy.RewardPointCalculator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import com.infy.RewardPointCalculator.pipeline.BatchEventProcessor;
+import com.infy.RewardPointCalculator.pipeline.RingBuffer;
+import com.infy.RewardPointCalculator.pipeline.Sequence;
+import com.infy.RewardPointCalculator.pipeline.WaitStrategy;
+
+/**
+ * Unit tests for the {@link RingBuffer} used by the reward pipeline.
+ * <p>
+ * These tests publish from several threads through two chained stages and
+ * verify that every event reaches both stages exactly once, in order, and that
+ * a full ring rejects new events instead of overwriting unprocessed ones.
+ * </p>
+ */
+public class RingBufferTest {
+
+	private static final int PRODUCERS = 4;
+	private static final int EVENTS_PER_PRODUCER = 50_000;
+
+	/**
+	 * Mutable slot used by the tests.
+	 */
+	static class ValueEvent {
+		long value;
+		boolean seenByFirstStage;
+	}
+
+	/**
+	 * Four producers publish concurrently. The first stage must see every event
+	 * once in sequence order, the second stage only after the first.
+	 */
+	@ParameterizedTest
+	@ValueSource(strings = { "busy-spin", "yielding", "sleeping", "blocking" })
+	public void testPublish_AllEventsReachEveryStageInOrder(String waitStrategy) throws Exception {
+		RingBuffer<ValueEvent> ringBuffer = new RingBuffer<>(ValueEvent::new, 1024,
+				WaitStrategy.fromName(waitStrategy));
+		long total = (long) PRODUCERS * EVENTS_PER_PRODUCER;
+		AtomicLong firstStageSum = new AtomicLong();
+		AtomicLong secondStageCount = new AtomicLong();
+		AtomicLong outOfOrder = new AtomicLong();
+		AtomicLong skippedFirstStage = new AtomicLong();
+		CountDownLatch done = new CountDownLatch(1);
+		long[] lastSequence = { -1 };
+
+		BatchEventProcessor<ValueEvent> first = new BatchEventProcessor<>(ringBuffer, new Sequence[0],
+				(event, sequence, endOfBatch) -> {
+					if (sequence != lastSequence[0] + 1) {
+						outOfOrder.incrementAndGet();
+					}
+					lastSequence[0] = sequence;
+					firstStageSum.addAndGet(event.value);
+					event.seenByFirstStage = true;
+				}, (failure, sequence, event) -> fail(failure));
+		BatchEventProcessor<ValueEvent> second = new BatchEventProcessor<>(ringBuffer,
+				new Sequence[] { first.getSequence() }, (event, sequence, endOfBatch) -> {
+					if (!event.seenByFirstStage) {
+						skippedFirstStage.incrementAndGet();
+					}
+					event.seenByFirstStage = false;
+					if (secondStageCount.incrementAndGet() == total) {
+						done.countDown();
+					}
+				}, (failure, sequence, event) -> fail(failure));
+		ringBuffer.addGatingSequences(second.getSequence());
+
+		List<Thread> threads = new ArrayList<>();
+		threads.add(new Thread(first));
+		threads.add(new Thread(second));
+		for (int p = 0; p < PRODUCERS; p++) {
+			threads.add(new Thread(() -> {
+				for (int i = 1; i <= EVENTS_PER_PRODUCER; i++) {
+					long sequence;
+					while ((sequence = ringBuffer.tryNext()) < 0) {
+						Thread.onSpinWait();
+					}
+					ringBuffer.get(sequence).value = i;
+					ringBuffer.publish(sequence);
+				}
+			}));
+		}
+		threads.forEach(Thread::start);
+
+		assertTrue(done.await(30, TimeUnit.SECONDS), "Events were not processed in time");
+		first.halt();
+		second.halt();
+		for (Thread thread : threads) {
+			thread.join(5000);
+		}
+
+		long expectedSum = PRODUCERS * ((long) EVENTS_PER_PRODUCER * (EVENTS_PER_PRODUCER + 1) / 2);
+		assertEquals(expectedSum, firstStageSum.get());
+		assertEquals(total, secondStageCount.get());
+		assertEquals(0, outOfOrder.get());
+		assertEquals(0, skippedFirstStage.get());
+	}
+
+	/**
+	 * A full ring rejects further claims until the consumers free a slot.
+	 */
+	@Test
+	public void testTryNext_FullRingRejected() {
+		RingBuffer<ValueEvent> ringBuffer = new RingBuffer<>(ValueEvent::new, 4, WaitStrategy.fromName("blocking"));
+		Sequence consumer = new Sequence(-1);
+		ringBuffer.addGatingSequences(consumer);
+
+		for (int i = 0; i < 4; i++) {
+			long sequence = ringBuffer.tryNext();
+			assertEquals(i, sequence);
+			ringBuffer.publish(sequence);
+		}
+		assertEquals(-1, ringBuffer.tryNext());
+		assertEquals(0, ringBuffer.remainingCapacity());
+
+		consumer.set(0);
+		assertEquals(4, ringBuffer.tryNext());
+	}
+}
@@ -0,0 +1,148 @@
+package com.infy.RewardPointCalculator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.infy.RewardPointCalculator.service.SingleFlight;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Unit tests for the {@link SingleFlight} request coalescer.
+ */
+public class SingleFlightTest {
+
+	private static final int CALLERS = 8;
+
+	private SimpleMeterRegistry meterRegistry;
+	private ExecutorService executor;
+
+	@BeforeEach
+	public void setUp() {
+		meterRegistry = new SimpleMeterRegistry();
+		executor = Executors.newFixedThreadPool(CALLERS);
+	}
+
+	@AfterEach
+	public void tearDown() {
+		executor.shutdownNow();
+	}
+
+	/**
+	 * Callers arriving while a load runs share its result, and a caller arriving
+	 * after it finished runs a new load.
+	 */
+	@Test
+	public void testExecute_CoalescesConcurrentCalls() throws Exception {
+		SingleFlight singleFlight = new SingleFlight(5000, meterRegistry);
+		CountDownLatch release = new CountDownLatch(1);
+		AtomicInteger loads = new AtomicInteger();
+
+		List<Future<Integer>> results = new ArrayList<>();
+		for (int i = 0; i < CALLERS; i++) {
+			results.add(executor.submit(() -> singleFlight.execute("test", "1", () -> {
+				loads.incrementAndGet();
+				await(release);
+				return 42;
+			})));
+		}
+		// Every caller has joined when one leader and the followers are counted
+		waitFor(() -> calls("leader") + calls("follower") == CALLERS);
+		release.countDown();
+		for (Future<Integer> result : results) {
+			assertEquals(42, result.get(5, TimeUnit.SECONDS));
+		}
+		assertEquals(1, loads.get());
+		assertEquals(0, singleFlight.inFlight());
+
+		assertEquals(7, singleFlight.execute("test", "1", () -> 7));
+		assertEquals(2, calls("leader"));
+	}
+
+	/**
+	 * A failed load fails the leader and every follower with the same
+	 * exception.
+	 */
+	@Test
+	public void testExecute_PropagatesFailure() throws Exception {
+		SingleFlight singleFlight = new SingleFlight(5000, meterRegistry);
+		CountDownLatch release = new CountDownLatch(1);
+
+		Future<Integer> leader = executor.submit(() -> singleFlight.execute("test", "2", () -> {
+			await(release);
+			throw new IllegalStateException("load failed");
+		}));
+		waitFor(() -> singleFlight.inFlight() == 1);
+		Future<Integer> follower = executor.submit(() -> singleFlight.execute("test", "2", () -> 0));
+		waitFor(() -> calls("follower") == 1);
+		release.countDown();
+
+		ExecutionException leaderFailure = assertThrows(ExecutionException.class,
+				() -> leader.get(5, TimeUnit.SECONDS));
+		ExecutionException followerFailure = assertThrows(ExecutionException.class,
+				() -> follower.get(5, TimeUnit.SECONDS));
+		assertEquals("load failed", leaderFailure.getCause().getMessage());
+		assertSame(leaderFailure.getCause(), followerFailure.getCause());
+	}
+
+	/**
+	 * A follower waiting longer than the timeout gets 504, while the leader's
+	 * load goes on.
+	 */
+	@Test
+	public void testExecute_FollowerTimesOut() throws Exception {
+		SingleFlight singleFlight = new SingleFlight(50, meterRegistry);
+		CountDownLatch release = new CountDownLatch(1);
+
+		Future<Integer> leader = executor.submit(() -> singleFlight.execute("test", "3", () -> {
+			await(release);
+			return 3;
+		}));
+		waitFor(() -> singleFlight.inFlight() == 1);
+
+		ResponseStatusException timeout = assertThrows(ResponseStatusException.class,
+				() -> singleFlight.execute("test", "3", () -> 0));
+		assertEquals(HttpStatus.GATEWAY_TIMEOUT, timeout.getStatusCode());
+		assertEquals(1, calls("timeout"));
+
+		release.countDown();
+		assertEquals(3, leader.get(5, TimeUnit.SECONDS));
+	}
+
+	private double calls(String role) {
+		return meterRegistry.find("rewards.singleflight.calls").tag("role", role).counters().stream()
+				.mapToDouble(counter -> counter.count()).sum();
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 5000;
+		while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+			Thread.sleep(5);
+		}
+		assertTrue(condition.getAsBoolean());
+	}
+}
@@ -0,0 +1,99 @@
+package com.infy.RewardPointCalculator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import com.infy.RewardPointCalculator.sql.SqlBudget;
+import com.infy.RewardPointCalculator.sql.SqlBudgetFilter;
+import com.infy.RewardPointCalculator.sql.SqlStatementTracker;
+import com.infy.RewardPointCalculator.sql.StatementCountingDataSource;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+
+/**
+ * Unit tests for the SQL statement counting and the {@link SqlBudgetFilter},
+ * run against an in-memory H2 database.
+ */
+public class SqlBudgetFilterTest {
+
+	private static final DataSource DATA_SOURCE = StatementCountingDataSource.wrap(
+			new DriverManagerDataSource("jdbc:h2:mem:sqlbudget;DB_CLOSE_DELAY=-1", "sa", ""));
+
+	private final JdbcTemplate jdbcTemplate = new JdbcTemplate(DATA_SOURCE);
+	private SimpleMeterRegistry meterRegistry;
+
+	@BeforeEach
+	public void setUp() {
+		meterRegistry = new SimpleMeterRegistry();
+		jdbcTemplate.execute("CREATE TABLE customer (id BIGINT PRIMARY KEY, email VARCHAR(100))");
+		jdbcTemplate.update("INSERT INTO customer VALUES (1, 'a@b.com'), (2, 'c@d.com'), (3, 'e@f.com')");
+	}
+
+	@AfterEach
+	public void tearDown() {
+		jdbcTemplate.execute("DROP ALL OBJECTS");
+	}
+
+	/**
+	 * Statements are counted per text, also through prepared statements, and a
+	 * nested count adds to the enclosing one.
+	 */
+	@Test
+	public void testCount_CountsStatementsPerText() {
+		SqlStatementTracker.Counted<Integer> outer = SqlStatementTracker.count(() -> {
+			jdbcTemplate.queryForObject("SELECT COUNT(*) FROM customer", Integer.class);
+			SqlStatementTracker.Counted<String> inner = SqlStatementTracker.count(() -> jdbcTemplate
+					.queryForObject("SELECT email FROM customer WHERE id = ?", String.class, 1L));
+			assertEquals(1, inner.statements().getTotal());
+			return inner.statements().getTotal();
+		});
+
+		assertEquals(2, outer.statements().getTotal());
+		assertEquals(1, outer.statements().getExecutions().get("SELECT email FROM customer WHERE id = ?"));
+	}
+
+	/**
+	 * A request over its declared budget and with a repeated statement is
+	 * counted as a violation and an N+1 suspect.
+	 */
+	@Test
+	public void testDoFilter_FlagsBudgetViolationAndRepeats() throws Exception {
+		SqlBudgetFilter filter = new SqlBudgetFilter(true, 20, 3, meterRegistry);
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/customers/emails");
+		request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/customers/emails");
+		request.setAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE,
+				new HandlerMethod(this, getClass().getDeclaredMethod("emails")));
+
+		FilterChain chain = (req, res) -> emails();
+		filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+		String endpoint = "GET /api/customers/emails";
+		assertEquals(4.0, meterRegistry.get("rewards.sql.statements").tag("endpoint", endpoint).summary()
+				.totalAmount());
+		assertEquals(1.0, meterRegistry.get("rewards.sql.budget.violations").tag("endpoint", endpoint).counter()
+				.count());
+		assertEquals(1.0, meterRegistry.get("rewards.sql.n_plus_one").tag("endpoint", endpoint).counter().count());
+	}
+
+	/**
+	 * Loads the customer IDs and then each email on its own, the N+1 pattern.
+	 */
+	@SqlBudget(2)
+	public void emails() {
+		for (Long id : jdbcTemplate.queryForList("SELECT id FROM customer", Long.class)) {
+			jdbcTemplate.queryForObject("SELECT email FROM customer WHERE id = ?", String.class, id);
+		}
+	}
+}
@@ -0,0 +1,103 @@
+package com.infy.RewardPointCalculator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import com.infy.RewardPointCalculator.datagen.BulkDataLoader;
+import com.infy.RewardPointCalculator.datagen.DataGenSpec;
+import com.infy.RewardPointCalculator.datagen.SyntheticDataGenerator;
+
+/**
+ * Unit tests for the benchmark data generator and its H2 bulk load.
+ */
+public class SyntheticDataGeneratorTest {
+
+	private static final DataSource DATA_SOURCE = new DriverManagerDataSource(
+			"jdbc:h2:mem:datagen;DB_CLOSE_DELAY=-1", "sa", "");
+
+	private final JdbcTemplate jdbcTemplate = new JdbcTemplate(DATA_SOURCE);
+
+	@AfterEach
+	public void tearDown() {
+		jdbcTemplate.execute("DROP ALL OBJECTS");
+	}
+
+	/**
+	 * The same seed gives the same transactions, another seed different ones.
+	 */
+	@Test
+	public void testTransactions_DeterministicPerSeed() throws Exception {
+		assertEquals(transactions(7), transactions(7));
+		assertNotEquals(transactions(7), transactions(8));
+	}
+
+	/**
+	 * Amounts cluster around the reward tiers, dates stay in range, and heavy
+	 * customers make the transaction counts skewed.
+	 */
+	@Test
+	public void testTransactions_FollowDistributions() throws Exception {
+		DataGenSpec spec = spec(1, 2000);
+		long[] perCustomer = new long[spec.customers()];
+		long[] bands = new long[3];
+		new SyntheticDataGenerator(spec).transactions(0, (customerId, amount, spentDetails, date) -> {
+			perCustomer[(int) customerId]++;
+			bands[amount < 50 ? 0 : amount <= 100 ? 1 : 2]++;
+			assertFalse(date.isBefore(spec.from()) || date.isAfter(spec.to()));
+		});
+
+		long total = bands[0] + bands[1] + bands[2];
+		assertEquals(0.38, (double) bands[1] / total, 0.03);
+		long max = 0;
+		for (long count : perCustomer) {
+			max = Math.max(max, count);
+		}
+		assertTrue(max > 5 * spec.meanTransactions());
+	}
+
+	/**
+	 * The loader inserts the customers after the existing ones, with their
+	 * transactions, and moves the ID sequence past them.
+	 */
+	@Test
+	public void testLoad_BatchesIntoH2() throws Exception {
+		jdbcTemplate.execute("CREATE TABLE customer (id BIGINT AUTO_INCREMENT PRIMARY KEY, "
+				+ "first_name VARCHAR(255), last_name VARCHAR(255), email VARCHAR(255) UNIQUE, password VARCHAR(255))");
+		jdbcTemplate.execute("CREATE TABLE customer_transaction (id BIGINT AUTO_INCREMENT PRIMARY KEY, "
+				+ "customer_id BIGINT NOT NULL, amount DOUBLE PRECISION, spent_details VARCHAR(255), date DATE, "
+				+ "version BIGINT)");
+		jdbcTemplate.update("INSERT INTO customer (id, email) VALUES (5, 'existing@example.com')");
+
+		SyntheticDataGenerator generator = new SyntheticDataGenerator(spec(3, 50));
+		BulkDataLoader.Summary summary = new BulkDataLoader(DATA_SOURCE, 64).load(generator, "hash");
+
+		assertEquals(6, summary.firstCustomerId());
+		assertEquals(50, summary.customers());
+		assertEquals(51, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM customer", Integer.class));
+		assertEquals(summary.transactions(),
+				jdbcTemplate.queryForObject("SELECT COUNT(*) FROM customer_transaction", Long.class));
+		jdbcTemplate.update("INSERT INTO customer (email) VALUES ('next@example.com')");
+		assertEquals(56, jdbcTemplate.queryForObject("SELECT MAX(id) FROM customer", Long.class));
+	}
+
+	private static DataGenSpec spec(long seed, int customers) {
+		return new DataGenSpec(seed, customers, 10, 0.02, 25, LocalDate.of(2023, 1, 1), LocalDate.of(2024, 12, 31));
+	}
+
+	private static List<String> transactions(long seed) throws Exception {
+		List<String> rows = new ArrayList<>();
+		new SyntheticDataGenerator(spec(seed, 100)).transactions(1,
+				(customerId, amount, spentDetails, date) -> rows.add(customerId + "," + amount + "," + date));
+		return rows;
+	}
+}
@@ -0,0 +1,79 @@
+package com.infy.RewardPointCalculator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import com.infy.RewardPointCalculator.logging.TailCaptureTurboFilter;
+import com.infy.RewardPointCalculator.logging.TailLogBuffer;
+import com.infy.RewardPointCalculator.logging.TailLoggingFilter;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import jakarta.servlet.FilterChain;
+
+/**
+ * Unit tests for the tail-based logging of requests.
+ */
+public class TailLoggingFilterTest {
+
+	@AfterEach
+	public void tearDown() {
+		TailLogBuffer.close();
+	}
+
+	/**
+	 * While a buffer is open, discarded DEBUG events are kept, the newest ones
+	 * when the buffer is full, and events the logger writes anyway or of
+	 * loggers outside the application are not.
+	 */
+	@Test
+	public void testCapture_KeepsDiscardedDebugEvents() {
+		LoggerContext context = new LoggerContext();
+		context.addTurboFilter(new TailCaptureTurboFilter());
+		context.getTurboFilterList().forEach(filter -> filter.start());
+		Logger logger = context.getLogger("com.infy.RewardPointCalculator.service.ExampleService");
+		logger.setLevel(Level.INFO);
+		Logger libraryLogger = context.getLogger("org.hibernate.SQL");
+		libraryLogger.setLevel(Level.INFO);
+
+		logger.debug("Before request {}", 0);
+		TailLogBuffer.open(2);
+		logger.debug("Loaded customer {}", 1);
+		logger.debug("Loaded customer {}", 2);
+		logger.debug("Loaded customer {}", 3);
+		logger.info("Written anyway");
+		libraryLogger.debug("select {}", 4);
+		List<TailLogBuffer.Entry> entries = TailLogBuffer.close();
+
+		assertEquals(2, entries.size());
+		assertEquals("Loaded customer 2", entries.get(0).message());
+		assertEquals("Loaded customer 3", entries.get(1).message());
+		assertEquals("DEBUG", entries.get(1).level());
+		assertFalse(TailLogBuffer.isOpen());
+	}
+
+	/**
+	 * The filter closes the buffer of every request, successful or not.
+	 */
+	@Test
+	public void testDoFilter_ClosesBuffer() throws Exception {
+		TailLoggingFilter filter = new TailLoggingFilter(true, 8);
+		MockHttpServletResponse response = new MockHttpServletResponse();
+
+		FilterChain chain = (request, res) -> {
+			assertTrue(TailLogBuffer.isOpen());
+			((MockHttpServletResponse) res).setStatus(500);
+		};
+		filter.doFilter(new MockHttpServletRequest("GET", "/api"), response, chain);
+
+		assertFalse(TailLogBuffer.isOpen());
+		assertEquals(500, response.getStatus());
+	}
+}
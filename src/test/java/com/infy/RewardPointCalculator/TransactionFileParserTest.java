@@ -0,0 +1,185 @@
+package com.infy.RewardPointCalculator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.infy.RewardPointCalculator.importer.CopyBuffer;
+import com.infy.RewardPointCalculator.importer.MonthlyDeltas;
+import com.infy.RewardPointCalculator.importer.ParsedTransaction;
+import com.infy.RewardPointCalculator.importer.TransactionFileParser;
+
+/**
+ * Unit tests for the {@link TransactionFileParser} and the
+ * {@link MonthlyDeltas} the import sums the points in.
+ */
+public class TransactionFileParserTest {
+
+	private static final LocalDate TODAY = LocalDate.of(2024, 6, 30);
+
+	@TempDir
+	private Path directory;
+
+	/**
+	 * Chunks end at line boundaries and together cover the whole file.
+	 */
+	@Test
+	public void testSplit_EndsChunksAtLineBoundaries() throws Exception {
+		StringBuilder content = new StringBuilder("customer_id,amount,transaction_date,spent_details\n");
+		for (int i = 1; i <= 200; i++) {
+			content.append(i).append(",12.5,2024-01-0").append(i % 9 + 1).append(",item ").append(i).append('\n');
+		}
+		Path file = write(content.toString());
+
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			List<TransactionFileParser.Chunk> chunks = TransactionFileParser.split(channel, 100);
+			assertTrue(chunks.size() > 10);
+			byte[] bytes = Files.readAllBytes(file);
+			long expectedStart = 0;
+			long accepted = 0;
+			TransactionFileParser parser = new TransactionFileParser(TODAY);
+			for (TransactionFileParser.Chunk chunk : chunks) {
+				assertEquals(expectedStart, chunk.start());
+				assertEquals('\n', bytes[(int) chunk.end() - 1]);
+				expectedStart = chunk.end();
+				accepted += parser.parse(channel, chunk, new Collector());
+			}
+			assertEquals(bytes.length, expectedStart);
+			assertEquals(200, accepted);
+		}
+	}
+
+	/**
+	 * Valid lines are parsed in place and written as COPY rows, invalid ones are
+	 * rejected with the message of the broken rule.
+	 */
+	@Test
+	public void testParse_ValidatesLikeTheTransactionDto() throws Exception {
+		Path file = write("customer_id,amount,transaction_date,spent_details\r\n"
+				+ "1042,120.50,2024-03-14,Weekly grocery shopping\r\n"
+				+ "1043,75,2024-02-29,\"Dinner at \"\"The Anchor\"\", with friends\"\n"
+				+ "\n"
+				+ "1044,0.001,2024-03-14,coffee\n"
+				+ "1045,-5,2024-03-14,refund\n"
+				+ "1046,abc,2024-03-14,typo\n"
+				+ "1047,10,2023-02-29,no leap day\n"
+				+ "1048,10,2024-07-01,tomorrow\n"
+				+ "1049,10,2024-03-14,\n"
+				+ "1050,10,2024-03-14,\"open quote\n"
+				+ ",10,2024-03-14,no customer\n"
+				+ "1051,10\n");
+
+		Collector collector = parse(file);
+
+		assertEquals(List.of("1042,120.50,\"Weekly grocery shopping\",2024-03-14,0,100",
+				"1043,75,\"Dinner at \"\"The Anchor\"\", with friends\",2024-02-29,0,100"), collector.copyRows);
+		assertEquals(List.of("Weekly grocery shopping", "Dinner at \"The Anchor\", with friends"),
+				collector.details);
+		assertEquals(120.5, collector.amounts.get(0));
+		assertEquals(List.of(TransactionFileParser.AMOUNT_NOT_POSITIVE, TransactionFileParser.AMOUNT_NOT_POSITIVE,
+				TransactionFileParser.AMOUNT_INVALID, TransactionFileParser.DATE_INVALID,
+				TransactionFileParser.DATE_IN_FUTURE, TransactionFileParser.DETAILS_REQUIRED,
+				TransactionFileParser.DETAILS_UNTERMINATED, TransactionFileParser.CUSTOMER_REQUIRED,
+				TransactionFileParser.MALFORMED), collector.reasons);
+		assertEquals("\"1044,0.001,2024-03-14,coffee\"", collector.rejectedLines.get(0));
+	}
+
+	/**
+	 * The parsed amount is exactly what Double.parseDouble reads.
+	 */
+	@Test
+	public void testParse_ReadsAmountsLikeParseDouble() throws Exception {
+		String[] amounts = { "0.01", "0.1", "19.99", "100", "100.005", "123456789.123456", "7.", ".5" };
+		StringBuilder content = new StringBuilder();
+		for (String amount : amounts) {
+			content.append("1,").append(amount).append(",2024-01-01,item\n");
+		}
+		Collector collector = parse(write(content.toString()));
+
+		assertEquals(amounts.length, collector.amounts.size());
+		for (int i = 0; i < amounts.length; i++) {
+			assertEquals(Double.parseDouble(amounts[i]), collector.amounts.get(i), amounts[i]);
+		}
+	}
+
+	/**
+	 * Points are summed per customer and month, and visited in customer, year
+	 * and month order.
+	 */
+	@Test
+	public void testMonthlyDeltas_SumsPerCustomerMonthInOrder() {
+		MonthlyDeltas deltas = new MonthlyDeltas();
+		for (int i = 0; i < 5000; i++) {
+			deltas.add(5000 - i, 2024, i % 12 + 1, 2);
+		}
+		deltas.add(7, 2023, 12, 5);
+		deltas.add(7, 2023, 12, 5);
+		assertEquals(5001, deltas.size());
+
+		List<String> visited = new ArrayList<>();
+		long[] previous = { -1 };
+		deltas.forEach((customerId, year, month, points, transactions) -> {
+			long key = customerId * 1_000_000 + year * 100 + month;
+			assertTrue(key > previous[0]);
+			previous[0] = key;
+			if (customerId == 7) {
+				visited.add(year + "-" + month + ":" + points + "/" + transactions);
+			}
+		});
+		assertEquals(List.of("2023-12:10/2", "2024-2:2/1"), visited);
+	}
+
+	private Path write(String content) throws Exception {
+		Path file = directory.resolve("transactions.csv");
+		Files.writeString(file, content, StandardCharsets.UTF_8);
+		return file;
+	}
+
+	private Collector parse(Path file) throws Exception {
+		Collector collector = new Collector();
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			new TransactionFileParser(TODAY).parse(channel, new TransactionFileParser.Chunk(0, 0, channel.size()),
+					collector);
+		}
+		return collector;
+	}
+
+	/**
+	 * Keeps what the parser handed out, as Strings.
+	 */
+	private static class Collector implements TransactionFileParser.LineHandler {
+
+		private final List<String> copyRows = new ArrayList<>();
+		private final List<String> details = new ArrayList<>();
+		private final List<Double> amounts = new ArrayList<>();
+		private final List<String> reasons = new ArrayList<>();
+		private final List<String> rejectedLines = new ArrayList<>();
+
+		@Override
+		public void accept(ParsedTransaction transaction) {
+			CopyBuffer buffer = new CopyBuffer(16);
+			transaction.appendCopyRow(buffer, 100);
+			copyRows.add(new String(buffer.array(), 0, buffer.size() - 1, StandardCharsets.UTF_8));
+			details.add(transaction.getSpentDetailsText().toString());
+			amounts.add(transaction.getAmount());
+		}
+
+		@Override
+		public void reject(ParsedTransaction line, String reason) {
+			CopyBuffer buffer = new CopyBuffer(16);
+			line.appendLine(buffer);
+			rejectedLines.add(new String(buffer.array(), 0, buffer.size(), StandardCharsets.UTF_8));
+			reasons.add(reason);
+		}
+	}
+}
@@ -0,0 +1,84 @@
+package com.infy.RewardPointCalculator;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.infy.RewardPointCalculator.repository.ImportCheckpointRepository;
+import com.infy.RewardPointCalculator.service.TransactionImportService;
+
+/**
+ * Unit tests for the file checks of the {@link TransactionImportService}.
+ */
+@ExtendWith(MockitoExtension.class)
+public class TransactionImportServiceTest {
+
+	@Mock
+	private ImportCheckpointRepository checkpointRepository;
+
+	@InjectMocks
+	private TransactionImportService transactionImportService;
+
+	@TempDir
+	Path tempDir;
+
+	private Path importDir;
+
+	@BeforeEach
+	public void setUp() throws Exception {
+		importDir = Files.createDirectory(tempDir.resolve("incoming"));
+		ReflectionTestUtils.setField(transactionImportService, "importDir", importDir.toString());
+		Files.writeString(tempDir.resolve("secret.csv"), "1,100.00,Groceries,2024-01-15\n");
+	}
+
+	/**
+	 * Absolute paths and parent references are rejected before any file is
+	 * opened.
+	 */
+	@Test
+	public void testStart_RejectsPathsOutsideImportDir() {
+		assertBadRequest(tempDir.resolve("secret.csv").toString());
+		assertBadRequest("../secret.csv");
+		assertBadRequest("nested/../../secret.csv");
+		assertBadRequest("");
+		verifyNoInteractions(checkpointRepository);
+	}
+
+	/**
+	 * A link inside the import directory pointing out of it is rejected.
+	 */
+	@Test
+	public void testStart_RejectsLinksLeavingImportDir() throws Exception {
+		Files.createSymbolicLink(importDir.resolve("link.csv"), tempDir.resolve("secret.csv"));
+
+		assertBadRequest("link.csv");
+		verifyNoInteractions(checkpointRepository);
+	}
+
+	/**
+	 * A missing file in the import directory is rejected.
+	 */
+	@Test
+	public void testStart_RejectsMissingFile() {
+		assertBadRequest("missing.csv");
+	}
+
+	private void assertBadRequest(String file) {
+		ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+				() -> transactionImportService.start(file));
+		assertEquals(HttpStatus.BAD_REQUEST, exception.getStatusCode());
+	}
+}